@@ -5,7 +5,11 @@ import ai.lzy.iam.resources.AuthResource;
 import ai.lzy.iam.resources.subjects.Subject;
 import ai.lzy.util.auth.credentials.Credentials;
 import ai.lzy.util.auth.exceptions.AuthException;
+import ai.lzy.util.auth.exceptions.AuthNotFoundException;
+import ai.lzy.util.auth.exceptions.AuthPermissionDeniedException;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 
 public interface AccessClient {
@@ -17,4 +21,24 @@ public interface AccessClient {
             AuthResource resourceId,
             AuthPermission permission) throws AuthException;
 
+    /**
+     * Checks permission of subject to each of resources.
+     * Denied permission is returned as false in the same order as resources, instead of exception.
+     */
+    default List<Boolean> hasResourcePermissions(
+            Subject subject,
+            List<? extends AuthResource> resources,
+            AuthPermission permission) throws AuthException
+    {
+        var result = new ArrayList<Boolean>(resources.size());
+        for (var resource : resources) {
+            try {
+                result.add(hasResourcePermission(subject, resource, permission));
+            } catch (AuthNotFoundException | AuthPermissionDeniedException e) {
+                result.add(false);
+            }
+        }
+        return result;
+    }
+
 }
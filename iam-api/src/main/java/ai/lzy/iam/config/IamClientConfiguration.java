@@ -11,6 +11,8 @@ public final class IamClientConfiguration {
     private String address;
     private String internalUserName;
     private String internalUserPrivateKey;
+    // Max time to trust authenticated JWT without IAM, cache of authenticated credentials is disabled by default
+    private Duration authCacheTtl = Duration.ZERO;
 
     public RenewableJwt createRenewableToken(Clock clock) {
         try {
@@ -37,6 +39,10 @@ public final class IamClientConfiguration {
         return internalUserPrivateKey;
     }
 
+    public Duration getAuthCacheTtl() {
+        return authCacheTtl;
+    }
+
     public void setAddress(String address) {
         this.address = address;
     }
@@ -49,11 +55,16 @@ public final class IamClientConfiguration {
         this.internalUserPrivateKey = internalUserPrivateKey;
     }
 
+    public void setAuthCacheTtl(Duration authCacheTtl) {
+        this.authCacheTtl = authCacheTtl;
+    }
+
     @Override
     public String toString() {
         return "IamClientConfiguration{" +
                "address='" + address + '\'' +
                ", internalUserName='" + internalUserName + '\'' +
+               ", authCacheTtl=" + authCacheTtl +
                '}';
     }
 }
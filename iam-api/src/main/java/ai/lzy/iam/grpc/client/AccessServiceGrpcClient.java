@@ -11,21 +11,50 @@ import ai.lzy.util.auth.exceptions.AuthException;
 import ai.lzy.util.grpc.GrpcUtils;
 import ai.lzy.v1.iam.LACS;
 import ai.lzy.v1.iam.LzyAccessServiceGrpc;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.grpc.Channel;
+import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 
 public class AccessServiceGrpcClient implements AccessClient {
+    public static final Duration DEFAULT_CACHE_TTL = Duration.ofSeconds(10);
+    private static final int DECISIONS_CACHE_SIZE = 10_000;
+
     private final String clientName;
     private final Channel channel;
+    private final Duration cacheTtl;
     private final LzyAccessServiceGrpc.LzyAccessServiceBlockingStub accessService;
 
+    // Granted permissions, trusted for a short time without IAM. Not shared between tokens,
+    // because IAM checks whether token owner may authorize on the resource.
+    private final Cache<Decision, Boolean> granted;
+    private volatile boolean batchUnsupported = false;
+
     public AccessServiceGrpcClient(String clientName, Channel channel, Supplier<Credentials> tokenSupplier) {
+        this(clientName, channel, tokenSupplier, DEFAULT_CACHE_TTL);
+    }
+
+    /**
+     * @param cacheTtl max time to trust granted permission without IAM, zero disables cache
+     */
+    public AccessServiceGrpcClient(String clientName, Channel channel, Supplier<Credentials> tokenSupplier,
+                                   Duration cacheTtl)
+    {
         this.clientName = clientName;
         this.channel = channel;
+        this.cacheTtl = cacheTtl;
         this.accessService = GrpcUtils.newBlockingClient(
             LzyAccessServiceGrpc.newBlockingStub(channel), clientName, () -> tokenSupplier.get().token());
+        this.granted = CacheBuilder.newBuilder()
+            .maximumSize(cacheTtl.isZero() ? 0 : DECISIONS_CACHE_SIZE)
+            .expireAfterWrite(cacheTtl)
+            .build();
     }
 
     public AccessServiceGrpcClient(String clientName, Channel channel) {
@@ -34,22 +63,102 @@ public class AccessServiceGrpcClient implements AccessClient {
 
     @Override
     public AccessClient withToken(Supplier<Credentials> tokenSupplier) {
-        return new AccessServiceGrpcClient(clientName, channel, tokenSupplier);
+        return new AccessServiceGrpcClient(clientName, channel, tokenSupplier, cacheTtl);
     }
 
     @Override
     public boolean hasResourcePermission(Subject subject, AuthResource resource, AuthPermission permission)
         throws AuthException
     {
+        var decision = new Decision(subject.id(), resource.type(), resource.resourceId(), permission);
+        if (granted.getIfPresent(decision) != null) {
+            return true;
+        }
+
+        try {
+            var subj = accessService.authorize(authorizeRequest(subject, resource, permission));
+            var allowed = subj.getId().equals(subject.id());
+            if (allowed) {
+                granted.put(decision, true);
+            }
+            return allowed;
+        } catch (StatusRuntimeException e) {
+            throw AuthException.fromStatusRuntimeException(e);
+        }
+    }
+
+    @Override
+    public List<Boolean> hasResourcePermissions(Subject subject, List<? extends AuthResource> resources,
+                                                AuthPermission permission) throws AuthException
+    {
+        var result = new ArrayList<Boolean>(resources.size());
+        var missed = new ArrayList<Integer>();
+        var request = LACS.AuthorizeManyRequest.newBuilder();
+
+        for (int i = 0; i < resources.size(); i++) {
+            var resource = resources.get(i);
+            var decision = new Decision(subject.id(), resource.type(), resource.resourceId(), permission);
+            if (granted.getIfPresent(decision) != null) {
+                result.add(true);
+            } else {
+                result.add(false);
+                missed.add(i);
+                request.addRequests(authorizeRequest(subject, resource, permission));
+            }
+        }
+
+        if (missed.isEmpty()) {
+            return result;
+        }
+
+        if (batchUnsupported) {
+            return fallbackPermissions(subject, resources, permission, result, missed);
+        }
+
+        final LACS.AuthorizeManyResponse response;
         try {
-            var subj = accessService.authorize(LACS.AuthorizeRequest.newBuilder()
-                    .setSubject(ProtoConverter.from(subject))
-                    .setPermission(permission.permission())
-                    .setResource(ProtoConverter.from(resource))
-                    .build());
-            return subj.getId().equals(subject.id());
+            response = accessService.authorizeMany(request.build());
         } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.UNIMPLEMENTED) {
+                // IAM of older version
+                batchUnsupported = true;
+                return fallbackPermissions(subject, resources, permission, result, missed);
+            }
             throw AuthException.fromStatusRuntimeException(e);
         }
+
+        for (int j = 0; j < missed.size(); j++) {
+            if (response.getAllowed(j)) {
+                var resource = resources.get(missed.get(j));
+                granted.put(new Decision(subject.id(), resource.type(), resource.resourceId(), permission), true);
+                result.set(missed.get(j), true);
+            }
+        }
+
+        return result;
     }
+
+    private List<Boolean> fallbackPermissions(Subject subject, List<? extends AuthResource> resources,
+                                              AuthPermission permission, List<Boolean> result, List<Integer> missed)
+        throws AuthException
+    {
+        var checked = AccessClient.super.hasResourcePermissions(subject,
+            missed.stream().map(resources::get).toList(), permission);
+        for (int j = 0; j < missed.size(); j++) {
+            result.set(missed.get(j), checked.get(j));
+        }
+        return result;
+    }
+
+    private static LACS.AuthorizeRequest authorizeRequest(Subject subject, AuthResource resource,
+                                                          AuthPermission permission)
+    {
+        return LACS.AuthorizeRequest.newBuilder()
+            .setSubject(ProtoConverter.from(subject))
+            .setPermission(permission.permission())
+            .setResource(ProtoConverter.from(resource))
+            .build();
+    }
+
+    private record Decision(String subjectId, String resourceType, String resourceId, AuthPermission permission) {}
 }
@@ -10,24 +10,50 @@ import ai.lzy.v1.iam.LAS;
 import ai.lzy.v1.iam.LzyAuthenticateServiceGrpc;
 import io.grpc.Channel;
 import io.grpc.StatusRuntimeException;
+import jakarta.annotation.Nullable;
+
+import java.time.Duration;
 
 public class AuthenticateServiceGrpcClient implements AuthenticateService {
 
     private final String clientName;
     private final LzyAuthenticateServiceGrpc.LzyAuthenticateServiceBlockingStub stub;
+    @Nullable
+    private final AuthenticationCache cache;
 
     public AuthenticateServiceGrpcClient(String clientName, Channel channel) {
+        this(clientName, channel, Duration.ZERO);
+    }
+
+    /**
+     * @param cacheTtl max time to trust successfully authenticated JWT without IAM, zero disables cache
+     */
+    public AuthenticateServiceGrpcClient(String clientName, Channel channel, Duration cacheTtl) {
         this.clientName = clientName;
         this.stub = LzyAuthenticateServiceGrpc.newBlockingStub(channel);
+        this.cache = cacheTtl.isZero() ? null : new AuthenticationCache(cacheTtl, AuthenticationCache.DEFAULT_MAX_SIZE);
     }
 
     @Override
     public Subject authenticate(Credentials credentials) throws AuthException {
+        if (cache != null) {
+            var subject = cache.get(credentials);
+            if (subject != null) {
+                return subject;
+            }
+        }
+
+        var generation = cache != null ? cache.generation() : 0;
         try {
             var authenticateService = GrpcUtils.newBlockingClient(stub, clientName, credentials::token);
 
             var subject = authenticateService.authenticate(LAS.AuthenticateRequest.getDefaultInstance());
-            return ProtoConverter.to(subject);
+            var result = ProtoConverter.to(subject);
+            if (cache != null) {
+                // Credentials removed while they were authenticated are not cached
+                cache.put(credentials, result, generation);
+            }
+            return result;
         } catch (StatusRuntimeException e) {
             throw AuthException.fromStatusRuntimeException(e);
         }
@@ -0,0 +1,155 @@
+package ai.lzy.iam.grpc.client;
+
+import ai.lzy.iam.resources.subjects.Subject;
+import ai.lzy.util.auth.credentials.Credentials;
+import ai.lzy.util.auth.credentials.JwtCredentials;
+import ai.lzy.util.auth.credentials.JwtUtils;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of successfully authenticated JWT credentials, keyed by digest of token.
+ * Entry lives no longer than TTL and expiration time of token. Entries of subject are dropped when its
+ * credentials or the subject itself are removed through {@link SubjectServiceGrpcClient} of this process,
+ * removed credentials of other processes can be accepted at most for TTL.
+ * Other kinds of credentials (e.g. one-time tokens) are never cached.
+ */
+final class AuthenticationCache {
+    static final int DEFAULT_MAX_SIZE = 10_000;
+
+    // All caches of process, so subject removed by any client of this process is invalidated in all of them
+    private static final Set<AuthenticationCache> CACHES = Collections.synchronizedSet(
+        Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private final Cache<HashCode, Entry> cache;
+    // Cached tokens by subject id, so they are invalidated without scan of the whole cache
+    private final ConcurrentHashMap<String, Set<HashCode>> keysBySubject = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final Clock clock;
+    private long generation = 0;  // Guarded by this, changed on every invalidation
+
+    AuthenticationCache(Duration ttl, int maxSize) {
+        this(ttl, maxSize, Clock.systemUTC());
+    }
+
+    AuthenticationCache(Duration ttl, int maxSize, Clock clock) {
+        this.cache = CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .removalListener((RemovalNotification<HashCode, Entry> n) -> {
+                // Replaced entry is indexed again before replacement
+                if (n.getCause() != RemovalCause.REPLACED && n.getKey() != null && n.getValue() != null) {
+                    unindex(n.getValue().subject().id(), n.getKey());
+                }
+            })
+            .build();
+        this.ttl = ttl;
+        this.clock = clock;
+        CACHES.add(this);
+    }
+
+    /**
+     * Drops cached credentials of subject in all caches of process
+     */
+    static void invalidateSubject(String subjectId) {
+        synchronized (CACHES) {
+            CACHES.forEach(cache -> cache.invalidate(subjectId));
+        }
+    }
+
+    @Nullable
+    Subject get(Credentials credentials) {
+        if (!(credentials instanceof JwtCredentials)) {
+            return null;
+        }
+
+        var key = key(credentials);
+        var entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+
+        if (!clock.instant().isBefore(entry.expiresAt())) {
+            cache.invalidate(key);
+            return null;
+        }
+
+        return entry.subject();
+    }
+
+    /**
+     * Generation of cache, must be taken before authentication of credentials to put
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Stores authenticated credentials, if cache was not invalidated since generation was taken
+     */
+    synchronized void put(Credentials credentials, Subject subject, long generation) {
+        if (!(credentials instanceof JwtCredentials) || this.generation != generation) {
+            return;
+        }
+
+        var expiresAt = clock.instant().plus(ttl);
+
+        var tokenExpiresAt = tokenExpiration(credentials.token());
+        if (tokenExpiresAt != null && tokenExpiresAt.isBefore(expiresAt)) {
+            expiresAt = tokenExpiresAt;
+        }
+
+        var key = key(credentials);
+        keysBySubject.computeIfAbsent(subject.id(), id -> ConcurrentHashMap.newKeySet()).add(key);
+        cache.put(key, new Entry(subject, expiresAt));
+    }
+
+    synchronized void invalidate(String subjectId) {
+        generation++;
+        var keys = keysBySubject.remove(subjectId);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    private void unindex(String subjectId, HashCode key) {
+        keysBySubject.computeIfPresent(subjectId, (id, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static HashCode key(Credentials credentials) {
+        return Hashing.sha256().hashString(credentials.token(), StandardCharsets.UTF_8);
+    }
+
+    @Nullable
+    private static Instant tokenExpiration(String token) {
+        try {
+            var payload = JwtUtils.parseJwt(token);
+            if (payload != null && payload.get(Claims.EXPIRATION) instanceof Number exp) {
+                return Instant.ofEpochSecond(exp.longValue());
+            }
+        } catch (RuntimeException e) {
+            // token was accepted by IAM, so only TTL is applied if it cannot be parsed here
+        }
+        return null;
+    }
+
+    private record Entry(Subject subject, Instant expiresAt) {}
+}
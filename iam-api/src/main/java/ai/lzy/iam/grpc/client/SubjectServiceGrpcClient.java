@@ -115,6 +115,7 @@ public class SubjectServiceGrpcClient implements SubjectServiceClient {
                 LSS.RemoveSubjectRequest.newBuilder()
                     .setSubjectId(subjectId)
                     .build());
+            AuthenticationCache.invalidateSubject(subjectId);
         } catch (StatusRuntimeException e) {
             throw AuthException.fromStatusRuntimeException(e);
         }
@@ -161,6 +162,7 @@ public class SubjectServiceGrpcClient implements SubjectServiceClient {
                     .setSubjectId(subjectId)
                     .setCredentialsName(name)
                     .build());
+            AuthenticationCache.invalidateSubject(subjectId);
         } catch (StatusRuntimeException e) {
             throw AuthException.fromStatusRuntimeException(e);
         }
@@ -2,6 +2,8 @@ package ai.lzy.longrunning;
 
 import ai.lzy.v1.longrunning.LongRunning;
 import ai.lzy.v1.longrunning.LongRunningServiceGrpc.LongRunningServiceBlockingStub;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 
 import java.time.Duration;
 import java.util.concurrent.locks.LockSupport;
@@ -9,6 +11,9 @@ import java.util.concurrent.locks.LockSupport;
 public enum OperationGrpcServiceUtils {
     ;
 
+    // Server waits at most so long in one WaitOperation call
+    private static final Duration MAX_WAIT_CALL_TIMEOUT = Duration.ofSeconds(10);
+
     public static LongRunning.Operation awaitOperationDone(LongRunningServiceBlockingStub grpcClient,
                                                            String operationId, Duration timeout)
     {
@@ -16,17 +21,45 @@ public enum OperationGrpcServiceUtils {
         long deadline = System.nanoTime() + nano;
 
         LongRunning.Operation result;
+        boolean waitSupported = true;
 
         while (true) {
-            result = grpcClient.get(LongRunning.GetOperationRequest.newBuilder().setOperationId(operationId).build());
+            long remaining = Math.max(0L, deadline - System.nanoTime());
+
+            if (waitSupported) {
+                try {
+                    result = grpcClient.waitOperation(LongRunning.WaitOperationRequest.newBuilder()
+                        .setOperationId(operationId)
+                        .setTimeout(toProto(Duration.ofNanos(Math.min(remaining, MAX_WAIT_CALL_TIMEOUT.toNanos()))))
+                        .build());
+                } catch (StatusRuntimeException e) {
+                    if (e.getStatus().getCode() != Status.Code.UNIMPLEMENTED) {
+                        throw e;
+                    }
+                    waitSupported = false;
+                    continue;
+                }
+            } else {
+                result = grpcClient.get(LongRunning.GetOperationRequest.newBuilder()
+                    .setOperationId(operationId).build());
+            }
 
             if (result.getDone() || deadline - System.nanoTime() <= 0L) {
                 break;
             }
 
-            LockSupport.parkNanos(Duration.ofMillis(300).toNanos());
+            if (!waitSupported) {
+                LockSupport.parkNanos(Duration.ofMillis(300).toNanos());
+            }
         }
 
         return result;
     }
+
+    private static com.google.protobuf.Duration toProto(Duration duration) {
+        return com.google.protobuf.Duration.newBuilder()
+            .setSeconds(duration.getSeconds())
+            .setNanos(duration.getNano())
+            .build();
+    }
 }
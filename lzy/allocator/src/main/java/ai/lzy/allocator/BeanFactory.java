@@ -15,6 +15,7 @@ import ai.lzy.iam.grpc.client.AuthenticateServiceGrpcClient;
 import ai.lzy.iam.grpc.client.SubjectServiceGrpcClient;
 import ai.lzy.longrunning.OperationsExecutor;
 import ai.lzy.longrunning.OperationsService;
+import ai.lzy.longrunning.OperationsWatcher;
 import ai.lzy.longrunning.dao.OperationDao;
 import ai.lzy.longrunning.dao.OperationDaoImpl;
 import ai.lzy.metrics.DummyMetricReporter;
@@ -87,8 +88,10 @@ public class BeanFactory {
 
     @Singleton
     @Named("AllocatorAuthClient")
-    public AuthenticateService authClient(@Named("AllocatorIamGrpcChannel") ManagedChannel iamChannel) {
-        return new AuthenticateServiceGrpcClient(AllocatorMain.APP, iamChannel);
+    public AuthenticateService authClient(@Named("AllocatorIamGrpcChannel") ManagedChannel iamChannel,
+                                          ServiceConfig config)
+    {
+        return new AuthenticateServiceGrpcClient(AllocatorMain.APP, iamChannel, config.getIam().getAuthCacheTtl());
     }
 
     @Singleton
@@ -139,10 +142,19 @@ public class BeanFactory {
         return new SubjectServiceGrpcClient(AllocatorMain.APP, iamChannel, iamToken::get);
     }
 
+    @Singleton
+    @Bean(preDestroy = "close")
+    @Named("AllocatorOperationsWatcher")
+    public OperationsWatcher operationsWatcher(AllocatorDataSource storage) {
+        return new OperationsWatcher("allocator", storage);
+    }
+
     @Singleton
     @Named("AllocatorOperationDao")
-    public OperationDao operationDao(AllocatorDataSource storage) {
-        return new OperationDaoImpl(storage);
+    public OperationDao operationDao(AllocatorDataSource storage,
+                                     @Named("AllocatorOperationsWatcher") OperationsWatcher watcher)
+    {
+        return new OperationDaoImpl(storage, watcher);
     }
 
     @Singleton
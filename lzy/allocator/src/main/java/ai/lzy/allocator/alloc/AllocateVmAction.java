@@ -24,6 +24,8 @@ public final class AllocateVmAction extends OperationRunnerBase {
     private static final Duration WAIT_VM_PERIOD = Duration.ofMillis(1500);
     private static final Duration WAIT_VM_POLL_START = Duration.ofSeconds(3);
     private static final Duration WAIT_VM_POLL_PERIOD = Duration.ofSeconds(10);
+    // status is checked on its changes, polling is only a safety net
+    private static final Duration WAIT_VM_WATCHED_POLL_PERIOD = Duration.ofMinutes(1);
 
     private Vm vm;
     private final AllocationContext allocationContext;
@@ -33,6 +35,9 @@ public final class AllocateVmAction extends OperationRunnerBase {
     private DeleteVmAction deleteVmAction = null;
     @Nullable
     private Instant vmLastPollTimestamp = null;
+    @Nullable
+    private VmAllocator.Subscription vmStatusSubscription = null;
+    private volatile boolean vmStatusChanged = false;
 
     public AllocateVmAction(Vm vm, AllocationContext allocationContext, boolean restore) {
         super(vm.allocOpId(), "VM " + vm.vmId(), allocationContext.storage(), allocationContext.operationsDao(),
@@ -70,6 +75,11 @@ public final class AllocateVmAction extends OperationRunnerBase {
     protected void notifyFinished() {
         allocationContext.metrics().runningAllocations.labels(vm.poolLabel()).dec();
 
+        if (vmStatusSubscription != null) {
+            vmStatusSubscription.close();
+            vmStatusSubscription = null;
+        }
+
         if (deleteVmAction != null) {
             log().info("{} Submit DeleteVmAction operation {}", logPrefix(), deleteVmAction.id());
             allocationContext.startNew(deleteVmAction);
@@ -167,10 +177,13 @@ public final class AllocateVmAction extends OperationRunnerBase {
 
         if (vmLastPollTimestamp == null) {
             vmLastPollTimestamp = now.plus(WAIT_VM_POLL_START);
+            watchVmStatus();
             return StepResult.RESTART.after(WAIT_VM_PERIOD);
         }
 
-        if (now.isAfter(vmLastPollTimestamp.plus(WAIT_VM_POLL_PERIOD))) {
+        var pollPeriod = vmStatusSubscription != null ? WAIT_VM_WATCHED_POLL_PERIOD : WAIT_VM_POLL_PERIOD;
+        if (vmStatusChanged || now.isAfter(vmLastPollTimestamp.plus(pollPeriod))) {
+            vmStatusChanged = false;
             try {
                 final var result = allocationContext.allocator().getVmAllocationStatus(vm);
                 if (result.code() != VmAllocator.Result.Code.SUCCESS) {
@@ -184,6 +197,17 @@ public final class AllocateVmAction extends OperationRunnerBase {
         return StepResult.RESTART.after(WAIT_VM_PERIOD);
     }
 
+    private void watchVmStatus() {
+        try {
+            vmStatusSubscription = allocationContext.allocator().watchVmAllocationStatus(vm, () -> {
+                vmStatusChanged = true;
+                wakeUp();
+            });
+        } catch (Exception e) {
+            log().warn("{} Cannot watch VM allocation status, poll it: {}", logPrefix(), e.getMessage());
+        }
+    }
+
     private void prepareDeleteVmAction(@Nullable String description, @Nullable TransactionHandle tx)
         throws SQLException
     {
@@ -107,6 +107,18 @@ public class AllocatorMetrics {
         .subsystem(ALLOCATOR_PRIVATE)
         .register();
 
+    public final Histogram hbFlushSize = Histogram
+        .build("hb_flush_size", "VMs in one batch of activity deadlines from heartbeats")
+        .subsystem(ALLOCATOR_PRIVATE)
+        .buckets(1.0, 10.0, 50.0, 100.0, 500.0, 1000.0, 5000.0)
+        .register();
+
+    public final Histogram hbFlushLag = Histogram
+        .build("hb_flush_lag", "Time from the oldest heartbeat in batch to its write (sec)")
+        .subsystem(ALLOCATOR_PRIVATE)
+        .buckets(0.1, 0.5, 1.0, 2.0, 5.0, 10.0, 30.0)
+        .register();
+
 
     // summary
 
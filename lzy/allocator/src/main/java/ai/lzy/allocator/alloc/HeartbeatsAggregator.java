@@ -0,0 +1,126 @@
+package ai.lzy.allocator.alloc;
+
+import ai.lzy.allocator.alloc.dao.VmDao;
+import ai.lzy.allocator.configs.ServiceConfig;
+import com.google.common.annotations.VisibleForTesting;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static ai.lzy.model.db.DbHelper.withRetries;
+
+/**
+ * Collects activity deadlines of VMs from heartbeats in memory and writes them to db in batches,
+ * so a heartbeat does not cost a db transaction.
+ * <p>
+ * Deadlines in db lag behind heartbeats by up to the flush period and the flush duration,
+ * so GC expires VMs only after {@link #activityDeadlineGrace()}.
+ */
+@Singleton
+public class HeartbeatsAggregator {
+    private static final Logger LOG = LogManager.getLogger(HeartbeatsAggregator.class);
+
+    private final VmDao vmDao;
+    private final AllocatorMetrics metrics;
+    private final Duration flushPeriod;
+    // vm id ---> not written heartbeat
+    private final Map<String, Heartbeat> heartbeats = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        var th = new Thread(r, "heartbeats-flusher");
+        th.setDaemon(true);
+        th.setUncaughtExceptionHandler((t, e) -> LOG.error("Uncaught exception in thread {}", t.getName(), e));
+        return th;
+    });
+
+    public HeartbeatsAggregator(VmDao vmDao, AllocatorMetrics metrics, ServiceConfig config) {
+        this.vmDao = vmDao;
+        this.metrics = metrics;
+        this.flushPeriod = config.getHeartbeatsFlushPeriod();
+
+        executor.scheduleWithFixedDelay(this::flush, flushPeriod.toMillis(), flushPeriod.toMillis(),
+            TimeUnit.MILLISECONDS);
+    }
+
+    public Duration activityDeadlineGrace() {
+        return flushPeriod.multipliedBy(2);
+    }
+
+    public void heartbeat(String vmId, Instant activityDeadline) {
+        heartbeats.merge(vmId, new Heartbeat(activityDeadline, Instant.now()), Heartbeat::merge);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        LOG.info("Shutdown heartbeats aggregator, flush {} heartbeats...", heartbeats.size());
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(flushPeriod.toMillis(), TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            LOG.error("Heartbeats aggregator shutdown interrupted", e);
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    @VisibleForTesting
+    public synchronized void flush() {
+        if (heartbeats.isEmpty()) {
+            return;
+        }
+
+        // heartbeats are removed one by one, so concurrent ones are kept for the next flush
+        var batch = new HashMap<String, Heartbeat>(heartbeats.size());
+        for (var vmId : heartbeats.keySet()) {
+            var heartbeat = heartbeats.remove(vmId);
+            if (heartbeat != null) {
+                batch.put(vmId, heartbeat);
+            }
+        }
+
+        var deadlines = new HashMap<String, Instant>(batch.size());
+        var oldest = Instant.MAX;
+        for (var entry : batch.entrySet()) {
+            deadlines.put(entry.getKey(), entry.getValue().activityDeadline());
+            if (entry.getValue().received().isBefore(oldest)) {
+                oldest = entry.getValue().received();
+            }
+        }
+
+        try {
+            withRetries(LOG, () -> vmDao.updateActivityDeadlines(deadlines));
+        } catch (Exception e) {
+            // counted per heartbeat, like failed reads of VM in heartbeat call
+            metrics.hbFail.inc(deadlines.size());
+            LOG.error("Cannot update activity deadlines of {} VMs: {}", deadlines.size(), e.getMessage(), e);
+            // try again with the next flush
+            batch.forEach((vmId, heartbeat) -> heartbeats.merge(vmId, heartbeat, Heartbeat::merge));
+            return;
+        }
+
+        metrics.hbFlushSize.observe(deadlines.size());
+        metrics.hbFlushLag.observe(Duration.between(oldest, Instant.now()).toMillis() / 1000.0);
+    }
+
+    private record Heartbeat(
+        Instant activityDeadline,
+        Instant received
+    ) {
+        static Heartbeat merge(Heartbeat a, Heartbeat b) {
+            return new Heartbeat(
+                a.activityDeadline.isAfter(b.activityDeadline) ? a.activityDeadline : b.activityDeadline,
+                a.received.isBefore(b.received) ? a.received : b.received);
+        }
+    }
+}
@@ -68,6 +68,17 @@ public interface VmAllocator {
 
     Result getVmAllocationStatus(Vm vm) throws InvalidConfigurationException;
 
+    /**
+     * Subscribes to changes of vm allocation status, so it need not be polled.
+     * Listener is called from watching thread, so it must not block.
+     *
+     * @return subscription, or null if status changes are not watched
+     */
+    @Nullable
+    default Subscription watchVmAllocationStatus(Vm vm, Runnable listener) throws InvalidConfigurationException {
+        return null;
+    }
+
     Result unmountFromVm(Vm vm, String mountPath) throws InvalidConfigurationException;
 
     Result bindMountInVm(Vm vm, String fromPath, String toPath, @Nullable String chown, boolean readOnly)
@@ -82,4 +93,9 @@ public interface VmAllocator {
     Result deallocate(Vm vm);
 
     Vm updateAllocatedVm(Vm vm, @Nullable TransactionHandle tx) throws SQLException;
+
+    interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
 }
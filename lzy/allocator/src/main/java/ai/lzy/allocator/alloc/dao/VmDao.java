@@ -7,6 +7,7 @@ import com.google.common.annotations.VisibleForTesting;
 import jakarta.annotation.Nullable;
 
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -26,7 +27,7 @@ public interface VmDao {
     void cleanupVm(String vmId, @Nullable TransactionHandle tx) throws SQLException;
 
     /**
-     * Find an IDLE VM with given spec and set its status to RUNNING
+     * Find an IDLE VM of the session with given spec and set its status to RUNNING
      */
     @Nullable
     Vm acquire(Vm.Spec vmSpec, @Nullable TransactionHandle tx) throws SQLException;
@@ -64,10 +65,22 @@ public interface VmDao {
 
     void updateActivityDeadline(String vmId, Instant deadline) throws SQLException;
 
+    /**
+     * Updates activity deadlines of many VMs at once, vm id ---> deadline.
+     */
+    void updateActivityDeadlines(Map<String, Instant> deadlines) throws SQLException;
+
     @VisibleForTesting
     List<Vm> listAlive() throws SQLException;
 
-    List<Vm> listExpiredVms(int limit) throws SQLException;
+    default List<Vm> listExpiredVms(int limit) throws SQLException {
+        return listExpiredVms(limit, Duration.ZERO);
+    }
+
+    /**
+     * Lists VMs with expired idle deadline, or with activity deadline expired more than grace ago.
+     */
+    List<Vm> listExpiredVms(int limit, Duration activityDeadlineGrace) throws SQLException;
 
     List<Vm> loadActiveVmsActions(String workerId, @Nullable TransactionHandle tx) throws SQLException;
 
@@ -15,8 +15,10 @@ import ai.lzy.model.db.TransactionHandle;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
 import jakarta.annotation.Nullable;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
@@ -29,6 +31,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 
@@ -79,8 +82,8 @@ public class VmDaoImpl implements VmDao {
         WHERE session_id = ?""".formatted(ALL_FIELDS);
 
     private static final String QUERY_CREATE_VM = """
-        INSERT INTO vm (%s, %s, %s)
-        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        INSERT INTO vm (%s, %s, %s, spec_hash)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
         """.formatted(SPEC_FIELDS, STATUS_FIELDS, ALLOCATION_START_FIELDS);
 
     private static final String QUERY_START_DELETE_VM = """
@@ -100,22 +103,21 @@ public class VmDaoImpl implements VmDao {
 
     private static final String QUERY_ACQUIRE_VM = """
         WITH existing_vm AS (
-            SELECT %s
+            SELECT id, idle_since, idle_deadline
             FROM vm
-            WHERE session_id = ? AND pool_label = ? AND zone = ? AND status = 'IDLE'
-                AND workloads_json = ? AND init_workloads_json = ?
-                AND volume_descriptions_json = ?
-                AND COALESCE(v6_proxy_address, '') = ?
+            WHERE spec_hash = ? AND status = 'IDLE' AND session_id = ?
             LIMIT 1
+            FOR UPDATE SKIP LOCKED
         )
         UPDATE vm
         SET status = 'RUNNING', idle_since = NULL, idle_deadline = NULL
-        WHERE id = (SELECT id FROM existing_vm)
+        FROM existing_vm
+        WHERE vm.id = existing_vm.id
         RETURNING
             %s,
-            (SELECT idle_since FROM existing_vm) AS was_idle_since,
-            (SELECT idle_deadline FROM existing_vm) AS was_idle_deadline
-        """.formatted(ALL_FIELDS, stream(ALL_FIELDS.split(",")).map(s -> "vm." + s.trim()).collect(joining(", ")));
+            existing_vm.idle_since AS was_idle_since,
+            existing_vm.idle_deadline AS was_idle_deadline
+        """.formatted(stream(ALL_FIELDS.split(",")).map(s -> "vm." + s.trim()).collect(joining(", ")));
 
     private static final String QUERY_RELEASE_VM = """
         UPDATE vm
@@ -175,6 +177,14 @@ public class VmDaoImpl implements VmDao {
         SET activity_deadline = ?
         WHERE id = ?""";
 
+    private static final String QUERY_UPDATE_VMS_ACTIVITY = """
+        UPDATE vm
+        SET activity_deadline = v.deadline
+        FROM (VALUES %s) AS v(id, deadline)
+        WHERE vm.id = v.id""";
+
+    private static final int MAX_ACTIVITY_UPDATE_BATCH_SIZE = 1000;
+
     private static final String QUERY_LIST_ALIVE_VMS = """
         SELECT %s
         FROM vm""".formatted(ALL_FIELDS);
@@ -183,7 +193,7 @@ public class VmDaoImpl implements VmDao {
         SELECT %s
         FROM vm
         WHERE (status = 'IDLE' AND idle_deadline < NOW())
-           OR ((status = 'RUNNING' OR status = 'IDLE') AND activity_deadline < NOW())
+           OR ((status = 'RUNNING' OR status = 'IDLE') AND activity_deadline < NOW() - ? * INTERVAL '1 millisecond')
         LIMIT ?""".formatted(ALL_FIELDS);
 
     private static final String QUERY_LOAD_NOT_COMPLETED_VMS = """
@@ -224,6 +234,8 @@ public class VmDaoImpl implements VmDao {
 
     private final Storage storage;
     private final ObjectMapper objectMapper;
+    // serializes maps in the same order for equal specs
+    private final ObjectMapper specHashMapper;
     private final IdGenerator idGenerator;
 
     @Inject
@@ -232,6 +244,7 @@ public class VmDaoImpl implements VmDao {
     {
         this.storage = storage;
         this.objectMapper = objectMapper;
+        this.specHashMapper = objectMapper.copy().enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
         this.idGenerator = idGenerator;
     }
 
@@ -320,6 +333,8 @@ public class VmDaoImpl implements VmDao {
                 s.setString(++idx, allocState.reqid());
                 s.setString(++idx, allocState.vmOtt());
 
+                s.setString(++idx, specHash(vmSpec));
+
                 int ret = s.executeUpdate();
                 assert ret == 1;
             } catch (JsonProcessingException e) {
@@ -362,29 +377,9 @@ public class VmDaoImpl implements VmDao {
     public Vm acquire(Vm.Spec vmSpec, @Nullable TransactionHandle tx) throws SQLException {
         return DbOperation.execute(tx, storage, con -> {
             try (PreparedStatement s = con.prepareStatement(QUERY_ACQUIRE_VM)) {
-
-                List<Workload> workloads = vmSpec.workloads().stream()
-                    .sorted(Comparator.comparing(Workload::image))
-                    .toList();
-
-                List<Workload> initWorkloads = vmSpec.initWorkloads().stream()
-                    .sorted(Comparator.comparing(Workload::image))
-                    .toList();
-
-                List<VolumeRequest.VolumeDescription> volumeDescriptions = vmSpec.volumeRequests().stream()
-                    .sorted(Comparator.comparing(r -> r.volumeDescription().name()))
-                    .map(VolumeRequest::volumeDescription)
-                    .toList();
-
                 int idx = 0;
+                s.setString(++idx, specHash(vmSpec));
                 s.setString(++idx, vmSpec.sessionId());
-                s.setString(++idx, vmSpec.poolLabel());
-                s.setString(++idx, vmSpec.zone());
-                s.setString(++idx, objectMapper.writeValueAsString(workloads));
-                s.setString(++idx, objectMapper.writeValueAsString(initWorkloads));
-                s.setString(++idx, objectMapper.writeValueAsString(volumeDescriptions));
-                s.setString(++idx, vmSpec.tunnelSettings() != null
-                    ? vmSpec.tunnelSettings().proxyV6Address().getHostAddress() : "");
 
                 final var res = s.executeQuery();
                 if (!res.next()) {
@@ -596,6 +591,30 @@ public class VmDaoImpl implements VmDao {
         }
     }
 
+    @Override
+    public void updateActivityDeadlines(Map<String, Instant> deadlines) throws SQLException {
+        if (deadlines.isEmpty()) {
+            return;
+        }
+
+        var entries = new ArrayList<>(deadlines.entrySet());
+        try (var conn = storage.connect()) {
+            for (int from = 0; from < entries.size(); from += MAX_ACTIVITY_UPDATE_BATCH_SIZE) {
+                var batch = entries.subList(from, Math.min(from + MAX_ACTIVITY_UPDATE_BATCH_SIZE, entries.size()));
+                var values = String.join(", ", Collections.nCopies(batch.size(), "(?, CAST(? AS TIMESTAMP))"));
+
+                try (var st = conn.prepareStatement(QUERY_UPDATE_VMS_ACTIVITY.formatted(values))) {
+                    int i = 0;
+                    for (var entry : batch) {
+                        st.setString(++i, entry.getKey());
+                        st.setTimestamp(++i, Timestamp.from(entry.getValue()));
+                    }
+                    st.executeUpdate();
+                }
+            }
+        }
+    }
+
     @Override
     @VisibleForTesting
     public List<Vm> listAlive() throws SQLException {
@@ -615,11 +634,12 @@ public class VmDaoImpl implements VmDao {
     }
 
     @Override
-    public List<Vm> listExpiredVms(int limit) throws SQLException {
+    public List<Vm> listExpiredVms(int limit, Duration activityDeadlineGrace) throws SQLException {
         try (var conn = storage.connect();
              var st = conn.prepareStatement(QUERY_LIST_EXPIRED_VMS))
         {
-            st.setInt(1, limit);
+            st.setLong(1, activityDeadlineGrace.toMillis());
+            st.setInt(2, limit);
             final var res = st.executeQuery();
 
             final List<Vm> vms = new ArrayList<>();
@@ -754,6 +774,27 @@ public class VmDaoImpl implements VmDao {
         });
     }
 
+    /**
+     * Hash of VM spec parts which must be equal to reuse IDLE VM, so cached VMs are found by index.
+     */
+    private String specHash(Vm.Spec vmSpec) throws JsonProcessingException {
+        var workloadsOrder = Comparator.comparing(Workload::image).thenComparing(Workload::name);
+
+        var canonicalSpec = List.of(
+            vmSpec.poolLabel(),
+            vmSpec.zone(),
+            vmSpec.clusterType().name(),
+            vmSpec.initWorkloads().stream().sorted(workloadsOrder).toList(),
+            vmSpec.workloads().stream().sorted(workloadsOrder).toList(),
+            vmSpec.volumeRequests().stream()
+                .map(VolumeRequest::volumeDescription)
+                .sorted(Comparator.comparing(VolumeRequest.VolumeDescription::name))
+                .toList(),
+            vmSpec.tunnelSettings() != null ? vmSpec.tunnelSettings().proxyV6Address().getHostAddress() : "");
+
+        return Hashing.sha256().hashBytes(specHashMapper.writeValueAsBytes(canonicalSpec)).toString();
+    }
+
     private Vm readVm(ResultSet rs) throws SQLException, JsonProcessingException {
         int idx = 0;
 
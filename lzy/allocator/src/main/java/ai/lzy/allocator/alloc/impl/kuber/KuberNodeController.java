@@ -21,11 +21,15 @@ public class KuberNodeController implements NodeController {
 
     private final ClusterRegistry clusterRegistry;
     private final KuberClientFactory factory;
+    private final KuberResourcesCache resourcesCache;
     private final Retry retry;
 
-    public KuberNodeController(ClusterRegistry clusterRegistry, KuberClientFactory factory) {
+    public KuberNodeController(ClusterRegistry clusterRegistry, KuberClientFactory factory,
+                               KuberResourcesCache resourcesCache)
+    {
         this.clusterRegistry = clusterRegistry;
         this.factory = factory;
+        this.resourcesCache = resourcesCache;
         var retryConfig = new RetryConfig.Builder<>()
             .maxAttempts(3)
             .intervalFunction(IntervalFunction.ofExponentialBackoff(1000))
@@ -43,10 +47,7 @@ public class KuberNodeController implements NodeController {
             throw new IllegalArgumentException("Cluster not found");
         }
 
-        final Node node;
-        try (final var client = factory.build(cluster)) {
-            node = client.nodes().withName(nodeName).get();
-        }
+        final Node node = resourcesCache.getNode(cluster, nodeName);
         if (node == null) {
             throw new IllegalArgumentException("Node not found");
         }
@@ -0,0 +1,244 @@
+package ai.lzy.allocator.alloc.impl.kuber;
+
+import ai.lzy.allocator.alloc.VmAllocator;
+import ai.lzy.allocator.configs.ServiceConfig;
+import ai.lzy.allocator.vmpool.ClusterRegistry.ClusterDescription;
+import io.fabric8.kubernetes.api.model.Node;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import jakarta.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static ai.lzy.allocator.alloc.impl.kuber.KuberVmAllocator.NAMESPACE_VALUE;
+
+/**
+ * Local cache of lzy VM pods and nodes of k8s clusters. Cache of a cluster is filled by informers,
+ * which list resources once and then watch their changes, so status checks of VMs do not query k8s API.
+ * <p>
+ * Resources are read from k8s API directly until informers of the cluster are synced, and on cache miss,
+ * because just created pod can be not delivered to the cache yet.
+ */
+@Singleton
+public class KuberResourcesCache {
+    private static final Logger LOG = LogManager.getLogger(KuberResourcesCache.class);
+
+    private static final Duration INFORMERS_RESTART_DELAY = Duration.ofMinutes(1);
+
+    private final KuberClientFactory clientFactory;
+    private final ServiceConfig.KuberAllocator config;
+
+    // cluster id ---> informers
+    private final Map<String, ClusterInformers> clusters = new ConcurrentHashMap<>();
+    // cluster id ---> time of the last failed start of informers
+    private final Map<String, Instant> startFailures = new ConcurrentHashMap<>();
+    // cluster id/namespace/pod name ---> listeners of pod phase changes
+    private final Map<String, List<Runnable>> podListeners = new ConcurrentHashMap<>();
+    private volatile boolean closed = false;
+
+    public KuberResourcesCache(KuberClientFactory clientFactory, ServiceConfig.KuberAllocator config) {
+        this.clientFactory = clientFactory;
+        this.config = config;
+    }
+
+    @Nullable
+    public Pod getPod(ClusterDescription cluster, String namespace, String name) {
+        var informers = informers(cluster);
+        if (informers != null && informers.pods().hasSynced()) {
+            var pod = informers.pods().getStore().getByKey(namespace + "/" + name);
+            if (pod != null) {
+                return pod;
+            }
+        }
+        return loadPod(cluster, namespace, name);
+    }
+
+    @Nullable
+    public Pod loadPod(ClusterDescription cluster, String namespace, String name) {
+        try (var client = clientFactory.build(cluster)) {
+            return client.pods().inNamespace(namespace).withName(name).get();
+        }
+    }
+
+    @Nullable
+    public Node getNode(ClusterDescription cluster, String name) {
+        var informers = informers(cluster);
+        if (informers != null && informers.nodes().hasSynced()) {
+            var node = informers.nodes().getStore().getByKey(name);
+            if (node != null) {
+                return node;
+            }
+        }
+
+        try (var client = clientFactory.build(cluster)) {
+            return client.nodes().withName(name).get();
+        }
+    }
+
+    /**
+     * Subscribes to phase changes of pod, including its creation and deletion.
+     * Listener is called from informer thread, so it must not block.
+     *
+     * @return subscription, or null if informers are disabled or cannot be started
+     */
+    @Nullable
+    public VmAllocator.Subscription watchPod(ClusterDescription cluster, String namespace, String name,
+                                             Runnable listener)
+    {
+        if (informers(cluster) == null) {
+            return null;
+        }
+
+        var key = podKey(cluster.clusterId(), namespace, name);
+        podListeners.compute(key, (k, list) -> {
+            list = list != null ? list : new ArrayList<>(1);
+            list.add(listener);
+            return list;
+        });
+
+        return () -> podListeners.computeIfPresent(key, (k, list) -> {
+            list.remove(listener);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        clusters.values().forEach(ClusterInformers::close);
+        clusters.clear();
+    }
+
+    @Nullable
+    private ClusterInformers informers(ClusterDescription cluster) {
+        if (!config.isInformersEnabled() || closed) {
+            return null;
+        }
+
+        var informers = clusters.get(cluster.clusterId());
+        if (informers != null) {
+            return informers;
+        }
+
+        // informers are not stored on failure, they are started again on access after restart delay,
+        // until then resources are read from k8s API
+        var failedAt = startFailures.get(cluster.clusterId());
+        if (failedAt != null && Instant.now().isBefore(failedAt.plus(INFORMERS_RESTART_DELAY))) {
+            return null;
+        }
+
+        return clusters.computeIfAbsent(cluster.clusterId(), id -> {
+            var started = startInformers(cluster);
+            if (started == null) {
+                startFailures.put(id, Instant.now());
+            } else {
+                startFailures.remove(id);
+            }
+            return started;
+        });
+    }
+
+    @Nullable
+    private ClusterInformers startInformers(ClusterDescription cluster) {
+        LOG.info("Start informers of lzy pods and nodes in cluster {}", cluster.clusterId());
+
+        KubernetesClient client = null;
+        try {
+            client = clientFactory.build(cluster);
+            var resyncMillis = config.getInformersResyncPeriod().toMillis();
+
+            var pods = client.pods()
+                .inNamespace(NAMESPACE_VALUE)
+                .withLabel(KuberLabels.LZY_VM_ID_LABEL)
+                .runnableInformer(resyncMillis);
+            pods.addEventHandler(new PodPhaseHandler(cluster.clusterId()));
+
+            var nodes = client.nodes().runnableInformer(resyncMillis);
+
+            pods.start();
+            nodes.start();
+
+            return new ClusterInformers(client, pods, nodes);
+        } catch (Exception e) {
+            LOG.error("Cannot start informers in cluster {}, retry after {}: {}", cluster.clusterId(),
+                INFORMERS_RESTART_DELAY, e.getMessage(), e);
+            if (client != null) {
+                client.close();
+            }
+            return null;
+        }
+    }
+
+    private void notifyPodChanged(String clusterId, Pod pod) {
+        var key = podKey(clusterId, pod.getMetadata().getNamespace(), pod.getMetadata().getName());
+        podListeners.computeIfPresent(key, (k, list) -> {
+            for (var listener : list) {
+                try {
+                    listener.run();
+                } catch (Exception e) {
+                    LOG.error("Error in listener of pod {}: {}", k, e.getMessage(), e);
+                }
+            }
+            return list;
+        });
+    }
+
+    private static String podKey(String clusterId, String namespace, String name) {
+        return clusterId + "/" + namespace + "/" + name;
+    }
+
+    @Nullable
+    private static String phase(Pod pod) {
+        return pod.getStatus() != null ? pod.getStatus().getPhase() : null;
+    }
+
+    private final class PodPhaseHandler implements ResourceEventHandler<Pod> {
+        private final String clusterId;
+
+        private PodPhaseHandler(String clusterId) {
+            this.clusterId = clusterId;
+        }
+
+        @Override
+        public void onAdd(Pod pod) {
+            notifyPodChanged(clusterId, pod);
+        }
+
+        @Override
+        public void onUpdate(Pod oldPod, Pod newPod) {
+            // resync delivers updates without changes
+            if (!Objects.equals(phase(oldPod), phase(newPod))) {
+                notifyPodChanged(clusterId, newPod);
+            }
+        }
+
+        @Override
+        public void onDelete(Pod pod, boolean deletedFinalStateUnknown) {
+            notifyPodChanged(clusterId, pod);
+        }
+    }
+
+    private record ClusterInformers(
+        KubernetesClient client,
+        SharedIndexInformer<Pod> pods,
+        SharedIndexInformer<Node> nodes
+    ) {
+        void close() {
+            pods.stop();
+            nodes.stop();
+            client.close();
+        }
+    }
+}
@@ -16,6 +16,7 @@ import ai.lzy.allocator.vmpool.VmPoolRegistry;
 import ai.lzy.allocator.volume.VolumeManager;
 import ai.lzy.model.db.TransactionHandle;
 import io.fabric8.kubernetes.api.model.EmptyDirVolumeSource;
+import io.fabric8.kubernetes.api.model.Node;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.Quantity;
 import io.fabric8.kubernetes.client.KubernetesClient;
@@ -60,6 +61,7 @@ public class KuberVmAllocator implements VmAllocator {
     private final ClusterRegistry clusterRegistry;
     private final VmPoolRegistry poolRegistry;
     private final KuberClientFactory k8sClientFactory;
+    private final KuberResourcesCache resourcesCache;
     private final VolumeManager volumeManager;
     private final NodeRemover nodeRemover;
     private final ServiceConfig config;
@@ -67,13 +69,15 @@ public class KuberVmAllocator implements VmAllocator {
 
     @Inject
     public KuberVmAllocator(VmDao vmDao, ClusterRegistry clusterRegistry, VmPoolRegistry poolRegistry,
-                            KuberClientFactory k8sClientFactory, VolumeManager volumeManager, NodeRemover nodeRemover,
-                            ServiceConfig config, ServiceConfig.MountConfig mountConfig)
+                            KuberClientFactory k8sClientFactory, KuberResourcesCache resourcesCache,
+                            VolumeManager volumeManager, NodeRemover nodeRemover, ServiceConfig config,
+                            ServiceConfig.MountConfig mountConfig)
     {
         this.vmDao = vmDao;
         this.clusterRegistry = clusterRegistry;
         this.poolRegistry = poolRegistry;
         this.k8sClientFactory = k8sClientFactory;
+        this.resourcesCache = resourcesCache;
         this.volumeManager = volumeManager;
         this.nodeRemover = nodeRemover;
         this.config = config;
@@ -312,6 +316,13 @@ public class KuberVmAllocator implements VmAllocator {
         return Result.SUCCESS;
     }
 
+    @Nullable
+    @Override
+    public Subscription watchVmAllocationStatus(Vm vm, Runnable listener) throws InvalidConfigurationException {
+        var podRef = resolvePodRef(vm);
+        return resourcesCache.watchPod(podRef.cluster(), podRef.namespace(), podRef.name(), listener);
+    }
+
     @Nullable
     public static Pod getVmPod(String namespace, String name, KubernetesClient client) {
         return client.pods()
@@ -419,34 +430,36 @@ public class KuberVmAllocator implements VmAllocator {
         final var ns = requireNonNull(meta.get(NAMESPACE_KEY));
         final var podName = requireNonNull(meta.get(POD_NAME_KEY));
 
-        try (final var client = k8sClientFactory.build(credentials)) {
-            final var pod = getVmPod(ns, podName, client);
-            if (pod == null) {
-                throw new RuntimeException("Cannot get pod with name " + podName + " to get addresses");
-            }
+        var pod = resourcesCache.getPod(credentials, ns, podName);
+        if (pod != null && pod.getSpec().getNodeName() == null) {
+            // cached pod can be not scheduled yet
+            pod = resourcesCache.loadPod(credentials, ns, podName);
+        }
+        if (pod == null) {
+            throw new RuntimeException("Cannot get pod with name " + podName + " to get addresses");
+        }
 
-            final var nodeName = pod.getSpec().getNodeName();
-            final var node = requireNonNull(client.nodes().withName(nodeName).get());
+        final var nodeName = pod.getSpec().getNodeName();
+        final var node = requireNonNull(resourcesCache.getNode(credentials, nodeName));
 
-            final var providerId = node.getSpec() != null ? node.getSpec().getProviderID() : null;
-            final var instanceId = providerId != null && providerId.startsWith("yandex://")
-                ? providerId.substring("yandex://".length())
-                : null;
+        final var providerId = node.getSpec() != null ? node.getSpec().getProviderID() : null;
+        final var instanceId = providerId != null && providerId.startsWith("yandex://")
+            ? providerId.substring("yandex://".length())
+            : null;
 
-            meta.put(NODE_NAME_KEY, nodeName);
-            if (instanceId != null) {
-                meta.put(NODE_INSTANCE_ID_KEY, instanceId);
-            }
+        meta.put(NODE_NAME_KEY, nodeName);
+        if (instanceId != null) {
+            meta.put(NODE_INSTANCE_ID_KEY, instanceId);
+        }
 
-            var endpoints = getPodEndpoints(pod, client);
+        var endpoints = getNodeEndpoints(node);
 
-            vm = vm.withAllocateState(vm.allocateState().withAllocatorMeta(meta));
-            vm = vm.withEndpoints(endpoints);
+        vm = vm.withAllocateState(vm.allocateState().withAllocatorMeta(meta));
+        vm = vm.withEndpoints(endpoints);
 
-            LOG.info("VM {} is allocated at POD {} on node {} ({}) with endpoints [{}]",
-                vm.vmId(), podName, nodeName, providerId,
-                endpoints.stream().map(Objects::toString).collect(Collectors.joining(", ")));
-        }
+        LOG.info("VM {} is allocated at POD {} on node {} ({}) with endpoints [{}]",
+            vm.vmId(), podName, nodeName, providerId,
+            endpoints.stream().map(Objects::toString).collect(Collectors.joining(", ")));
 
         try {
             final var vmRef = vm;
@@ -462,6 +475,12 @@ public class KuberVmAllocator implements VmAllocator {
     }
 
     private ClusterAndPod resolveClusterAndPod(Vm vm) throws InvalidConfigurationException {
+        var podRef = resolvePodRef(vm);
+        var pod = resourcesCache.getPod(podRef.cluster(), podRef.namespace(), podRef.name());
+        return new ClusterAndPod(podRef.cluster(), pod);
+    }
+
+    private PodRef resolvePodRef(Vm vm) throws InvalidConfigurationException {
         var meta = vm.allocateState().allocatorMeta();
         if (meta == null) {
             throw new InvalidConfigurationException("VM " + vm.vmId() + " does not have allocator meta");
@@ -480,21 +499,10 @@ public class KuberVmAllocator implements VmAllocator {
             throw new InvalidConfigurationException("Cluster " + clusterId + " does not exist");
         }
 
-        final Pod pod;
-        try (var client = k8sClientFactory.build(cluster)) {
-            pod = client.pods()
-                .inNamespace(namespace)
-                .withName(podName)
-                .get();
-        }
-
-        return new ClusterAndPod(cluster, pod);
+        return new PodRef(cluster, namespace, podName);
     }
 
-    private List<Vm.Endpoint> getPodEndpoints(Pod pod, KubernetesClient client) {
-        final var nodeName = pod.getSpec().getNodeName();
-        final var node = requireNonNull(client.nodes().withName(nodeName).get());
-
+    private static List<Vm.Endpoint> getNodeEndpoints(Node node) {
         var endpoints = new ArrayList<Vm.Endpoint>();
         for (final var address : node.getStatus().getAddresses()) {
             final var type = switch (address.getType().toLowerCase()) {
@@ -550,6 +558,12 @@ public class KuberVmAllocator implements VmAllocator {
         });
     }
 
+    private record PodRef(
+        ClusterRegistry.ClusterDescription cluster,
+        String namespace,
+        String name
+    ) {}
+
     private record ClusterAndPod(
         ClusterRegistry.ClusterDescription cluster,
         @Nullable Pod pod
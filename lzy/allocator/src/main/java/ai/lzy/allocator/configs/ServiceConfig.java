@@ -28,6 +28,8 @@ public class ServiceConfig {
     private Duration allocationTimeout;
     private Duration mountTimeout = Duration.ofMinutes(2);
     private Duration heartbeatTimeout;
+    // activity deadlines from heartbeats are written to db in batches so often
+    private Duration heartbeatsFlushPeriod = Duration.ofSeconds(1);
     private List<String> serviceClusters = new ArrayList<>();
     private List<String> userClusters = new ArrayList<>();
     private Set<NetworkPolicyManager.PolicyRule> serviceCidrs = new HashSet<>();
@@ -90,6 +92,9 @@ public class ServiceConfig {
     @ConfigurationProperties("kuber-allocator")
     public static final class KuberAllocator {
         private boolean enabled = false;
+        // watch lzy pods and nodes with informers instead of querying k8s API on every status check
+        private boolean informersEnabled = false;
+        private Duration informersResyncPeriod = Duration.ofMinutes(10);
     }
 
     @Getter
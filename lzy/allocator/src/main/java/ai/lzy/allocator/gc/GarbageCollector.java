@@ -2,6 +2,7 @@ package ai.lzy.allocator.gc;
 
 import ai.lzy.allocator.DbAwareMetrics;
 import ai.lzy.allocator.alloc.AllocationContext;
+import ai.lzy.allocator.alloc.HeartbeatsAggregator;
 import ai.lzy.allocator.configs.ServiceConfig;
 import ai.lzy.allocator.gc.dao.GcDao;
 import ai.lzy.allocator.model.Vm;
@@ -34,6 +35,7 @@ public class GarbageCollector {
     private final ServiceConfig.GcConfig config;
     private final GcDao gcDao;
     private final AllocationContext allocationContext;
+    private final HeartbeatsAggregator heartbeats;
     private final DbAwareMetrics dbAwareMetrics;
     private final AtomicReference<Thread> gcThread = new AtomicReference<>(null);
     private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
@@ -48,12 +50,14 @@ public class GarbageCollector {
     private final AtomicBoolean terminated = new AtomicBoolean(false);
 
     public GarbageCollector(ServiceConfig serviceConfig, ServiceConfig.GcConfig gcConfig, GcDao gcDao,
-                            AllocationContext allocationContext, DbAwareMetrics dbAwareMetrics)
+                            AllocationContext allocationContext, HeartbeatsAggregator heartbeats,
+                            DbAwareMetrics dbAwareMetrics)
     {
         this.instanceId = serviceConfig.getInstanceId();
         this.config = gcConfig;
         this.gcDao = gcDao;
         this.allocationContext = allocationContext;
+        this.heartbeats = heartbeats;
         this.dbAwareMetrics = dbAwareMetrics;
     }
 
@@ -185,7 +189,8 @@ public class GarbageCollector {
             var startTime = Instant.now();
 
             try {
-                var vms = allocationContext.vmDao().listExpiredVms(10);
+                // activity deadlines of VMs are written with a lag, see HeartbeatsAggregator
+                var vms = allocationContext.vmDao().listExpiredVms(10, heartbeats.activityDeadlineGrace());
                 if (vms.isEmpty()) {
                     LOG.debug("Found 0 Vms to clean");
                 } else {
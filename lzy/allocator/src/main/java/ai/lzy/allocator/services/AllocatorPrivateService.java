@@ -2,6 +2,7 @@ package ai.lzy.allocator.services;
 
 
 import ai.lzy.allocator.alloc.AllocationContext;
+import ai.lzy.allocator.alloc.HeartbeatsAggregator;
 import ai.lzy.allocator.alloc.VmAllocator;
 import ai.lzy.allocator.alloc.dao.SessionDao;
 import ai.lzy.allocator.configs.ServiceConfig;
@@ -41,11 +42,13 @@ public class AllocatorPrivateService extends AllocatorPrivateImplBase {
     private final SessionDao sessionsDao;
     private final ServiceConfig config;
     private final AllocationContext allocationContext;
+    private final HeartbeatsAggregator heartbeats;
 
     public AllocatorPrivateService(VmAllocator allocator, SessionDao sessionsDao, ServiceConfig config,
-                                   AllocationContext allocationContext)
+                                   AllocationContext allocationContext, HeartbeatsAggregator heartbeats)
     {
         this.allocationContext = allocationContext;
+        this.heartbeats = heartbeats;
         this.allocator = allocator;
         this.sessionsDao = sessionsDao;
         this.config = config;
@@ -240,17 +243,9 @@ public class AllocatorPrivateService extends AllocatorPrivateImplBase {
             return;
         }
 
-        try {
-            if (vm.status() != Vm.Status.DELETING) {
-                withRetries(LOG, () -> allocationContext.vmDao().updateActivityDeadline(
-                    vm.vmId(), Instant.now().plus(config.getHeartbeatTimeout())));
-            }
-        } catch (Exception ex) {
-            allocationContext.metrics().hbFail.inc();
-            LOG.error("Cannot update VM {} last activity time: {}", vm, ex.getMessage(), ex);
-            responseObserver.onError(
-                Status.INTERNAL.withDescription("Database error: " + ex.getMessage()).asException());
-            return;
+        if (vm.status() != Vm.Status.DELETING) {
+            // written to db by the next flush
+            heartbeats.heartbeat(vm.vmId(), Instant.now().plus(config.getHeartbeatTimeout()));
         }
 
         responseObserver.onNext(HeartbeatResponse.getDefaultInstance());
@@ -0,0 +1,3 @@
+ALTER TABLE vm ADD COLUMN IF NOT EXISTS spec_hash TEXT;
+
+CREATE INDEX IF NOT EXISTS idle_vm_spec_hash_index ON vm (spec_hash) WHERE status = 'IDLE';
@@ -27,6 +27,7 @@ import org.junit.*;
 
 import java.sql.SQLException;
 import java.time.Duration;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -241,6 +242,71 @@ public class DaoTest {
         Assert.assertEquals(meta, vmDao.getAllocatorMeta(vm.vmId(), null));
     }
 
+    @Test
+    public void testVmAcquireBySpec() throws SQLException {
+        var session1 = createSession();
+        var session2 = createSession();
+        var allocOp = Operation.createCompleted("alloc-op", "owner", "descr", null, null,
+            VmAllocatorApi.AllocateResponse.getDefaultInstance());
+        opDao.create(allocOp, null);
+
+        var env = new LinkedHashMap<String, String>();
+        env.put("a", "b");
+        env.put("c", "d");
+        var reversedEnv = new LinkedHashMap<String, String>();
+        reversedEnv.put("c", "d");
+        reversedEnv.put("a", "b");
+
+        var wl1 = new Workload("wl1", "im1", env, List.of(), Map.of(), List.of());
+        var wl2 = new Workload("wl2", "im2", Map.of(), List.of(), Map.of(), List.of());
+
+        var vmSpec = new Vm.Spec("placeholder", session1.sessionId(), "pool", "zone", List.of(),
+            List.of(wl1, wl2), List.of(), null, ClusterRegistry.ClusterType.User);
+        var vmAllocState = new Vm.AllocateState(allocOp.id(), now(), now().plus(Duration.ofDays(1)), "worker",
+            "reqid", "ott", null, null);
+        var vm = vmDao.create(vmSpec, vmAllocState, null);
+
+        vmDao.setVmRunning(vm.vmId(), Map.of(), now().plus(Duration.ofDays(1)), null);
+        vmDao.release(vm.vmId(), now().plus(Duration.ofHours(1)), null);
+
+        // the same spec, but workloads and env are in another order
+        var wl1Reversed = new Workload("wl1", "im1", reversedEnv, List.of(), Map.of(), List.of());
+        var sameSpec = new Vm.Spec("placeholder", session1.sessionId(), "pool", "zone", List.of(),
+            List.of(wl2, wl1Reversed), List.of(), null, ClusterRegistry.ClusterType.User);
+        var otherSessionSpec = new Vm.Spec("placeholder", session2.sessionId(), "pool", "zone", List.of(),
+            List.of(wl1, wl2), List.of(), null, ClusterRegistry.ClusterType.User);
+        var otherZoneSpec = new Vm.Spec("placeholder", session1.sessionId(), "pool", "other-zone", List.of(),
+            List.of(wl1, wl2), List.of(), null, ClusterRegistry.ClusterType.User);
+
+        Assert.assertNull(vmDao.acquire(otherSessionSpec, null));
+        Assert.assertNull(vmDao.acquire(otherZoneSpec, null));
+
+        var acquired = vmDao.acquire(sameSpec, null);
+        Assert.assertNotNull(acquired);
+        Assert.assertEquals(vm.vmId(), acquired.vmId());
+        Assert.assertEquals(Vm.Status.RUNNING, vmDao.get(vm.vmId(), null).status());
+        Assert.assertNull(vmDao.acquire(vmSpec, null));
+    }
+
+    @Test
+    public void testUpdateActivityDeadlines() throws SQLException {
+        var session = createSession();
+        var vm1 = createVm(session);
+        var vm2 = createVm(session);
+        vmDao.setVmRunning(vm1.vmId(), Map.of(), now().minus(Duration.ofSeconds(10)), null);
+        vmDao.setVmRunning(vm2.vmId(), Map.of(), now().minus(Duration.ofSeconds(10)), null);
+
+        Assert.assertEquals(2, vmDao.listExpiredVms(100).size());
+        Assert.assertEquals(0, vmDao.listExpiredVms(100, Duration.ofMinutes(1)).size());
+
+        var deadline = now().plus(Duration.ofHours(1)).truncatedTo(ChronoUnit.SECONDS);
+        vmDao.updateActivityDeadlines(Map.of(vm1.vmId(), deadline, "unknown-vm", deadline));
+
+        var expired = vmDao.listExpiredVms(100);
+        Assert.assertEquals(List.of(vm2.vmId()), expired.stream().map(Vm::vmId).toList());
+        Assert.assertEquals(deadline, vmDao.get(vm1.vmId(), null).runState().activityDeadline());
+    }
+
     @Test
     public void testDiskCreateRemove() throws SQLException {
         final Disk disk = new Disk(
@@ -0,0 +1,111 @@
+package ai.lzy.allocator.test;
+
+import ai.lzy.allocator.alloc.AllocatorMetrics;
+import ai.lzy.allocator.alloc.HeartbeatsAggregator;
+import ai.lzy.allocator.alloc.dao.VmDao;
+import ai.lzy.allocator.configs.ServiceConfig;
+import io.prometheus.client.CollectorRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.mockito.ArgumentMatchers.anyMap;
+
+public class HeartbeatsAggregatorTest {
+    private final Instant now = Instant.now();
+    private final List<Map<String, Instant>> written = new CopyOnWriteArrayList<>();
+
+    private VmDao vmDao;
+    private AllocatorMetrics metrics;
+    private HeartbeatsAggregator aggregator;
+
+    @Before
+    public void setUp() throws SQLException {
+        CollectorRegistry.defaultRegistry.clear();
+        metrics = new AllocatorMetrics(null);
+
+        vmDao = Mockito.mock(VmDao.class);
+        Mockito.doAnswer(this::write).when(vmDao).updateActivityDeadlines(anyMap());
+
+        // flushed by tests only
+        var config = new ServiceConfig();
+        config.setHeartbeatsFlushPeriod(Duration.ofHours(1));
+        aggregator = new HeartbeatsAggregator(vmDao, metrics, config);
+    }
+
+    @After
+    public void tearDown() {
+        aggregator.shutdown();
+        CollectorRegistry.defaultRegistry.clear();
+    }
+
+    @Test
+    public void latestDeadlineIsWritten() {
+        aggregator.heartbeat("vm-1", now.plusSeconds(10));
+        aggregator.heartbeat("vm-1", now.plusSeconds(5));
+        aggregator.heartbeat("vm-2", now);
+
+        aggregator.flush();
+        aggregator.flush();
+
+        Assert.assertEquals(List.of(Map.of("vm-1", now.plusSeconds(10), "vm-2", now)), written);
+    }
+
+    @Test
+    public void failedFlushIsRetriedWithNextFlush() throws SQLException {
+        Mockito.doThrow(new SQLException("Database is unavailable"))
+            .doAnswer(this::write)
+            .when(vmDao).updateActivityDeadlines(anyMap());
+
+        aggregator.heartbeat("vm-1", now.plusSeconds(10));
+        aggregator.heartbeat("vm-2", now);
+        aggregator.flush();
+
+        Assert.assertEquals(List.of(), written);
+        Assert.assertEquals(2.0, metrics.hbFail.get(), 0.0);
+
+        // not written deadline is merged with the new one
+        aggregator.heartbeat("vm-1", now.plusSeconds(5));
+        aggregator.flush();
+
+        Assert.assertEquals(List.of(Map.of("vm-1", now.plusSeconds(10), "vm-2", now)), written);
+    }
+
+    @Test
+    public void heartbeatsReceivedDuringFlushAreKept() throws SQLException {
+        Mockito.doAnswer(invocation -> {
+            aggregator.heartbeat("vm-1", now.plusSeconds(20));
+            return write(invocation);
+        }).doAnswer(this::write)
+            .when(vmDao).updateActivityDeadlines(anyMap());
+
+        aggregator.heartbeat("vm-1", now.plusSeconds(10));
+        aggregator.flush();
+        aggregator.flush();
+
+        Assert.assertEquals(List.of(Map.of("vm-1", now.plusSeconds(10)), Map.of("vm-1", now.plusSeconds(20))),
+            written);
+    }
+
+    @Test
+    public void heartbeatsAreFlushedOnShutdown() {
+        aggregator.heartbeat("vm-1", now.plusSeconds(10));
+        aggregator.shutdown();
+
+        Assert.assertEquals(List.of(Map.of("vm-1", now.plusSeconds(10))), written);
+    }
+
+    private boolean write(InvocationOnMock invocation) {
+        return written.add(Map.copyOf(invocation.<Map<String, Instant>>getArgument(0)));
+    }
+}
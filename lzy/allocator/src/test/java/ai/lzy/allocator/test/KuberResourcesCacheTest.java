@@ -0,0 +1,140 @@
+package ai.lzy.allocator.test;
+
+import ai.lzy.allocator.alloc.impl.kuber.KuberLabels;
+import ai.lzy.allocator.alloc.impl.kuber.KuberResourcesCache;
+import ai.lzy.allocator.configs.ServiceConfig;
+import ai.lzy.allocator.vmpool.ClusterRegistry;
+import io.fabric8.kubernetes.api.model.NodeBuilder;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ai.lzy.allocator.alloc.impl.kuber.KuberVmAllocator.NAMESPACE_VALUE;
+
+public class KuberResourcesCacheTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Rule
+    public KubernetesServer kubernetesServer = new KubernetesServer(false, true);
+
+    private final ClusterRegistry.ClusterDescription cluster = new ClusterRegistry.ClusterDescription(
+        "cluster", "", "", ClusterRegistry.ClusterType.User, Map.of());
+
+    private KubernetesClient client;
+    private MockKuberClientFactory kcf;
+    private KuberResourcesCache cache;
+
+    @Before
+    public void setUp() {
+        client = kubernetesServer.getClient();
+
+        kcf = new MockKuberClientFactory();
+        kcf.setClientSupplier(() -> kubernetesServer.getKubernetesMockServer().createClient());
+
+        var config = new ServiceConfig.KuberAllocator();
+        config.setEnabled(true);
+        config.setInformersEnabled(true);
+
+        cache = new KuberResourcesCache(kcf, config);
+    }
+
+    @After
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    public void podPhaseChanges() throws Exception {
+        client.pods().inNamespace(NAMESPACE_VALUE).resource(new PodBuilder()
+            .withNewMetadata()
+                .withName("lzy-vm-1")
+                .withNamespace(NAMESPACE_VALUE)
+                .addToLabels(KuberLabels.LZY_VM_ID_LABEL, "vm-1")
+            .endMetadata()
+            .withNewStatus()
+                .withPhase("Pending")
+            .endStatus()
+            .build()).create();
+
+        var changes = new Semaphore(0);
+        var subscription = cache.watchPod(cluster, NAMESPACE_VALUE, "lzy-vm-1", changes::release);
+        Assert.assertNotNull(subscription);
+
+        // pod is delivered to cache by the initial list
+        Assert.assertTrue(changes.tryAcquire(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        Assert.assertEquals("Pending", cache.getPod(cluster, NAMESPACE_VALUE, "lzy-vm-1").getStatus().getPhase());
+
+        client.pods().inNamespace(NAMESPACE_VALUE).withName("lzy-vm-1").edit(pod -> new PodBuilder(pod)
+            .editStatus().withPhase("Failed").endStatus()
+            .build());
+
+        Assert.assertTrue(changes.tryAcquire(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        Assert.assertEquals("Failed", cache.getPod(cluster, NAMESPACE_VALUE, "lzy-vm-1").getStatus().getPhase());
+
+        subscription.close();
+
+        var deleted = new Semaphore(0);
+        cache.watchPod(cluster, NAMESPACE_VALUE, "lzy-vm-1", deleted::release);
+
+        client.pods().inNamespace(NAMESPACE_VALUE).withName("lzy-vm-1").delete();
+        Assert.assertTrue(deleted.tryAcquire(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        Assert.assertNull(cache.getPod(cluster, NAMESPACE_VALUE, "lzy-vm-1"));
+        Assert.assertEquals(0, changes.availablePermits());
+    }
+
+    @Test
+    public void missingPodIsLoaded() {
+        Assert.assertNotNull(cache.watchPod(cluster, NAMESPACE_VALUE, "lzy-vm-2", () -> {}));
+        Assert.assertNull(cache.getPod(cluster, NAMESPACE_VALUE, "lzy-vm-2"));
+
+        // pods are cached only with lzy vm label, others are read from k8s API
+        client.pods().inNamespace(NAMESPACE_VALUE).resource(new PodBuilder()
+            .withNewMetadata()
+                .withName("lzy-vm-2")
+                .withNamespace(NAMESPACE_VALUE)
+            .endMetadata()
+            .build()).create();
+
+        Assert.assertNotNull(cache.getPod(cluster, NAMESPACE_VALUE, "lzy-vm-2"));
+    }
+
+    @Test
+    public void nodes() {
+        Assert.assertNull(cache.getNode(cluster, "node-1"));
+
+        client.nodes().resource(new NodeBuilder()
+            .withNewMetadata()
+                .withName("node-1")
+            .endMetadata()
+            .withNewSpec()
+                .withProviderID("yandex://instance-1")
+            .endSpec()
+            .build()).create();
+
+        Assert.assertEquals("yandex://instance-1", cache.getNode(cluster, "node-1").getSpec().getProviderID());
+    }
+
+    @Test
+    public void informersAreNotRestartedRightAfterFailure() {
+        var builds = new AtomicInteger(0);
+        kcf.setClientSupplier(() -> {
+            builds.incrementAndGet();
+            throw new IllegalStateException("Cluster is unavailable");
+        });
+
+        Assert.assertNull(cache.watchPod(cluster, NAMESPACE_VALUE, "lzy-vm-3", () -> {}));
+        Assert.assertNull(cache.watchPod(cluster, NAMESPACE_VALUE, "lzy-vm-3", () -> {}));
+        Assert.assertEquals(1, builds.get());
+    }
+}
@@ -0,0 +1,202 @@
+package ai.lzy.allocator.test;
+
+import ai.lzy.allocator.storage.AllocatorDataSource;
+import ai.lzy.longrunning.Operation;
+import ai.lzy.longrunning.OperationUtils;
+import ai.lzy.longrunning.OperationsService;
+import ai.lzy.longrunning.OperationsWatcher;
+import ai.lzy.longrunning.dao.OperationDao;
+import ai.lzy.longrunning.dao.OperationDaoImpl;
+import ai.lzy.model.db.Storage;
+import ai.lzy.model.db.TransactionHandle;
+import ai.lzy.model.db.test.DatabaseTestUtils;
+import ai.lzy.util.grpc.ProtoConverter;
+import ai.lzy.v1.longrunning.LongRunning;
+import ai.lzy.v1.longrunning.LongRunningServiceGrpc;
+import com.google.protobuf.Any;
+import com.google.protobuf.Empty;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.zonky.test.db.postgres.junit.EmbeddedPostgresRules;
+import io.zonky.test.db.postgres.junit.PreparedDbRule;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+public class OperationsWatcherTest {
+    private static final Logger LOG = LogManager.getLogger(OperationsWatcherTest.class);
+
+    @Rule
+    public PreparedDbRule db = EmbeddedPostgresRules.preparedDatabase(ds -> {});
+
+    private ApplicationContext context;
+    private Storage storage;
+    private OperationDao opDao;
+    private OperationsWatcher watcher;
+    // Watcher and dao of another instance of service, which shares the same database
+    private OperationsWatcher otherWatcher;
+    private OperationDao otherOpDao;
+
+    @Before
+    public void setUp() throws Exception {
+        context = ApplicationContext.run(DatabaseTestUtils.preparePostgresConfig("allocator", db.getConnectionInfo()));
+        storage = context.getBean(Storage.class);
+        opDao = context.getBean(OperationDao.class, Qualifiers.byName("AllocatorOperationDao"));
+        watcher = context.getBean(OperationsWatcher.class, Qualifiers.byName("AllocatorOperationsWatcher"));
+
+        otherWatcher = new OperationsWatcher("other", storage);
+        otherOpDao = new OperationDaoImpl(storage, otherWatcher);
+
+        awaitListening(watcher);
+        awaitListening(otherWatcher);
+    }
+
+    @After
+    public void tearDown() {
+        otherWatcher.close();
+        context.getBean(AllocatorDataSource.class).setOnClose(DatabaseTestUtils::cleanup);
+        context.stop();
+    }
+
+    @Test
+    public void completionIsNotifiedAfterCommit() throws Exception {
+        var op = createOperation();
+
+        try (var subscription = otherWatcher.watch(op.id())) {
+            try (var tx = TransactionHandle.create(storage)) {
+                opDao.complete(op.id(), Any.pack(Empty.getDefaultInstance()), tx);
+                Assert.assertFalse(subscription.await(Duration.ofMillis(300)));
+                tx.commit();
+            }
+            Assert.assertTrue(subscription.await(Duration.ofSeconds(5)));
+        }
+    }
+
+    @Test
+    public void rolledBackCompletionIsNotNotified() throws Exception {
+        var op = createOperation();
+
+        try (var subscription = otherWatcher.watch(op.id())) {
+            try (var tx = TransactionHandle.create(storage)) {
+                opDao.fail(op.id(), error(), tx);
+            }
+            Assert.assertFalse(subscription.await(Duration.ofSeconds(1)));
+        }
+    }
+
+    @Test
+    public void failedOperationsAreNotified() throws Exception {
+        var ops = List.of(createOperation(), createOperation(), createOperation());
+        var subscriptions = ops.stream().map(op -> otherWatcher.watch(op.id())).toList();
+
+        opDao.fail(ops.stream().map(Operation::id).toList(), error(), null);
+
+        for (var subscription : subscriptions) {
+            Assert.assertTrue(subscription.await(Duration.ofSeconds(5)));
+            subscription.close();
+        }
+    }
+
+    @Test
+    public void waitOperationDoesNotHoldGrpcThread() throws Exception {
+        var op = createOperation();
+        var other = createOperation();
+
+        var executor = Executors.newSingleThreadExecutor();
+        var serverName = InProcessServerBuilder.generateName();
+        Server server = InProcessServerBuilder.forName(serverName)
+            .executor(executor)
+            .addService(context.getBean(OperationsService.class))
+            .build()
+            .start();
+        ManagedChannel channel = InProcessChannelBuilder.forName(serverName).build();
+
+        try {
+            var waiting = LongRunningServiceGrpc.newFutureStub(channel)
+                .waitOperation(LongRunning.WaitOperationRequest.newBuilder()
+                    .setOperationId(op.id())
+                    .setTimeout(ProtoConverter.toProto(Duration.ofSeconds(30)))
+                    .build());
+
+            // the only gRPC thread is free while operation is waited
+            var notDone = LongRunningServiceGrpc.newBlockingStub(channel)
+                .withDeadlineAfter(5, TimeUnit.SECONDS)
+                .get(LongRunning.GetOperationRequest.newBuilder().setOperationId(other.id()).build());
+            Assert.assertFalse(notDone.getDone());
+            Assert.assertFalse(waiting.isDone());
+
+            // completion by another instance is delivered with notification, long before safety reload
+            otherOpDao.complete(op.id(), Any.pack(Empty.getDefaultInstance()), null);
+
+            var done = waiting.get(5, TimeUnit.SECONDS);
+            Assert.assertTrue(done.getDone());
+            Assert.assertTrue(done.hasResponse());
+        } finally {
+            channel.shutdownNow();
+            server.shutdownNow();
+            shutdown(executor);
+        }
+    }
+
+    @Test
+    public void awaitOperationDoneReturnsLastLoadedOnError() throws Exception {
+        var op = createOperation();
+
+        var failingDao = Mockito.mock(OperationDao.class);
+        Mockito.when(failingDao.get(anyString(), any()))
+            .thenReturn(op)
+            .thenThrow(new SQLException("Database is unavailable"));
+
+        var loaded = OperationUtils.awaitOperationDone(failingDao, op.id(), Duration.ofMillis(10),
+            Duration.ofSeconds(5), LOG);
+
+        Assert.assertNotNull(loaded);
+        Assert.assertEquals(op.id(), loaded.id());
+        Assert.assertFalse(loaded.done());
+    }
+
+    private Operation createOperation() throws SQLException {
+        var op = Operation.create("test", "test-op", null, null);
+        opDao.create(op, null);
+        return op;
+    }
+
+    private static com.google.rpc.Status error() {
+        return com.google.rpc.Status.newBuilder()
+            .setCode(io.grpc.Status.CANCELLED.getCode().value())
+            .setMessage("Cancelled")
+            .build();
+    }
+
+    private static void awaitListening(OperationsWatcher watcher) throws InterruptedException {
+        var deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!watcher.isListening() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(watcher.isListening());
+    }
+
+    private static void shutdown(ExecutorService executor) throws InterruptedException {
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+}
@@ -1,10 +1,8 @@
 package ai.lzy.channelmanager;
 
-import ai.lzy.channelmanager.db.ChannelManagerDataSource;
 import ai.lzy.channelmanager.db.TransferDao;
 import ai.lzy.channelmanager.grpc.SlotConnectionManager;
 import ai.lzy.channelmanager.model.Peer;
-import ai.lzy.model.db.TransactionHandle;
 import ai.lzy.model.db.exceptions.ConcurrentModificationException;
 import ai.lzy.v1.slots.LSA;
 import jakarta.annotation.Nullable;
@@ -23,17 +21,14 @@ import static ai.lzy.util.grpc.GrpcUtils.withIdempotencyKey;
 public class ActionScheduler {
     private static final Logger LOG = LogManager.getLogger(ActionScheduler.class);
 
-    private final ChannelManagerDataSource storage;
     private final TransferDao connections;
     private final SlotConnectionManager connectionManager;
     private final ChannelOperationExecutor operationExecutor;
     private final LzyServiceClient lzyServiceClient;
 
     public ActionScheduler(TransferDao connections, SlotConnectionManager connectionManager,
-                           ChannelManagerDataSource storage, ChannelOperationExecutor operationExecutor,
-                           LzyServiceClient lzyServiceClient)
+                           ChannelOperationExecutor operationExecutor, LzyServiceClient lzyServiceClient)
     {
-        this.storage = storage;
         this.connections = connections;
         this.connectionManager = connectionManager;
         this.operationExecutor = operationExecutor;
@@ -76,19 +71,12 @@ public class ActionScheduler {
                 .setPeer(from.description())
                 .build());
 
-            withRetries(LOG, () -> {
-                try (var tx = TransactionHandle.create(storage)) {
-                    var transfer = connections.get(transferId, from.channelId(), tx);
-
-                    if (transfer != null && transfer.state().equals(TransferDao.State.PENDING)) {
-                        connections.markActive(transferId, from.channelId(), idempotencyKey, tx);
-                    } else {
-                        throw new ConcurrentModificationException("Unexpected state of transfer", null);
-                    }
-
-                    tx.commit();
-                }
-            });
+            // Single conditional update instead of select and update in transaction
+            var marked = withRetries(LOG, () -> connections.markActiveIfPending(transferId, from.channelId(),
+                idempotencyKey, null));
+            if (!marked) {
+                throw new ConcurrentModificationException("Unexpected state of transfer", null);
+            }
         } catch (Exception e) {
 
             var reason = "(Connecting slot: %s to peer: %s): Cannot connect.".formatted(from, to);
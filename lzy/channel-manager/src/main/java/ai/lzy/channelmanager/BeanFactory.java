@@ -2,9 +2,7 @@ package ai.lzy.channelmanager;
 
 import ai.lzy.channelmanager.config.ChannelManagerConfig;
 import ai.lzy.iam.clients.AccessClient;
-import ai.lzy.iam.clients.SubjectServiceClient;
 import ai.lzy.iam.grpc.client.AccessServiceGrpcClient;
-import ai.lzy.iam.grpc.client.SubjectServiceGrpcClient;
 import ai.lzy.longrunning.OperationsService;
 import ai.lzy.longrunning.dao.OperationDao;
 import ai.lzy.util.auth.credentials.RenewableJwt;
@@ -48,15 +46,6 @@ public class BeanFactory {
         return new AccessServiceGrpcClient(ChannelManagerMain.APP, iamChannel, iamToken::get);
     }
 
-    @Singleton
-    @Named("ChannelManagerIamSubjectClient")
-    public SubjectServiceClient iamSubjectClient(
-        @Named("ChannelManagerIamGrpcChannel") ManagedChannel iamChannel,
-        @Named("ChannelManagerIamToken") RenewableJwt iamToken)
-    {
-        return new SubjectServiceGrpcClient(ChannelManagerMain.APP, iamChannel, iamToken::get);
-    }
-
     @Bean(preDestroy = "shutdown")
     @Singleton
     @Named("ChannelManagerWorkflowGrpcChannel")
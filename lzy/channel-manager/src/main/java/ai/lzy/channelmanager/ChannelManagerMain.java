@@ -43,7 +43,7 @@ public class ChannelManagerMain {
         LOG.info("Starting ChannelManager service with config: {}", config);
 
         final var authInterceptor = new AuthServerInterceptor(
-            new AuthenticateServiceGrpcClient(SERVICE_NAME, iamChannel));
+            new AuthenticateServiceGrpcClient(SERVICE_NAME, iamChannel, config.getIam().getAuthCacheTtl()));
 
         final var channelManagerAddress = HostAndPort.fromString(config.getAddress());
 
@@ -0,0 +1,177 @@
+package ai.lzy.channelmanager;
+
+import ai.lzy.channelmanager.db.PeerDao.PrioritizedPeer;
+import ai.lzy.channelmanager.model.Channel;
+import ai.lzy.channelmanager.model.Peer;
+import jakarta.annotation.Nullable;
+import jakarta.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-memory routing table of channels and their producers with priorities, grouped by execution.
+ * DB is the source of truth: entries are filled after reading or committing to DB and dropped
+ * on every change of producers, so a stale producer can only be stored if it was read before the change.
+ * To prevent it, producers are stored only if route version was not changed since the read started.
+ * <p>
+ * Cache is invalidated only by changes made by this instance, so producer selected from cache is checked
+ * against DB in the transaction which creates transfer to it.
+ */
+@Singleton
+public class ChannelRoutingCache {
+    private final ConcurrentHashMap<String, Route> routes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> executionChannels = new ConcurrentHashMap<>();
+
+    @Nullable
+    public Channel getChannel(String channelId) {
+        var route = routes.get(channelId);
+        return route != null ? route.channel : null;
+    }
+
+    public void putChannel(Channel channel) {
+        executionChannels.computeIfAbsent(channel.executionId(), id -> ConcurrentHashMap.newKeySet())
+            .add(channel.id());
+        routes.putIfAbsent(channel.id(), new Route(channel));
+    }
+
+    /**
+     * Selects producer of channel from cached ones by the same rule as DB does.
+     *
+     * @return producer or null if producers of channel are unknown or there are no producers
+     */
+    @Nullable
+    public Peer selectProducer(String channelId) {
+        var route = routes.get(channelId);
+        if (route == null) {
+            return null;
+        }
+        synchronized (route) {
+            return route.producers != null ? select(route.producers) : null;
+        }
+    }
+
+    /**
+     * Version of channel route, must be taken before reading producers from DB
+     */
+    public long version(String channelId) {
+        var route = routes.get(channelId);
+        if (route == null) {
+            return -1;
+        }
+        synchronized (route) {
+            return route.version;
+        }
+    }
+
+    /**
+     * Stores all producers of channel read from DB, if route was not invalidated since version was taken
+     */
+    public void putProducers(String channelId, List<PrioritizedPeer> producers, long version) {
+        var route = routes.get(channelId);
+        if (route == null) {
+            return;
+        }
+        synchronized (route) {
+            if (route.version == version) {
+                route.producers = List.copyOf(producers);
+            }
+        }
+    }
+
+    /**
+     * Adds producer created in DB. If route was changed since version was taken, cached producers
+     * can miss some of them, so they are dropped.
+     */
+    public void addProducer(String channelId, PrioritizedPeer producer, long version) {
+        var route = routes.get(channelId);
+        if (route == null) {
+            return;
+        }
+        synchronized (route) {
+            if (route.version == version && route.producers != null) {
+                var producers = new ArrayList<PrioritizedPeer>(route.producers.size() + 1);
+                for (var p : route.producers) {
+                    if (!p.peer().id().equals(producer.peer().id())) {
+                        producers.add(p);
+                    }
+                }
+                producers.add(producer);
+                route.producers = List.copyOf(producers);
+            } else {
+                route.producers = null;
+            }
+            // Producers read from DB before this one was committed must not be stored
+            route.version++;
+        }
+    }
+
+    public void invalidateProducers(String channelId) {
+        var route = routes.get(channelId);
+        if (route == null) {
+            return;
+        }
+        synchronized (route) {
+            route.producers = null;
+            route.version++;
+        }
+    }
+
+    public void invalidateChannel(String channelId) {
+        var route = routes.remove(channelId);
+        if (route != null) {
+            var channels = executionChannels.get(route.channel.executionId());
+            if (channels != null) {
+                channels.remove(channelId);
+            }
+        }
+    }
+
+    public void invalidateExecution(String executionId) {
+        var channels = executionChannels.remove(executionId);
+        if (channels != null) {
+            channels.forEach(routes::remove);
+        }
+    }
+
+    /**
+     * Producer with max priority, random one of them if there are many, like FIND_PRODUCER query does
+     */
+    @Nullable
+    public static Peer select(List<PrioritizedPeer> producers) {
+        var maxPriority = -1;
+        var count = 0;
+        Peer selected = null;
+
+        for (var producer : producers) {
+            if (producer.priority() < 0 || producer.priority() < maxPriority) {
+                continue;
+            }
+            if (producer.priority() > maxPriority) {
+                maxPriority = producer.priority();
+                count = 0;
+            }
+            // Reservoir sampling of producers with max priority
+            count++;
+            if (ThreadLocalRandom.current().nextInt(count) == 0) {
+                selected = producer.peer();
+            }
+        }
+
+        return selected;
+    }
+
+    private static final class Route {
+        private final Channel channel;
+        @Nullable
+        private List<PrioritizedPeer> producers = null;
+        private long version = 0;
+
+        private Route(Channel channel) {
+            this.channel = channel;
+        }
+    }
+}
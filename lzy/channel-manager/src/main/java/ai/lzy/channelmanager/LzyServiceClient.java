@@ -21,11 +21,14 @@ import static ai.lzy.util.grpc.GrpcUtils.withIdempotencyKey;
 public class LzyServiceClient {
     private final LzyWorkflowServiceBlockingStub lzyServiceBlockingStub;
     private final ChannelDao channelDao;
+    private final ChannelRoutingCache routes;
 
     public LzyServiceClient(@Named("ChannelManagerWorkflowGrpcChannel") ManagedChannel lzyServiceChannel,
-                            @Named("ChannelManagerIamToken") RenewableJwt token, ChannelDao channelDao)
+                            @Named("ChannelManagerIamToken") RenewableJwt token, ChannelDao channelDao,
+                            ChannelRoutingCache routes)
     {
         this.channelDao = channelDao;
+        this.routes = routes;
         this.lzyServiceBlockingStub = newBlockingClient(LzyWorkflowServiceGrpc.newBlockingStub(lzyServiceChannel),
             ChannelManagerMain.APP, () -> token.get().token());
     }
@@ -39,6 +42,7 @@ public class LzyServiceClient {
         throws SQLException
     {
         var channel = channelDao.drop(channelId, tx);
+        routes.invalidateChannel(channelId);
         if (channel == null) {
             return;
         }
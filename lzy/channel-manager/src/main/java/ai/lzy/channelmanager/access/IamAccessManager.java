@@ -1,32 +1,29 @@
 package ai.lzy.channelmanager.access;
 
 import ai.lzy.iam.clients.AccessClient;
-import ai.lzy.iam.clients.SubjectServiceClient;
 import ai.lzy.iam.resources.AuthPermission;
 import ai.lzy.iam.resources.impl.Workflow;
+import ai.lzy.iam.resources.subjects.Subject;
 import ai.lzy.util.auth.exceptions.AuthNotFoundException;
 import ai.lzy.util.auth.exceptions.AuthPermissionDeniedException;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 
+import java.util.Collection;
+import java.util.List;
+
 @Singleton
 public class IamAccessManager {
 
-    private final SubjectServiceClient iamSubjectClient;
     private final AccessClient iamAccessClient;
 
     @Inject
-    public IamAccessManager(@Named("ChannelManagerIamSubjectClient") SubjectServiceClient subjectClient,
-                            @Named("ChannelManagerIamAccessClient") AccessClient iamAccessClient)
-    {
-        this.iamSubjectClient = subjectClient;
+    public IamAccessManager(@Named("ChannelManagerIamAccessClient") AccessClient iamAccessClient) {
         this.iamAccessClient = iamAccessClient;
     }
 
-    public boolean checkAccess(String subjId, String userId, String workflowName, AuthPermission permission) {
-
-        final var subj = iamSubjectClient.getSubject(subjId);
+    public boolean checkAccess(Subject subj, String userId, String workflowName, AuthPermission permission) {
         final var resource = new Workflow(userId + "/" + workflowName);
 
         try {
@@ -35,4 +32,17 @@ public class IamAccessManager {
             return false;
         }
     }
+
+    /**
+     * Checks access to several workflows (as "userId/workflowName") in one request to IAM
+     */
+    public boolean checkAccess(Subject subj, Collection<String> workflows, AuthPermission permission) {
+        final List<Workflow> resources = workflows.stream()
+            .distinct()
+            .map(Workflow::new)
+            .toList();
+
+        return iamAccessClient.hasResourcePermissions(subj, resources, permission).stream()
+            .allMatch(Boolean::booleanValue);
+    }
 }
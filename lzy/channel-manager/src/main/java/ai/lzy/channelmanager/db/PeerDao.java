@@ -19,6 +19,16 @@ public interface PeerDao {
     @Nullable
     Peer findProducer(String channelId, @Nullable TransactionHandle tx) throws SQLException;
 
+    /**
+     * List producers which can be used in this channel with their priorities
+     */
+    List<PrioritizedPeer> listProducers(String channelId, @Nullable TransactionHandle tx) throws SQLException;
+
+    /**
+     * Checks that producer can be found by {@link #findProducer}, i.e. it has max priority in this channel
+     */
+    boolean isTopProducer(String id, String channelId, @Nullable TransactionHandle tx) throws SQLException;
+
     List<Peer> listConnectedConsumersByRequest(String channelId, String idempotencyKey, String requestHash,
                                                @Nullable TransactionHandle tx) throws SQLException;
 
@@ -50,5 +60,14 @@ public interface PeerDao {
         Priority(int val) {
             this.val = val;
         }
+
+        public int value() {
+            return val;
+        }
     }
+
+    record PrioritizedPeer(
+        Peer peer,
+        int priority
+    ) {}
 }
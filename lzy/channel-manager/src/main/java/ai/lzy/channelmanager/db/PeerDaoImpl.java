@@ -64,6 +64,20 @@ public class PeerDaoImpl implements PeerDao {
         ORDER BY priority DESC, RANDOM() LIMIT 1
         """.formatted(FIELDS);
 
+    private static final String LIST_PRODUCERS = """
+        SELECT %s FROM peers
+        WHERE channel_id = ? AND "role" = 'PRODUCER' AND priority >= 0
+        """.formatted(FIELDS);
+
+    private static final String IS_TOP_PRODUCER = """
+        SELECT priority >= 0 AND priority = (
+            SELECT MAX(priority) FROM peers
+            WHERE channel_id = ? AND "role" = 'PRODUCER'
+        )
+        FROM peers
+        WHERE id = ? AND channel_id = ? AND "role" = 'PRODUCER'
+        """;
+
     @SuppressWarnings("checkstyle:LineLength")
     private static final String IDEMPOTENT_CREATE_PEER_IDK = """
         WITH
@@ -147,6 +161,36 @@ public class PeerDaoImpl implements PeerDao {
         });
     }
 
+    @Override
+    public List<PrioritizedPeer> listProducers(String channelId, @Nullable TransactionHandle tx) throws SQLException {
+        return DbOperation.execute(tx, storage, connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(LIST_PRODUCERS)) {
+                ps.setString(1, channelId);
+
+                ResultSet rs = ps.executeQuery();
+                var producers = new ArrayList<PrioritizedPeer>();
+                while (rs.next()) {
+                    producers.add(new PrioritizedPeer(readPeer(rs), rs.getInt("priority")));
+                }
+                return producers;
+            }
+        });
+    }
+
+    @Override
+    public boolean isTopProducer(String id, String channelId, @Nullable TransactionHandle tx) throws SQLException {
+        return DbOperation.execute(tx, storage, connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(IS_TOP_PRODUCER)) {
+                ps.setString(1, channelId);
+                ps.setString(2, id);
+                ps.setString(3, channelId);
+
+                ResultSet rs = ps.executeQuery();
+                return rs.next() && rs.getBoolean(1);
+            }
+        });
+    }
+
     @Override
     public List<Peer> listConnectedConsumersByRequest(String channelId, String idempotencyKey, String requestHash,
                                                       @Nullable TransactionHandle tx) throws SQLException
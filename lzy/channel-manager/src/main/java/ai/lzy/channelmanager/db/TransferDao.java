@@ -22,6 +22,14 @@ public interface TransferDao {
     void markActive(String id, String channelId, String idempotencyKey, @Nullable TransactionHandle tx)
         throws SQLException;
 
+    /**
+     * Atomic request to mark pending transfer as active in one statement
+     *
+     * @return true if transfer was pending or it is already marked active with this key, false otherwise
+     */
+    boolean markActiveIfPending(String id, String channelId, @Nullable String idempotencyKey,
+                                @Nullable TransactionHandle tx) throws SQLException;
+
     void markFailed(String id, String channelId, String errorDescription, String idempotencyKey,
                     @Nullable TransactionHandle tx) throws SQLException;
 
@@ -57,6 +57,13 @@ public class TransferDaoImpl implements TransferDao {
           WHERE id = ? AND channel_id = ?
         """;
 
+    private static final String MARK_ACTIVE_IF_PENDING = """
+        UPDATE transfers
+          SET state = 'ACTIVE', state_change_idk = ?
+          WHERE id = ? AND channel_id = ?
+            AND (state = 'PENDING' OR state = 'ACTIVE' AND state_change_idk IS NOT DISTINCT FROM ?)
+        """;
+
     private static final String MARK_FAILED = """
         UPDATE transfers
           SET state = ?, error_description = ?, state_change_idk = ?
@@ -146,6 +153,22 @@ public class TransferDaoImpl implements TransferDao {
         });
     }
 
+    @Override
+    public boolean markActiveIfPending(String id, String channelId, @Nullable String idempotencyKey,
+                                       @Nullable TransactionHandle tx) throws SQLException
+    {
+        return DbOperation.execute(tx, storage, connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(MARK_ACTIVE_IF_PENDING)) {
+                ps.setString(1, idempotencyKey);
+                ps.setString(2, id);
+                ps.setString(3, channelId);
+                ps.setString(4, idempotencyKey);
+
+                return ps.executeUpdate() > 0;
+            }
+        });
+    }
+
     @Override
     public void markFailed(String id, String channelId, String errorDescription, String idempotencyKey,
                            @Nullable TransactionHandle tx) throws SQLException
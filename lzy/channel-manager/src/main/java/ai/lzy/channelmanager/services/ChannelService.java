@@ -1,5 +1,6 @@
 package ai.lzy.channelmanager.services;
 
+import ai.lzy.channelmanager.ChannelRoutingCache;
 import ai.lzy.channelmanager.db.ChannelDao;
 import ai.lzy.channelmanager.db.ChannelManagerDataSource;
 import ai.lzy.channelmanager.db.PeerDao;
@@ -27,12 +28,16 @@ public class ChannelService extends LzyChannelManagerPrivateImplBase {
     private final ChannelDao channelDao;
     private final PeerDao peerDao;
     private final ChannelManagerDataSource storage;
+    private final ChannelRoutingCache routes;
     private final IdGenerator idGenerator = new RandomIdGenerator();
 
-    public ChannelService(ChannelDao channelDao, PeerDao peerDao, ChannelManagerDataSource storage) {
+    public ChannelService(ChannelDao channelDao, PeerDao peerDao, ChannelManagerDataSource storage,
+                          ChannelRoutingCache routes)
+    {
         this.channelDao = channelDao;
         this.peerDao = peerDao;
         this.storage = storage;
+        this.routes = routes;
     }
 
     @Override
@@ -124,6 +129,7 @@ public class ChannelService extends LzyChannelManagerPrivateImplBase {
             // Just dropping channel from db here
             // Caller must drop all vms on this channel by itself
             DbHelper.withRetries(LOG, () -> channelDao.drop(request.getChannelId(), null));
+            routes.invalidateChannel(request.getChannelId());
         } catch (Exception e) {
             LOG.error("{} Cannot destroy channel in db: ", logPrefix, e);
             throw Status.INTERNAL
@@ -142,6 +148,7 @@ public class ChannelService extends LzyChannelManagerPrivateImplBase {
 
         try {
             DbHelper.withRetries(LOG, () -> channelDao.dropAll(request.getExecutionId(), null));
+            routes.invalidateExecution(request.getExecutionId());
         } catch (Exception e) {
             LOG.error("{} Cannot destroy channels in db: ", logPrefix, e);
             throw Status.INTERNAL
@@ -1,11 +1,13 @@
 package ai.lzy.channelmanager.services;
 
 import ai.lzy.channelmanager.ActionScheduler;
+import ai.lzy.channelmanager.ChannelRoutingCache;
 import ai.lzy.channelmanager.LzyServiceClient;
 import ai.lzy.channelmanager.access.IamAccessManager;
 import ai.lzy.channelmanager.db.ChannelDao;
 import ai.lzy.channelmanager.db.ChannelManagerDataSource;
 import ai.lzy.channelmanager.db.PeerDao;
+import ai.lzy.channelmanager.db.PeerDao.PrioritizedPeer;
 import ai.lzy.channelmanager.db.TransferDao;
 import ai.lzy.channelmanager.db.TransferDao.State;
 import ai.lzy.channelmanager.model.Channel;
@@ -27,10 +29,20 @@ import jakarta.annotation.Nullable;
 import jakarta.inject.Singleton;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.PSQLState;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static ai.lzy.channelmanager.db.PeerDao.Priority.BACKUP;
 import static ai.lzy.channelmanager.model.Peer.Role.CONSUMER;
@@ -42,6 +54,9 @@ import static ai.lzy.util.grpc.GrpcHeaders.getIdempotencyKey;
 public class SlotsService extends LzyChannelManagerGrpc.LzyChannelManagerImplBase {
     private static final Logger LOG = LogManager.getLogger(SlotsService.class);
 
+    private static final Status PEER_IS_BUSY = Status.UNAVAILABLE
+        .withDescription("Cannot unbind this slot now, there are some not started transfers");
+
     private final PeerDao peerDao;
     private final ChannelDao channelDao;
     private final ChannelManagerDataSource storage;
@@ -49,10 +64,11 @@ public class SlotsService extends LzyChannelManagerGrpc.LzyChannelManagerImplBas
     private final ActionScheduler action;
     private final LzyServiceClient lzyServiceClient;
     private final IamAccessManager accessManager;
+    private final ChannelRoutingCache routes;
 
     public SlotsService(PeerDao peerDao, ChannelDao channelDao, ChannelManagerDataSource storage,
                         TransferDao transferDao, ActionScheduler action, LzyServiceClient lzyServiceClient,
-                        IamAccessManager accessManager)
+                        IamAccessManager accessManager, ChannelRoutingCache routes)
     {
         this.peerDao = peerDao;
         this.channelDao = channelDao;
@@ -61,23 +77,146 @@ public class SlotsService extends LzyChannelManagerGrpc.LzyChannelManagerImplBas
         this.action = action;
         this.lzyServiceClient = lzyServiceClient;
         this.accessManager = accessManager;
+        this.routes = routes;
     }
 
     @Override
     public void bind(LCMS.BindRequest request, StreamObserver<LCMS.BindResponse> responseObserver) {
-        var channelId = request.getChannelId();
-        var peerId = request.getPeerId();
+        final Channel channel = getChannelAndCheckAccess(request.getChannelId(), "Bind");
+        var item = prepareBind(request, channel, getIdempotencyKey());
+
+        if (item.role() == CONSUMER) {
+            var producerAndTransfer = createConsumer(item);
+
+            responseObserver.onNext(consumerBindResponse(item, producerAndTransfer));
+            responseObserver.onCompleted();
+            return;
+        }
+
+        var producerAndConsumerTransfers = createProducer(item);
+        cacheProducer(item, producerAndConsumerTransfers.producer());
+
+        responseObserver.onNext(producerBindResponse(producerAndConsumerTransfers));
+        responseObserver.onCompleted();
+
+        // Start actions after response is sent
+        startTransfers(producerAndConsumerTransfers, item.idempotencyKey());
+    }
+
+    @Override
+    public void bindMany(BindManyRequest request, StreamObserver<BindManyResponse> responseObserver) {
+        int n = request.getItemsCount();
+        // Failure of one item does not fail others, so errors are collected per item
+        var items = new BindItem[n];
+        var errors = new Status[n];
+        var channels = new HashMap<String, Channel>();
+
+        for (int i = 0; i < n; i++) {
+            var item = request.getItems(i);
+            try {
+                var channel = channels.computeIfAbsent(item.getRequest().getChannelId(), this::getChannel);
+                if (channel == null) {
+                    errors[i] = Status.NOT_FOUND.withDescription("Channel not found");
+                    continue;
+                }
+                items[i] = prepareBind(item.getRequest(), channel, item.getIdempotencyKey());
+            } catch (StatusRuntimeException e) {
+                errors[i] = e.getStatus();
+            }
+        }
+
+        var denied = deniedChannels(channels.values(), "BindMany");
+        for (int i = 0; i < n; i++) {
+            if (items[i] != null && denied.contains(items[i].channelId())) {
+                items[i] = null;
+                errors[i] = Status.PERMISSION_DENIED;
+            }
+        }
+
+        LOG.info("(BindMany): bind {} peers to {} channels in one transaction", n, channels.size());
+
+        Object[] results;
+        try {
+            results = withActualProducers(channels.keySet(), () -> bindAll(items));
+        } catch (Exception e) {
+            LOG.error("(BindMany): Cannot bind peers in one transaction, bind them one by one: ", e);
+
+            results = new Object[n];
+            for (int i = 0; i < n; i++) {
+                var item = items[i];
+                if (item == null) {
+                    continue;
+                }
+                try {
+                    results[i] = item.role() == CONSUMER ? createConsumer(item) : createProducer(item);
+                } catch (StatusRuntimeException ex) {
+                    items[i] = null;
+                    errors[i] = ex.getStatus();
+                }
+            }
+        }
+
+        var builder = BindManyResponse.newBuilder();
+        for (int i = 0; i < n; i++) {
+            var item = items[i];
+            var result = BindManyResponse.Result.newBuilder();
+            if (item == null) {
+                result.setError(toProto(errors[i]));
+            } else if (item.role() == CONSUMER) {
+                result.setResponse(consumerBindResponse(item, (PeerAndTransfer) results[i]));
+            } else {
+                var producerAndConsumerTransfers = (ProducerAndConsumerTransfers) results[i];
+                cacheProducer(item, producerAndConsumerTransfers.producer());
+                result.setResponse(producerBindResponse(producerAndConsumerTransfers));
+            }
+            builder.addResults(result.build());
+        }
+
+        responseObserver.onNext(builder.build());
+        responseObserver.onCompleted();
+
+        // Start actions after response is sent
+        for (int i = 0; i < n; i++) {
+            if (items[i] != null && results[i] instanceof ProducerAndConsumerTransfers producerAndConsumerTransfers) {
+                startTransfers(producerAndConsumerTransfers, items[i].idempotencyKey());
+            }
+        }
+    }
+
+    /**
+     * Binds all not null items in one transaction.
+     *
+     * @return results of binds in order of items
+     */
+    private Object[] bindAll(BindItem[] items) throws SQLException {
+        try (var tx = TransactionHandle.create(storage)) {
+            var loadedProducers = new HashMap<BindItem, List<PrioritizedPeer>>();
+            var res = new Object[items.length];
+            for (int i = 0; i < items.length; i++) {
+                var item = items[i];
+                if (item != null) {
+                    res[i] = item.role() == CONSUMER
+                        ? createConsumer(item, loadedProducers, tx)
+                        : createProducer(item, tx);
+                }
+            }
+            tx.commit();
+            loadedProducers.forEach(this::cacheProducers);
+            return res;
+        }
+    }
+
+    private BindItem prepareBind(LCMS.BindRequest request, Channel channel, String idempotencyKey) {
         var peerDesc = PeerDescription.newBuilder()
-            .setPeerId(peerId)
+            .setPeerId(request.getPeerId())
             .setSlotPeer(SlotPeer.newBuilder()
                 .setPeerUrl(request.getPeerUrl())
                 .build())
             .build();
 
-        final Channel channel = getChannelAndCheckAccess(request.getChannelId(), "Bind");
-
         var logPrefix = "(Bind: {peerId: %s, channelId: %s, userId: %s, workflowName: %s, execId: %s}): ".formatted(
-            peerId, channelId, channel.userId(), channel.workflowName(), channel.executionId()
+            request.getPeerId(), request.getChannelId(), channel.userId(), channel.workflowName(),
+            channel.executionId()
         );
 
         var role = switch (request.getRole()) {
@@ -92,28 +231,33 @@ public class SlotsService extends LzyChannelManagerGrpc.LzyChannelManagerImplBas
             case PRODUCER -> PRODUCER;
         };
 
-        var idempotencyKey = getIdempotencyKey();
-        var requestHash = IdempotencyUtils.md5(request);
+        return new BindItem(request.getChannelId(), peerDesc, role, idempotencyKey, IdempotencyUtils.md5(request),
+            logPrefix, routes.version(request.getChannelId()));
+    }
 
-        if (role == CONSUMER) {
-            var producerAndTransfer = createConsumer(channelId, peerDesc, logPrefix, role, idempotencyKey, requestHash);
+    private void cacheProducer(BindItem item, Peer producer) {
+        routes.addProducer(item.channelId(), new PrioritizedPeer(producer, PeerDao.Priority.PRIMARY.value()),
+            item.routesVersion());
+    }
 
-            var builder = LCMS.BindResponse.newBuilder();
-            if (producerAndTransfer != null) {
-                LOG.info("{} Connected to producer(peerId: {})", logPrefix, producerAndTransfer.peer.id());
+    private void cacheProducers(BindItem item, List<PrioritizedPeer> producers) {
+        routes.putProducers(item.channelId(), producers, item.routesVersion());
+    }
 
-                builder.setPeer(producerAndTransfer.peer.description());
-                builder.setTransferId(producerAndTransfer.transferId);
-            }
-            responseObserver.onNext(builder.build());
-            responseObserver.onCompleted();
+    private static LCMS.BindResponse consumerBindResponse(BindItem item,
+                                                          @Nullable PeerAndTransfer producerAndTransfer)
+    {
+        var builder = LCMS.BindResponse.newBuilder();
+        if (producerAndTransfer != null) {
+            LOG.info("{} Connected to producer(peerId: {})", item.logPrefix(), producerAndTransfer.peer.id());
 
-            return;
+            builder.setPeer(producerAndTransfer.peer.description());
+            builder.setTransferId(producerAndTransfer.transferId);
         }
+        return builder.build();
+    }
 
-        var producerAndConsumerTransfers = createProducer(channelId, peerId, peerDesc, logPrefix, role, idempotencyKey,
-            requestHash);
-
+    private static LCMS.BindResponse producerBindResponse(ProducerAndConsumerTransfers producerAndConsumerTransfers) {
         // Finding storage consumer
         PeerAndTransfer storageConsumer = null;
         for (var consumer : producerAndConsumerTransfers.transfers) {
@@ -128,10 +272,10 @@ public class SlotsService extends LzyChannelManagerGrpc.LzyChannelManagerImplBas
             builder.setPeer(storageConsumer.peer.description());
             builder.setTransferId(storageConsumer.transferId);
         }
-        responseObserver.onNext(builder.build());
-        responseObserver.onCompleted();
+        return builder.build();
+    }
 
-        // Start actions after response is sent
+    private void startTransfers(ProducerAndConsumerTransfers producerAndConsumerTransfers, String idempotencyKey) {
         var transfers = producerAndConsumerTransfers.transfers;
 
         for (int i = 0, n = transfers.size(); i < n; i++) {
@@ -154,16 +298,7 @@ public class SlotsService extends LzyChannelManagerGrpc.LzyChannelManagerImplBas
         final boolean res;
 
         try {
-            res = DbHelper.withRetries(LOG, () -> {
-                try (var tx = TransactionHandle.create(storage)) {
-                    if (!transferDao.hasPendingOrActiveTransfers(request.getPeerId(), channel.id(), tx)) {
-                        peerDao.drop(request.getPeerId(), channel.id(), tx);
-                        tx.commit();
-                        return true;
-                    }
-                    return false;
-                }
-            });
+            res = unbindInTx(List.of(request))[0];
         } catch (Exception e) {
             LOG.error("{} Cannot unbind slot: ", logPrefix, e);
             responseObserver.onError(
@@ -181,10 +316,105 @@ public class SlotsService extends LzyChannelManagerGrpc.LzyChannelManagerImplBas
 
         LOG.error("{} Cannot unbind this slot now, there are some not started transfers", logPrefix);
 
-        responseObserver.onError(Status
-            .UNAVAILABLE
-            .withDescription("Cannot unbind this slot now, there are some not started transfers")
-            .asRuntimeException());
+        responseObserver.onError(PEER_IS_BUSY.asRuntimeException());
+    }
+
+    @Override
+    public void unbindMany(UnbindManyRequest request, StreamObserver<UnbindManyResponse> responseObserver) {
+        int n = request.getRequestsCount();
+        // Failure of one unbind does not fail others, so errors are collected per request
+        var errors = new Status[n];
+        var channels = new HashMap<String, Channel>();
+
+        for (int i = 0; i < n; i++) {
+            try {
+                var channel = channels.computeIfAbsent(request.getRequests(i).getChannelId(), this::getChannel);
+                if (channel == null) {
+                    errors[i] = Status.NOT_FOUND.withDescription("Channel not found");
+                }
+            } catch (StatusRuntimeException e) {
+                errors[i] = e.getStatus();
+            }
+        }
+
+        var denied = deniedChannels(channels.values(), "UnbindMany");
+        var allowed = new ArrayList<Integer>(n);
+        for (int i = 0; i < n; i++) {
+            if (errors[i] == null && denied.contains(request.getRequests(i).getChannelId())) {
+                errors[i] = Status.PERMISSION_DENIED;
+            } else if (errors[i] == null) {
+                allowed.add(i);
+            }
+        }
+
+        var requests = allowed.stream().map(request::getRequests).toList();
+        try {
+            var unbound = unbindInTx(requests);
+            for (int k = 0; k < unbound.length; k++) {
+                if (!unbound[k]) {
+                    errors[allowed.get(k)] = PEER_IS_BUSY;
+                }
+            }
+        } catch (Exception e) {
+            LOG.error("(UnbindMany): Cannot unbind slots in one transaction, unbind them one by one: ", e);
+
+            for (int k = 0; k < requests.size(); k++) {
+                try {
+                    if (!unbindInTx(List.of(requests.get(k)))[0]) {
+                        errors[allowed.get(k)] = PEER_IS_BUSY;
+                    }
+                } catch (Exception ex) {
+                    LOG.error("(UnbindMany): Cannot unbind slot {}: ", requests.get(k).getPeerId(), ex);
+                    errors[allowed.get(k)] = Status.INTERNAL.withDescription("Cannot unbind slot");
+                }
+            }
+        }
+
+        var builder = UnbindManyResponse.newBuilder();
+        for (int i = 0; i < n; i++) {
+            var result = UnbindManyResponse.Result.newBuilder();
+            if (errors[i] != null) {
+                result.setError(toProto(errors[i]));
+            } else {
+                result.setResponse(LCMS.UnbindResponse.getDefaultInstance());
+            }
+            builder.addResults(result.build());
+        }
+
+        var busy = Arrays.stream(errors).filter(error -> error == PEER_IS_BUSY).count();
+        if (busy > 0) {
+            LOG.warn("(UnbindMany): Cannot unbind {} slots now, there are some not started transfers", busy);
+        }
+
+        responseObserver.onNext(builder.build());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Drops peers in one transaction, if they have no pending or active transfers.
+     *
+     * @return for each request, true if peer is dropped or does not exist, false if it cannot be dropped now
+     */
+    private boolean[] unbindInTx(List<LCMS.UnbindRequest> requests) throws Exception {
+        return DbHelper.withRetries(LOG, () -> {
+            try (var tx = TransactionHandle.create(storage)) {
+                var unbound = new boolean[requests.size()];
+                var droppedProducers = new ArrayList<Peer>();
+                for (int i = 0; i < requests.size(); i++) {
+                    var req = requests.get(i);
+                    if (!transferDao.hasPendingOrActiveTransfers(req.getPeerId(), req.getChannelId(), tx)) {
+                        var peer = peerDao.drop(req.getPeerId(), req.getChannelId(), tx);
+                        if (peer != null && peer.role() == PRODUCER) {
+                            droppedProducers.add(peer);
+                        }
+                        unbound[i] = true;
+                    }
+                }
+                tx.commit();
+                droppedProducers.forEach(peer -> routes.invalidateProducers(peer.channelId()));
+                return unbound;
+            }
+        });
     }
 
     @Override
@@ -273,15 +503,20 @@ public class SlotsService extends LzyChannelManagerGrpc.LzyChannelManagerImplBas
                 }
             });
         } catch (StatusRuntimeException e) {
+            routes.invalidateProducers(channel.id());
             responseObserver.onError(e);
             throw e;
         } catch (Exception e) {
+            routes.invalidateProducers(channel.id());
             LOG.error("{} Cannot process transfer failed: ", logPrefix, e);
             throw Status.INTERNAL
                 .withDescription("Cannot process transfer failed")
                 .asRuntimeException();
         }
 
+        // Priority of failed producer was decremented, so new consumers must select producer again
+        routes.invalidateProducers(channel.id());
+
         responseObserver.onNext(TransferFailedResponse.newBuilder()
             .setNewPeer(resp.peer().description())
             .setNewTransferId(resp.transferId())
@@ -304,8 +539,9 @@ public class SlotsService extends LzyChannelManagerGrpc.LzyChannelManagerImplBas
         var idempotencyKey = getIdempotencyKey();
         var requestHash = IdempotencyUtils.md5(request);
 
+        final boolean storageProducerCreated;
         try {
-            DbHelper.withRetries(LOG, () -> {
+            storageProducerCreated = DbHelper.withRetries(LOG, () -> {
                 try (var tx = TransactionHandle.create(storage)) {
                     var transfer = transferDao.get(request.getTransferId(), channel.id(), tx);
 
@@ -338,6 +574,7 @@ public class SlotsService extends LzyChannelManagerGrpc.LzyChannelManagerImplBas
                     }
 
                     tx.commit();
+                    return transfer.to().description().hasStoragePeer();
                 }
             });
         } catch (StatusRuntimeException e) {
@@ -353,6 +590,11 @@ public class SlotsService extends LzyChannelManagerGrpc.LzyChannelManagerImplBas
             throw ex;
         }
 
+        if (storageProducerCreated) {
+            // Storage became producer with BACKUP priority
+            routes.invalidateProducers(channel.id());
+        }
+
         responseObserver.onNext(TransferCompletedResponse.newBuilder().build());
         responseObserver.onCompleted();
     }
@@ -376,15 +618,15 @@ public class SlotsService extends LzyChannelManagerGrpc.LzyChannelManagerImplBas
         }
 
         final var authenticationContext = AuthenticationContext.current();
-        final String subjId = Objects.requireNonNull(authenticationContext).getSubject().id();
+        final var subj = Objects.requireNonNull(authenticationContext).getSubject();
 
         var channel = channels.get(0).channel();
 
-        var hasAccess = accessManager.checkAccess(subjId, channel.userId(), channel.workflowName(), WORKFLOW_RUN);
+        var hasAccess = accessManager.checkAccess(subj, channel.userId(), channel.workflowName(), WORKFLOW_RUN);
 
         if (!hasAccess) {
             LOG.error("GetChannelsStatus: Permission denied (executionId: {}, userId: {}, subjId: {})",
-                channel.executionId(), channel.userId(), subjId);
+                channel.executionId(), channel.userId(), subj.id());
             throw Status.PERMISSION_DENIED.asRuntimeException();
         }
 
@@ -407,27 +649,90 @@ public class SlotsService extends LzyChannelManagerGrpc.LzyChannelManagerImplBas
     }
 
     private Channel getChannelAndCheckAccess(String channelId, String callName) {
+        final Channel channel = getChannel(channelId);
+        checkAccess(List.of(channel), callName);
+        return channel;
+    }
+
+    private Channel getChannel(String channelId) {
         final Channel channel;
 
         try {
-            channel = DbHelper.withRetries(LOG, () -> channelDao.get(channelId, null));
+            var cached = routes.getChannel(channelId);
+            if (cached != null) {
+                channel = cached;
+            } else {
+                channel = DbHelper.withRetries(LOG, () -> channelDao.get(channelId, null));
+                if (channel != null) {
+                    routes.putChannel(channel);
+                }
+            }
         } catch (Exception e) {
             LOG.error("Cannot get channel {}", channelId, e);
 
             throw Status.INTERNAL.asRuntimeException();
         }
 
-        final var authenticationContext = AuthenticationContext.current();
-        final String subjId = Objects.requireNonNull(authenticationContext).getSubject().id();
-
-        var hasAccess = accessManager.checkAccess(subjId, channel.userId(), channel.workflowName(), WORKFLOW_RUN);
+        return channel;
+    }
 
-        if (!hasAccess) {
-            LOG.error("{}: Permission denied (executionId: {}, userId: {}, subjId: {})", callName,
-                channel.executionId(), channel.userId(), subjId);
+    private void checkAccess(Collection<Channel> channels, String callName) {
+        if (!hasAccess(channels)) {
+            logPermissionDenied(channels.iterator().next(), callName);
             throw Status.PERMISSION_DENIED.asRuntimeException();
         }
-        return channel;
+    }
+
+    /**
+     * Checks access to all channels at once, and to each workflow separately only if access is denied.
+     *
+     * @return ids of channels, access to which is denied
+     */
+    private Set<String> deniedChannels(Collection<Channel> channels, String callName) {
+        if (channels.isEmpty() || hasAccess(channels)) {
+            return Set.of();
+        }
+
+        var byWorkflow = channels.stream()
+            .collect(Collectors.groupingBy(channel -> channel.userId() + "/" + channel.workflowName()));
+
+        var denied = new HashSet<String>();
+        for (var workflowChannels : byWorkflow.values()) {
+            var channel = workflowChannels.get(0);
+            if (!hasAccess(List.of(channel))) {
+                logPermissionDenied(channel, callName);
+                workflowChannels.forEach(c -> denied.add(c.id()));
+            }
+        }
+        return denied;
+    }
+
+    private boolean hasAccess(Collection<Channel> channels) {
+        final var authenticationContext = AuthenticationContext.current();
+        final var subj = Objects.requireNonNull(authenticationContext).getSubject();
+
+        if (channels.size() == 1) {
+            var channel = channels.iterator().next();
+            return accessManager.checkAccess(subj, channel.userId(), channel.workflowName(), WORKFLOW_RUN);
+        }
+
+        var workflows = channels.stream()
+            .map(channel -> channel.userId() + "/" + channel.workflowName())
+            .toList();
+        return accessManager.checkAccess(subj, workflows, WORKFLOW_RUN);
+    }
+
+    private static void logPermissionDenied(Channel channel, String callName) {
+        var subj = Objects.requireNonNull(AuthenticationContext.current()).getSubject();
+        LOG.error("{}: Permission denied (executionId: {}, userId: {}, subjId: {})", callName,
+            channel.executionId(), channel.userId(), subj.id());
+    }
+
+    private static com.google.rpc.Status toProto(Status status) {
+        return com.google.rpc.Status.newBuilder()
+            .setCode(status.getCode().value())
+            .setMessage(status.getDescription() != null ? status.getDescription() : status.getCode().name())
+            .build();
     }
 
     /**
@@ -437,46 +742,52 @@ public class SlotsService extends LzyChannelManagerGrpc.LzyChannelManagerImplBas
      *
      * @return pair of producer and list of consumer transfers
      */
-    private ProducerAndConsumerTransfers createProducer(String channelId, String peerId, PeerDescription peerDesc,
-                                                        String logPrefix, Peer.Role role, String idempotencyKey,
-                                                        String requestHash)
-    {
+    private ProducerAndConsumerTransfers createProducer(BindItem item) {
         try {
             return DbHelper.withRetries(LOG, () -> {
                 try (var tx = TransactionHandle.create(storage)) {
-                    var prod = peerDao.create(channelId, peerDesc, role, PeerDao.Priority.PRIMARY, false,
-                        idempotencyKey, requestHash, tx);
-
-                    var consumers = peerDao.listConnectedConsumersByRequest(channelId, idempotencyKey, requestHash, tx);
-                    if (consumers.isEmpty()) {
-                        consumers = peerDao.markConsumersAsConnected(channelId, idempotencyKey, requestHash, tx);
-                    }
-
-                    final var transfers = new ArrayList<PeerAndTransfer>();
-
-                    for (int i = 0, n = consumers.size(); i < n; i++) {
-                        var consumer = consumers.get(i);
-                        // Setting state to ACTIVE if consumer has storage peer
-                        // We will return this consumer in response to producer
-                        var state = consumer.description().hasStoragePeer() ? State.ACTIVE : State.PENDING;
-
-                        var transferId = transferDao.create(peerId, consumer.id(), channelId, state,
-                            idempotencyKey + "_" + i, requestHash, tx);
-                        transfers.add(new PeerAndTransfer(consumer, transferId));
-                    }
-
+                    var res = createProducer(item, tx);
                     tx.commit();
-                    return new ProducerAndConsumerTransfers(prod, transfers);
+                    return res;
                 }
             });
         } catch (Exception e) {
-            LOG.error("{} Cannot save peer description in db: ", logPrefix, e);
+            LOG.error("{} Cannot save peer description in db: ", item.logPrefix(), e);
             throw Status.INTERNAL
                 .withDescription("Cannot save peer description in db")
                 .asRuntimeException();
         }
     }
 
+    private ProducerAndConsumerTransfers createProducer(BindItem item, TransactionHandle tx) throws SQLException {
+        var channelId = item.channelId();
+        var idempotencyKey = item.idempotencyKey();
+        var requestHash = item.requestHash();
+
+        var prod = peerDao.create(channelId, item.peerDesc(), item.role(), PeerDao.Priority.PRIMARY, false,
+            idempotencyKey, requestHash, tx);
+
+        var consumers = peerDao.listConnectedConsumersByRequest(channelId, idempotencyKey, requestHash, tx);
+        if (consumers.isEmpty()) {
+            consumers = peerDao.markConsumersAsConnected(channelId, idempotencyKey, requestHash, tx);
+        }
+
+        final var transfers = new ArrayList<PeerAndTransfer>();
+
+        for (int i = 0, n = consumers.size(); i < n; i++) {
+            var consumer = consumers.get(i);
+            // Setting state to ACTIVE if consumer has storage peer
+            // We will return this consumer in response to producer
+            var state = consumer.description().hasStoragePeer() ? State.ACTIVE : State.PENDING;
+
+            var transferId = transferDao.create(item.peerDesc().getPeerId(), consumer.id(), channelId, state,
+                idempotencyKey + "_" + i, requestHash, tx);
+            transfers.add(new PeerAndTransfer(consumer, transferId));
+        }
+
+        return new ProducerAndConsumerTransfers(prod, transfers);
+    }
+
     /**
      * Atomic consumer creation
      * If producer not found, mark consumer as not connected
@@ -486,38 +797,91 @@ public class SlotsService extends LzyChannelManagerGrpc.LzyChannelManagerImplBas
      * @return producer with transfer id or null if producer not found
      */
     @Nullable
-    private PeerAndTransfer createConsumer(String channelId, PeerDescription peerDesc, String logPrefix, Peer.Role role,
-                                           String idempotencyKey, String requestHash)
-    {
+    private PeerAndTransfer createConsumer(BindItem item) {
         try {
-            return DbHelper.withRetries(LOG, () -> {
+            return withActualProducers(List.of(item.channelId()), () -> {
                 try (var tx = TransactionHandle.create(storage)) {
-                    var peerId = peerDesc.getPeerId();
-                    var producer = peerDao.findProducer(channelId, tx);
-                    peerDao.create(channelId, peerDesc, role, PeerDao.Priority.PRIMARY, producer != null,
-                        idempotencyKey, requestHash, tx);
-
-                    if (producer != null) {
-                        // We are assuming call cannot fail after this transaction
-                        // So we can create transfer already in active state
-                        var transferId = transferDao.create(producer.id(), peerId, channelId, State.ACTIVE,
-                            idempotencyKey, requestHash, tx);
-                        tx.commit();
-                        return new PeerAndTransfer(producer, transferId);
-                    }
-
+                    var loadedProducers = new HashMap<BindItem, List<PrioritizedPeer>>(1);
+                    var res = createConsumer(item, loadedProducers, tx);
                     tx.commit();
-                    return null;
+                    loadedProducers.forEach(this::cacheProducers);
+                    return res;
                 }
             });
         } catch (Exception e) {
-            LOG.error("{} Cannot save peer description in db: ", logPrefix, e);
+            LOG.error("{} Cannot save peer description in db: ", item.logPrefix(), e);
             throw Status.INTERNAL
                 .withDescription("Cannot save peer description in db")
                 .asRuntimeException();
         }
     }
 
+    /**
+     * Producers read from DB are added to loadedProducers, they must be cached only after commit.
+     */
+    @Nullable
+    private PeerAndTransfer createConsumer(BindItem item, Map<BindItem, List<PrioritizedPeer>> loadedProducers,
+                                           TransactionHandle tx) throws SQLException
+    {
+        var channelId = item.channelId();
+        var peerId = item.peerDesc().getPeerId();
+
+        // Producer is selected from routing cache if possible, so fast path of bind doesn't list producers
+        var producer = routes.selectProducer(channelId);
+        if (producer != null && !peerDao.isTopProducer(producer.id(), channelId, tx)) {
+            // Producers can be changed by other channel manager instances, cache does not know about it
+            LOG.warn("{} Cached producer {} of channel {} is outdated, reading producers from db",
+                item.logPrefix(), producer.id(), channelId);
+            routes.invalidateProducers(channelId);
+            producer = null;
+        }
+        if (producer == null) {
+            var producers = peerDao.listProducers(channelId, tx);
+            loadedProducers.put(item, producers);
+            producer = ChannelRoutingCache.select(producers);
+        }
+        peerDao.create(channelId, item.peerDesc(), item.role(), PeerDao.Priority.PRIMARY, producer != null,
+            item.idempotencyKey(), item.requestHash(), tx);
+
+        if (producer != null) {
+            // We are assuming call cannot fail after this transaction
+            // So we can create transfer already in active state
+            var transferId = transferDao.create(producer.id(), peerId, channelId, State.ACTIVE,
+                item.idempotencyKey(), item.requestHash(), tx);
+            return new PeerAndTransfer(producer, transferId);
+        }
+
+        return null;
+    }
+
+    /**
+     * Runs bind transaction. Producer taken from routing cache can be already dropped,
+     * in this case transfer cannot reference it, so producers are dropped from cache and transaction is restarted.
+     */
+    private <T> T withActualProducers(Collection<String> channelIds, DbHelper.Func<T> fn) throws Exception {
+        try {
+            return DbHelper.withRetries(LOG, fn);
+        } catch (PSQLException e) {
+            if (!PSQLState.FOREIGN_KEY_VIOLATION.getState().equals(e.getSQLState())) {
+                throw e;
+            }
+
+            LOG.warn("Cached producers of channels {} are outdated, reading them from db", channelIds);
+            channelIds.forEach(routes::invalidateProducers);
+            return DbHelper.withRetries(LOG, fn);
+        }
+    }
+
+    private record BindItem(
+        String channelId,
+        PeerDescription peerDesc,
+        Peer.Role role,
+        String idempotencyKey,
+        String requestHash,
+        String logPrefix,
+        long routesVersion
+    ) {}
+
     private record PeerAndTransfer(
         Peer peer,
         String transferId
@@ -40,7 +40,10 @@ import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
 import java.time.Instant;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 import static ai.lzy.util.grpc.GrpcUtils.*;
@@ -230,6 +233,51 @@ public class ApiTest extends IamOnlyChannelManagerContextTests {
         Assert.assertNotEquals(prodId, resp4.getNewPeer().getPeerId());
     }
 
+    @Test
+    public void testConsumersGetMostPrioritizedProducers() {
+        var chan = privateClient.getOrCreate(
+            LCMPS.GetOrCreateRequest.newBuilder()
+                .setExecutionId("execId")
+                .setWorkflowName(workflowName)
+                .setProducer(LC.PeerDescription.StoragePeer.newBuilder()
+                    .setStorageUri("s3://some-bucket")
+                    .build())
+                .setUserId(user.id())
+                .build());
+
+        // Producers of channel are cached after the first consumer
+        var first = bind(chan.getChannelId(), LCMS.BindRequest.Role.CONSUMER, "c-0", "bind-c-0");
+        Assert.assertEquals("s3://some-bucket", first.getPeer().getStoragePeer().getStorageUri());
+
+        // Slot producers are more prioritized than storage one
+        bind(chan.getChannelId(), LCMS.BindRequest.Role.PRODUCER, "1", "bind-1");
+        bind(chan.getChannelId(), LCMS.BindRequest.Role.PRODUCER, "2", "bind-2");
+
+        var transfers = new HashMap<String, String>();
+        for (int i = 1; i <= 20; i++) {
+            var resp = bind(chan.getChannelId(), LCMS.BindRequest.Role.CONSUMER, "c-" + i, "bind-c-" + i);
+            transfers.putIfAbsent(resp.getPeer().getPeerId(), resp.getTransferId());
+        }
+        // Consumers are spread between producers with the same priority
+        Assert.assertEquals(Set.of("1", "2"), transfers.keySet());
+
+        // Producer with failed transfer becomes less prioritized than new one
+        withIdempotencyKey(publicClient, "failed").transferFailed(
+            LCMS.TransferFailedRequest.newBuilder()
+                .setChannelId(chan.getChannelId())
+                .setDescription("Fail")
+                .setTransferId(transfers.get("1"))
+                .build());
+        bind(chan.getChannelId(), LCMS.BindRequest.Role.PRODUCER, "3", "bind-3");
+
+        var producers = new HashSet<String>();
+        for (int i = 21; i <= 40; i++) {
+            var resp = bind(chan.getChannelId(), LCMS.BindRequest.Role.CONSUMER, "c-" + i, "bind-c-" + i);
+            producers.add(resp.getPeer().getPeerId());
+        }
+        Assert.assertEquals(Set.of("2", "3"), producers);
+    }
+
     @Test
     public void testGetExistingChannel() {
         var channel = privateClient.getOrCreate(
@@ -313,6 +361,103 @@ public class ApiTest extends IamOnlyChannelManagerContextTests {
         Assert.assertEquals(0, status.getChannels(0).getConsumersCount());
     }
 
+    @Test
+    public void testBindManyReportsErrorsPerItem() {
+        var chan = privateClient.getOrCreate(
+            LCMPS.GetOrCreateRequest.newBuilder()
+                .setExecutionId("execId")
+                .setWorkflowName(workflowName)
+                .setUserId(user.id())
+                .setProducer(LC.PeerDescription.StoragePeer.newBuilder()
+                    .setStorageUri("s3://some-bucket")
+                    .build())
+                .build());
+
+        var resp = publicClient.bindMany(LCMS.BindManyRequest.newBuilder()
+            .addItems(bindItem(chan.getChannelId(), LCMS.BindRequest.Role.CONSUMER, "1"))
+            .addItems(bindItem("unknown-channel", LCMS.BindRequest.Role.CONSUMER, "2"))
+            .addItems(bindItem(chan.getChannelId(), LCMS.BindRequest.Role.UNSPECIFIED, "3"))
+            .build());
+
+        Assert.assertEquals(3, resp.getResultsCount());
+        Assert.assertTrue(resp.getResults(0).hasResponse());
+        Assert.assertEquals("s3://some-bucket",
+            resp.getResults(0).getResponse().getPeer().getStoragePeer().getStorageUri());
+        Assert.assertEquals(Status.Code.NOT_FOUND.value(), resp.getResults(1).getError().getCode());
+        Assert.assertEquals(Status.Code.INVALID_ARGUMENT.value(), resp.getResults(2).getError().getCode());
+
+        var state = publicClient.getChannelsStatus(
+            LCMS.GetChannelsStatusRequest.newBuilder()
+                .addAllChannelIds(List.of(chan.getChannelId()))
+                .setExecutionId("execId")
+                .build());
+
+        Assert.assertEquals(1, state.getChannels(0).getConsumersCount());
+        Assert.assertEquals("1", state.getChannels(0).getConsumers(0).getPeerId());
+
+        completeTransfer(chan.getChannelId(), resp.getResults(0).getResponse().getTransferId(), "complete-many");
+    }
+
+    @Test
+    public void testUnbindManyReportsBusyPeers() {
+        var chan = privateClient.getOrCreate(
+            LCMPS.GetOrCreateRequest.newBuilder()
+                .setExecutionId("execId")
+                .setWorkflowName(workflowName)
+                .setUserId(user.id())
+                .setProducer(LC.PeerDescription.StoragePeer.newBuilder()
+                    .setStorageUri("s3://some-bucket")
+                    .build())
+                .build());
+
+        // Consumer has active transfer from storage, so it cannot be unbound yet
+        var resp = bind(chan.getChannelId(), LCMS.BindRequest.Role.CONSUMER, "1", "bind-busy");
+        bind(chan.getChannelId(), LCMS.BindRequest.Role.PRODUCER, "2", "bind-free");
+
+        var unbindResp = publicClient.unbindMany(LCMS.UnbindManyRequest.newBuilder()
+            .addRequests(LCMS.UnbindRequest.newBuilder()
+                .setChannelId(chan.getChannelId())
+                .setPeerId("1")
+                .build())
+            .addRequests(LCMS.UnbindRequest.newBuilder()
+                .setChannelId(chan.getChannelId())
+                .setPeerId("2")
+                .build())
+            .addRequests(LCMS.UnbindRequest.newBuilder()
+                .setChannelId("unknown-channel")
+                .setPeerId("3")
+                .build())
+            .build());
+
+        Assert.assertEquals(3, unbindResp.getResultsCount());
+        Assert.assertEquals(Status.Code.UNAVAILABLE.value(), unbindResp.getResults(0).getError().getCode());
+        Assert.assertTrue(unbindResp.getResults(1).hasResponse());
+        Assert.assertEquals(Status.Code.NOT_FOUND.value(), unbindResp.getResults(2).getError().getCode());
+
+        var state = publicClient.getChannelsStatus(
+            LCMS.GetChannelsStatusRequest.newBuilder()
+                .addAllChannelIds(List.of(chan.getChannelId()))
+                .setExecutionId("execId")
+                .build());
+
+        Assert.assertEquals(1, state.getChannels(0).getConsumersCount());
+        Assert.assertEquals(1, state.getChannels(0).getProducersCount());
+
+        completeTransfer(chan.getChannelId(), resp.getTransferId(), "complete-busy");
+    }
+
+    private static LCMS.BindManyRequest.Item bindItem(String chanId, LCMS.BindRequest.Role role, String peerId) {
+        return LCMS.BindManyRequest.Item.newBuilder()
+            .setRequest(LCMS.BindRequest.newBuilder()
+                .setChannelId(chanId)
+                .setExecutionId("execId")
+                .setRole(role)
+                .setPeerId(peerId)
+                .setPeerUrl("http://" + mockedSlotApiAddress.toString())
+                .build())
+            .setIdempotencyKey("bind-many-" + peerId)
+            .build();
+    }
 
     private static LCMS.BindResponse bind(String chanId, LCMS.BindRequest.Role producer, String value,
                                           String idempotencyKey)
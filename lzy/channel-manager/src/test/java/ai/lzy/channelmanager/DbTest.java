@@ -188,6 +188,8 @@ public class DbTest {
 
         var producer2 = peerDao.findProducer("test-channel", null);
         Assert.assertEquals(peer2, producer2);
+        Assert.assertTrue(peerDao.isTopProducer(peer2.id(), "test-channel", null));
+        Assert.assertFalse(peerDao.isTopProducer(peer1.id(), "test-channel", null));
 
         channelDao.drop(chan.id(), null);
 
@@ -273,6 +275,40 @@ public class DbTest {
         channelDao.dropAll("exec-id", null);
     }
 
+    @Test
+    public void transferDaoMarkActiveIfPending() throws SQLException {
+        channelDao.create("test-channel", "test-user-id", "exec-id", "wfName", null, null, null, null);
+
+        var peer1 = peerDao.create("test-channel", LC.PeerDescription.newBuilder()
+            .setPeerId("peer1")
+            .setSlotPeer(LC.PeerDescription.SlotPeer.newBuilder()
+                .setPeerUrl("peer1")
+                .build())
+            .build(), Peer.Role.PRODUCER, PeerDao.Priority.PRIMARY, false, "idk-1", "some-hash", null);
+
+        var peer2 = peerDao.create("test-channel", LC.PeerDescription.newBuilder()
+            .setPeerId("peer2")
+            .setSlotPeer(LC.PeerDescription.SlotPeer.newBuilder()
+                .setPeerUrl("peer2")
+                .build())
+            .build(), Peer.Role.CONSUMER, PeerDao.Priority.PRIMARY, false, "idk-2", "some-hash", null);
+
+        var transferId = transferDao.create(peer1.id(), peer2.id(), "test-channel", PENDING, "idk-3", "some-hash",
+            null);
+
+        Assert.assertTrue(transferDao.markActiveIfPending(transferId, "test-channel", "idk-4", null));
+        Assert.assertEquals(TransferDao.State.ACTIVE, transferDao.get(transferId, "test-channel", null).state());
+
+        // Retry with the same key is ok, other key means concurrent modification
+        Assert.assertTrue(transferDao.markActiveIfPending(transferId, "test-channel", "idk-4", null));
+        Assert.assertFalse(transferDao.markActiveIfPending(transferId, "test-channel", "idk-5", null));
+
+        transferDao.markCompleted(transferId, "test-channel", "idk-6", null);
+        Assert.assertFalse(transferDao.markActiveIfPending(transferId, "test-channel", "idk-4", null));
+
+        channelDao.dropAll("exec-id", null);
+    }
+
     @Test
     public void listWithoutPeers() throws SQLException {
         var chan = channelDao.create("test-channel", "test-user-id", "exec-id", "wfName", null, null, null, null);
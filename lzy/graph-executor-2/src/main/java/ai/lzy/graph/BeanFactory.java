@@ -3,10 +3,15 @@ package ai.lzy.graph;
 import ai.lzy.common.IdGenerator;
 import ai.lzy.common.RandomIdGenerator;
 import ai.lzy.graph.config.ServiceConfig;
+import ai.lzy.graph.db.TaskDao;
 import ai.lzy.graph.db.impl.GraphExecutorDataSource;
 import ai.lzy.graph.model.debug.InjectedFailures;
+import ai.lzy.graph.services.SchedulingPolicy;
+import ai.lzy.graph.services.impl.CriticalPathPolicy;
+import ai.lzy.graph.services.impl.DependentsCountPolicy;
 import ai.lzy.longrunning.OperationsExecutor;
 import ai.lzy.longrunning.OperationsService;
+import ai.lzy.longrunning.OperationsWatcher;
 import ai.lzy.longrunning.dao.OperationDao;
 import ai.lzy.longrunning.dao.OperationDaoImpl;
 import ai.lzy.util.auth.credentials.RenewableJwt;
@@ -35,10 +40,19 @@ public class BeanFactory {
         return config.getIam().createRenewableToken();
     }
 
+    @Singleton
+    @Bean(preDestroy = "close")
+    @Named("GraphExecutorOperationsWatcher")
+    public OperationsWatcher operationsWatcher(GraphExecutorDataSource storage) {
+        return new OperationsWatcher("graph-executor", storage);
+    }
+
     @Singleton
     @Named("GraphExecutorOperationDao")
-    public OperationDao operationDao(GraphExecutorDataSource storage) {
-        return new OperationDaoImpl(storage);
+    public OperationDao operationDao(GraphExecutorDataSource storage,
+                                     @Named("GraphExecutorOperationsWatcher") OperationsWatcher watcher)
+    {
+        return new OperationDaoImpl(storage, watcher);
     }
 
     @Singleton
@@ -59,6 +73,16 @@ public class BeanFactory {
         return new OperationsService(operationDao);
     }
 
+    @Singleton
+    @Bean(preDestroy = "shutdown")
+    public SchedulingPolicy schedulingPolicy(ServiceConfig config, TaskDao taskDao) {
+        return switch (config.getSchedulingPolicy()) {
+            case "critical-path" -> new CriticalPathPolicy(taskDao);
+            case "dependents" -> new DependentsCountPolicy();
+            default -> throw new IllegalArgumentException("Unknown scheduling policy " + config.getSchedulingPolicy());
+        };
+    }
+
     @Singleton
     @Named("GraphExecutorIdGenerator")
     public IdGenerator idGenerator() {
@@ -49,7 +49,8 @@ public class GraphExecutor {
     public void start() throws InterruptedException, IOException {
         LOG.info("Starting GraphExecutor2 service...");
 
-        var auth = new AuthServerInterceptor(new AuthenticateServiceGrpcClient(APP, iamChannel));
+        var auth = new AuthServerInterceptor(
+            new AuthenticateServiceGrpcClient(APP, iamChannel, config.getIam().getAuthCacheTtl()));
         var internalUserOnly = new AccessServerInterceptor(
             new AccessServiceGrpcClient(APP, iamChannel),
             config.getIam().createRenewableToken()::get, Root.INSTANCE, AuthPermission.INTERNAL_AUTHORIZE);
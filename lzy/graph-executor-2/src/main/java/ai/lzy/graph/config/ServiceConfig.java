@@ -30,11 +30,14 @@ public class ServiceConfig {
 
     private ExecLimits execLimits = new ExecLimits();
 
+    // One of: critical-path, dependents
+    private String schedulingPolicy = "critical-path";
+
     @Getter
     @Setter
     public static class ExecLimits {
-        private int maxUserRunningTasks = 7;
-        private int maxWorkflowRunningTasks = 3;
+        // Total running tasks of this instance, shared fairly between users
+        private int maxRunningTasks = 100;
     }
 }
 
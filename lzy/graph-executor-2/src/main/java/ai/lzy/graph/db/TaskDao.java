@@ -5,7 +5,10 @@ import ai.lzy.model.db.TransactionHandle;
 import jakarta.annotation.Nullable;
 
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface TaskDao {
     void createTasks(List<TaskState> tasks, @Nullable TransactionHandle transaction) throws SQLException;
@@ -21,4 +24,11 @@ public interface TaskDao {
     List<TaskState> loadGraphTasks(String graphId) throws SQLException;
 
     List<TaskState> loadActiveTasks(String instanceId) throws SQLException;
+
+    /**
+     * Loads average durations of previous executions of operations by their names
+     */
+    Map<String, Duration> loadTaskDurations(String userId, Collection<String> opNames) throws SQLException;
+
+    void recordTaskDuration(String userId, String opName, Duration duration) throws SQLException;
 }
@@ -17,10 +17,14 @@ import org.apache.logging.log4j.Logger;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Singleton
 public class TaskDaoImpl implements TaskDao {
@@ -77,6 +81,19 @@ public class TaskDaoImpl implements TaskDao {
         WHERE task.graph_id = ?
         GROUP BY task.id""".formatted(TASK_SELECT_FIELDS_LIST);
 
+    private static final String QUERY_LOAD_TASK_DURATIONS = """
+        SELECT op_name, avg_duration_ms
+        FROM task_duration_stats
+        WHERE user_id = ? AND op_name = ANY (?)""";
+
+    // Exponential moving average, so durations follow changes of operations
+    private static final String TASK_DURATION_UPSERT_STATEMENT = """
+        INSERT INTO task_duration_stats (user_id, op_name, avg_duration_ms, samples)
+        VALUES (?, ?, ?, 1)
+        ON CONFLICT (user_id, op_name) DO UPDATE
+        SET avg_duration_ms = task_duration_stats.avg_duration_ms * 0.8 + EXCLUDED.avg_duration_ms * 0.2,
+            samples = task_duration_stats.samples + 1""";
+
     private static final String QUERY_LOAD_ACTIVE_TASKS = """
         SELECT %s,
           STRING_AGG(t1.dependent_task_id, ',') as dependend_from,
@@ -232,6 +249,36 @@ public class TaskDaoImpl implements TaskDao {
         }
     }
 
+    @Override
+    public Map<String, Duration> loadTaskDurations(String userId, Collection<String> opNames) throws SQLException {
+        try (var connection = storage.connect();
+             PreparedStatement st = connection.prepareStatement(QUERY_LOAD_TASK_DURATIONS))
+        {
+            st.setString(1, userId);
+            st.setArray(2, connection.createArrayOf("text", opNames.toArray()));
+
+            var rs = st.executeQuery();
+
+            var durations = new HashMap<String, Duration>();
+            while (rs.next()) {
+                durations.put(rs.getString("op_name"), Duration.ofMillis(Math.round(rs.getDouble("avg_duration_ms"))));
+            }
+            return durations;
+        }
+    }
+
+    @Override
+    public void recordTaskDuration(String userId, String opName, Duration duration) throws SQLException {
+        try (var connection = storage.connect();
+             PreparedStatement st = connection.prepareStatement(TASK_DURATION_UPSERT_STATEMENT))
+        {
+            st.setString(1, userId);
+            st.setString(2, opName);
+            st.setDouble(3, duration.toMillis());
+            st.execute();
+        }
+    }
+
     private TaskState fromResultSet(ResultSet resultSet) throws SQLException {
         final String taskId = resultSet.getString("id");
         final String taskName = resultSet.getString("task_name");
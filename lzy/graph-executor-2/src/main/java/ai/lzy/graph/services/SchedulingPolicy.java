@@ -0,0 +1,33 @@
+package ai.lzy.graph.services;
+
+import ai.lzy.graph.model.TaskState;
+import jakarta.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Defines order in which ready tasks of one user are launched.
+ * Quota between users is shared fairly by scheduler itself.
+ */
+public interface SchedulingPolicy {
+    /**
+     * Called for not started tasks of graph before any of them can be launched
+     */
+    void onTasksScheduled(Collection<TaskState> tasks);
+
+    /**
+     * Called when task leaves scheduler: finished, failed or dropped with failed graph
+     *
+     * @param duration execution time of completed task or null if it is unknown
+     */
+    void onTaskRemoved(TaskState task, @Nullable Duration duration);
+
+    /**
+     * Priority of ready task, tasks with greater priority are launched first.
+     * Priority is taken once when task becomes ready, so it must not depend on state changed after that.
+     */
+    long priority(TaskState task);
+
+    default void shutdown() {}
+}
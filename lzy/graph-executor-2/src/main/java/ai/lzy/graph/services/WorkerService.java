@@ -6,6 +6,8 @@ import ai.lzy.v1.longrunning.LongRunning;
 import ai.lzy.v1.worker.LWS;
 import jakarta.annotation.Nullable;
 
+import java.time.Duration;
+
 public interface WorkerService {
 
     // Allocator proxy
@@ -17,6 +19,15 @@ public interface WorkerService {
     @Nullable
     LongRunning.Operation getAllocOp(String opId);
 
+    /**
+     * Waits for allocation op completion at most timeout without blocking the caller. onWaited is called
+     * when the op is done, the timeout is expired or it turns out that ops cannot be waited.
+     * On other errors it is called after retryDelay, so the op is polled as if it was not waited.
+     *
+     * @return false if allocator cannot wait for ops, so the op must be polled
+     */
+    boolean waitAllocOp(String opId, Duration timeout, Duration retryDelay, Runnable onWaited);
+
     @Nullable
     LongRunning.Operation cancelAllocOp(String opId, String reason);
 
@@ -36,6 +47,11 @@ public interface WorkerService {
     @Nullable
     LongRunning.Operation getWorkerOp(String vmId, String opId);
 
+    /**
+     * The same as {@link #waitAllocOp}, but for worker op.
+     */
+    boolean waitWorkerOp(String vmId, String opId, Duration timeout, Duration retryDelay, Runnable onWaited);
+
     @Nullable
     LongRunning.Operation cancelWorkerOp(String vmId, String opId);
 
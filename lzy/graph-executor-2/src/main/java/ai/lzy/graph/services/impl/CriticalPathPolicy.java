@@ -0,0 +1,145 @@
+package ai.lzy.graph.services.impl;
+
+import ai.lzy.graph.db.TaskDao;
+import ai.lzy.graph.model.TaskState;
+import ai.lzy.graph.services.SchedulingPolicy;
+import jakarta.annotation.Nullable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static ai.lzy.model.db.DbHelper.withRetries;
+
+/**
+ * Launches first tasks with the longest remaining path to the end of graph.
+ * Length of path is a sum of average durations of its operations from previous executions.
+ * <p>
+ * Durations of completed tasks are recorded in background, so finishing of task does not wait for db.
+ */
+public class CriticalPathPolicy implements SchedulingPolicy {
+    private static final Logger LOG = LogManager.getLogger(CriticalPathPolicy.class);
+
+    // Used if there is no history for any operation of graph
+    private static final Duration DEFAULT_DURATION = Duration.ofMinutes(1);
+
+    private final TaskDao taskDao;
+    private final Map<String, Long> remainingPathMs = new ConcurrentHashMap<>();
+    private final ExecutorService durationsWriter = Executors.newSingleThreadExecutor(r -> {
+        var th = new Thread(r, "task-durations-writer");
+        th.setDaemon(true);
+        return th;
+    });
+
+    public CriticalPathPolicy(TaskDao taskDao) {
+        this.taskDao = taskDao;
+    }
+
+    @Override
+    public void onTasksScheduled(Collection<TaskState> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        var durations = loadDurations(tasks);
+        var defaultDuration = durations.isEmpty()
+            ? DEFAULT_DURATION.toMillis()
+            : Math.round(durations.values().stream().mapToLong(Duration::toMillis).average().orElse(0));
+
+        var byId = tasks.stream().collect(Collectors.toMap(TaskState::id, task -> task));
+
+        // Counting not processed dependents of every task, processing graph from its ends
+        var notProcessed = new HashMap<String, Integer>();
+        var queue = new ArrayDeque<TaskState>();
+        for (var task : tasks) {
+            int count = (int) task.tasksDependedFrom().stream().filter(byId::containsKey).count();
+            notProcessed.put(task.id(), count);
+            if (count == 0) {
+                queue.add(task);
+            }
+        }
+
+        var path = new HashMap<String, Long>();
+        while (!queue.isEmpty()) {
+            var task = queue.poll();
+
+            long longestDependent = 0;
+            for (var dependent : task.tasksDependedFrom()) {
+                longestDependent = Math.max(longestDependent, path.getOrDefault(dependent, 0L));
+            }
+
+            var duration = durations.get(task.name());
+            path.put(task.id(), (duration != null ? duration.toMillis() : defaultDuration) + longestDependent);
+
+            for (var parentId : task.tasksDependedOn()) {
+                var parent = byId.get(parentId);
+                if (parent != null && notProcessed.merge(parentId, -1, Integer::sum) == 0) {
+                    queue.add(parent);
+                }
+            }
+        }
+
+        remainingPathMs.putAll(path);
+    }
+
+    @Override
+    public void onTaskRemoved(TaskState task, @Nullable Duration duration) {
+        remainingPathMs.remove(task.id());
+
+        if (duration != null) {
+            try {
+                durationsWriter.execute(() -> recordDuration(task, duration));
+            } catch (RejectedExecutionException e) {
+                LOG.debug("Duration of task {} is not recorded, policy is shut down", task.id());
+            }
+        }
+    }
+
+    @Override
+    public long priority(TaskState task) {
+        return remainingPathMs.getOrDefault(task.id(), 0L);
+    }
+
+    @Override
+    public void shutdown() {
+        durationsWriter.shutdown();
+        try {
+            if (!durationsWriter.awaitTermination(5, TimeUnit.SECONDS)) {
+                LOG.warn("Durations of tasks were not recorded in time");
+                durationsWriter.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            durationsWriter.shutdownNow();
+        }
+    }
+
+    private void recordDuration(TaskState task, Duration duration) {
+        try {
+            withRetries(LOG, () -> taskDao.recordTaskDuration(task.userId(), task.name(), duration));
+        } catch (Exception e) {
+            LOG.warn("Cannot record duration of task {} ({}): {}", task.id(), task.name(), e.getMessage());
+        }
+    }
+
+    private Map<String, Duration> loadDurations(Collection<TaskState> tasks) {
+        var userId = tasks.iterator().next().userId();
+        var names = tasks.stream().map(TaskState::name).collect(Collectors.toSet());
+        try {
+            return withRetries(LOG, () -> taskDao.loadTaskDurations(userId, names));
+        } catch (Exception e) {
+            LOG.warn("Cannot load durations of operations, use default: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ai.lzy.graph.services.impl;
+
+import ai.lzy.graph.model.TaskState;
+import ai.lzy.graph.services.SchedulingPolicy;
+import jakarta.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Launches first tasks with more dependent tasks
+ */
+public class DependentsCountPolicy implements SchedulingPolicy {
+    @Override
+    public void onTasksScheduled(Collection<TaskState> tasks) {}
+
+    @Override
+    public void onTaskRemoved(TaskState task, @Nullable Duration duration) {}
+
+    @Override
+    public long priority(TaskState task) {
+        return task.tasksDependedFrom().size();
+    }
+}
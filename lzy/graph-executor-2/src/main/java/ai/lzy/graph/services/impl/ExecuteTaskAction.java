@@ -34,6 +34,7 @@ import java.sql.SQLException;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -42,6 +43,12 @@ import static ai.lzy.util.grpc.ProtoPrinter.safePrinter;
 import static java.util.Objects.requireNonNull;
 
 public class ExecuteTaskAction extends OperationRunnerBase {
+    // Allocator and worker push ops completion with WaitOperation calls, polling is only a fallback
+    private static final Duration OP_WAIT_TIMEOUT = Duration.ofSeconds(20);
+    private static final Duration OP_FALLBACK_POLL_PERIOD = Duration.ofSeconds(30);
+    private static final Duration ALLOC_OP_POLL_PERIOD = Duration.ofSeconds(1);
+    private static final Duration WORKER_OP_POLL_PERIOD = Duration.ofSeconds(5);
+
     private final WorkerService workerService;
     private final Storage storage;
     private final TaskDao taskDao;
@@ -198,7 +205,8 @@ public class ExecuteTaskAction extends OperationRunnerBase {
 
         if (!allocOp.getDone()) {
             log().debug("{} wait allocate VM op {}...", logPrefix(), allocOpId);
-            return StepResult.RESTART;
+            return restartOnCompletion(ALLOC_OP_POLL_PERIOD,
+                () -> workerService.waitAllocOp(allocOpId, OP_WAIT_TIMEOUT, ALLOC_OP_POLL_PERIOD, this::wakeUp));
         }
 
         if (allocOp.hasError()) {
@@ -302,7 +310,8 @@ public class ExecuteTaskAction extends OperationRunnerBase {
     private StepResult awaitExecution() {
         var vmId = requireNonNull(executingState().vmId());
 
-        var execOp = workerService.getWorkerOp(vmId, executingState().opId());
+        var execOpId = executingState().opId();
+        var execOp = workerService.getWorkerOp(vmId, execOpId);
         if (execOp == null) {
             log().error("{} Cannot find exec op for vmId {}", logPrefix(), vmId);
             return tryFail(Status.INTERNAL);
@@ -310,7 +319,8 @@ public class ExecuteTaskAction extends OperationRunnerBase {
 
         if (!execOp.getDone()) {
             log().debug("{} Waiting task {}", logPrefix(), task);
-            return StepResult.RESTART.after(Duration.ofSeconds(5));
+            return restartOnCompletion(WORKER_OP_POLL_PERIOD,
+                () -> workerService.waitWorkerOp(vmId, execOpId, OP_WAIT_TIMEOUT, WORKER_OP_POLL_PERIOD, this::wakeUp));
         }
 
         if (execOp.hasError()) {
@@ -381,6 +391,15 @@ public class ExecuteTaskAction extends OperationRunnerBase {
         return StepResult.FINISH;
     }
 
+    // Runner is woken up when op is done, or after poll period if waiting failed.
+    // If op cannot be waited at all, it is polled.
+    private StepResult restartOnCompletion(Duration pollPeriod, BooleanSupplier startWait) {
+        if (startWait.getAsBoolean()) {
+            return StepResult.RESTART.after(OP_FALLBACK_POLL_PERIOD);
+        }
+        return StepResult.RESTART.after(pollPeriod);
+    }
+
     private StepResult saveState(TaskState newState) {
         try {
             withRetries(log(), () -> taskDao.updateTask(newState, task.status(), null));
@@ -0,0 +1,95 @@
+package ai.lzy.graph.services.impl;
+
+import ai.lzy.v1.longrunning.LongRunning;
+import ai.lzy.v1.longrunning.LongRunningServiceGrpc;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static ai.lzy.util.grpc.ProtoConverter.toProto;
+
+/**
+ * Waits for ops of allocator or worker with asynchronous WaitOperation calls.
+ * If the peer does not implement WaitOperation, waiting is disabled, and ops must be polled.
+ */
+final class OperationWaiter {
+    private static final Logger LOG = LogManager.getLogger(OperationWaiter.class);
+
+    // Reserve for network delays over the server-side timeout of WaitOperation call
+    private static final Duration WAIT_DEADLINE_RESERVE = Duration.ofSeconds(10);
+
+    private final LongRunningServiceGrpc.LongRunningServiceStub stub;
+    private final String target;
+    private final ScheduledExecutorService retryExecutor;
+    private final AtomicBoolean supported = new AtomicBoolean(true);
+
+    OperationWaiter(LongRunningServiceGrpc.LongRunningServiceStub stub, String target,
+                    ScheduledExecutorService retryExecutor)
+    {
+        this.stub = stub;
+        this.target = target;
+        this.retryExecutor = retryExecutor;
+    }
+
+    /**
+     * Starts waiting for op. onWaited is called when the op is done, the timeout is expired
+     * or it turns out that ops cannot be waited. If the call fails, onWaited is called after retryDelay,
+     * so an unavailable peer is polled not more often than before waiting.
+     *
+     * @return false if ops cannot be waited, onWaited is not called then
+     */
+    boolean waitOp(String opId, Duration timeout, Duration retryDelay, Runnable onWaited) {
+        if (!supported.get()) {
+            return false;
+        }
+
+        var request = LongRunning.WaitOperationRequest.newBuilder()
+            .setOperationId(opId)
+            .setTimeout(toProto(timeout))
+            .build();
+
+        stub
+            .withDeadlineAfter(timeout.plus(WAIT_DEADLINE_RESERVE).toMillis(), TimeUnit.MILLISECONDS)
+            .waitOperation(request, new StreamObserver<>() {
+                @Override
+                public void onNext(LongRunning.Operation op) {
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    var status = Status.fromThrowable(t);
+                    if (status.getCode() == Status.Code.UNIMPLEMENTED) {
+                        LOG.warn("Operations of {} cannot be waited, poll them", target);
+                        supported.set(false);
+                        onWaited.run();
+                        return;
+                    }
+
+                    LOG.debug("Cannot wait op {} of {}, retry after {}: {}", opId, target, retryDelay, status);
+                    try {
+                        retryExecutor.schedule(onWaited, retryDelay.toMillis(), TimeUnit.MILLISECONDS);
+                    } catch (RejectedExecutionException e) {
+                        LOG.debug("Cannot schedule retry of op {} of {}: {}", opId, target, e.getMessage());
+                    }
+                }
+
+                @Override
+                public void onCompleted() {
+                    onWaited.run();
+                }
+            });
+
+        return true;
+    }
+
+    boolean isSupported() {
+        return supported.get();
+    }
+}
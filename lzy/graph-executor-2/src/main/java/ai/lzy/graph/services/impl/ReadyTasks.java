@@ -0,0 +1,148 @@
+package ai.lzy.graph.services.impl;
+
+import ai.lzy.graph.model.TaskState;
+import ai.lzy.graph.services.SchedulingPolicy;
+import jakarta.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Tasks ready to run, indexed by user. Tasks of one user are ordered by scheduling policy,
+ * and capacity is shared fairly between users: next task is taken from user with the least running tasks.
+ * <p>
+ * Priority of task is taken from policy once, when task is added, so queue order does not depend on
+ * state of policy changed later.
+ */
+final class ReadyTasks {
+    private static final Comparator<Entry> ORDER = Comparator
+        .comparingLong(Entry::priority).reversed()
+        .thenComparing(Comparator.comparingInt(Entry::dependents).reversed())
+        .thenComparingLong(Entry::seqNo);
+
+    private final SchedulingPolicy policy;
+    private final Map<String, PriorityQueue<Entry>> queueByUser = new HashMap<>();
+    private final Map<String, TaskState> tasks = new HashMap<>();
+    private final Map<String, Integer> runningByUser = new HashMap<>();
+    private int running = 0;
+    private long seqNo = 0;
+
+    ReadyTasks(SchedulingPolicy policy) {
+        this.policy = policy;
+    }
+
+    synchronized void add(TaskState task) {
+        tasks.put(task.id(), task);
+        var entry = new Entry(task, policy.priority(task), task.tasksDependedFrom().size(), seqNo++);
+        queueByUser.computeIfAbsent(task.userId(), x -> new PriorityQueue<>(ORDER)).add(entry);
+    }
+
+    @Nullable
+    synchronized TaskState get(String taskId) {
+        return tasks.get(taskId);
+    }
+
+    synchronized int size() {
+        return tasks.size();
+    }
+
+    /**
+     * Takes up to maxCount tasks while total count of running tasks is less than capacity, and acquires it
+     */
+    synchronized List<TaskState> poll(int maxCount, int capacity) {
+        var result = new ArrayList<TaskState>();
+
+        while (result.size() < maxCount && running < capacity) {
+            var task = pollFromLeastLoadedUser();
+            if (task == null) {
+                break;
+            }
+
+            acquire(task);
+            result.add(task);
+        }
+
+        return result;
+    }
+
+    /**
+     * Acquires capacity for task, which was started not from this queue
+     */
+    synchronized void acquire(TaskState task) {
+        running++;
+        runningByUser.merge(task.userId(), 1, Integer::sum);
+    }
+
+    /**
+     * Releases capacity of finished task
+     */
+    synchronized void release(TaskState task) {
+        running = Math.max(0, running - 1);
+        runningByUser.computeIfPresent(task.userId(), (k, v) -> v > 1 ? v - 1 : null);
+    }
+
+    /**
+     * Returns task, which was not started, back to queue
+     */
+    synchronized void putBack(TaskState task) {
+        release(task);
+        add(task);
+    }
+
+    synchronized List<TaskState> removeGraph(String graphId) {
+        var removed = new ArrayList<TaskState>();
+        for (var iter = tasks.values().iterator(); iter.hasNext(); ) {
+            var task = iter.next();
+            if (task.graphId().equals(graphId)) {
+                iter.remove();
+                removed.add(task);
+            }
+        }
+        // Removed tasks are skipped lazily in queues
+        return removed;
+    }
+
+    @Nullable
+    private TaskState pollFromLeastLoadedUser() {
+        while (true) {
+            String user = null;
+            int minRunning = Integer.MAX_VALUE;
+
+            for (var iter = queueByUser.entrySet().iterator(); iter.hasNext(); ) {
+                var entry = iter.next();
+                if (entry.getValue().isEmpty()) {
+                    iter.remove();
+                    continue;
+                }
+
+                int userRunning = runningByUser.getOrDefault(entry.getKey(), 0);
+                if (userRunning < minRunning) {
+                    minRunning = userRunning;
+                    user = entry.getKey();
+                }
+            }
+
+            if (user == null) {
+                return null;
+            }
+
+            var task = queueByUser.get(user).poll().task();
+            if (tasks.get(task.id()) == task) {
+                tasks.remove(task.id());
+                return task;
+            }
+            // Task was removed, try next one
+        }
+    }
+
+    private record Entry(
+        TaskState task,
+        long priority,
+        int dependents,
+        long seqNo
+    ) {}
+}
@@ -5,6 +5,7 @@ import ai.lzy.graph.config.ServiceConfig;
 import ai.lzy.graph.db.TaskDao;
 import ai.lzy.graph.db.impl.GraphExecutorDataSource;
 import ai.lzy.graph.model.TaskState;
+import ai.lzy.graph.services.SchedulingPolicy;
 import ai.lzy.graph.services.TasksScheduler;
 import ai.lzy.graph.services.WorkerService;
 import ai.lzy.longrunning.Operation;
@@ -19,19 +20,20 @@ import jakarta.inject.Singleton;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 import static ai.lzy.model.db.DbHelper.withRetries;
 import static java.util.Objects.requireNonNull;
@@ -40,6 +42,7 @@ import static java.util.stream.Collectors.joining;
 @Singleton
 public class TasksSchedulerImpl implements TasksScheduler {
     private static final Logger LOG = LogManager.getLogger(TasksSchedulerImpl.class);
+    private static final int LAUNCH_BATCH_SIZE = 64;
 
     private final ServiceConfig config;
     private final TaskDao taskDao;
@@ -47,28 +50,28 @@ public class TasksSchedulerImpl implements TasksScheduler {
     private final WorkerService workerService;
     private final OperationDao operationDao;
     private final OperationsExecutor operationsExecutor;
+    private final SchedulingPolicy policy;
 
-    private final Map<String, TaskState> readyTasks = new ConcurrentHashMap<>();
+    private final ReadyTasks readyTasks;
     private final Map<String, TaskState> waitingTasks = new ConcurrentHashMap<>();
     private final Map<String, TaskState> runningTask = new ConcurrentHashMap<>();
-
-    private final Map<String, Integer> limitByUser = new ConcurrentHashMap<>();
-    private final Map<String, Integer> limitByWorkflow = new ConcurrentHashMap<>();
+    private final Map<String, Instant> launchTimes = new ConcurrentHashMap<>();
 
     private final ScheduledExecutorService schedulerExecutor = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicBoolean runRequested = new AtomicBoolean(false);
 
     private volatile Consumer<TaskState> taskOnStatusChanged = ts -> LOG.error("Handler on task status not set.");
     @Nullable
     private volatile ScheduledFuture<?> schedulerFuture = null;
 
     private final AtomicBoolean terminate = new AtomicBoolean(false);
-    private final AtomicBoolean terminated = new AtomicBoolean(false);
 
     @Inject
     public TasksSchedulerImpl(ServiceConfig config, TaskDao taskDao, GraphExecutorDataSource storage,
                               WorkerService workerService,
                               @Named("GraphExecutorOperationDao") OperationDao operationDao,
-                              @Named("GraphExecutorOperationsExecutor") OperationsExecutor operationsExecutor)
+                              @Named("GraphExecutorOperationsExecutor") OperationsExecutor operationsExecutor,
+                              SchedulingPolicy policy)
     {
         this.taskDao = taskDao;
         this.operationsExecutor = operationsExecutor;
@@ -76,6 +79,8 @@ public class TasksSchedulerImpl implements TasksScheduler {
         this.operationDao = operationDao;
         this.workerService = workerService;
         this.config = config;
+        this.policy = policy;
+        this.readyTasks = new ReadyTasks(policy);
     }
 
     @Override
@@ -83,6 +88,7 @@ public class TasksSchedulerImpl implements TasksScheduler {
         assert !terminate.get();
         this.taskOnStatusChanged = taskOnStatusChanged;
         if (schedulerFuture == null) {
+            // Tasks are launched as soon as they become ready, periodic run only retries failed launches
             schedulerFuture = schedulerExecutor.scheduleWithFixedDelay(this::runReadyTasks, 1, 1, TimeUnit.SECONDS);
         }
     }
@@ -91,8 +97,12 @@ public class TasksSchedulerImpl implements TasksScheduler {
     public void shutdown() {
         if (terminate.compareAndSet(false, true)) {
             schedulerExecutor.shutdown();
-            while (!terminated.get()) {
-                LockSupport.parkNanos(10_000);
+            try {
+                if (!schedulerExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    LOG.warn("Tasks scheduler was not terminated in time");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
     }
@@ -106,6 +116,8 @@ public class TasksSchedulerImpl implements TasksScheduler {
             assert task.status().running();
 
             LOG.info("Restore execute action for graph {} task {}", graphId, task.id());
+            readyTasks.acquire(task);
+            runningTask.put(task.id(), task);
             var action = createExecuteTaskAction(task, requireNonNull(task.executingState()).opId());
             operationsExecutor.startNew(action);
         }
@@ -113,16 +125,20 @@ public class TasksSchedulerImpl implements TasksScheduler {
 
     @Override
     public void scheduleGraphTasks(String graphId, Collection<TaskState> tasks) {
+        policy.onTasksScheduled(tasks);
+
         for (var task : tasks) {
             assert task.graphId().equals(graphId);
             assert task.status() == TaskState.Status.WAITING;
 
             if (task.tasksDependedOn().isEmpty()) {
-                readyTasks.put(task.id(), task);
+                readyTasks.add(task);
             } else {
                 waitingTasks.put(task.id(), task);
             }
         }
+
+        requestRun();
     }
 
     @Override
@@ -159,8 +175,11 @@ public class TasksSchedulerImpl implements TasksScheduler {
             }
         };
 
-        dropFailedGraphTasks.accept(readyTasks, task -> {});
-        dropFailedGraphTasks.accept(waitingTasks, task -> {});
+        for (var task : readyTasks.removeGraph(graphId)) {
+            LOG.info("Terminate failed graph {}: drop {} task {}", graphId, task.status(), task.id());
+            policy.onTaskRemoved(task, null);
+        }
+        dropFailedGraphTasks.accept(waitingTasks, task -> policy.onTaskRemoved(task, null));
 
         dropFailedGraphTasks.accept(runningTask, task -> {
             switch (task.status()) {
@@ -173,67 +192,45 @@ public class TasksSchedulerImpl implements TasksScheduler {
         });
     }
 
-    private void runReadyTasks() {
-        if (terminate.get()) {
-            terminated.set(true);
-            LOG.debug("Execution terminated");
+    /**
+     * Requests launch of ready tasks as soon as possible, several requests are coalesced into one run
+     */
+    private void requestRun() {
+        if (terminate.get() || !runRequested.compareAndSet(false, true)) {
             return;
         }
 
-        if (readyTasks.isEmpty()) {
-            return;
+        try {
+            schedulerExecutor.execute(this::runReadyTasks);
+        } catch (RejectedExecutionException e) {
+            runRequested.set(false);
+            LOG.debug("Execution terminated");
         }
+    }
 
-        var tasks = readyTasks.values().stream()
-            .filter(task -> {
-                if (task.status() != TaskState.Status.WAITING) {
-                    return false;
-                }
-                var limits = config.getExecLimits();
-                if (limitByUser.getOrDefault(task.userId(), 0) >= limits.getMaxUserRunningTasks()) {
-                    LOG.debug("Skip task {}, user limit exceeded", task.id());
-                    return false;
-                }
-                if (limitByWorkflow.getOrDefault(task.workflowName(), 0) >= limits.getMaxWorkflowRunningTasks()) {
-                    LOG.debug("Skip task {}, workflow limit exceeded", task.id());
-                    return false;
-                }
-                return true;
-            })
-            .sorted(Comparator.comparingInt(task -> task.tasksDependedFrom().size()))
-            .collect(Collectors.toList());
+    private void runReadyTasks() {
+        runRequested.set(false);
 
-        if (tasks.isEmpty()) {
-            LOG.debug("Nothing to run (out of {}), limits exceeded", readyTasks.size());
+        if (terminate.get()) {
+            LOG.debug("Execution terminated");
             return;
         }
 
-        LOG.debug("Ready tasks: [{}]", tasks.stream().map(TaskState::toString).collect(joining(", ")));
-
-
-        int deps = tasks.get(0).tasksDependedFrom().size();
-        LOG.debug("Retain ready tasks with >= {} dependent tasks...", deps);
-        tasks.removeIf(task -> task.tasksDependedFrom().size() >= deps);
+        var tasks = readyTasks.poll(LAUNCH_BATCH_SIZE, config.getExecLimits().getMaxRunningTasks());
 
         if (tasks.isEmpty()) {
-            LOG.debug("Nothing to run (out of {})", readyTasks.size());
+            if (readyTasks.size() > 0) {
+                LOG.debug("Nothing to run (out of {}), limits exceeded", readyTasks.size());
+            }
             return;
         }
 
-        for (var task : tasks) {
-            if (terminate.get()) {
-                LOG.debug("Execution terminated");
-                terminated.set(true);
-                return;
-            }
+        LOG.debug("Launch ready tasks: [{}]", tasks.stream().map(TaskState::id).collect(joining(", ")));
 
-            if (task.status() != TaskState.Status.WAITING) {
-                LOG.warn("Graph {}, task {}, status was changes from WAITING to {}, skip it",
-                    task.graphId(), task.id(), task.status());
-                readyTasks.remove(task.id());
-                continue;
-            }
+        var ops = new ArrayList<Operation>(tasks.size());
+        var newStates = new ArrayList<TaskState>(tasks.size());
 
+        for (var task : tasks) {
             var idk = "%s/%s/%s".formatted(task.userId(), task.executionId(), task.id());
 
             var op = Operation.create(
@@ -243,40 +240,54 @@ public class TasksSchedulerImpl implements TasksScheduler {
                 new Operation.IdempotencyKey(idk, idk),
                 /* meta */ null);
 
-            task = task.toWaitAllocation(op.id());
-
-            var executeTaskAction = createExecuteTaskAction(task, op.id());
+            ops.add(op);
+            newStates.add(task.toWaitAllocation(op.id()));
+        }
 
-            boolean taskUpdated;
-            try {
-                var finalTask = task;
-                taskUpdated = withRetries(LOG, () -> {
-                    try (var tx = TransactionHandle.create(storage)) {
-                        operationDao.create(op, tx);
-                        if (taskDao.updateTask(finalTask, TaskState.Status.WAITING, tx)) {
-                            tx.commit();
-                            return true;
+        // All operations and tasks of batch are written in one transaction
+        final boolean[] updated;
+        try {
+            updated = withRetries(LOG, () -> {
+                try (var tx = TransactionHandle.create(storage)) {
+                    var res = new boolean[tasks.size()];
+                    for (int i = 0; i < tasks.size(); i++) {
+                        res[i] = taskDao.updateTask(newStates.get(i), TaskState.Status.WAITING, tx);
+                        if (res[i]) {
+                            operationDao.create(ops.get(i), tx);
                         }
-                        return false;
                     }
-                });
-            } catch (Exception e) {
-                LOG.error("Couldn't update task {}: {}. Try later.", task.id(), e.getMessage());
-                // TODO: it may hangs
+                    tx.commit();
+                    return res;
+                }
+            });
+        } catch (Exception e) {
+            LOG.error("Couldn't update {} tasks: {}. Try later.", tasks.size(), e.getMessage());
+            tasks.forEach(readyTasks::putBack);
+            return;
+        }
+
+        for (int i = 0; i < tasks.size(); i++) {
+            var task = newStates.get(i);
+
+            if (!updated[i]) {
+                LOG.warn("Cannot start task {}, graph {}: unexpected task status", task.id(), task.graphId());
+                readyTasks.release(task);
+                policy.onTaskRemoved(task, null);
                 continue;
             }
 
-            if (taskUpdated) {
-                LOG.info("Created task operation {} for task {}", op.id(), task.id());
+            LOG.info("Created task operation {} for task {}", ops.get(i).id(), task.id());
 
-                readyTasks.remove(task.id());
-                runningTask.put(task.id(), task);
+            runningTask.put(task.id(), task);
+            launchTimes.put(task.id(), Instant.now());
 
-                taskOnStatusChanged.accept(task);
-                operationsExecutor.startNew(executeTaskAction);
-            } else {
-                LOG.warn("Cannot start task {}, graph {}: unexpected task status", task.id(), task.graphId());
-            }
+            taskOnStatusChanged.accept(task);
+            operationsExecutor.startNew(createExecuteTaskAction(task, ops.get(i).id()));
+        }
+
+        if (tasks.size() == LAUNCH_BATCH_SIZE) {
+            // There can be more tasks to run
+            requestRun();
         }
     }
 
@@ -298,10 +309,14 @@ public class TasksSchedulerImpl implements TasksScheduler {
     private void finishTask(TaskState task) {
         assert task.status().finished();
 
-        limitByUser.merge(task.userId(), -1, Integer::sum);
-        limitByWorkflow.merge(task.executionId(), -1, Integer::sum);
-
         runningTask.remove(task.id());
+        readyTasks.release(task);
+
+        var launchTime = launchTimes.remove(task.id());
+        var duration = launchTime != null && task.status() == TaskState.Status.COMPLETED
+            ? Duration.between(launchTime, Instant.now())
+            : null;
+        policy.onTaskRemoved(task, duration);
 
         if (task.status() == TaskState.Status.FAILED) {
             LOG.error("Graph {}, task {} failed: {}", task.graphId(), task.id(), task.errorDescription());
@@ -309,19 +324,31 @@ public class TasksSchedulerImpl implements TasksScheduler {
             terminateGraphTasks(task.graphId(), "Task %s was failed with reason '%s'"
                 .formatted(task.id(), task.errorDescription()));
 
+            // Quota of failed task is free now
+            requestRun();
             taskOnStatusChanged.accept(task);
             return;
         }
 
         for (var taskId : task.tasksDependedFrom()) {
             var waitingTask = waitingTasks.get(taskId);
-            waitingTask.tasksDependedOn().remove(task.id());
+            if (waitingTask == null) {
+                continue;
+            }
 
-            if (waitingTask.tasksDependedOn().isEmpty()) {
-                waitingTasks.remove(taskId);
-                readyTasks.put(waitingTask.id(), waitingTask);
+            boolean ready;
+            synchronized (waitingTask) {
+                waitingTask.tasksDependedOn().remove(task.id());
+                ready = waitingTask.tasksDependedOn().isEmpty();
+            }
+
+            if (ready && waitingTasks.remove(taskId) != null) {
+                readyTasks.add(waitingTask);
             }
         }
+
+        // Dependent tasks and tasks waiting for quota can be launched right now
+        requestRun();
         taskOnStatusChanged.accept(task);
     }
 }
@@ -48,6 +48,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import static ai.lzy.graph.GraphExecutor.APP;
+import static ai.lzy.util.grpc.GrpcUtils.newAsyncClient;
 import static ai.lzy.util.grpc.GrpcUtils.newBlockingClient;
 import static ai.lzy.util.grpc.GrpcUtils.newGrpcChannel;
 import static ai.lzy.util.grpc.GrpcUtils.withIdempotencyKey;
@@ -62,6 +63,7 @@ public class WorkerServiceImpl implements WorkerService {
     private final ManagedChannel allocatorChannel;
     private final AllocatorGrpc.AllocatorBlockingStub allocatorStub;
     private final LongRunningServiceGrpc.LongRunningServiceBlockingStub allocatorOpsStub;
+    private final OperationWaiter allocatorOpWaiter;
     private final SubjectServiceGrpcClient subjectClient;
     private final AccessBindingServiceGrpcClient abClient;
     private final VmAllocatorApi.AllocateRequest.Workload workerWorkload;
@@ -70,12 +72,18 @@ public class WorkerServiceImpl implements WorkerService {
         ManagedChannel channel,
         WorkerApiGrpc.WorkerApiBlockingStub stub,
         LongRunningServiceGrpc.LongRunningServiceBlockingStub opsStub,
+        OperationWaiter opWaiter,
         AtomicReference<Instant> lastAccessTime
     ) {}
 
     private final Map<String, WorkerClients> workers = new ConcurrentHashMap<>();
     private final ScheduledExecutorService workersCleaner = Executors.newSingleThreadScheduledExecutor(
         r -> new Thread(r, "workers-cleaner"));
+    private final ScheduledExecutorService opWaitRetries = Executors.newSingleThreadScheduledExecutor(r -> {
+        var thread = new Thread(r, "op-wait-retries");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public WorkerServiceImpl(ServiceConfig config) {
         var authConfig = config.getIam();
@@ -88,6 +96,8 @@ public class WorkerServiceImpl implements WorkerService {
 
         allocatorStub = newBlockingClient(AllocatorGrpc.newBlockingStub(allocatorChannel), APP, auth);
         allocatorOpsStub = newBlockingClient(LongRunningServiceGrpc.newBlockingStub(allocatorChannel), APP, auth);
+        allocatorOpWaiter = new OperationWaiter(
+            newAsyncClient(LongRunningServiceGrpc.newStub(allocatorChannel), APP, auth), "allocator", opWaitRetries);
 
         subjectClient = new SubjectServiceGrpcClient(APP, iamChannel, internalUserToken::get);
         abClient = new AccessBindingServiceGrpcClient(APP, iamChannel, internalUserToken::get);
@@ -149,6 +159,7 @@ public class WorkerServiceImpl implements WorkerService {
     @PreDestroy
     public void shutdown() {
         workersCleaner.shutdownNow();
+        opWaitRetries.shutdownNow();
         allocatorChannel.shutdown();
         iamChannel.shutdown();
         workers.values().forEach(w -> w.channel.shutdown());
@@ -224,6 +235,11 @@ public class WorkerServiceImpl implements WorkerService {
         }
     }
 
+    @Override
+    public boolean waitAllocOp(String opId, Duration timeout, Duration retryDelay, Runnable onWaited) {
+        return allocatorOpWaiter.waitOp(opId, timeout, retryDelay, onWaited);
+    }
+
     @Nullable
     @Override
     public LongRunning.Operation cancelAllocOp(String opId, String reason) {
@@ -336,6 +352,21 @@ public class WorkerServiceImpl implements WorkerService {
         }
     }
 
+    @Override
+    public boolean waitWorkerOp(String vmId, String opId, Duration timeout, Duration retryDelay,
+                                Runnable onWaited)
+    {
+        var worker = workers.get(vmId);
+        if (worker == null) {
+            LOG.error("Unknown VM {}", vmId);
+            return false;
+        }
+
+        worker.lastAccessTime.set(Instant.now());
+
+        return worker.opWaiter.waitOp(opId, timeout, retryDelay, onWaited);
+    }
+
     @Nullable
     @Override
     public LongRunning.Operation cancelWorkerOp(String vmId, String opId) {
@@ -374,6 +405,8 @@ public class WorkerServiceImpl implements WorkerService {
                 ch,
                 newBlockingClient(WorkerApiGrpc.newBlockingStub(ch), APP, tokenProvider),
                 newBlockingClient(LongRunningServiceGrpc.newBlockingStub(ch), APP, tokenProvider),
+                new OperationWaiter(newAsyncClient(LongRunningServiceGrpc.newStub(ch), APP, tokenProvider),
+                    "worker " + vmId, opWaitRetries),
                 new AtomicReference<>(Instant.now()));
         });
     }
@@ -0,0 +1,7 @@
+CREATE TABLE task_duration_stats (
+    user_id               TEXT                          NOT NULL,
+    op_name               TEXT                          NOT NULL,
+    avg_duration_ms       DOUBLE PRECISION              NOT NULL,
+    samples               BIGINT                        NOT NULL,
+    PRIMARY KEY (user_id, op_name)
+);
@@ -0,0 +1,117 @@
+package ai.lzy.graph.services.impl;
+
+import ai.lzy.graph.db.TaskDao;
+import ai.lzy.graph.model.TaskState;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class CriticalPathPolicyTest {
+    private TaskDao taskDao;
+    private CriticalPathPolicy policy;
+    private ReadyTasks readyTasks;
+
+    @Before
+    public void setUp() throws Exception {
+        taskDao = Mockito.mock(TaskDao.class);
+        Mockito.when(taskDao.loadTaskDurations(anyString(), any())).thenReturn(Map.of(
+            "short", Duration.ofSeconds(1),
+            "long", Duration.ofSeconds(10)));
+
+        policy = new CriticalPathPolicy(taskDao);
+        readyTasks = new ReadyTasks(policy);
+    }
+
+    @After
+    public void tearDown() {
+        policy.shutdown();
+    }
+
+    @Test
+    public void diamond() {
+        // a -> (b, c) -> d, path through c is longer
+        var a = task("a", "g1", "short", List.of(), List.of("b", "c"));
+        var b = task("b", "g1", "short", List.of("a"), List.of("d"));
+        var c = task("c", "g1", "long", List.of("a"), List.of("d"));
+        var d = task("d", "g1", "short", List.of("b", "c"), List.of());
+        policy.onTasksScheduled(List.of(a, b, c, d));
+
+        Assert.assertEquals(12_000, policy.priority(a));
+        Assert.assertEquals(2_000, policy.priority(b));
+        Assert.assertEquals(11_000, policy.priority(c));
+        Assert.assertEquals(1_000, policy.priority(d));
+
+        readyTasks.add(b);
+        readyTasks.add(c);
+        Assert.assertEquals(List.of(c, b), readyTasks.poll(10, 10));
+    }
+
+    @Test
+    public void chainBeforeFanOut() {
+        // Chain x1 -> x2 -> x3 -> x4 is longer than y -> (z1, z2, z3), though y has more dependents
+        var x1 = task("x1", "g1", "short", List.of(), List.of("x2"));
+        var x2 = task("x2", "g1", "short", List.of("x1"), List.of("x3"));
+        var x3 = task("x3", "g1", "short", List.of("x2"), List.of("x4"));
+        var x4 = task("x4", "g1", "short", List.of("x3"), List.of());
+        var y = task("y", "g1", "short", List.of(), List.of("z1", "z2", "z3"));
+        var z1 = task("z1", "g1", "short", List.of("y"), List.of());
+        var z2 = task("z2", "g1", "short", List.of("y"), List.of());
+        var z3 = task("z3", "g1", "short", List.of("y"), List.of());
+        policy.onTasksScheduled(List.of(x1, x2, x3, x4, y, z1, z2, z3));
+
+        readyTasks.add(y);
+        readyTasks.add(x1);
+        Assert.assertEquals(List.of(x1, y), readyTasks.poll(10, 10));
+    }
+
+    @Test
+    public void removedTasksDoNotChangeOrder() {
+        var g1 = List.of(
+            task("a1", "g1", "long", List.of(), List.of()),
+            task("b1", "g1", "short", List.of(), List.of()));
+        var g2 = List.of(
+            task("a2", "g2", "long", List.of(), List.of("b2")),
+            task("b2", "g2", "long", List.of("a2"), List.of()),
+            task("c2", "g2", "short", List.of(), List.of()));
+        policy.onTasksScheduled(g1);
+        policy.onTasksScheduled(g2);
+
+        g1.forEach(readyTasks::add);
+        readyTasks.add(g2.get(0));
+        readyTasks.add(g2.get(2));
+
+        // Tasks of failed graph stay in queue lazily, while policy forgets them
+        for (var task : readyTasks.removeGraph("g1")) {
+            policy.onTaskRemoved(task, null);
+        }
+
+        Assert.assertEquals(List.of(g2.get(0), g2.get(2)), readyTasks.poll(10, 10));
+    }
+
+    @Test
+    public void durationsAreRecordedInBackground() throws Exception {
+        var task = task("a", "g1", "short", List.of(), List.of());
+        policy.onTasksScheduled(List.of(task));
+        policy.onTaskRemoved(task, Duration.ofSeconds(3));
+        policy.shutdown();
+
+        Mockito.verify(taskDao).recordTaskDuration(eq("user"), eq("short"), eq(Duration.ofSeconds(3)));
+    }
+
+    private static TaskState task(String id, String graphId, String name, List<String> dependsOn,
+                                  List<String> dependents)
+    {
+        return new TaskState(id, name, "op", graphId, TaskState.Status.WAITING, "exec", "wf", "user", "session",
+            null, dependsOn, dependents, null, null);
+    }
+}
@@ -0,0 +1,114 @@
+package ai.lzy.graph.services.impl;
+
+import ai.lzy.v1.longrunning.LongRunning;
+import ai.lzy.v1.longrunning.LongRunningServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.Nullable;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class OperationWaiterTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(20);
+
+    private final OpsService opsService = new OpsService();
+    private ScheduledExecutorService retryExecutor;
+    private Server server;
+    private ManagedChannel channel;
+    private OperationWaiter waiter;
+
+    @Before
+    public void setUp() throws Exception {
+        var name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).addService(opsService).build().start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        retryExecutor = Executors.newSingleThreadScheduledExecutor();
+        waiter = new OperationWaiter(LongRunningServiceGrpc.newStub(channel), "test", retryExecutor);
+    }
+
+    @After
+    public void tearDown() {
+        retryExecutor.shutdownNow();
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    public void wakeUpWhenOpIsDone() throws Exception {
+        var waited = new CountDownLatch(1);
+        Assert.assertTrue(waiter.waitOp("op", TIMEOUT, Duration.ofSeconds(30), waited::countDown));
+
+        Assert.assertEquals("op", opsService.requests.take().getOperationId());
+        Assert.assertFalse(waited.await(200, TimeUnit.MILLISECONDS));
+
+        opsService.complete(null);
+        Assert.assertTrue(waited.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void wakeUpAfterRetryDelayOnError() throws Exception {
+        var waited = new CompletableFuture<Long>();
+        var start = System.nanoTime();
+        Assert.assertTrue(waiter.waitOp("op", TIMEOUT, Duration.ofMillis(500),
+            () -> waited.complete(System.nanoTime())));
+
+        opsService.requests.take();
+        opsService.complete(Status.UNAVAILABLE);
+
+        var elapsed = Duration.ofNanos(waited.get(5, TimeUnit.SECONDS) - start);
+        Assert.assertTrue(elapsed.toString(), elapsed.compareTo(Duration.ofMillis(500)) >= 0);
+
+        // peer can still wait ops
+        Assert.assertTrue(waiter.isSupported());
+    }
+
+    @Test
+    public void pollWhenWaitIsUnimplemented() throws Exception {
+        var waited = new CountDownLatch(1);
+        Assert.assertTrue(waiter.waitOp("op", TIMEOUT, Duration.ofSeconds(30), waited::countDown));
+
+        opsService.requests.take();
+        opsService.complete(Status.UNIMPLEMENTED);
+
+        Assert.assertTrue(waited.await(5, TimeUnit.SECONDS));
+        Assert.assertFalse(waiter.isSupported());
+        Assert.assertFalse(waiter.waitOp("op", TIMEOUT, Duration.ofSeconds(30), () -> {}));
+    }
+
+    private static final class OpsService extends LongRunningServiceGrpc.LongRunningServiceImplBase {
+        private final BlockingQueue<LongRunning.WaitOperationRequest> requests = new LinkedBlockingQueue<>();
+        private volatile StreamObserver<LongRunning.Operation> pending;
+
+        @Override
+        public void waitOperation(LongRunning.WaitOperationRequest request,
+                                  StreamObserver<LongRunning.Operation> response)
+        {
+            pending = response;
+            requests.add(request);
+        }
+
+        void complete(@Nullable Status error) {
+            if (error != null) {
+                pending.onError(error.asRuntimeException());
+                return;
+            }
+            pending.onNext(LongRunning.Operation.newBuilder().setId("op").setDone(true).build());
+            pending.onCompleted();
+        }
+    }
+}
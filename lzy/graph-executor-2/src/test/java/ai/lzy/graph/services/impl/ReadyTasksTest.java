@@ -0,0 +1,162 @@
+package ai.lzy.graph.services.impl;
+
+import ai.lzy.graph.model.TaskState;
+import ai.lzy.graph.services.SchedulingPolicy;
+import jakarta.annotation.Nullable;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class ReadyTasksTest {
+    private final Map<String, Long> priorities = new ConcurrentHashMap<>();
+    private ReadyTasks readyTasks;
+
+    @Before
+    public void setUp() {
+        readyTasks = new ReadyTasks(new SchedulingPolicy() {
+            @Override
+            public void onTasksScheduled(Collection<TaskState> tasks) {}
+
+            @Override
+            public void onTaskRemoved(TaskState task, @Nullable Duration duration) {}
+
+            @Override
+            public long priority(TaskState task) {
+                return priorities.getOrDefault(task.id(), 0L);
+            }
+        });
+    }
+
+    @Test
+    public void tasksAreOrderedByPriorityDependentsAndArrival() {
+        var first = task("first", "user", List.of());
+        var second = task("second", "user", List.of());
+        var withDependents = task("with-dependents", "user", List.of("x", "y"));
+        var urgent = task("urgent", "user", List.of());
+        priorities.put(urgent.id(), 10L);
+
+        List.of(first, second, withDependents, urgent).forEach(readyTasks::add);
+
+        Assert.assertEquals(List.of(urgent, withDependents, first, second), readyTasks.poll(10, 10));
+        Assert.assertEquals(0, readyTasks.size());
+    }
+
+    @Test
+    public void priorityIsTakenWhenTaskIsAdded() {
+        var a = task("a", "user", List.of());
+        var b = task("b", "user", List.of());
+        readyTasks.add(a);
+        readyTasks.add(b);
+
+        // Queued task keeps its priority, policy is asked again only when task is put back
+        priorities.put(b.id(), 10L);
+        Assert.assertEquals(List.of(a), readyTasks.poll(1, 10));
+        Assert.assertEquals(List.of(b), readyTasks.poll(1, 10));
+
+        priorities.put(a.id(), 20L);
+        readyTasks.putBack(b);
+        readyTasks.putBack(a);
+        Assert.assertEquals(List.of(a, b), readyTasks.poll(10, 10));
+    }
+
+    @Test
+    public void capacityIsSharedBetweenUsers() {
+        var heavy = IntStream.range(0, 3).mapToObj(i -> task("heavy-" + i, "heavy", List.of())).toList();
+        var light = task("light", "light", List.of());
+        heavy.forEach(readyTasks::add);
+
+        Assert.assertEquals(heavy.subList(0, 2), readyTasks.poll(2, 3));
+        readyTasks.add(light);
+
+        // User without running tasks goes first
+        Assert.assertEquals(List.of(light), readyTasks.poll(10, 3));
+        Assert.assertTrue(readyTasks.poll(10, 3).isEmpty());
+
+        readyTasks.release(light);
+        Assert.assertEquals(List.of(heavy.get(2)), readyTasks.poll(10, 3));
+    }
+
+    @Test
+    public void removedGraphIsNotPolled() {
+        var a = task("a", "user", List.of());
+        var b = new TaskState("b", "b", "op", "other", TaskState.Status.WAITING, "exec", "wf", "user", "session",
+            null, List.of(), List.of(), null, null);
+        readyTasks.add(a);
+        readyTasks.add(b);
+
+        Assert.assertEquals(List.of(a), readyTasks.removeGraph("graph"));
+        Assert.assertNull(readyTasks.get(a.id()));
+        Assert.assertEquals(List.of(b), readyTasks.poll(10, 10));
+    }
+
+    @Test
+    public void concurrentAddAndPoll() throws Exception {
+        final int producers = 4;
+        final int tasksPerProducer = 1000;
+        final int capacity = 8;
+
+        var executor = Executors.newFixedThreadPool(producers + 2);
+        var start = new CountDownLatch(1);
+        var polled = new ConcurrentHashMap<String, Integer>();
+        var remaining = new AtomicInteger(producers * tasksPerProducer);
+
+        try {
+            for (int p = 0; p < producers; p++) {
+                var user = "user-" + (p % 2);
+                var prefix = "task-" + p + "-";
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < tasksPerProducer; i++) {
+                        readyTasks.add(task(prefix + i, user, List.of()));
+                    }
+                    return null;
+                });
+            }
+
+            for (int c = 0; c < 2; c++) {
+                executor.submit(() -> {
+                    start.await();
+                    while (remaining.get() > 0) {
+                        var tasks = readyTasks.poll(3, capacity);
+                        for (var task : tasks) {
+                            polled.merge(task.id(), 1, Integer::sum);
+                            remaining.decrementAndGet();
+                        }
+                        tasks.forEach(readyTasks::release);
+                    }
+                    return null;
+                });
+            }
+
+            start.countDown();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Each task is taken exactly once and capacity is released back
+        Assert.assertEquals(producers * tasksPerProducer, polled.size());
+        Assert.assertTrue(polled.values().stream().allMatch(count -> count == 1));
+        Assert.assertEquals(0, readyTasks.size());
+
+        IntStream.range(0, capacity + 1).forEach(i -> readyTasks.add(task("last-" + i, "user-0", List.of())));
+        Assert.assertEquals(capacity, readyTasks.poll(capacity + 1, capacity).size());
+    }
+
+    private static TaskState task(String id, String userId, List<String> dependents) {
+        return new TaskState(id, id, "op", "graph", TaskState.Status.WAITING, "exec", "wf", userId, "session",
+            null, List.of(), dependents, null, null);
+    }
+}
@@ -29,9 +29,12 @@ import jakarta.annotation.PreDestroy;
 import jakarta.inject.Singleton;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -48,6 +51,7 @@ public class WorkerServiceMock implements WorkerService {
     private final ServiceConfig config;
     private final LocalOperationService opService;
     private final Server opServer;
+    private final ExecutorService opWaiters = Executors.newCachedThreadPool();
 
     private record WorkerDecs(
         Server server,
@@ -82,6 +86,7 @@ public class WorkerServiceMock implements WorkerService {
     @PreDestroy
     public void close() {
         opServer.shutdown();
+        opWaiters.shutdownNow();
         workers.values().forEach(w -> {
             w.server.shutdown();
             w.channel.shutdown();
@@ -129,6 +134,11 @@ public class WorkerServiceMock implements WorkerService {
         return ofNullable(opService.get(opId)).map(OperationSnapshot::toProto).orElse(null);
     }
 
+    @Override
+    public boolean waitAllocOp(String opId, Duration timeout, Duration retryDelay, Runnable onWaited) {
+        return waitOp(opId, timeout, onWaited);
+    }
+
     @Nullable
     @Override
     public LongRunning.Operation cancelAllocOp(String opId, String reason) {
@@ -182,6 +192,13 @@ public class WorkerServiceMock implements WorkerService {
         return ofNullable(opService.get(opId)).map(OperationSnapshot::toProto).orElse(null);
     }
 
+    @Override
+    public boolean waitWorkerOp(String vmId, String opId, Duration timeout, Duration retryDelay,
+                                Runnable onWaited)
+    {
+        return waitOp(opId, timeout, onWaited);
+    }
+
     @Nullable
     @Override
     public LongRunning.Operation cancelWorkerOp(String vmId, String opId) {
@@ -192,6 +209,14 @@ public class WorkerServiceMock implements WorkerService {
     public void restoreWorker(String vmId, String host, int port) {
     }
 
+    private boolean waitOp(String opId, Duration timeout, Runnable onWaited) {
+        opWaiters.submit(() -> {
+            opService.await(opId, timeout);
+            onWaited.run();
+        });
+        return true;
+    }
+
     private class WorkerImpl extends WorkerApiGrpc.WorkerApiImplBase {
         @Override
         public void init(LWS.InitRequest request, StreamObserver<LWS.InitResponse> responseObserver) {
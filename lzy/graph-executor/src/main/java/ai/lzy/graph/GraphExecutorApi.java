@@ -277,7 +277,8 @@ public class GraphExecutorApi extends GraphExecutorGrpc.GraphExecutorImplBase {
 
         server =
             newGrpcServer("0.0.0.0", config.getPort(),
-                new AuthServerInterceptor(new AuthenticateServiceGrpcClient(APP, iamChannel)))
+                new AuthServerInterceptor(
+                    new AuthenticateServiceGrpcClient(APP, iamChannel, config.getIam().getAuthCacheTtl())))
                 .addService(ServerInterceptors.intercept(this, internalUserOnly))
                 .build();
 
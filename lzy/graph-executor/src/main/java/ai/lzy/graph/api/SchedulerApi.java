@@ -4,6 +4,10 @@ import ai.lzy.graph.model.TaskDescription;
 import ai.lzy.v1.scheduler.Scheduler.TaskStatus;
 import jakarta.annotation.Nullable;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 public interface SchedulerApi {
 
     /**
@@ -27,6 +31,23 @@ public interface SchedulerApi {
     @Nullable
     TaskStatus status(String workflowId, String taskId);
 
+    /**
+     * Get statuses of many tasks of workflow at once
+     * @param workflowId id of workflow of tasks
+     * @param taskIds task ids
+     * @return current statuses of found tasks by their ids
+     */
+    default Map<String, TaskStatus> statuses(String workflowId, Collection<String> taskIds) {
+        final Map<String, TaskStatus> statuses = new HashMap<>();
+        for (var taskId : taskIds) {
+            var status = status(workflowId, taskId);
+            if (status != null) {
+                statuses.put(taskId, status);
+            }
+        }
+        return statuses;
+    }
+
     /**
      * Send kill to task by id
      * @param workflowId id of workflow of task
@@ -7,6 +7,7 @@ import ai.lzy.util.grpc.GrpcChannels;
 import ai.lzy.v1.common.LMO;
 import ai.lzy.v1.scheduler.Scheduler.TaskStatus;
 import ai.lzy.v1.scheduler.SchedulerApi.TaskScheduleRequest;
+import ai.lzy.v1.scheduler.SchedulerApi.TaskStatusManyRequest;
 import ai.lzy.v1.scheduler.SchedulerApi.TaskStatusRequest;
 import ai.lzy.v1.scheduler.SchedulerApi.TaskStopRequest;
 import ai.lzy.v1.scheduler.SchedulerGrpc;
@@ -21,6 +22,9 @@ import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 import static ai.lzy.util.grpc.GrpcUtils.newBlockingClient;
 import static ai.lzy.util.grpc.GrpcUtils.newGrpcChannel;
@@ -77,6 +81,25 @@ public class SchedulerApiImpl implements SchedulerApi {
         }
     }
 
+    @Override
+    public Map<String, TaskStatus> statuses(String workflowId, Collection<String> taskIds) {
+        if (taskIds.isEmpty()) {
+            return Map.of();
+        }
+
+        // One request for all tasks instead of request per task
+        var res = stub.statusMany(TaskStatusManyRequest.newBuilder()
+            .setWorkflowId(workflowId)
+            .addAllTaskIds(taskIds)
+            .build());
+
+        final Map<String, TaskStatus> statuses = new HashMap<>();
+        for (var status : res.getStatusList()) {
+            statuses.put(status.getTaskId(), status);
+        }
+        return statuses;
+    }
+
     @Override
     public TaskStatus kill(String workflowId, String taskId) {
         var res = stub.stop(TaskStopRequest.newBuilder()
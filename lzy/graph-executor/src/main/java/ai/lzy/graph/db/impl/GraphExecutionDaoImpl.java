@@ -3,12 +3,13 @@ package ai.lzy.graph.db.impl;
 import ai.lzy.graph.db.GraphExecutionDao;
 import ai.lzy.graph.model.GraphDescription;
 import ai.lzy.graph.model.GraphExecutionState;
+import ai.lzy.graph.model.TaskDescription;
 import ai.lzy.graph.model.TaskExecution;
 import ai.lzy.model.db.DbOperation;
 import ai.lzy.model.db.Transaction;
 import ai.lzy.model.db.TransactionHandle;
 import ai.lzy.model.db.exceptions.DaoException;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import ai.lzy.v1.graph.GraphExecutor.GraphDesc;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micronaut.context.annotation.Requires;
@@ -18,6 +19,7 @@ import jakarta.inject.Singleton;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -25,9 +27,14 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Singleton
 @Requires(notEnv = "test-mock")
@@ -39,13 +46,51 @@ public class GraphExecutionDaoImpl implements GraphExecutionDao {
 
     private static final String GRAPH_INSERT_FIELDS_LIST = """
         workflow_id, workflow_name, user_id, id, error_description, failed_task_id, failed_task_name, status,
-        graph_description_json, task_executions_json, current_execution_group_json, last_updated, acquired,
-        allocator_session_id""";
+        graph_description, last_updated, acquired, allocator_session_id""";
 
+    // graph_description is NULL for graphs stored in legacy json format, they are converted on next update
     private static final String GRAPH_SELECT_FIELDS_LIST = """
         workflow_id, workflow_name, user_id, id, error_description, failed_task_id, failed_task_name,
-        status::text as status, graph_description_json, task_executions_json, current_execution_group_json,
-        last_updated, acquired, allocator_session_id""";
+        status::text as status, graph_description, graph_description_json, task_executions_json,
+        current_execution_group_json, last_updated, acquired, allocator_session_id""";
+
+    private static final String GRAPH_UPDATE_FIELDS_LIST = """
+        error_description = ?,
+        failed_task_id = ?,
+        failed_task_name = ?,
+        status = ?::graph_execution_status,
+        last_updated = ?,
+        acquired = ?""";
+
+    private static final String QUERY_UPDATE_GRAPH = """
+        UPDATE graph_execution_state
+        SET %s
+        WHERE workflow_id = ? AND id = ? AND graph_description IS NOT NULL""".formatted(GRAPH_UPDATE_FIELDS_LIST);
+
+    private static final String QUERY_UPDATE_LEGACY_GRAPH = """
+        UPDATE graph_execution_state
+        SET %s,
+            graph_description = ?,
+            graph_description_json = NULL,
+            task_executions_json = NULL,
+            current_execution_group_json = NULL
+        WHERE workflow_id = ? AND id = ?""".formatted(GRAPH_UPDATE_FIELDS_LIST);
+
+    private static final String QUERY_SELECT_TASK_EXECUTIONS = """
+        SELECT task_description_id, task_id, in_current_group
+        FROM graph_task_execution
+        WHERE workflow_id = ? AND graph_id = ?
+        ORDER BY execution_order DESC""";
+
+    private static final String QUERY_INSERT_TASK_EXECUTION = """
+        INSERT INTO graph_task_execution (workflow_id, graph_id, task_description_id, task_id, in_current_group,
+            execution_order)
+        VALUES (?, ?, ?, ?, ?, ?)""";
+
+    private static final String QUERY_TOGGLE_CURRENT_GROUP = """
+        UPDATE graph_task_execution
+        SET in_current_group = NOT in_current_group
+        WHERE workflow_id = ? AND graph_id = ? AND task_description_id = ANY (?)""";
 
     @Inject
     public GraphExecutionDaoImpl(GraphExecutorDataSource storage) {
@@ -64,7 +109,7 @@ public class GraphExecutionDaoImpl implements GraphExecutionDao {
         return DbOperation.execute(transaction, storage, connection -> {
             try (PreparedStatement st = connection.prepareStatement("""
                     INSERT INTO graph_execution_state (%s)
-                    VALUES (?, ?, ?, ?, ?, ?, ?, ?::graph_execution_status, ?, ?, ?, ?, ?, ?)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?::graph_execution_status, ?, ?, ?, ?)
                     """.formatted(GRAPH_INSERT_FIELDS_LIST)))
             {
                 String id = UUID.randomUUID().toString();
@@ -80,8 +125,6 @@ public class GraphExecutionDaoImpl implements GraphExecutionDao {
                 st.execute();
 
                 return state;
-            } catch (JsonProcessingException e) {
-                throw new SQLException("Cannot dump values for graph fields", e);
             }
         });
     }
@@ -102,9 +145,9 @@ public class GraphExecutionDaoImpl implements GraphExecutionDao {
                     return null;
                 }
                 s.next();
-                return fromResultSet(s);
+                return fromResultSet(con, s);
             }
-        } catch (SQLException | JsonProcessingException e) {
+        } catch (SQLException | IOException e) {
             throw new DaoException(e);
         }
     }
@@ -120,9 +163,9 @@ public class GraphExecutionDaoImpl implements GraphExecutionDao {
         {
             st.setString(1, status.name());
             try (ResultSet s = st.executeQuery()) {
-                return readStateList(s);
+                return readStateList(con, s);
             }
-        } catch (SQLException | JsonProcessingException e) {
+        } catch (SQLException | IOException e) {
             throw new DaoException(e);
         }
     }
@@ -137,9 +180,9 @@ public class GraphExecutionDaoImpl implements GraphExecutionDao {
         {
             st.setString(1, workflowId);
             try (ResultSet s = st.executeQuery()) {
-                return readStateList(s);
+                return readStateList(con, s);
             }
-        } catch (SQLException | JsonProcessingException e) {
+        } catch (SQLException | IOException e) {
             throw new DaoException(e);
         }
     }
@@ -162,7 +205,7 @@ public class GraphExecutionDaoImpl implements GraphExecutionDao {
                         return true;
                     }
                     s.next();
-                    state.set(fromResultSet(s));
+                    state.set(fromResultSet(conn, s));
                     final boolean acquired = s.getBoolean("acquired");
                     if (acquired) {
                         throw new DaoException(
@@ -190,40 +233,105 @@ public class GraphExecutionDaoImpl implements GraphExecutionDao {
 
     @Override
     public void updateAndFree(GraphExecutionState graph) throws DaoException {
-        try (final Connection con = storage.connect();
-             final PreparedStatement st = con.prepareStatement("""
-                 UPDATE graph_execution_state
-                 SET error_description = ?,
-                     failed_task_id = ?,
-                     failed_task_name = ?,
-                     status = ?::graph_execution_status,
-                     graph_description_json = ?,
-                     task_executions_json = ?,
-                     current_execution_group_json = ?,
-                     last_updated = ?,
-                     acquired = ?
-                 WHERE workflow_id = ? AND id = ?"""))
-        {
-            int count = 0;
-            st.setString(++count, graph.errorDescription());
-            st.setString(++count, graph.failedTaskId());
-            st.setString(++count, graph.failedTaskName());
-            st.setString(++count, graph.status().name());
-            st.setString(++count, objectMapper.writeValueAsString(graph.description()));
-            st.setString(++count, objectMapper.writeValueAsString(graph.executions()));
-            st.setString(++count, objectMapper.writeValueAsString(graph.currentExecutionGroup()));
-            st.setTimestamp(++count, Timestamp.valueOf(LocalDateTime.now()));
-            st.setBoolean(++count, false);
-
-            st.setString(++count, graph.workflowId());
-            st.setString(++count, graph.id());
-            st.executeUpdate();
-        } catch (Exception e) {
-            throw new DaoException(e);
+        Transaction.execute(storage, conn -> {
+            int updated;
+            try (final PreparedStatement st = conn.prepareStatement(QUERY_UPDATE_GRAPH)) {
+                int count = setUpdateFields(st, graph);
+                st.setString(++count, graph.workflowId());
+                st.setString(++count, graph.id());
+                updated = st.executeUpdate();
+            }
+
+            if (updated == 0) {
+                // Graph is stored in legacy format, description is written only once while converting it
+                try (final PreparedStatement st = conn.prepareStatement(QUERY_UPDATE_LEGACY_GRAPH)) {
+                    int count = setUpdateFields(st, graph);
+                    st.setBytes(++count, graph.description().toProto().toByteArray());
+                    st.setString(++count, graph.workflowId());
+                    st.setString(++count, graph.id());
+                    updated = st.executeUpdate();
+                }
+            }
+
+            if (updated == 0) {
+                LOG.error("Cannot update unknown graph <{}> in workflow <{}>", graph.id(), graph.workflowId());
+                return true;
+            }
+
+            updateTaskExecutions(conn, graph);
+            return true;
+        });
+    }
+
+    private int setUpdateFields(PreparedStatement st, GraphExecutionState graph) throws SQLException {
+        int count = 0;
+        st.setString(++count, graph.errorDescription());
+        st.setString(++count, graph.failedTaskId());
+        st.setString(++count, graph.failedTaskName());
+        st.setString(++count, graph.status().name());
+        st.setTimestamp(++count, Timestamp.valueOf(LocalDateTime.now()));
+        st.setBoolean(++count, false);
+        return count;
+    }
+
+    /**
+     * Writes only new executions and executions which entered or left current execution group
+     */
+    private void updateTaskExecutions(Connection conn, GraphExecutionState graph) throws SQLException {
+        final Map<String, Boolean> stored = new HashMap<>();
+        try (final PreparedStatement st = conn.prepareStatement(QUERY_SELECT_TASK_EXECUTIONS)) {
+            st.setString(1, graph.workflowId());
+            st.setString(2, graph.id());
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    stored.put(rs.getString("task_description_id"), rs.getBoolean("in_current_group"));
+                }
+            }
+        }
+
+        final Set<String> currentGroup = graph.currentExecutionGroup().stream()
+            .map(t -> t.description().id())
+            .collect(Collectors.toSet());
+
+        final List<String> toggled = new ArrayList<>();
+        try (final PreparedStatement st = conn.prepareStatement(QUERY_INSERT_TASK_EXECUTION)) {
+            boolean hasNew = false;
+            final List<TaskExecution> executions = graph.executions();
+            for (int i = 0; i < executions.size(); i++) {
+                final TaskExecution execution = executions.get(i);
+                final String descId = execution.description().id();
+                final boolean inCurrentGroup = currentGroup.contains(descId);
+                final Boolean storedInCurrentGroup = stored.get(descId);
+
+                if (storedInCurrentGroup == null) {
+                    st.setString(1, graph.workflowId());
+                    st.setString(2, graph.id());
+                    st.setString(3, descId);
+                    st.setString(4, execution.id());
+                    st.setBoolean(5, inCurrentGroup);
+                    st.setInt(6, executions.size() - 1 - i);
+                    st.addBatch();
+                    hasNew = true;
+                } else if (storedInCurrentGroup != inCurrentGroup) {
+                    toggled.add(descId);
+                }
+            }
+            if (hasNew) {
+                st.executeBatch();
+            }
+        }
+
+        if (!toggled.isEmpty()) {
+            try (final PreparedStatement st = conn.prepareStatement(QUERY_TOGGLE_CURRENT_GROUP)) {
+                st.setString(1, graph.workflowId());
+                st.setString(2, graph.id());
+                st.setArray(3, conn.createArrayOf("TEXT", toggled.toArray()));
+                st.executeUpdate();
+            }
         }
     }
 
-    private GraphExecutionState fromResultSet(ResultSet resultSet) throws SQLException, JsonProcessingException {
+    private GraphExecutionState fromResultSet(Connection conn, ResultSet resultSet) throws SQLException, IOException {
         final String workflowId = resultSet.getString("workflow_id");
         final String workflowName = resultSet.getString("workflow_name");
         final String userId = resultSet.getString("user_id");
@@ -232,13 +340,24 @@ public class GraphExecutionDaoImpl implements GraphExecutionDao {
         final String failedTaskId = resultSet.getString("failed_task_id");
         final String failedTaskName = resultSet.getString("failed_task_name");
         final GraphExecutionState.Status status = GraphExecutionState.Status.valueOf(resultSet.getString("status"));
-        final String graphDescriptionJson = resultSet.getString("graph_description_json");
-        final String taskExecutionsJson = resultSet.getString("task_executions_json");
-        final String currentExecutionGroupJson = resultSet.getString("current_execution_group_json");
-        final GraphDescription graph = objectMapper.readValue(graphDescriptionJson, GraphDescription.class);
-        final List<TaskExecution> executions = objectMapper.readValue(taskExecutionsJson, new TypeReference<>() {});
-        final List<TaskExecution> currentExecutionGroup = objectMapper.readValue(
-            currentExecutionGroupJson, new TypeReference<>() {});
+        final byte[] graphDescription = resultSet.getBytes("graph_description");
+
+        final GraphDescription graph;
+        final List<TaskExecution> executions = new ArrayList<>();
+        final List<TaskExecution> currentExecutionGroup = new ArrayList<>();
+        if (graphDescription != null) {
+            graph = GraphDescription.fromProto(GraphDesc.parseFrom(graphDescription));
+            loadTaskExecutions(conn, workflowId, id, graph, executions, currentExecutionGroup);
+        } else {
+            final String graphDescriptionJson = resultSet.getString("graph_description_json");
+            final String taskExecutionsJson = resultSet.getString("task_executions_json");
+            final String currentExecutionGroupJson = resultSet.getString("current_execution_group_json");
+            graph = objectMapper.readValue(graphDescriptionJson, GraphDescription.class);
+            executions.addAll(objectMapper.readValue(taskExecutionsJson, new TypeReference<List<TaskExecution>>() {}));
+            currentExecutionGroup.addAll(
+                objectMapper.readValue(currentExecutionGroupJson, new TypeReference<List<TaskExecution>>() {}));
+        }
+
         final String allocatorSessionId = resultSet.getString("allocator_session_id");
         return new GraphExecutionState(
             workflowId, workflowName, userId, id, graph, executions,
@@ -246,20 +365,41 @@ public class GraphExecutionDaoImpl implements GraphExecutionDao {
         );
     }
 
-    private List<GraphExecutionState> readStateList(ResultSet s) throws SQLException, JsonProcessingException {
+    private void loadTaskExecutions(Connection conn, String workflowId, String graphId, GraphDescription graph,
+                                    List<TaskExecution> executions, List<TaskExecution> currentExecutionGroup)
+        throws SQLException
+    {
+        final Map<String, TaskDescription> tasks = graph.tasks().stream()
+            .collect(Collectors.toMap(TaskDescription::id, Function.identity()));
+
+        try (final PreparedStatement st = conn.prepareStatement(QUERY_SELECT_TASK_EXECUTIONS)) {
+            st.setString(1, workflowId);
+            st.setString(2, graphId);
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    final var execution = new TaskExecution(rs.getString("task_id"),
+                        tasks.get(rs.getString("task_description_id")));
+                    executions.add(execution);
+                    if (rs.getBoolean("in_current_group")) {
+                        currentExecutionGroup.add(execution);
+                    }
+                }
+            }
+        }
+    }
+
+    private List<GraphExecutionState> readStateList(Connection conn, ResultSet s) throws SQLException, IOException {
         if (!s.isBeforeFirst()) {
             return new ArrayList<>();
         }
         List<GraphExecutionState> list = new ArrayList<>();
         while (s.next()) {
-            list.add(fromResultSet(s));
+            list.add(fromResultSet(conn, s));
         }
         return list;
     }
 
-    private void setGraphFields(PreparedStatement st, GraphExecutionState state)
-        throws SQLException, JsonProcessingException
-    {
+    private void setGraphFields(PreparedStatement st, GraphExecutionState state) throws SQLException {
         int count = 0;
         st.setString(++count, state.workflowId());
         st.setString(++count, state.workflowName());
@@ -269,9 +409,7 @@ public class GraphExecutionDaoImpl implements GraphExecutionDao {
         st.setString(++count, state.failedTaskId());
         st.setString(++count, state.failedTaskName());
         st.setString(++count, state.status().name());
-        st.setString(++count, objectMapper.writeValueAsString(state.description()));
-        st.setString(++count, objectMapper.writeValueAsString(state.executions()));
-        st.setString(++count, objectMapper.writeValueAsString(state.currentExecutionGroup()));
+        st.setBytes(++count, state.description().toProto().toByteArray());
         st.setTimestamp(++count, Timestamp.valueOf(LocalDateTime.now()));
         st.setBoolean(++count, false);
         st.setString(++count, state.allocatorSessionId());
@@ -18,21 +18,27 @@ import jakarta.inject.Singleton;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Singleton
 public class BfsGraphProcessor implements GraphProcessor {
     private static final Logger LOG = LogManager.getLogger(BfsGraphProcessor.class);
+    private static final Duration IDLE_STEP_DELAY = Duration.ofSeconds(1);
 
     private final SchedulerApi api;
     private final GraphBuilder graphBuilder;
     private final ChannelCheckerFactory checkerFactory;
 
+    // Condensed graph and completed tasks of executing graphs, restored from scheduler after restart
+    private final Map<String, GraphCache> graphs = new ConcurrentHashMap<>();
+
     @Inject
     public BfsGraphProcessor(SchedulerApi api, GraphBuilder graphBuilder, ChannelCheckerFactory checkerFactory) {
         this.api = api;
@@ -42,14 +48,53 @@ public class BfsGraphProcessor implements GraphProcessor {
 
     @Override
     public GraphExecutionState exec(GraphExecutionState graph) {
-        GraphExecutionState state = switch (graph.status()) {
-            case WAITING -> nextStep(graph);
+        final GraphExecutionState state;
+        try {
+            state = execImpl(graph);
+        } catch (RuntimeException e) {
+            // Graph is stopped by queue manager after exception, cache is restored from scheduler if it is not
+            graphs.remove(key(graph));
+            throw e;
+        }
+
+        if (state.status() == Status.COMPLETED || state.status() == Status.FAILED) {
+            graphs.remove(key(graph));
+        }
+        LOG.debug(String.format(
+            "DirectedGraph <%s> from workflow <%s> processed. DirectedGraph before processing: %s\n"
+                + " DirectedGraph after processing: %s",
+            graph.id(), graph.workflowId(), graph, state
+        ));
+        return state;
+    }
+
+    private GraphExecutionState execImpl(GraphExecutionState graph) {
+        return switch (graph.status()) {
+            case WAITING -> nextStep(graph, true);
             case FAILED -> stop(graph, "Undefined state change to FAILED");
             case COMPLETED -> complete(graph);
             case EXECUTING -> {
-                int completed = 0;
+                final GraphCache cache;
+                try {
+                    cache = cache(graph);
+                } catch (GraphBuilder.GraphValidationException e) {
+                    LOG.error("Error while building graph {}", graph.id(), e);
+                    yield stop(graph, "Validation error: " + e.getMessage());
+                }
+
+                // Completed tasks cannot change their status, so only statuses of other tasks are requested
+                final List<String> notCompleted = graph.executions().stream()
+                    .map(TaskExecution::id)
+                    .filter(id -> !cache.completedTaskIds.contains(id))
+                    .toList();
+                final Map<String, Scheduler.TaskStatus> statuses = api.statuses(graph.workflowId(), notCompleted);
+
+                boolean changed = false;
                 for (TaskExecution task: graph.executions()) {
-                    final Scheduler.TaskStatus status = api.status(graph.workflowId(), task.id());
+                    if (cache.completedTaskIds.contains(task.id())) {
+                        continue;
+                    }
+                    final Scheduler.TaskStatus status = statuses.get(task.id());
                     if (status == null) {
                         LOG.error(String.format(
                             "TaskVertex <%s> not found in scheduler,"
@@ -59,7 +104,8 @@ public class BfsGraphProcessor implements GraphProcessor {
                         yield stop(graph, "Internal error");
                     }
                     if (status.hasSuccess()) {
-                        completed++;
+                        cache.completedTaskIds.add(task.id());
+                        changed = true;
                     }
                     if (status.hasError()) {
                         LOG.error("TaskVertex <" + task.id() + "> is in error state, stopping graph execution");
@@ -67,7 +113,7 @@ public class BfsGraphProcessor implements GraphProcessor {
                             task.description().operation().getName());
                     }
                 }
-                if (completed == graph.description().tasks().size()) {
+                if (cache.completedTaskIds.size() == graph.description().tasks().size()) {
                     yield complete(graph);
                 }
                 if (graph.currentExecutionGroup().isEmpty()) {
@@ -75,15 +121,9 @@ public class BfsGraphProcessor implements GraphProcessor {
                         graph.id());
                     yield stop(graph, "Some internal error");
                 }
-                yield nextStep(graph);
+                yield nextStep(graph, changed);
             }
         };
-        LOG.debug(String.format(
-            "DirectedGraph <%s> from workflow <%s> processed. DirectedGraph before processing: %s\n"
-                + " DirectedGraph after processing: %s",
-            graph.id(), graph.workflowId(), graph, state
-        ));
-        return state;
     }
 
     @Override
@@ -94,6 +134,7 @@ public class BfsGraphProcessor implements GraphProcessor {
     public GraphExecutionState stop(GraphExecutionState graph, String errorDescription,
                                     String failedTaskId, String failedTaskName)
     {
+        graphs.remove(key(graph));
         return switch (graph.status()) {
             case COMPLETED, FAILED -> graph;
             case WAITING -> graph.copyFromThis()
@@ -121,9 +162,12 @@ public class BfsGraphProcessor implements GraphProcessor {
         };
     }
 
-    private GraphExecutionState nextStep(GraphExecutionState graph) {
+    /**
+     * @param changed true if some tasks changed their status since previous step
+     */
+    private GraphExecutionState nextStep(GraphExecutionState graph, boolean changed) {
         try {
-            final Set<TaskDescription> newExecutionGroup = getNextExecutionGroup(graph);
+            final Set<TaskDescription> newExecutionGroup = getNextExecutionGroup(graph, cache(graph));
             final Set<TaskDescription> oldExecutionGroup = graph.currentExecutionGroup()
                 .stream()
                 .map(TaskExecution::description)
@@ -144,10 +188,13 @@ public class BfsGraphProcessor implements GraphProcessor {
 
             newExecutions.addAll(graph.executions());
 
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                // ignore
+            if (!changed && diff.isEmpty()) {
+                // Nothing happened, waiting before next poll of scheduler
+                try {
+                    Thread.sleep(IDLE_STEP_DELAY.toMillis());
+                } catch (InterruptedException e) {
+                    // ignore
+                }
             }
 
             return graph.copyFromThis()
@@ -168,17 +215,31 @@ public class BfsGraphProcessor implements GraphProcessor {
 
     private GraphExecutionState complete(GraphExecutionState graph) {
         LOG.info("Graph {} is completed", graph.id());
+        graphs.remove(key(graph));
         return graph.copyFromThis()
             .withStatus(Status.COMPLETED)
             .build();
     }
 
-    private Set<TaskDescription> getNextExecutionGroup(GraphExecutionState graphExecution)
+    private GraphCache cache(GraphExecutionState graphExecution) throws GraphBuilder.GraphValidationException {
+        var key = key(graphExecution);
+        var cache = graphs.get(key);
+        if (cache == null) {
+            final DirectedGraph<TaskVertex, ChannelEdge> graph = graphBuilder.build(graphExecution.description());
+            cache = new GraphCache(Algorithms.condenseGraph(graph));
+            graphs.put(key, cache);
+        }
+        return cache;
+    }
+
+    private static String key(GraphExecutionState graph) {
+        return graph.workflowId() + "/" + graph.id();
+    }
+
+    private Set<TaskDescription> getNextExecutionGroup(GraphExecutionState graphExecution, GraphCache cache)
         throws GraphBuilder.GraphValidationException
     {
-        final DirectedGraph<TaskVertex, ChannelEdge> graph = graphBuilder.build(graphExecution.description());
-
-        final CondensedGraph<TaskVertex, ChannelEdge> condensedGraph = Algorithms.condenseGraph(graph);
+        final CondensedGraph<TaskVertex, ChannelEdge> condensedGraph = cache.condensedGraph;
 
         final Map<String, TaskExecution> taskDescIdToTaskExec = graphExecution
             .executions()
@@ -222,11 +283,7 @@ public class BfsGraphProcessor implements GraphProcessor {
                 .allMatch(
                     v -> {
                         final var exec = taskDescIdToTaskExec.get(v.description().id());
-                        if (exec == null) {
-                            return false;
-                        }
-                        final var status = api.status(graphExecution.workflowId(), exec.id());
-                        return status != null && status.hasSuccess();
+                        return exec != null && cache.completedTaskIds.contains(exec.id());
                     }))
             {
                 nextGroup.add(comp);
@@ -242,7 +299,7 @@ public class BfsGraphProcessor implements GraphProcessor {
                     e -> e.condensedEdges()
                         .stream()
                         .allMatch(edge -> checkerFactory.checker(taskDescIdToTaskExec,
-                            graphExecution.workflowId(), edge.channelDesc()).ready(edge))
+                            cache.completedTaskIds, edge.channelDesc()).ready(edge))
                 )
             )
             .filter(comp -> !alreadyProcessed.contains(comp))
@@ -256,4 +313,13 @@ public class BfsGraphProcessor implements GraphProcessor {
             .map(TaskVertex::description)
             .collect(Collectors.toSet());
     }
+
+    private static final class GraphCache {
+        private final CondensedGraph<TaskVertex, ChannelEdge> condensedGraph;
+        private final Set<String> completedTaskIds = ConcurrentHashMap.newKeySet();
+
+        private GraphCache(CondensedGraph<TaskVertex, ChannelEdge> condensedGraph) {
+            this.condensedGraph = condensedGraph;
+        }
+    }
 }
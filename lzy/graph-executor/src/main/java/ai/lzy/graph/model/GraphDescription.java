@@ -1,6 +1,7 @@
 package ai.lzy.graph.model;
 
 import ai.lzy.v1.graph.GraphExecutor.ChannelDesc;
+import ai.lzy.v1.graph.GraphExecutor.GraphDesc;
 import ai.lzy.v1.graph.GraphExecutor.SlotToChannelAssignment;
 import ai.lzy.v1.graph.GraphExecutor.TaskDesc;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
@@ -46,4 +47,36 @@ public record GraphDescription(
         return new GraphDescription(taskDescriptions, channelDescriptions);
     }
 
+    public static GraphDescription fromProto(GraphDesc graph) {
+        return fromGrpc(graph.getTasksList(), graph.getChannelsList());
+    }
+
+    public GraphDesc toProto() {
+        final var builder = GraphDesc.newBuilder();
+
+        for (TaskDescription task : tasks) {
+            builder.addTasks(TaskDesc.newBuilder()
+                .setId(task.id())
+                .setOperation(task.operation())
+                .addAllSlotAssignments(task.slotsToChannelsAssignments().entrySet()
+                    .stream()
+                    .map(e -> SlotToChannelAssignment.newBuilder()
+                        .setSlotName(e.getKey())
+                        .setChannelId(e.getValue())
+                        .build())
+                    .toList())
+                .build());
+        }
+
+        for (ChannelDescription channel : channels.values()) {
+            final var channelBuilder = ChannelDesc.newBuilder().setId(channel.id());
+            switch (channel.type()) {
+                case DIRECT -> channelBuilder.setDirect(ChannelDesc.DirectChannel.getDefaultInstance());
+            }
+            builder.addChannels(channelBuilder.build());
+        }
+
+        return builder.build();
+    }
+
 }
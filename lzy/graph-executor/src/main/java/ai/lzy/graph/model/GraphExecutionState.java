@@ -17,6 +17,7 @@ import org.apache.logging.log4j.Logger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
 @JsonSerialize
@@ -58,22 +59,24 @@ public record GraphExecutionState(
                     .build()
             );
             case EXECUTING -> {
+                Map<String, Scheduler.TaskStatus> progress;
+                try {
+                    progress = schedulerApi.statuses(workflowId,
+                        executions.stream().map(TaskExecution::id).toList());
+                } catch (StatusRuntimeException e) {
+                    LOG.error("Cannot get status of tasks", e);
+                    progress = Map.of();
+                }
+
                 final List<GraphExecutor.TaskExecutionStatus> statuses = new ArrayList<>();
                 for (var task : executions) {
-                    final Scheduler.TaskStatus status;
-                    try {
-                        status = schedulerApi.status(workflowId, task.id());
-                    } catch (StatusRuntimeException e) {
-                        LOG.error("Cannot get status of task", e);
-                        statuses.add(GraphExecutor.TaskExecutionStatus.newBuilder()
-                            .setTaskDescriptionId(task.description().id())
-                            .build());
-                        continue;
+                    final var builder = GraphExecutor.TaskExecutionStatus.newBuilder()
+                        .setTaskDescriptionId(task.description().id());
+                    final var status = progress.get(task.id());
+                    if (status != null) {
+                        builder.setProgress(status);
                     }
-                    statuses.add(GraphExecutor.TaskExecutionStatus.newBuilder()
-                        .setProgress(status)
-                        .setTaskDescriptionId(task.description().id())
-                        .build());
+                    statuses.add(builder.build());
                 }
                 statusBuilder.setExecuting(
                     Executing.newBuilder()
@@ -0,0 +1,24 @@
+-- Graph description is stored once in protobuf, executions of tasks are stored in separate rows,
+-- so update of graph state writes only changed tasks.
+-- Rows with NULL graph_description are in legacy json format, they are converted on next update.
+ALTER TABLE graph_execution_state
+    ADD COLUMN graph_description BYTEA NULL,
+    ALTER COLUMN graph_description_json DROP NOT NULL,
+    ALTER COLUMN task_executions_json DROP NOT NULL,
+    ALTER COLUMN current_execution_group_json DROP NOT NULL;
+
+CREATE TABLE graph_task_execution
+(
+    workflow_id         TEXT    NOT NULL,
+    graph_id            TEXT    NOT NULL,
+    task_description_id TEXT    NOT NULL,
+    task_id             TEXT    NOT NULL,
+    in_current_group    BOOLEAN NOT NULL,
+    -- position from the end of the executions list, new executions are added to its head
+    execution_order     INTEGER NOT NULL,
+
+    PRIMARY KEY (workflow_id, graph_id, task_description_id),
+    FOREIGN KEY (workflow_id, graph_id) REFERENCES graph_execution_state (workflow_id, id)
+        ON DELETE CASCADE
+        ON UPDATE CASCADE
+);
@@ -2,9 +2,13 @@ package ai.lzy.graph.test;
 
 import ai.lzy.graph.db.GraphExecutionDao;
 import ai.lzy.graph.db.impl.GraphExecutionDaoImpl;
+import ai.lzy.graph.db.impl.GraphExecutorDataSource;
 import ai.lzy.graph.model.GraphDescription;
 import ai.lzy.graph.model.GraphExecutionState;
+import ai.lzy.graph.model.TaskDescription;
+import ai.lzy.graph.model.TaskExecution;
 import ai.lzy.model.db.exceptions.DaoException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micronaut.context.ApplicationContext;
 import io.zonky.test.db.postgres.junit.EmbeddedPostgresRules;
 import io.zonky.test.db.postgres.junit.PreparedDbRule;
@@ -16,6 +20,8 @@ import org.junit.Test;
 import org.junit.rules.Timeout;
 
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
 
@@ -73,4 +79,99 @@ public class DaoTest {
         List<GraphExecutionState> filter = dao.filter(GraphExecutionState.Status.WAITING);
         Assert.assertEquals(List.of(s3), filter);
     }
+
+    @Test
+    public void taskExecutionsUpdate() throws SQLException, DaoException {
+        GraphDescription d = new GraphDescriptionBuilder()
+            .addVertexes("1", "2", "3")
+            .addEdge("1", "2")
+            .addEdge("2", "3")
+            .build();
+        GraphExecutionState s = dao.create("1", "changeMe", "userId", "allocSid", d, null);
+        TaskDescription t1 = task(d, "1");
+        TaskDescription t2 = task(d, "2");
+
+        var first = new TaskExecution("task-1", t1);
+        GraphExecutionState executing = s.copyFromThis()
+            .withStatus(GraphExecutionState.Status.EXECUTING)
+            .withExecutions(List.of(first))
+            .withCurrentExecutionGroup(List.of(first))
+            .build();
+        dao.updateAndFree(executing);
+
+        GraphExecutionState stored = dao.get("1", s.id());
+        Assert.assertNotNull(stored);
+        Assert.assertEquals(d, stored.description());
+        Assert.assertEquals(List.of(first), stored.executions());
+        Assert.assertEquals(List.of(first), stored.currentExecutionGroup());
+
+        var second = new TaskExecution("task-2", t2);
+        dao.updateAndFree(executing.copyFromThis()
+            .withExecutions(List.of(second, first))
+            .withCurrentExecutionGroup(List.of(second))
+            .build());
+
+        stored = dao.get("1", s.id());
+        Assert.assertNotNull(stored);
+        Assert.assertEquals(List.of(second, first), stored.executions());
+        Assert.assertEquals(List.of(second), stored.currentExecutionGroup());
+    }
+
+    @Test
+    public void legacyStateConversion() throws Exception {
+        GraphDescription d = new GraphDescriptionBuilder()
+            .addVertexes("1", "2")
+            .addEdge("1", "2")
+            .build();
+        var first = new TaskExecution("task-1", task(d, "1"));
+
+        var objectMapper = new ObjectMapper().findAndRegisterModules();
+        var storage = context.getBean(GraphExecutorDataSource.class);
+        try (var conn = storage.connect();
+             var st = conn.prepareStatement("""
+                 INSERT INTO graph_execution_state (workflow_id, workflow_name, user_id, id, status,
+                     graph_description_json, task_executions_json, current_execution_group_json, last_updated,
+                     acquired, allocator_session_id)
+                 VALUES ('1', 'changeMe', 'userId', 'legacy', 'EXECUTING'::graph_execution_status,
+                     ?, ?, ?, ?, FALSE, 'allocSid')"""))
+        {
+            st.setString(1, objectMapper.writeValueAsString(d));
+            st.setString(2, objectMapper.writeValueAsString(List.of(first)));
+            st.setString(3, objectMapper.writeValueAsString(List.of(first)));
+            st.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+            st.executeUpdate();
+        }
+
+        GraphExecutionState legacy = dao.get("1", "legacy");
+        Assert.assertNotNull(legacy);
+        Assert.assertEquals(d, legacy.description());
+        Assert.assertEquals(List.of(first), legacy.executions());
+
+        dao.updateAndFree(legacy.copyFromThis()
+            .withStatus(GraphExecutionState.Status.COMPLETED)
+            .build());
+
+        GraphExecutionState converted = dao.get("1", "legacy");
+        Assert.assertNotNull(converted);
+        Assert.assertEquals(GraphExecutionState.Status.COMPLETED, converted.status());
+        Assert.assertEquals(d, converted.description());
+        Assert.assertEquals(List.of(first), converted.executions());
+        Assert.assertEquals(List.of(first), converted.currentExecutionGroup());
+
+        try (var conn = storage.connect();
+             var st = conn.prepareStatement("""
+                 SELECT task_executions_json FROM graph_execution_state WHERE workflow_id = '1' AND id = 'legacy'"""))
+        {
+            var rs = st.executeQuery();
+            Assert.assertTrue(rs.next());
+            Assert.assertNull(rs.getString(1));
+        }
+    }
+
+    private static TaskDescription task(GraphDescription graph, String id) {
+        return graph.tasks().stream()
+            .filter(t -> t.id().equals(id))
+            .findFirst()
+            .orElseThrow();
+    }
 }
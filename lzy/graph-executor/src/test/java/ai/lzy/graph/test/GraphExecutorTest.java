@@ -464,7 +464,7 @@ public class GraphExecutorTest {
 
     private QueueManager initQueue() {
         GraphBuilder builder = new GraphBuilderImpl();
-        ChannelCheckerFactory factory = new ChannelCheckerFactory(scheduler);
+        ChannelCheckerFactory factory = new ChannelCheckerFactory();
         GraphProcessor processor = new BfsGraphProcessor(scheduler, builder, factory);
 
         ServiceConfig config = new ServiceConfig();
@@ -6,8 +6,11 @@ import ai.lzy.iam.resources.AuthResource;
 import ai.lzy.iam.storage.impl.DbAccessClient;
 import ai.lzy.iam.utils.ProtoConverter;
 import ai.lzy.util.auth.exceptions.AuthException;
+import ai.lzy.util.auth.exceptions.AuthNotFoundException;
 import ai.lzy.util.auth.exceptions.AuthPermissionDeniedException;
 import ai.lzy.v1.iam.IAM.Subject;
+import ai.lzy.v1.iam.LACS.AuthorizeManyRequest;
+import ai.lzy.v1.iam.LACS.AuthorizeManyResponse;
 import ai.lzy.v1.iam.LACS.AuthorizeRequest;
 import ai.lzy.v1.iam.LzyAccessServiceGrpc;
 import io.grpc.Status;
@@ -64,6 +67,48 @@ public class LzyASService extends LzyAccessServiceGrpc.LzyAccessServiceImplBase
         }
     }
 
+    @Override
+    public void authorizeMany(AuthorizeManyRequest request, StreamObserver<AuthorizeManyResponse> responseObserver) {
+        LOG.info("Authorize {} requests", request.getRequestsCount());
+
+        try {
+            var requester = Objects.requireNonNull(AuthenticationContext.current()).getSubject();
+            var response = AuthorizeManyResponse.newBuilder();
+
+            for (var item : request.getRequestsList()) {
+                var subject = ProtoConverter.to(item.getSubject());
+                var resource = ProtoConverter.to(item.getResource());
+                var permission = AuthPermission.fromString(item.getPermission());
+
+                if (!hasInternalAccess(resource, requester)) {
+                    LOG.error("Not INTERNAL {} try authorize something::{}", requester, subject);
+                    throw new AuthPermissionDeniedException("");
+                }
+
+                boolean allowed;
+                try {
+                    allowed = accessClient.hasResourcePermission(subject, resource.resourceId(), permission);
+                } catch (AuthNotFoundException e) {
+                    allowed = false;
+                }
+
+                if (!allowed) {
+                    LOG.warn("Access denied for {} to resource::{}", subject, resource.resourceId());
+                }
+                response.addAllowed(allowed);
+            }
+
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        } catch (AuthException e) {
+            LOG.error("Auth exception:: {}", e.getInternalDetails());
+            responseObserver.onError(e.status().asException());
+        } catch (Exception e) {
+            LOG.error("Internal exception:: {}", e.getMessage(), e);
+            responseObserver.onError(Status.INTERNAL.asException());
+        }
+    }
+
     private boolean hasInternalAccess(AuthResource resource, ai.lzy.iam.resources.subjects.Subject requester) {
         try {
             return accessClient.hasResourcePermission(
@@ -47,10 +47,12 @@ public class DbAccessBindingClient {
 
 
     private final IamDataSource storage;
+    private final DbAccessClient accessClient;
 
     @Inject
-    public DbAccessBindingClient(IamDataSource storage) {
+    public DbAccessBindingClient(IamDataSource storage, DbAccessClient accessClient) {
         this.storage = storage;
+        this.accessClient = accessClient;
     }
 
     public Stream<AccessBinding> listAccessBindings(AuthResource resource) throws AuthException {
@@ -133,5 +135,11 @@ public class DbAccessBindingClient {
         } catch (SQLException e) {
             throw new AuthInternalException(e);
         }
+
+        accessBindingDeltas.stream()
+            .filter(delta -> delta.action() == AccessBindingAction.REMOVE)
+            .map(delta -> delta.binding().subject().id())
+            .distinct()
+            .forEach(subjectId -> accessClient.invalidate(subjectId, resource.resourceId()));
     }
 }
@@ -8,6 +8,10 @@ import ai.lzy.iam.storage.db.IamDataSource;
 import ai.lzy.util.auth.exceptions.AuthException;
 import ai.lzy.util.auth.exceptions.AuthInternalException;
 import ai.lzy.util.auth.exceptions.AuthNotFoundException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
 import io.micronaut.context.annotation.Requires;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -16,6 +20,9 @@ import org.apache.logging.log4j.Logger;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -41,15 +48,117 @@ public class DbAccessClient {
         WHERE user_id = ? AND resource_id = ? AND role IN (%s)
         """;
 
+    private static final Duration DECISIONS_CACHE_TTL = Duration.ofMinutes(1);
+    private static final int DECISIONS_CACHE_SIZE = 100_000;
+    private static final int GENERATION_STRIPES = 1024;
+
     private final IamDataSource storage;
 
+    // Only granted permissions are cached. Bindings are only added by other calls, so cache is invalidated
+    // when bindings or subjects are removed; TTL limits staleness of changes made by other IAM instances.
+    private final Cache<Decision, Boolean> granted = CacheBuilder.newBuilder()
+        .maximumSize(DECISIONS_CACHE_SIZE)
+        .expireAfterWrite(DECISIONS_CACHE_TTL)
+        .removalListener((RemovalNotification<Decision, Boolean> n) -> {
+            // Replaced decision is indexed again before replacement
+            if (n.getCause() != RemovalCause.REPLACED && n.getKey() != null) {
+                unindex(n.getKey());
+            }
+        })
+        .build();
+    // Cached decisions by subject id, so they are invalidated without scan of the whole cache
+    private final ConcurrentHashMap<String, Set<Decision>> decisionsBySubject = new ConcurrentHashMap<>();
+    // Generations of subjects, changed on every invalidation. Decision read from DB is cached only if generation
+    // of its subject was not changed since the read started. Subjects share stripes, so invalidation of one
+    // subject only prevents caching of decisions read concurrently for others.
+    private final long[] generations = new long[GENERATION_STRIPES];  // Guarded by lock of stripe
+    private final Object[] generationLocks = new Object[GENERATION_STRIPES];
+
     @Inject
     public DbAccessClient(IamDataSource storage) {
         this.storage = storage;
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generationLocks[i] = new Object();
+        }
     }
 
     public boolean hasResourcePermission(Subject subject, String resourceId, AuthPermission permission)
             throws AuthException
+    {
+        var decision = new Decision(subject.id(), resourceId, permission);
+        if (granted.getIfPresent(decision) != null) {
+            return true;
+        }
+
+        var stripe = stripe(subject.id());
+        long generation;
+        synchronized (generationLocks[stripe]) {
+            generation = generations[stripe];
+        }
+
+        if (checkResourcePermission(subject, resourceId, permission)) {
+            synchronized (generationLocks[stripe]) {
+                // Binding can be removed and invalidated while it is read, then decision must not be cached
+                if (generations[stripe] == generation) {
+                    decisionsBySubject.computeIfAbsent(subject.id(), id -> ConcurrentHashMap.newKeySet())
+                        .add(decision);
+                    granted.put(decision, true);
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Drops cached decisions of subject, must be called after removing the subject
+     */
+    public void invalidate(String subjectId) {
+        var stripe = stripe(subjectId);
+        synchronized (generationLocks[stripe]) {
+            generations[stripe]++;
+            var decisions = decisionsBySubject.remove(subjectId);
+            if (decisions != null) {
+                granted.invalidateAll(decisions);
+            }
+        }
+    }
+
+    /**
+     * Drops cached decisions of subject on resource, must be called after removing its binding to resource.
+     * Binding to root grants internal access to all resources, so all decisions of subject are dropped then.
+     */
+    public void invalidate(String subjectId, String resourceId) {
+        if (Root.INSTANCE.resourceId().equals(resourceId)) {
+            invalidate(subjectId);
+            return;
+        }
+
+        var stripe = stripe(subjectId);
+        synchronized (generationLocks[stripe]) {
+            generations[stripe]++;
+            var decisions = decisionsBySubject.get(subjectId);
+            if (decisions != null) {
+                granted.invalidateAll(decisions.stream()
+                    .filter(decision -> decision.resourceId().equals(resourceId))
+                    .toList());
+            }
+        }
+    }
+
+    private static int stripe(String subjectId) {
+        return Math.floorMod(subjectId.hashCode(), GENERATION_STRIPES);
+    }
+
+    private void unindex(Decision decision) {
+        decisionsBySubject.computeIfPresent(decision.subjectId(), (id, decisions) -> {
+            decisions.remove(decision);
+            return decisions.isEmpty() ? null : decisions;
+        });
+    }
+
+    private boolean checkResourcePermission(Subject subject, String resourceId, AuthPermission permission)
+        throws AuthException
     {
         if (Role.LZY_INTERNAL_USER.permissions().contains(permission)) {
             try (var conn = storage.connect();
@@ -105,4 +214,6 @@ public class DbAccessClient {
 
         return false;
     }
+
+    private record Decision(String subjectId, String resourceId, AuthPermission permission) {}
 }
@@ -6,12 +6,15 @@ import ai.lzy.iam.resources.subjects.Subject;
 import ai.lzy.iam.resources.subjects.SubjectType;
 import ai.lzy.iam.storage.db.IamDataSource;
 import ai.lzy.util.auth.credentials.Credentials;
+import ai.lzy.util.auth.credentials.CredentialsUtils;
 import ai.lzy.util.auth.credentials.JwtCredentials;
 import ai.lzy.util.auth.credentials.JwtUtils;
 import ai.lzy.util.auth.exceptions.AuthException;
 import ai.lzy.util.auth.exceptions.AuthInternalException;
 import ai.lzy.util.auth.exceptions.AuthPermissionDeniedException;
 import ai.lzy.util.auth.exceptions.AuthUnauthenticatedException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.jsonwebtoken.Claims;
 import io.micronaut.context.annotation.Requires;
 import jakarta.annotation.Nonnull;
@@ -21,7 +24,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.util.Strings;
 
-import java.io.StringReader;
+import java.security.PublicKey;
 import java.sql.SQLException;
 
 @Singleton
@@ -29,9 +32,17 @@ import java.sql.SQLException;
 public class DbAuthService implements AuthenticateService {
     private static final Logger LOG = LogManager.getLogger(DbAuthService.class);
 
+    private static final int PUBLIC_KEYS_CACHE_SIZE = 10_000;
+
     @Inject
     private IamDataSource storage;
 
+    // Parsed public keys by PEM. Credentials are still checked in DB on every call,
+    // so keys of removed credentials are not used, they are just evicted by size limit
+    private final Cache<String, PublicKey> publicKeys = CacheBuilder.newBuilder()
+        .maximumSize(PUBLIC_KEYS_CACHE_SIZE)
+        .build();
+
     @Override
     public Subject authenticate(Credentials credentials) throws AuthException {
         if (credentials instanceof JwtCredentials) {
@@ -96,8 +107,10 @@ public class DbAuthService implements AuthenticateService {
                 // validate auth provider
                 var authProvider = AuthProvider.valueOf(providerName);
 
-                try (StringReader keyReader = new StringReader(rs.getString("cred_value"))) {
-                    if (JwtUtils.checkJWT(keyReader, credentials.token(), providerLogin, providerName)) {
+                try {
+                    var keyPem = rs.getString("cred_value");
+                    var publicKey = publicKeys.get(keyPem, () -> CredentialsUtils.readPublicKey(keyPem));
+                    if (JwtUtils.checkJWT(publicKey, credentials.token(), providerLogin, providerName)) {
                         var subjectId = rs.getString("user_id");
                         var subjectType = SubjectType.valueOf(rs.getString("user_type"));
                         var subject = Subject.of(subjectId, subjectType, authProvider, providerLogin);
@@ -0,0 +1,143 @@
+package ai.lzy.iam.grpc.client;
+
+import ai.lzy.iam.resources.AuthPermission;
+import ai.lzy.iam.resources.impl.Workflow;
+import ai.lzy.iam.resources.subjects.AuthProvider;
+import ai.lzy.iam.resources.subjects.User;
+import ai.lzy.util.auth.credentials.JwtCredentials;
+import ai.lzy.v1.iam.IAM;
+import ai.lzy.v1.iam.LACS;
+import ai.lzy.v1.iam.LzyAccessServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AccessServiceGrpcClientTest {
+    private static final User USER = new User("user-id", AuthProvider.GITHUB, "user");
+
+    private AccessService service;
+    private Server server;
+    private ManagedChannel channel;
+
+    @Before
+    public void setUp() throws Exception {
+        service = new AccessService();
+        var name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).addService(service).build().start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    @After
+    public void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    public void grantedDecisionIsCached() {
+        var client = client(AccessServiceGrpcClient.DEFAULT_CACHE_TTL);
+
+        Assert.assertTrue(client.hasResourcePermission(USER, new Workflow("allowed"), AuthPermission.WORKFLOW_RUN));
+        Assert.assertTrue(client.hasResourcePermission(USER, new Workflow("allowed"), AuthPermission.WORKFLOW_RUN));
+        Assert.assertEquals(1, service.authorizeCalls.get());
+
+        // Decision is cached per permission
+        Assert.assertTrue(client.hasResourcePermission(USER, new Workflow("allowed"), AuthPermission.WORKFLOW_GET));
+        Assert.assertEquals(2, service.authorizeCalls.get());
+
+        var uncached = client(Duration.ZERO);
+        Assert.assertTrue(uncached.hasResourcePermission(USER, new Workflow("allowed"), AuthPermission.WORKFLOW_RUN));
+        Assert.assertTrue(uncached.hasResourcePermission(USER, new Workflow("allowed"), AuthPermission.WORKFLOW_RUN));
+        Assert.assertEquals(4, service.authorizeCalls.get());
+    }
+
+    @Test
+    public void authorizeManyRequestsOnlyNotCachedDecisions() {
+        var client = client(AccessServiceGrpcClient.DEFAULT_CACHE_TTL);
+
+        var first = client.hasResourcePermissions(USER,
+            List.of(new Workflow("allowed-1"), new Workflow("denied-1")), AuthPermission.WORKFLOW_RUN);
+        Assert.assertEquals(List.of(true, false), first);
+
+        var second = client.hasResourcePermissions(USER,
+            List.of(new Workflow("allowed-1"), new Workflow("denied-1"), new Workflow("allowed-2")),
+            AuthPermission.WORKFLOW_RUN);
+        Assert.assertEquals(List.of(true, false, true), second);
+
+        // Denials are not cached, granted decisions are not requested again
+        Assert.assertEquals(List.of(List.of("allowed-1", "denied-1"), List.of("denied-1", "allowed-2")),
+            List.copyOf(service.authorizeManyRequests));
+        Assert.assertEquals(0, service.authorizeCalls.get());
+    }
+
+    @Test
+    public void authorizeManyFallsBackToSingleCallsIfUnimplemented() {
+        service.authorizeManySupported = false;
+        var client = client(Duration.ZERO);
+
+        for (int i = 0; i < 2; i++) {
+            var allowed = client.hasResourcePermissions(USER,
+                List.of(new Workflow("allowed-1"), new Workflow("denied-1")), AuthPermission.WORKFLOW_RUN);
+            Assert.assertEquals(List.of(true, false), allowed);
+        }
+
+        // The batch call is not retried after IAM answered it is not implemented
+        Assert.assertEquals(1, service.authorizeManyRequests.size());
+        Assert.assertEquals(4, service.authorizeCalls.get());
+    }
+
+    private AccessServiceGrpcClient client(Duration cacheTtl) {
+        return new AccessServiceGrpcClient("TestClient", channel, () -> new JwtCredentials("token"), cacheTtl);
+    }
+
+    private static final class AccessService extends LzyAccessServiceGrpc.LzyAccessServiceImplBase {
+        private volatile boolean authorizeManySupported = true;
+        private final AtomicInteger authorizeCalls = new AtomicInteger(0);
+        private final ConcurrentLinkedQueue<List<String>> authorizeManyRequests = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void authorize(LACS.AuthorizeRequest request, StreamObserver<IAM.Subject> response) {
+            authorizeCalls.incrementAndGet();
+            if (!allowed(request)) {
+                response.onError(Status.PERMISSION_DENIED.asRuntimeException());
+                return;
+            }
+            response.onNext(request.getSubject());
+            response.onCompleted();
+        }
+
+        @Override
+        public void authorizeMany(LACS.AuthorizeManyRequest request,
+                                  StreamObserver<LACS.AuthorizeManyResponse> response)
+        {
+            authorizeManyRequests.add(request.getRequestsList().stream()
+                .map(req -> req.getResource().getId())
+                .toList());
+            if (!authorizeManySupported) {
+                response.onError(Status.UNIMPLEMENTED.asRuntimeException());
+                return;
+            }
+
+            var builder = LACS.AuthorizeManyResponse.newBuilder();
+            request.getRequestsList().forEach(req -> builder.addAllowed(allowed(req)));
+            response.onNext(builder.build());
+            response.onCompleted();
+        }
+
+        private static boolean allowed(LACS.AuthorizeRequest request) {
+            return request.getResource().getId().startsWith("allowed");
+        }
+    }
+}
@@ -10,9 +10,12 @@ import ai.lzy.iam.resources.subjects.SubjectType;
 import ai.lzy.iam.storage.db.IamDataSource;
 import ai.lzy.iam.utils.GrpcConfig;
 import ai.lzy.model.db.test.DatabaseTestUtils;
+import ai.lzy.util.auth.credentials.JwtCredentials;
 import ai.lzy.util.auth.credentials.JwtUtils;
 import ai.lzy.util.auth.credentials.RsaUtils;
+import ai.lzy.util.auth.exceptions.AuthException;
 import ai.lzy.util.auth.exceptions.AuthPermissionDeniedException;
+import ai.lzy.v1.iam.LSS;
 import ai.lzy.v1.iam.LzySubjectServiceGrpc;
 import io.grpc.ManagedChannel;
 import io.micronaut.context.ApplicationContext;
@@ -25,9 +28,11 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
 
+import static ai.lzy.util.grpc.GrpcUtils.newBlockingClient;
 import static ai.lzy.util.grpc.GrpcUtils.newGrpcChannel;
 
 public class ClientAuthTest {
@@ -38,6 +43,7 @@ public class ClientAuthTest {
     ApplicationContext ctx;
     LzyIAM lzyIAM;
     ManagedChannel iamChannel;
+    JwtCredentials internalUserCredentials;
     SubjectServiceGrpcClient subjectClient;
     AuthenticateServiceGrpcClient authClient;
 
@@ -49,7 +55,7 @@ public class ClientAuthTest {
         lzyIAM.start();
 
         var internalUserConfig = ctx.getBean(InternalUserConfig.class);
-        var internalUserCredentials = JwtUtils.credentials(internalUserConfig.userName(), AuthProvider.INTERNAL.name(),
+        internalUserCredentials = JwtUtils.credentials(internalUserConfig.userName(), AuthProvider.INTERNAL.name(),
             Date.from(Instant.now()), JwtUtils.afterDays(1), internalUserConfig.credentialPrivateKey());
 
         iamChannel = newGrpcChannel(getIamAddress().host(), getIamAddress().port(), LzySubjectServiceGrpc.SERVICE_NAME);
@@ -91,6 +97,36 @@ public class ClientAuthTest {
         }
     }
 
+    @Test
+    public void testAuthCache() throws IOException, InterruptedException {
+        var keys = RsaUtils.generateRsaKeys();
+        var login = "user2";
+
+        var subject = subjectClient.createSubject(AuthProvider.GITHUB, login, SubjectType.USER,
+            new SubjectCredentials("main", keys.publicKey(), CredentialsType.PUBLIC_KEY));
+
+        var credentials = JwtUtils.credentials(login, AuthProvider.GITHUB.name(), Date.from(Instant.now()),
+            JwtUtils.afterDays(1), keys.privateKey());
+        var cachedClient = new AuthenticateServiceGrpcClient("TestClient", iamChannel, Duration.ofMinutes(1));
+        Assert.assertEquals(subject, cachedClient.authenticate(credentials));
+
+        // Credentials removed by other process are trusted until cache TTL expires
+        newBlockingClient(LzySubjectServiceGrpc.newBlockingStub(iamChannel), "TestClient",
+            internalUserCredentials::token)
+            .removeCredentials(LSS.RemoveCredentialsRequest.newBuilder()
+                .setSubjectId(subject.id())
+                .setCredentialsName("main")
+                .build());
+        Assert.assertEquals(subject, cachedClient.authenticate(credentials));
+
+        // Cache is disabled by default
+        Assert.assertThrows(AuthPermissionDeniedException.class, () -> authClient.authenticate(credentials));
+
+        // Removal of subject by client of this process invalidates cache at once
+        subjectClient.removeSubject(subject.id());
+        Assert.assertThrows(AuthException.class, () -> cachedClient.authenticate(credentials));
+    }
+
     private GrpcConfig getIamAddress() {
         int port = ctx.getBean(ServiceConfig.class).getServerPort();
         return GrpcConfig.from("localhost:" + port);
@@ -23,10 +23,12 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.sql.SQLException;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -190,4 +192,59 @@ public class DbAccessClientTest {
             LOG.info("Valid exception::{}", e.getInternalDetails());
         }
     }
+
+    @Test
+    public void removedBindingInvalidatesOnlyItsResource() throws SQLException {
+        var userId = subjectService.createSubject(AuthProvider.GITHUB, "user1", SubjectType.USER, List.of(), "hash")
+                .id();
+        final Subject user = subjectService.subject(userId);
+
+        AuthResource first = new Workflow("uid/first");
+        AuthResource second = new Workflow("uid/second");
+        for (var resource : List.of(first, second)) {
+            accessBindingClient.setAccessBindings(resource, List.of(new AccessBinding(Role.LZY_WORKFLOW_OWNER, user)));
+            assertTrue(accessClient.hasResourcePermission(user, resource.resourceId(), AuthPermission.WORKFLOW_RUN));
+        }
+
+        // Binding is dropped past the client, so only the cached decision grants access
+        try (var conn = storage.connect();
+             var st = conn.prepareStatement("DELETE FROM user_resource_roles WHERE user_id = ? AND resource_id = ?"))
+        {
+            st.setString(1, userId);
+            st.setString(2, second.resourceId());
+            st.executeUpdate();
+        }
+        assertTrue(accessClient.hasResourcePermission(user, second.resourceId(), AuthPermission.WORKFLOW_RUN));
+
+        accessBindingClient.updateAccessBindings(first, List.of(
+                new AccessBindingDelta(
+                        AccessBindingDelta.AccessBindingAction.REMOVE,
+                        new AccessBinding(Role.LZY_WORKFLOW_OWNER, user))
+        ));
+        assertThrows(AuthNotFoundException.class,
+                () -> accessClient.hasResourcePermission(user, first.resourceId(), AuthPermission.WORKFLOW_RUN));
+        assertTrue(accessClient.hasResourcePermission(user, second.resourceId(), AuthPermission.WORKFLOW_RUN));
+    }
+
+    @Test
+    public void removedSubjectIsInvalidated() {
+        var userId = subjectService.createSubject(AuthProvider.GITHUB, "user1", SubjectType.USER, List.of(), "hash")
+                .id();
+        final Subject user = subjectService.subject(userId);
+
+        AuthResource workflowResource = new Workflow("uid/workflow");
+        accessBindingClient.setAccessBindings(workflowResource, List.of(
+                new AccessBinding(Role.LZY_WORKFLOW_OWNER, user)
+        ));
+        assertTrue(accessClient.hasResourcePermission(
+                user,
+                workflowResource.resourceId(),
+                AuthPermission.WORKFLOW_RUN)
+        );
+
+        subjectService.removeSubject(userId);
+        assertThrows(AuthNotFoundException.class,
+                () -> accessClient.hasResourcePermission(user, workflowResource.resourceId(),
+                        AuthPermission.WORKFLOW_RUN));
+    }
 }
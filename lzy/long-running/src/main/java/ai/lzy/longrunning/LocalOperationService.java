@@ -10,6 +10,7 @@ import com.google.protobuf.Message;
 import io.grpc.Metadata;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import jakarta.annotation.Nullable;
 import org.apache.logging.log4j.LogManager;
@@ -18,11 +19,24 @@ import org.apache.logging.log4j.Logger;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
 public class LocalOperationService extends LongRunningServiceGrpc.LongRunningServiceImplBase {
     private static final Logger LOG = LogManager.getLogger(LocalOperationService.class);
+    private static final Duration DEFAULT_WAIT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration MAX_WAIT_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final ScheduledExecutorService WAITERS = Executors.newSingleThreadScheduledExecutor(r -> {
+        var thread = new Thread(r, "local-operations-waiter");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final String name;
 
@@ -145,6 +159,7 @@ public class LocalOperationService extends LongRunningServiceGrpc.LongRunningSer
             synchronized (op.operation.id()) {
                 op.operation.completeWith(response);
                 op.operation.id().notifyAll();
+                op.completed.complete(null);
                 return OperationSnapshot.of(op.operation);
             }
         }
@@ -164,6 +179,7 @@ public class LocalOperationService extends LongRunningServiceGrpc.LongRunningSer
             synchronized (op.operation.id()) {
                 op.operation.completeWith(error);
                 op.operation.id().notifyAll();
+                op.completed.complete(null);
                 return OperationSnapshot.of(op.operation);
             }
         }
@@ -218,6 +234,46 @@ public class LocalOperationService extends LongRunningServiceGrpc.LongRunningSer
         response.onCompleted();
     }
 
+    @Override
+    public void waitOperation(LongRunning.WaitOperationRequest request,
+                              StreamObserver<LongRunning.Operation> response)
+    {
+        var op = operations.get(request.getOperationId());
+        if (op == null) {
+            var errorMessage = "Operation %s not found".formatted(request.getOperationId());
+            LOG.error("[{}] Got error: {}", name, errorMessage);
+            response.onError(Status.NOT_FOUND.withDescription(errorMessage).asException());
+            return;
+        }
+
+        var timeout = request.hasTimeout() ? ProtoConverter.fromProto(request.getTimeout()) : DEFAULT_WAIT_TIMEOUT;
+        if (timeout.compareTo(MAX_WAIT_TIMEOUT) > 0) {
+            timeout = MAX_WAIT_TIMEOUT;
+        }
+
+        // gRPC thread is not held while waiting, response is sent on completion or timeout, whichever comes first
+        var replied = new AtomicBoolean(false);
+        Runnable reply = () -> {
+            if (!replied.compareAndSet(false, true)
+                || response instanceof ServerCallStreamObserver<?> serverResponse && serverResponse.isCancelled())
+            {
+                return;
+            }
+            LongRunning.Operation protoOp;
+            synchronized (op.operation.id()) {
+                protoOp = op.operation.toProto();
+            }
+            response.onNext(protoOp);
+            response.onCompleted();
+        };
+
+        var timer = WAITERS.schedule(reply, timeout.toNanos(), TimeUnit.NANOSECONDS);
+        op.completed.thenRunAsync(() -> {
+            timer.cancel(false);
+            reply.run();
+        }, WAITERS);
+    }
+
     @Nullable
     public OperationSnapshot cancel(String opId, String reason) {
         var op = operations.get(opId);
@@ -227,6 +283,7 @@ public class LocalOperationService extends LongRunningServiceGrpc.LongRunningSer
             synchronized (op.operation.id()) {
                 op.operation.completeWith(Status.CANCELLED.withDescription(reason));
                 op.operation.id().notifyAll();
+                op.completed.complete(null);
 
                 if (op.thread != null) {
                     op.thread.interrupt();
@@ -254,6 +311,7 @@ public class LocalOperationService extends LongRunningServiceGrpc.LongRunningSer
         synchronized (op.operation.id()) {
             op.operation.completeWith(Status.CANCELLED.withDescription(request.getMessage()));
             op.operation.id().notifyAll();
+            op.completed.complete(null);
 
             if (op.thread != null) {
                 op.thread.interrupt();
@@ -280,7 +338,7 @@ public class LocalOperationService extends LongRunningServiceGrpc.LongRunningSer
         try {
             synchronized (op.operation.id()) {
                 while (!op.operation.done() && (nanos = deadline - System.nanoTime()) > 0L) {
-                    op.operation.id().wait(Duration.ofNanos(nanos).toMillis());
+                    TimeUnit.NANOSECONDS.timedWait(op.operation.id(), nanos);
                 }
                 waited = op.operation.done();
             }
@@ -368,6 +426,12 @@ public class LocalOperationService extends LongRunningServiceGrpc.LongRunningSer
 
     private record OperationDesc(
         Operation operation,
-        @Nullable Thread thread
-    ) {}
+        @Nullable Thread thread,
+        CompletableFuture<Void> completed
+    ) {
+        OperationDesc(Operation operation, @Nullable Thread thread) {
+            this(operation, thread,
+                operation.done() ? CompletableFuture.completedFuture(null) : new CompletableFuture<>());
+        }
+    }
 }
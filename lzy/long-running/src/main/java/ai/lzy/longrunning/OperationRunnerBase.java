@@ -19,6 +19,7 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
 import java.util.function.Supplier;
 
 import static ai.lzy.model.db.DbHelper.withRetries;
@@ -32,6 +33,16 @@ public abstract class OperationRunnerBase extends ContextAwareTask {
     private final OperationDao operationsDao;
     private final OperationsExecutor executor;
     private Operation op;
+    // Fires when op could be completed outside of this runner, so it must be reloaded
+    @Nullable
+    private OperationsWatcher.Subscription completion;
+    @Nullable
+    private Duration retryDelay;
+    // guarded by this
+    @Nullable
+    private ScheduledFuture<?> scheduledRetry;
+    // guarded by this
+    private boolean wakeUpRequested = false;
 
     protected OperationRunnerBase(String id, String descr, Storage storage, OperationDao operationsDao,
                                   OperationsExecutor executor)
@@ -63,7 +74,7 @@ public abstract class OperationRunnerBase extends ContextAwareTask {
                         switch (update.code()) {
                             case ALREADY_DONE, CONTINUE -> { }
                             case RESTART -> {
-                                executor.retryAfter(this, update.delay());
+                                retryAfter(update.delay());
                                 return;
                             }
                             case FINISH -> {
@@ -73,7 +84,7 @@ public abstract class OperationRunnerBase extends ContextAwareTask {
                         }
                     }
                     case RESTART -> {
-                        executor.retryAfter(this, stepResult.delay());
+                        retryAfter(stepResult.delay());
                         return;
                     }
                     case FINISH -> {
@@ -83,6 +94,7 @@ public abstract class OperationRunnerBase extends ContextAwareTask {
                 }
             }
         } catch (Throwable e) {
+            retryDelay = null;
             notifyFinished();
             if (e instanceof Error err && isInjectedError(err)) {
                 log.error("{} Terminated by InjectedFailure exception: {}", logPrefix, e.getMessage());
@@ -95,6 +107,21 @@ public abstract class OperationRunnerBase extends ContextAwareTask {
                 }
                 throw e;
             }
+        } finally {
+            // runner is rescheduled at the very end, so next execution does not race with this one
+            var delay = retryDelay;
+            retryDelay = null;
+            if (delay != null) {
+                synchronized (this) {
+                    if (wakeUpRequested) {
+                        wakeUpRequested = false;
+                        delay = Duration.ZERO;
+                    }
+                    scheduledRetry = executor.retryAfter(this, delay);
+                }
+            } else {
+                unwatch();
+            }
         }
     }
 
@@ -109,13 +136,48 @@ public abstract class OperationRunnerBase extends ContextAwareTask {
         return executor;
     }
 
+    private void retryAfter(Duration delay) {
+        retryDelay = delay;
+    }
+
+    /**
+     * Runs the runner now if it is waiting for a restart, e.g. when an external operation it awaits is done.
+     * If the runner is executing at the moment, its next restart, if any, is done without delay.
+     * Can be called from any thread.
+     */
+    protected final synchronized void wakeUp() {
+        if (scheduledRetry != null && executor.runNow(scheduledRetry, this)) {
+            scheduledRetry = null;
+            return;
+        }
+        wakeUpRequested = true;
+    }
+
+    private void unwatch() {
+        if (completion != null) {
+            completion.close();
+            completion = null;
+        }
+    }
+
     private boolean loadOperation() {
+        if (op != null && completion != null && !completion.fired()) {
+            // operation is not completed outside since the last load, keep it between retries
+            return true;
+        }
+
+        unwatch();
+        var watcher = operationsDao.watcher();
+        if (watcher != null) {
+            completion = watcher.watch(id);
+        }
+
         try {
             op = withRetries(log, () -> operationsDao.get(id, null));
         } catch (Exception e) {
             op = null;
             log.error("{} Cannot load operation: {}. Retry later...", logPrefix, e.getMessage());
-            executor.retryAfter(this, Duration.ofSeconds(1));
+            retryAfter(Duration.ofSeconds(1));
             return false;
         }
 
@@ -157,7 +219,7 @@ public abstract class OperationRunnerBase extends ContextAwareTask {
             });
         } catch (Exception e) {
             log.error("{} DB error: {}. Retry later...", logPrefix, e.getMessage());
-            executor.retryAfter(this, Duration.ofSeconds(1));
+            retryAfter(Duration.ofSeconds(1));
             return false;
         }
     }
@@ -176,7 +238,7 @@ public abstract class OperationRunnerBase extends ContextAwareTask {
             });
         } catch (Exception e) {
             log.error("{} DB error: {}. Retry later...", logPrefix, e.getMessage());
-            executor.retryAfter(this, Duration.ofSeconds(1));
+            retryAfter(Duration.ofSeconds(1));
             return false;
         }
     }
@@ -214,7 +276,7 @@ public abstract class OperationRunnerBase extends ContextAwareTask {
             notifyFinished();
         } catch (Exception e) {
             log.error("{} Cannot fail operation: {}. Retry later...", logPrefix, e.getMessage());
-            executor.retryAfter(this, Duration.ofSeconds(1));
+            retryAfter(Duration.ofSeconds(1));
         }
         return true;
     }
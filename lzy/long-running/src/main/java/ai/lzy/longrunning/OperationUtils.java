@@ -5,6 +5,12 @@ import jakarta.annotation.Nullable;
 import org.apache.logging.log4j.Logger;
 
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.LockSupport;
 
 import static ai.lzy.model.db.DbHelper.withRetries;
@@ -12,30 +18,146 @@ import static ai.lzy.model.db.DbHelper.withRetries;
 public enum OperationUtils {
     ;
 
+    // Operation is reloaded at least so often even if its completion is watched
+    private static final Duration MAX_NOTIFICATION_WAIT = Duration.ofSeconds(10);
+
+    /**
+     * Waits for operation completion. If operations dao has a watcher, operation is reloaded
+     * when it is notified about completion, otherwise operation is polled every loadAttemptDelay.
+     *
+     * @return last loaded operation (done or not after timeout or error), or null if it is not loaded
+     */
     @Nullable
     public static Operation awaitOperationDone(OperationDao operationDao, String opId, Duration loadAttemptDelay,
                                                Duration timeout, Logger log)
     {
         long deadline = System.nanoTime() + timeout.toNanos();
+        var watcher = operationDao.watcher();
 
         Operation op = null;
-        try {
-            op = withRetries(log, () -> operationDao.get(opId, null));
-        } catch (Exception e) {
-            log.error("Error while loading operation by id {}: {}", opId, e.getMessage(), e);
-            return op;
+        while (true) {
+            // subscribe before loading, so completion between them is not missed
+            try (var subscription = watcher != null ? watcher.watch(opId) : null) {
+                try {
+                    op = withRetries(log, () -> operationDao.get(opId, null));
+                } catch (Exception e) {
+                    log.error("Error while loading operation by id {}: {}", opId, e.getMessage(), e);
+                    return op;
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (op == null || op.done() || remaining <= 0L) {
+                    return op;
+                }
+
+                if (subscription != null && watcher.isListening()) {
+                    try {
+                        subscription.await(Duration.ofNanos(Math.min(remaining, MAX_NOTIFICATION_WAIT.toNanos())));
+                    } catch (InterruptedException e) {
+                        log.error("Interrupted while waiting for operation {}", opId);
+                        Thread.currentThread().interrupt();
+                        return op;
+                    }
+                } else {
+                    LockSupport.parkNanos(Math.min(remaining, loadAttemptDelay.toNanos()));
+                }
+            }
         }
+    }
+
+    /**
+     * Waits for operation completion like {@link #awaitOperationDone}, but without blocking a thread:
+     * operation is reloaded in executor when it is notified about completion or when poll delay is passed.
+     * Waiting is stopped when returned future is cancelled.
+     *
+     * @return future of operation (done or not after timeout), or of null if it is not found
+     */
+    public static CompletableFuture<Operation> waitOperationDone(OperationDao operationDao, String opId,
+                                                                 Duration loadAttemptDelay, Duration timeout,
+                                                                 ScheduledExecutorService executor, Logger log)
+    {
+        var result = new CompletableFuture<Operation>();
+        var waiter = new AsyncWaiter(operationDao, opId, loadAttemptDelay, System.nanoTime() + timeout.toNanos(),
+            executor, log, result);
+        waiter.schedule(0);
+        return result;
+    }
+
+    private record AsyncWaiter(
+        OperationDao operationDao,
+        String opId,
+        Duration loadAttemptDelay,
+        long deadline,
+        ScheduledExecutorService executor,
+        Logger log,
+        CompletableFuture<Operation> result
+    ) {
+        void check() {
+            if (result.isDone()) {
+                return;
+            }
+
+            var watcher = operationDao.watcher();
+            var subscription = watcher != null ? watcher.watch(opId) : null;
 
-        while (!op.done() && deadline - System.nanoTime() > 0L) {
-            LockSupport.parkNanos(loadAttemptDelay.toNanos());
+            Operation op;
             try {
                 op = withRetries(log, () -> operationDao.get(opId, null));
             } catch (Exception e) {
                 log.error("Error while loading operation by id {}: {}", opId, e.getMessage(), e);
-                return op;
+                close(subscription);
+                result.completeExceptionally(e);
+                return;
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (op == null || op.done() || remaining <= 0L) {
+                close(subscription);
+                result.complete(op);
+                return;
+            }
+
+            if (subscription == null || !watcher.isListening()) {
+                close(subscription);
+                schedule(Math.min(remaining, loadAttemptDelay.toNanos()));
+                return;
+            }
+
+            // operation is reloaded either on notification or on timeout, whichever comes first
+            var woken = new AtomicBoolean(false);
+            Runnable wakeUp = () -> {
+                if (woken.compareAndSet(false, true)) {
+                    subscription.close();
+                    schedule(0);
+                }
+            };
+            ScheduledFuture<?> timer;
+            try {
+                timer = executor.schedule(wakeUp, Math.min(remaining, MAX_NOTIFICATION_WAIT.toNanos()),
+                    TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                subscription.close();
+                result.completeExceptionally(e);
+                return;
             }
+            subscription.onFired(() -> {
+                timer.cancel(false);
+                wakeUp.run();
+            });
         }
 
-        return op;
+        void schedule(long delayNanos) {
+            try {
+                executor.schedule(this::check, delayNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private static void close(@Nullable OperationsWatcher.Subscription subscription) {
+            if (subscription != null) {
+                subscription.close();
+            }
+        }
     }
 }
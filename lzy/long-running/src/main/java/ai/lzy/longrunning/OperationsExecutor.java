@@ -47,16 +47,35 @@ public final class OperationsExecutor {
         }
     }
 
-    public void retryAfter(Runnable op, Duration delay) {
+    public ScheduledFuture<?> retryAfter(Runnable op, Duration delay) {
         try {
             runningOperations.getAndIncrement();
-            executor.schedule(op, delay.toMillis(), TimeUnit.MILLISECONDS);
+            return executor.schedule(op, delay.toMillis(), TimeUnit.MILLISECONDS);
         } catch (Exception e) {
             runningOperations.getAndDecrement();
             throw e;
         }
     }
 
+    /**
+     * Runs operation scheduled by {@link #retryAfter} right now.
+     *
+     * @return false if scheduled run is already started, or it cannot be moved
+     */
+    public boolean runNow(ScheduledFuture<?> scheduled, Runnable op) {
+        if (terminating.get()) {
+            return false;
+        }
+
+        if (!(scheduled instanceof RunnableScheduledFuture<?> task) || !executor.remove(task)) {
+            return false;
+        }
+
+        task.cancel(false);
+        executor.execute(op);
+        return true;
+    }
+
     @PreDestroy
     public void shutdown() {
         shutdown(Duration.ofMinutes(1));
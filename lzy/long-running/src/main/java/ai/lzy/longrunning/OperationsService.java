@@ -5,19 +5,36 @@ import ai.lzy.longrunning.dao.OperationDao;
 import ai.lzy.model.db.exceptions.NotFoundException;
 import ai.lzy.v1.longrunning.LongRunning.CancelOperationRequest;
 import ai.lzy.v1.longrunning.LongRunning.Operation;
+import ai.lzy.v1.longrunning.LongRunning.WaitOperationRequest;
 import ai.lzy.v1.longrunning.LongRunningServiceGrpc;
 import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
 import static ai.lzy.model.db.DbHelper.defaultRetryPolicy;
 import static ai.lzy.model.db.DbHelper.withRetries;
+import static ai.lzy.util.grpc.ProtoConverter.fromProto;
 import static ai.lzy.util.grpc.ProtoConverter.toProto;
 import static ai.lzy.v1.longrunning.LongRunning.GetOperationRequest;
 
 public final class OperationsService extends LongRunningServiceGrpc.LongRunningServiceImplBase {
     private static final Logger LOG = LogManager.getLogger(OperationsService.class);
+    private static final Duration DEFAULT_WAIT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration MAX_WAIT_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration WAIT_POLL_DELAY = Duration.ofMillis(300);
+
+    private static final ScheduledExecutorService WAITERS = Executors.newScheduledThreadPool(2, r -> {
+        var thread = new Thread(r, "operations-waiter");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final OperationDao operations;
 
@@ -48,6 +65,47 @@ public final class OperationsService extends LongRunningServiceGrpc.LongRunningS
         }
     }
 
+    @Override
+    public void waitOperation(WaitOperationRequest request, StreamObserver<Operation> response) {
+        var timeout = DEFAULT_WAIT_TIMEOUT;
+        if (request.hasTimeout()) {
+            timeout = fromProto(request.getTimeout());
+            if (timeout.isNegative()) {
+                response.onError(Status.INVALID_ARGUMENT.withDescription("Negative timeout").asException());
+                return;
+            }
+            if (timeout.compareTo(MAX_WAIT_TIMEOUT) > 0) {
+                timeout = MAX_WAIT_TIMEOUT;
+            }
+        }
+
+        // gRPC thread is not held while waiting, operation is reloaded in waiters executor when it can be completed
+        var cancelled = new CompletableFuture<Void>();
+        if (response instanceof ServerCallStreamObserver<Operation> serverResponse) {
+            serverResponse.setOnCancelHandler(() -> cancelled.complete(null));
+        }
+
+        var waiting = OperationUtils.waitOperationDone(operations, request.getOperationId(), WAIT_POLL_DELAY,
+            timeout, WAITERS, LOG);
+        cancelled.thenRun(() -> waiting.cancel(false));
+
+        waiting.whenComplete((operation, ex) -> {
+            if (cancelled.isDone()) {
+                return;
+            }
+            if (ex != null) {
+                LOG.error("Cannot wait operation {}: {}", request.getOperationId(), ex.getMessage(), ex);
+                response.onError(
+                    Status.INTERNAL.withDescription("Database error: " + ex.getMessage()).asException());
+            } else if (operation != null) {
+                response.onNext(operation.toProto());
+                response.onCompleted();
+            } else {
+                response.onError(Status.NOT_FOUND.withDescription("Operation not found").asException());
+            }
+        });
+    }
+
     @Override
     public void cancel(CancelOperationRequest request, StreamObserver<Operation> response) {
         LOG.info("Cancel operation {}", request.getOperationId());
@@ -0,0 +1,228 @@
+package ai.lzy.longrunning;
+
+import ai.lzy.model.db.Storage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Listens for completions of operations, which are notified by {@link ai.lzy.longrunning.dao.OperationDaoImpl}
+ * with postgres NOTIFY after commit, so waiters are woken without polling the operations table.
+ * <p>
+ * NOTIFY takes global lock on commit, so it is not sent in completion transactions. Completed operations
+ * are queued and sent in batches by a single notifier, local subscriptions are fired at once.
+ * <p>
+ * Notifications are lost while there is no listening connection, so all subscriptions fire on disconnect,
+ * and subscriptions made while disconnected fire at once. Subscribers must reload the operation when fired.
+ */
+public final class OperationsWatcher {
+    private static final Logger LOG = LogManager.getLogger(OperationsWatcher.class);
+
+    public static final String CHANNEL = "lzy_operation_done";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(1);
+    private static final int MAX_NOTIFY_BATCH = 1000;
+
+    private static final String QUERY_NOTIFY_OPERATIONS_DONE = """
+        SELECT pg_notify('%s', id) FROM unnest(?) AS id""".formatted(CHANNEL);
+
+    private final String name;
+    private final Storage storage;
+    private final Map<String, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final BlockingQueue<String> completed = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private final Thread notifier;
+    private volatile boolean listening = false;
+    private volatile boolean closed = false;
+
+    public OperationsWatcher(String name, Storage storage) {
+        this.name = name;
+        this.storage = storage;
+
+        this.thread = new Thread(this::run, name + "-operations-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+
+        this.notifier = new Thread(this::runNotifier, name + "-operations-notifier");
+        this.notifier.setDaemon(true);
+        this.notifier.start();
+    }
+
+    public boolean isListening() {
+        return listening;
+    }
+
+    /**
+     * Subscribes to completion of operation. Subscription must be closed when not needed anymore.
+     */
+    public Subscription watch(String operationId) {
+        var subscription = new Subscription(operationId);
+        subscriptions.compute(operationId, (id, list) -> {
+            list = list != null ? list : new ArrayList<>(1);
+            list.add(subscription);
+            return list;
+        });
+
+        if (!listening) {
+            subscription.fire();
+        }
+        return subscription;
+    }
+
+    /**
+     * Notifies waiters about completion of committed operations
+     */
+    public void notifyDone(Collection<String> operationIds) {
+        operationIds.forEach(this::fire);
+        completed.addAll(operationIds);
+    }
+
+    public void close() {
+        closed = true;
+        notifier.interrupt();
+        try {
+            thread.join(POLL_TIMEOUT.multipliedBy(2).toMillis());
+            notifier.join(POLL_TIMEOUT.multipliedBy(2).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (!closed) {
+            try (var connection = storage.connect()) {
+                var pgConnection = connection.unwrap(PGConnection.class);
+                try (var st = connection.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+
+                LOG.info("[{}] Listening for operations completion", name);
+                listening = true;
+
+                while (!closed) {
+                    var notifications = pgConnection.getNotifications((int) POLL_TIMEOUT.toMillis());
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (var notification : notifications) {
+                        if (CHANNEL.equals(notification.getName())) {
+                            fire(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.warn("[{}] Cannot listen for operations completion: {}", name, e.getMessage());
+            } finally {
+                listening = false;
+                // notifications could be missed while we were not listening
+                subscriptions.keySet().forEach(this::fire);
+            }
+
+            if (!closed) {
+                LockSupport.parkNanos(RECONNECT_DELAY.toNanos());
+            }
+        }
+    }
+
+    private void runNotifier() {
+        var batch = new HashSet<String>();
+        while (!closed) {
+            try {
+                batch.add(completed.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            // operations completed while previous batch was being sent are notified together
+            var ids = new ArrayList<String>(MAX_NOTIFY_BATCH);
+            completed.drainTo(ids, MAX_NOTIFY_BATCH - 1);
+            batch.addAll(ids);
+
+            try (var connection = storage.connect();
+                 var st = connection.prepareStatement(QUERY_NOTIFY_OPERATIONS_DONE))
+            {
+                st.setArray(1, connection.createArrayOf("TEXT", batch.toArray()));
+                st.executeQuery();
+            } catch (SQLException e) {
+                // waiters of other instances reload operations on timeout
+                LOG.warn("[{}] Cannot notify about {} operations completion: {}", name, batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    private void fire(String operationId) {
+        var fired = new ArrayList<Subscription>(1);
+        subscriptions.computeIfPresent(operationId, (id, list) -> {
+            fired.addAll(list);
+            return list;
+        });
+        // outside of map update, because fired actions can subscribe again
+        fired.forEach(Subscription::fire);
+    }
+
+    public final class Subscription implements AutoCloseable {
+        private final String operationId;
+        private final CompletableFuture<Void> fired = new CompletableFuture<>();
+
+        private Subscription(String operationId) {
+            this.operationId = operationId;
+        }
+
+        /**
+         * @return true if operation could be completed since subscription
+         */
+        public boolean fired() {
+            return fired.isDone();
+        }
+
+        /**
+         * @return true if operation could be completed since subscription, false on timeout
+         */
+        public boolean await(Duration timeout) throws InterruptedException {
+            try {
+                fired.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+                return true;
+            } catch (TimeoutException e) {
+                return false;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Runs action once when operation could be completed, in watcher or caller thread, so action must be fast
+         */
+        public void onFired(Runnable action) {
+            fired.thenRun(action);
+        }
+
+        @Override
+        public void close() {
+            subscriptions.computeIfPresent(operationId, (id, list) -> {
+                list.remove(this);
+                return list.isEmpty() ? null : list;
+            });
+        }
+
+        private void fire() {
+            fired.complete(null);
+        }
+    }
+}
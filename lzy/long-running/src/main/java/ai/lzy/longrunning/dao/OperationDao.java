@@ -1,6 +1,7 @@
 package ai.lzy.longrunning.dao;
 
 import ai.lzy.longrunning.Operation;
+import ai.lzy.longrunning.OperationsWatcher;
 import ai.lzy.model.db.TransactionHandle;
 import ai.lzy.model.db.exceptions.NotFoundException;
 import com.google.protobuf.Any;
@@ -9,6 +10,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.List;
 
 public interface OperationDao {
 
@@ -22,6 +24,12 @@ public interface OperationDao {
     @Nullable
     Operation get(String id, @Nullable TransactionHandle transaction) throws SQLException;
 
+    /**
+     * @return existing operations with given ids, in any order
+     * @throws SQLException on any sql error
+     */
+    List<Operation> get(Collection<String> ids, @Nullable TransactionHandle transaction) throws SQLException;
+
     /**
      * @throws ai.lzy.model.db.exceptions.NotFoundException if operation not exists
      * @throws OperationCompletedException                  if operation already completed
@@ -72,6 +80,14 @@ public interface OperationDao {
 
     int deleteOutdatedOperations(int hours) throws SQLException;
 
+    /**
+     * @return watcher of operations completion, or null if completion can be found out only by polling
+     */
+    @Nullable
+    default OperationsWatcher watcher() {
+        return null;
+    }
+
 
     default Operation failOperation(String operationId, com.google.rpc.Status error, @Nullable TransactionHandle tx,
                                     Logger log) throws SQLException
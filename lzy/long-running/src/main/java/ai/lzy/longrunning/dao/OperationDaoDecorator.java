@@ -1,6 +1,7 @@
 package ai.lzy.longrunning.dao;
 
 import ai.lzy.longrunning.Operation;
+import ai.lzy.longrunning.OperationsWatcher;
 import ai.lzy.model.db.Storage;
 import ai.lzy.model.db.TransactionHandle;
 import com.google.protobuf.Any;
@@ -10,6 +11,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.List;
 import java.util.function.Consumer;
 
 @SuppressWarnings("OverloadMethodsDeclarationOrder")
@@ -21,7 +23,11 @@ public class OperationDaoDecorator implements OperationDao {
     private final OperationDao delegate;
 
     public OperationDaoDecorator(Storage storage) {
-        this.delegate = new OperationDaoImpl(storage);
+        this(storage, null);
+    }
+
+    public OperationDaoDecorator(Storage storage, @Nullable OperationsWatcher watcher) {
+        this.delegate = new OperationDaoImpl(storage, watcher);
     }
 
     public void onCreate(Consumer<Operation> onCreate) {
@@ -76,6 +82,11 @@ public class OperationDaoDecorator implements OperationDao {
         return delegate.get(id, transaction);
     }
 
+    @Override
+    public List<Operation> get(Collection<String> ids, @Nullable TransactionHandle transaction) throws SQLException {
+        return delegate.get(ids, transaction);
+    }
+
     @Override
     public void update(String id, @Nullable TransactionHandle transaction) throws SQLException {
         delegate.update(id, transaction);
@@ -103,6 +114,12 @@ public class OperationDaoDecorator implements OperationDao {
         return delegate.deleteOutdatedOperations(hours);
     }
 
+    @Nullable
+    @Override
+    public OperationsWatcher watcher() {
+        return delegate.watcher();
+    }
+
     @Override
     public Operation failOperation(String operationId, Status error, TransactionHandle tx, Logger log)
         throws SQLException
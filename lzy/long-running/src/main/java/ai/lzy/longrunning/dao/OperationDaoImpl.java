@@ -1,6 +1,7 @@
 package ai.lzy.longrunning.dao;
 
 import ai.lzy.longrunning.Operation;
+import ai.lzy.longrunning.OperationsWatcher;
 import ai.lzy.model.db.DbOperation;
 import ai.lzy.model.db.Storage;
 import ai.lzy.model.db.TransactionHandle;
@@ -17,6 +18,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -38,6 +40,11 @@ public class OperationDaoImpl implements OperationDao {
         FROM operation
         WHERE id = ?""".formatted(FIELDS_STRING);
 
+    private static final String QUERY_GET_OPERATIONS = """
+        SELECT %s
+        FROM operation
+        WHERE id = ANY (?)""".formatted(FIELDS_STRING);
+
     private static final String QUERY_FIND_OPERATION = """
         SELECT %s
         FROM operation
@@ -135,12 +142,20 @@ public class OperationDaoImpl implements OperationDao {
     private static final String QUERY_FAIL_OPERATIONS = """
         UPDATE operation
         SET error = ?, done = TRUE, modified_at = NOW()
-        WHERE id = ANY (?) AND done = FALSE""";
+        WHERE id = ANY (?) AND done = FALSE
+        RETURNING id""";
 
     private final Storage storage;
+    @Nullable
+    private final OperationsWatcher watcher;
 
     public OperationDaoImpl(Storage storage) {
+        this(storage, null);
+    }
+
+    public OperationDaoImpl(Storage storage, @Nullable OperationsWatcher watcher) {
         this.storage = storage;
+        this.watcher = watcher;
     }
 
     @Override
@@ -230,6 +245,28 @@ public class OperationDaoImpl implements OperationDao {
         return operation;
     }
 
+    @Override
+    public List<Operation> get(Collection<String> ids, @Nullable TransactionHandle transaction) throws SQLException {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        return DbOperation.execute(transaction, storage, connection -> {
+            try (PreparedStatement st = connection.prepareStatement(QUERY_GET_OPERATIONS + forUpdate(transaction))) {
+                st.setArray(1, connection.createArrayOf("TEXT", ids.toArray()));
+
+                var rs = st.executeQuery();
+                var operations = new ArrayList<Operation>(ids.size());
+                while (rs.next()) {
+                    operations.add(from(rs));
+                }
+                return operations;
+            } catch (InvalidProtocolBufferException e) {
+                throw new RuntimeException("Cannot parse proto", e);
+            }
+        });
+    }
+
     @Nullable
     private Operation getBy(String key, String sql, @Nullable TransactionHandle transaction)
         throws SQLException
@@ -282,7 +319,7 @@ public class OperationDaoImpl implements OperationDao {
     {
         LOG.info("Complete operation {}", id);
 
-        return DbOperation.execute(tx, storage, con -> {
+        var completed = DbOperation.execute(tx, storage, con -> {
             try (PreparedStatement st = con.prepareStatement(
                 meta != null ? QUERY_UPDATE_OPERATION_META_RESPONSE : QUERY_UPDATE_OPERATION_RESPONSE))
             {
@@ -303,6 +340,9 @@ public class OperationDaoImpl implements OperationDao {
                 return op;
             }
         });
+
+        notifyDone(tx, List.of(id));
+        return completed;
     }
 
     @Override
@@ -332,7 +372,7 @@ public class OperationDaoImpl implements OperationDao {
     public Operation fail(String id, Status error, @Nullable TransactionHandle transaction) throws SQLException {
         LOG.info("Update operation {} with error: {}", id, error);
 
-        return DbOperation.execute(transaction, storage, con -> {
+        var failed = DbOperation.execute(transaction, storage, con -> {
             try (PreparedStatement st = con.prepareStatement(QUERY_UPDATE_OPERATION_ERROR)) {
                 st.setString(1, id);
                 st.setBytes(2, error.toByteArray());
@@ -344,6 +384,9 @@ public class OperationDaoImpl implements OperationDao {
                 return op;
             }
         });
+
+        notifyDone(transaction, List.of(id));
+        return failed;
     }
 
     @Override
@@ -351,14 +394,22 @@ public class OperationDaoImpl implements OperationDao {
         throws SQLException
     {
         LOG.info("Cancel operations {}", String.join(", ", ids));
-        DbOperation.execute(transaction, storage, connection -> {
+        var failed = DbOperation.execute(transaction, storage, connection -> {
             try (var statement = connection.prepareStatement(QUERY_FAIL_OPERATIONS)) {
                 statement.setBytes(1, error.toByteArray());
                 Array sqlArr = connection.createArrayOf("TEXT", ids.toArray());
                 statement.setArray(2, sqlArr);
-                statement.executeUpdate();
+
+                var rs = statement.executeQuery();
+                var failedIds = new ArrayList<String>(ids.size());
+                while (rs.next()) {
+                    failedIds.add(rs.getString(1));
+                }
+                return failedIds;
             }
         });
+
+        notifyDone(transaction, failed);
     }
 
     @Override
@@ -382,6 +433,27 @@ public class OperationDaoImpl implements OperationDao {
         });
     }
 
+    @Nullable
+    @Override
+    public OperationsWatcher watcher() {
+        return watcher;
+    }
+
+    /**
+     * Watcher notifies waiters in batches outside of completion transaction, so transactions
+     * do not take postgres notify lock. It is done only after commit, when waiters can see completed operation.
+     */
+    private void notifyDone(@Nullable TransactionHandle transaction, List<String> ids) {
+        if (watcher == null || ids.isEmpty()) {
+            return;
+        }
+        if (transaction != null) {
+            transaction.afterCommit(() -> watcher.notifyDone(ids));
+        } else {
+            watcher.notifyDone(ids);
+        }
+    }
+
     private static Operation processResult(String id, ResultSet rs, String action) throws SQLException {
         if (rs.next()) {
             if (rs.getBoolean("__updated__")) {
@@ -1,5 +1,6 @@
 package ai.lzy.longrunning;
 
+import ai.lzy.util.grpc.ProtoConverter;
 import ai.lzy.v1.longrunning.LongRunning;
 import com.google.protobuf.Any;
 import io.grpc.stub.StreamObserver;
@@ -10,6 +11,7 @@ import org.junit.Test;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -100,6 +102,61 @@ public class LocalOperationsServiceTest {
         assertTrue(observer.isWaited());
     }
 
+    @Test
+    public void waitOperationTest() throws Exception {
+        var op = opService.registerOperation(Operation.create("test", "simple-op", null, null));
+
+        var notDone = waitOperation(op.id(), Duration.ofMillis(100)).get(5, TimeUnit.SECONDS);
+        assertFalse(notDone.getDone());
+
+        var executor = Executors.newSingleThreadScheduledExecutor();
+        executor.schedule(() -> opService.updateResponse(op.id(), Any.getDefaultInstance()), 100,
+            TimeUnit.MILLISECONDS);
+
+        var done = waitOperation(op.id(), Duration.ofSeconds(5)).get(5, TimeUnit.SECONDS);
+        assertTrue(done.getDone());
+        assertTrue(done.hasResponse());
+
+        executor.shutdown();
+    }
+
+    @Test
+    public void waitOperationDoesNotBlockCaller() throws Exception {
+        var op = opService.registerOperation(Operation.create("test", "simple-op", null, null));
+
+        var waiting = waitOperation(op.id(), Duration.ofSeconds(30));
+        assertFalse(waiting.isDone());
+
+        opService.updateError(op.id(), io.grpc.Status.INTERNAL.withDescription("error"));
+
+        var done = waiting.get(5, TimeUnit.SECONDS);
+        assertTrue(done.getDone());
+        assertTrue(done.hasError());
+    }
+
+    private CompletableFuture<LongRunning.Operation> waitOperation(String opId, Duration timeout) {
+        var result = new CompletableFuture<LongRunning.Operation>();
+        opService.waitOperation(LongRunning.WaitOperationRequest.newBuilder()
+                .setOperationId(opId)
+                .setTimeout(ProtoConverter.toProto(timeout))
+                .build(),
+            new StreamObserver<>() {
+                @Override
+                public void onNext(LongRunning.Operation operation) {
+                    result.complete(operation);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    result.completeExceptionally(throwable);
+                }
+
+                @Override
+                public void onCompleted() {}
+            });
+        return result;
+    }
+
     private LongRunning.Operation get(String opId) {
         LongRunning.Operation[] result = {null};
         opService.get(LongRunning.GetOperationRequest.newBuilder().setOperationId(opId).build(),
@@ -5,6 +5,7 @@ import ai.lzy.common.RandomIdGenerator;
 import ai.lzy.iam.grpc.client.AuthenticateServiceGrpcClient;
 import ai.lzy.iam.grpc.interceptors.AuthServerInterceptor;
 import ai.lzy.longrunning.OperationsExecutor;
+import ai.lzy.longrunning.OperationsWatcher;
 import ai.lzy.longrunning.dao.OperationDao;
 import ai.lzy.longrunning.dao.OperationDaoDecorator;
 import ai.lzy.longrunning.dao.OperationDaoImpl;
@@ -142,15 +143,27 @@ public class BeanFactory {
 
     @Singleton
     @Named("LzyServiceAuthInterceptor")
-    public AuthServerInterceptor authServerInterceptor(@Named("IamServiceChannel") ManagedChannel iamGrpcChannel) {
-        return new AuthServerInterceptor(new AuthenticateServiceGrpcClient(APP, iamGrpcChannel));
+    public AuthServerInterceptor authServerInterceptor(@Named("IamServiceChannel") ManagedChannel iamGrpcChannel,
+                                                       LzyServiceConfig config)
+    {
+        return new AuthServerInterceptor(
+            new AuthenticateServiceGrpcClient(APP, iamGrpcChannel, config.getIam().getAuthCacheTtl()));
+    }
+
+    @Singleton
+    @Bean(preDestroy = "close")
+    @Named("LzyServiceOperationsWatcher")
+    public OperationsWatcher operationsWatcher(LzyServiceStorage storage) {
+        return new OperationsWatcher("lzy-service", storage);
     }
 
     @Singleton
     @Named("LzyServiceOperationDao")
     @Requires(notEnv = TEST_ENV_NAME)
-    public OperationDao operationDao(LzyServiceStorage storage) {
-        return new OperationDaoImpl(storage);
+    public OperationDao operationDao(LzyServiceStorage storage,
+                                     @Named("LzyServiceOperationsWatcher") OperationsWatcher watcher)
+    {
+        return new OperationDaoImpl(storage, watcher);
     }
 
     @Singleton
@@ -254,8 +267,10 @@ public class BeanFactory {
     @Singleton
     @Named("LzyServiceOperationDao")
     @Requires(env = TEST_ENV_NAME)
-    public OperationDao operationDaoDecorator(LzyServiceStorage storage) {
-        return new OperationDaoDecorator(storage);
+    public OperationDao operationDaoDecorator(LzyServiceStorage storage,
+                                              @Named("LzyServiceOperationsWatcher") OperationsWatcher watcher)
+    {
+        return new OperationDaoDecorator(storage, watcher);
     }
 
     @Singleton
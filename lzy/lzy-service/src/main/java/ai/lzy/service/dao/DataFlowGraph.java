@@ -3,6 +3,7 @@ package ai.lzy.service.dao;
 import ai.lzy.v1.workflow.LWF;
 import ai.lzy.v1.workflow.LWF.Operation.SlotDescription;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
@@ -12,189 +13,261 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * Graph of operations, connected by data they produce and consume.
+ * <p>
+ * Data are numbered in order of their first appearance, and both data consumers and operations edges
+ * are kept in compressed sparse row form, i.e. in flat int arrays with offsets, so graphs of hundreds
+ * of thousands of operations are built without per-edge objects.
+ */
 @JsonSerialize
 @JsonDeserialize
 @NoArgsConstructor
+// dot notation was stored in old states, now it is built on demand
+@JsonIgnoreProperties({"dotNotation"})
 public class DataFlowGraph {
     private static final String edge = " -> ";
 
-    @JsonIgnore
-    private List<List<Integer>> graph;
+    private static final int NOT_VISITED = 0;
+    private static final int IN_PROGRESS = 1;
+    private static final int VISITED = 2;
+
     @JsonIgnore
     private ArrayList<LWF.Operation> operations;
 
-    // slot uri ---> (slot name, operation id)
+    // data id ---> slot uri
+    @JsonIgnore
+    private String[] dataUris;
+    // data id ---> supplier operation index and slot name, -1 and null if data is read from storage
+    @JsonIgnore
+    private int[] dataSupplierOps;
+    @JsonIgnore
+    private String[] dataSupplierSlots;
+    // consumers of data id are in [dataConsumersOffsets[id], dataConsumersOffsets[id + 1])
+    @JsonIgnore
+    private int[] dataConsumersOffsets;
     @JsonIgnore
-    private Map<String, Map.Entry<String, Integer>> dataSuppliers;
+    private int[] dataConsumerOps;
     @JsonIgnore
-    private Map<String, List<Map.Entry<String, Integer>>> dataConsumers;
+    private String[] dataConsumerSlots;
 
-    // slot uri ---> slots name
+    // successors of operation i are in [edgesOffsets[i], edgesOffsets[i + 1])
     @JsonIgnore
-    private Map<String, List<String>> danglingInputSlots;
+    private int[] edgesOffsets;
+    @JsonIgnore
+    private int[] edges;
 
     @JsonIgnore
-    private List<Integer> cycle = null;
+    private int[] cycle = null;
 
     @JsonInclude
     @Getter
     @Setter
     private List<Data> dataflow;
 
-    @JsonInclude
-    @Getter
-    @Setter
-    private String dotNotation;
-
     public DataFlowGraph(Collection<LWF.Operation> operations) {
-        this.operations = new ArrayList<>();
+        this.operations = new ArrayList<>(operations.size());
 
-        dataSuppliers = new HashMap<>();
-        dataConsumers = new HashMap<>();
+        var dataIds = new HashMap<String, Integer>();
+        var uris = new ArrayList<String>();
+        var supplierOps = new IntList();
+        var supplierSlots = new ArrayList<String>();
 
-        var i = 0;
         for (var op : operations) {
-            var outputAlreadyInGraph = !op.getOutputSlotsList().isEmpty() && op.getOutputSlotsList().stream()
-                .map(SlotDescription::getStorageUri).allMatch(dataSuppliers::containsKey);
+            var outputAlreadyInGraph = !op.getOutputSlotsList().isEmpty();
+            for (SlotDescription slot : op.getOutputSlotsList()) {
+                var id = dataIds.get(slot.getStorageUri());
+                if (id == null || supplierOps.get(id) < 0) {
+                    outputAlreadyInGraph = false;
+                    break;
+                }
+            }
 
             if (outputAlreadyInGraph) {
                 continue;
             }
 
+            var opIndex = this.operations.size();
             for (SlotDescription slot : op.getOutputSlotsList()) {
-                var supplier = dataSuppliers.get(slot.getStorageUri());
-                if (supplier != null) {
+                var id = dataId(slot.getStorageUri(), dataIds, uris, supplierOps, supplierSlots);
+                if (supplierOps.get(id) >= 0) {
                     throw new RuntimeException("Output slot with uri '" + slot.getStorageUri() + "' already exists");
                 }
-                dataSuppliers.put(slot.getStorageUri(), new AbstractMap.SimpleEntry<>(slot.getPath(), i));
+                supplierOps.set(id, opIndex);
+                supplierSlots.set(id, slot.getPath());
             }
             for (SlotDescription slot : op.getInputSlotsList()) {
-                var consumers = dataConsumers.computeIfAbsent(slot.getStorageUri(), k -> new ArrayList<>());
-                consumers.add(new AbstractMap.SimpleImmutableEntry<>(slot.getPath(), i));
+                dataId(slot.getStorageUri(), dataIds, uris, supplierOps, supplierSlots);
             }
-            i++;
 
             this.operations.add(op);
         }
 
-        danglingInputSlots = new HashMap<>();
-        graph = new ArrayList<>(this.operations.size());
-
-        for (var operation : this.operations) {
-            for (SlotDescription slot : operation.getInputSlotsList()) {
-                if (!dataSuppliers.containsKey(slot.getStorageUri())) {
-                    danglingInputSlots.compute(slot.getStorageUri(), (slotUri, consumers) -> {
-                        consumers = (consumers != null) ? consumers : new ArrayList<>();
-                        consumers.add(slot.getPath());
-                        return consumers;
-                    });
-                }
+        var dataCount = uris.size();
+        dataUris = uris.toArray(new String[0]);
+        dataSupplierOps = supplierOps.toArray();
+        dataSupplierSlots = supplierSlots.toArray(new String[0]);
+
+        // consumers of data in CSR form, counting sort by data id
+        dataConsumersOffsets = new int[dataCount + 1];
+        for (var op : this.operations) {
+            for (SlotDescription slot : op.getInputSlotsList()) {
+                dataConsumersOffsets[dataIds.get(slot.getStorageUri()) + 1]++;
             }
+        }
+        for (var i = 0; i < dataCount; i++) {
+            dataConsumersOffsets[i + 1] += dataConsumersOffsets[i];
+        }
 
-            var to = new ArrayList<Integer>();
-            for (SlotDescription slot : operation.getOutputSlotsList()) {
-                var consumers = dataConsumers.get(slot.getStorageUri());
-                if (consumers != null) {
-                    for (var consumer : consumers) {
-                        to.add(consumer.getValue());
-                    }
-                }
+        dataConsumerOps = new int[dataConsumersOffsets[dataCount]];
+        dataConsumerSlots = new String[dataConsumersOffsets[dataCount]];
+        var fill = Arrays.copyOf(dataConsumersOffsets, dataCount);
+        for (var opIndex = 0; opIndex < this.operations.size(); opIndex++) {
+            for (SlotDescription slot : this.operations.get(opIndex).getInputSlotsList()) {
+                var pos = fill[dataIds.get(slot.getStorageUri())]++;
+                dataConsumerOps[pos] = opIndex;
+                dataConsumerSlots[pos] = slot.getPath();
             }
+        }
 
-            graph.add(to);
+        // operation ---> consumers of its outputs, in CSR form
+        var opsCount = this.operations.size();
+        edgesOffsets = new int[opsCount + 1];
+        for (var opIndex = 0; opIndex < opsCount; opIndex++) {
+            var degree = 0;
+            for (SlotDescription slot : this.operations.get(opIndex).getOutputSlotsList()) {
+                var id = dataIds.get(slot.getStorageUri());
+                degree += dataConsumersOffsets[id + 1] - dataConsumersOffsets[id];
+            }
+            edgesOffsets[opIndex + 1] = edgesOffsets[opIndex] + degree;
+        }
+
+        edges = new int[edgesOffsets[opsCount]];
+        for (var opIndex = 0; opIndex < opsCount; opIndex++) {
+            var pos = edgesOffsets[opIndex];
+            for (SlotDescription slot : this.operations.get(opIndex).getOutputSlotsList()) {
+                var id = dataIds.get(slot.getStorageUri());
+                for (var c = dataConsumersOffsets[id]; c < dataConsumersOffsets[id + 1]; c++) {
+                    edges[pos++] = dataConsumerOps[c];
+                }
+            }
         }
 
         dataflow = calculateDataFlow();
-        dotNotation = printDotNotation();
     }
 
     public ArrayList<LWF.Operation> getOperations() {
         return operations;
     }
 
-    private int[] dfs(int v, int[] colors, int[] prev) {
-        colors[v] = 1;
-
-        for (var u : graph.get(v)) {
-            if (colors[u] == 0) {
-                // not visited yet
-                prev[u] = v;
-                int[] cycleEnds = dfs(u, colors, prev);
-                if (cycleEnds != null) {
-                    return cycleEnds;
-                }
-            } else if (colors[u] == 1) {
-                // cycle found
-                return new int[] {u, v};
-            }
-        }
-
-        colors[v] = 2;
-        return null;
-    }
-
+    /**
+     * Depth-first search with explicit stack, so deep chains of operations do not overflow the thread stack.
+     */
     public boolean hasCycle() {
         var n = operations.size();
         var colors = new int[n];
         var prev = new int[n];
+        // position of the next edge to visit for each operation on the stack
+        var nextEdge = new int[n];
+        var stack = new int[n];
 
-        int[] cycleEnds = null;
-        for (var i = 0; i < n; i++) {
-            if (colors[i] == 0) {
-                cycleEnds = dfs(i, colors, prev);
+        for (var start = 0; start < n; start++) {
+            if (colors[start] != NOT_VISITED) {
+                continue;
             }
-            if (cycleEnds != null) {
-                break;
+
+            var top = 0;
+            stack[top] = start;
+            colors[start] = IN_PROGRESS;
+            nextEdge[start] = edgesOffsets[start];
+
+            while (top >= 0) {
+                var v = stack[top];
+                if (nextEdge[v] == edgesOffsets[v + 1]) {
+                    colors[v] = VISITED;
+                    top--;
+                    continue;
+                }
+
+                var u = edges[nextEdge[v]++];
+                if (colors[u] == NOT_VISITED) {
+                    prev[u] = v;
+                    colors[u] = IN_PROGRESS;
+                    nextEdge[u] = edgesOffsets[u];
+                    stack[++top] = u;
+                } else if (colors[u] == IN_PROGRESS) {
+                    cycle = restoreCycle(u, v, prev);
+                    return true;
+                }
             }
         }
 
-        if (cycleEnds != null) {
-            // fill the cycle
-            var cycle = new LinkedList<Integer>();
-            cycle.add(cycleEnds[0]);
-            for (var v = cycleEnds[1]; v != cycleEnds[0]; v = prev[v]) {
-                cycle.addFirst(v);
-            }
-            cycle.addFirst(cycleEnds[0]);
+        return false;
+    }
 
-            this.cycle = cycle;
-            return true;
+    // cycle is u -> ... -> v -> u, where v is reachable from u by prev links
+    private static int[] restoreCycle(int u, int v, int[] prev) {
+        var length = 2;
+        for (var w = v; w != u; w = prev[w]) {
+            length++;
         }
 
-        return false;
+        var result = new int[length];
+        result[0] = u;
+        result[length - 1] = u;
+        var pos = length - 2;
+        for (var w = v; w != u; w = prev[w]) {
+            result[pos--] = w;
+        }
+        return result;
     }
 
     public String printCycle() {
         if (cycle == null) {
             throw new IllegalStateException("Cycle not found");
         }
-        return cycle.stream().map(i -> operations.get(i).getName()).collect(Collectors.joining(edge));
+
+        var sb = new StringBuilder();
+        for (var i = 0; i < cycle.length; i++) {
+            if (i > 0) {
+                sb.append(edge);
+            }
+            sb.append(operations.get(cycle[i]).getName());
+        }
+        return sb.toString();
     }
 
-    private String printDotNotation() {
-        List<Data> dataflow = getDataflow();
+    /**
+     * Prints operations graph in dot notation. It can be large, so it is built only on demand.
+     */
+    public String dotNotation() {
+        if (operations == null) {
+            throw new IllegalStateException("Operations graph is not available, it is not stored in dao");
+        }
+
         var stringBuilder = new StringBuilder("digraph {");
 
-        for (var data : dataflow) {
-            var slotUri = data.storageUri;
-            var in = findSupplierOperationIdBy(slotUri);
-
-            if (data.consumers != null) {
-                for (String outSlotName : data.consumers) {
-                    var out = findConsumerOperationIdBy(slotUri, outSlotName);
-                    stringBuilder
-                        .append("\t")
-                        .append('"').append(in).append('"')
-                        .append(edge)
-                        .append('"').append(out).append('"')
-                        .append(";");
-                }
-            } else {
+        for (var id = 0; id < dataUris.length; id++) {
+            var in = dataSupplierOps[id] >= 0 ? operations.get(dataSupplierOps[id]).getName() : "storage";
+            var from = dataConsumersOffsets[id];
+            var to = dataConsumersOffsets[id + 1];
+
+            if (from == to) {
+                stringBuilder
+                    .append("\t")
+                    .append('"').append(in).append('"')
+                    .append(";");
+                continue;
+            }
+
+            for (var c = from; c < to; c++) {
+                var out = operations.get(dataConsumerOps[c]).getName();
                 stringBuilder
                     .append("\t")
                     .append('"').append(in).append('"')
+                    .append(edge)
+                    .append('"').append(out).append('"')
                     .append(";");
             }
         }
@@ -205,26 +278,8 @@ public class DataFlowGraph {
 
     @Override
     public String toString() {
-        // prints operations graph in dot notation
-        return dotNotation;
-    }
-
-    private String findSupplierOperationIdBy(String slotUri) {
-        if (danglingInputSlots.containsKey(slotUri)) {
-            return "storage";
-        }
-
-        int operationId = dataSuppliers.get(slotUri).getValue();
-        return operations.get(operationId).getName();
-    }
-
-    private String findConsumerOperationIdBy(String slotUri, String slotName) {
-        List<Map.Entry<String, Integer>> consumersSlotNames = dataConsumers.get(slotUri);
-        Map.Entry<String, Integer> slotNameAndOpId = consumersSlotNames.stream()
-            .filter(slot -> slot.getKey().contentEquals(slotName))
-            .findFirst()
-            .orElseThrow();
-        return operations.get(slotNameAndOpId.getValue()).getName();
+        return "DataFlowGraph{operations=" + (operations != null ? operations.size() : "?") +
+            ", data=" + (dataflow != null ? dataflow.size() : 0) + "}";
     }
 
     /**
@@ -237,32 +292,56 @@ public class DataFlowGraph {
     public record Data(String storageUri, @Nullable String producer, List<String> consumers) {}
 
     private List<Data> calculateDataFlow() {
-        var dataFromOutput = dataSuppliers.entrySet().stream()
-            .map(pair -> {
-                var supplierSlotUri = pair.getKey();
-                var supplierSlotName = pair.getValue().getKey();
-                var consumerSlotNamesAndOpIds = dataConsumers.get(supplierSlotUri);
-
-                List<String> consumerSlotNames = new ArrayList<>();
-
-                if (consumerSlotNamesAndOpIds != null) {
-                    for (var consumerSlotNamesAndOpId : consumerSlotNamesAndOpIds) {
-                        consumerSlotNames.add(consumerSlotNamesAndOpId.getKey());
-                    }
+        var result = new ArrayList<Data>(dataUris.length);
+
+        // data from outputs first, then data read from storage
+        for (var fromStorage : new boolean[] {false, true}) {
+            for (var id = 0; id < dataUris.length; id++) {
+                if ((dataSupplierOps[id] < 0) != fromStorage) {
+                    continue;
                 }
 
-                return new Data(supplierSlotUri, supplierSlotName, consumerSlotNames);
-            }).toList();
+                var consumers = Arrays.asList(dataConsumerSlots)
+                    .subList(dataConsumersOffsets[id], dataConsumersOffsets[id + 1]);
+                result.add(new Data(dataUris[id], dataSupplierSlots[id], new ArrayList<>(consumers)));
+            }
+        }
+
+        return result;
+    }
+
+    private static int dataId(String uri, Map<String, Integer> dataIds, List<String> uris, IntList supplierOps,
+                              List<String> supplierSlots)
+    {
+        return dataIds.computeIfAbsent(uri, x -> {
+            uris.add(uri);
+            supplierOps.add(-1);
+            supplierSlots.add(null);
+            return uris.size() - 1;
+        });
+    }
 
-        var notFoundInOutput = danglingInputSlots.entrySet().stream()
-            .map(pair -> new Data(pair.getKey(), null, pair.getValue()))
-            .toList();
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size = 0;
 
-        return new ArrayList<>() {
-            {
-                addAll(dataFromOutput);
-                addAll(notFoundInOutput);
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
             }
-        };
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        void set(int index, int value) {
+            values[index] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
     }
 }
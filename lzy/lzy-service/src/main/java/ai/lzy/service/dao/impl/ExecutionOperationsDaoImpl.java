@@ -5,8 +5,12 @@ import ai.lzy.model.db.TransactionHandle;
 import ai.lzy.service.dao.ExecuteGraphState;
 import ai.lzy.service.dao.ExecutionOperationsDao;
 import ai.lzy.util.grpc.JsonUtils;
+import ai.lzy.v1.graph.GraphExecutor.GraphDesc;
+import ai.lzy.v1.workflow.LWF;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.InvalidProtocolBufferException;
 import jakarta.annotation.Nullable;
 import jakarta.inject.Singleton;
 import org.apache.logging.log4j.LogManager;
@@ -25,6 +29,11 @@ public class ExecutionOperationsDaoImpl implements ExecutionOperationsDao {
         INSERT INTO execution_operations (op_id, op_type, service_instance_id, execution_id, state_json)
         VALUES (?, ?, ?, ?, ?)""";
 
+    private static final String QUERY_INSERT_EXECUTE_GRAPH_OPERATION = """
+        INSERT INTO execution_operations (op_id, op_type, service_instance_id, execution_id, state_json,
+                                          request_proto, tasks_proto)
+        VALUES (?, ?, ?, ?, ?, ?, ?)""";
+
     private static final String QUERY_SELECT_EXEC_OPERATIONS = """
         SELECT op_id, op_type, execution_id FROM execution_operations WHERE execution_id = ?""";
 
@@ -34,11 +43,19 @@ public class ExecutionOperationsDaoImpl implements ExecutionOperationsDao {
     public static final String QUERY_DELETE_EXEC_OPERATIONS = """
         DELETE FROM execution_operations WHERE op_id = ANY (?)""";
 
+    // request_proto is written once, and tasks_proto is written only while it is not set yet
     private static final String QUERY_UPDATE_EXECUTE_GRAPH_OP_STATE = """
-        UPDATE execution_operations SET state_json = ? WHERE op_id = ?""";
+        UPDATE execution_operations
+        SET state_json = ?, tasks_proto = COALESCE(tasks_proto, ?)
+        WHERE op_id = ? AND request_proto IS NOT NULL""";
+
+    private static final String QUERY_UPDATE_LEGACY_EXECUTE_GRAPH_OP_STATE = """
+        UPDATE execution_operations
+        SET state_json = ?, request_proto = ?, tasks_proto = ?
+        WHERE op_id = ?""";
 
     private static final String QUERY_SELECT_EXECUTE_GRAPH_OP_STATE = """
-        SELECT state_json FROM execution_operations WHERE op_id = ?""";
+        SELECT state_json, request_proto, tasks_proto FROM execution_operations WHERE op_id = ?""";
 
     private static final String QUERY_SELECT_UNCOMPLETED_OPERATIONS = """
         SELECT e_op.op_type as op_type, o.id as id, o.description as desc,
@@ -53,10 +70,13 @@ public class ExecutionOperationsDaoImpl implements ExecutionOperationsDao {
 
     private final LzyServiceStorage storage;
     private final ObjectMapper objectMapper;
+    // Writes state without request and tasks, which are stored in protobuf
+    private final ObjectMapper stateWriter;
 
     public ExecutionOperationsDaoImpl(LzyServiceStorage storage, ObjectMapper objectMapper) {
         this.storage = storage;
         this.objectMapper = objectMapper;
+        this.stateWriter = objectMapper.copy().addMixIn(ExecuteGraphState.class, ProtoFieldsMixin.class);
     }
 
     @Override
@@ -116,12 +136,14 @@ public class ExecutionOperationsDaoImpl implements ExecutionOperationsDao {
     {
         LOG.debug("Create execute graph operation in storage: { opId: {}, execId: {} }", opId, execId);
         DbOperation.execute(transaction, storage, connection -> {
-            try (var st = connection.prepareStatement(QUERY_INSERT_OPERATION)) {
+            try (var st = connection.prepareStatement(QUERY_INSERT_EXECUTE_GRAPH_OPERATION)) {
                 st.setString(1, opId);
                 st.setString(2, OpType.EXECUTE_GRAPH.toString());
                 st.setString(3, instanceId);
                 st.setString(4, execId);
-                st.setString(5, objectMapper.writeValueAsString(state));
+                st.setString(5, stateWriter.writeValueAsString(state));
+                st.setBytes(6, state.request.toByteArray());
+                st.setBytes(7, tasksToBytes(state));
                 st.executeUpdate();
             } catch (JsonProcessingException e) {
                 var mes = "Cannot dump value of graph execution state";
@@ -167,10 +189,30 @@ public class ExecutionOperationsDaoImpl implements ExecutionOperationsDao {
     {
         LOG.debug("Update execute graph operation state: { opId: {}, state: {} }", opId, state.toString());
         DbOperation.execute(transaction, storage, connection -> {
-            try (var st = connection.prepareStatement(QUERY_UPDATE_EXECUTE_GRAPH_OP_STATE)) {
-                st.setString(1, objectMapper.writeValueAsString(state));
-                st.setString(2, opId);
-                if (st.executeUpdate() < 1) {
+            try {
+                var stateJson = stateWriter.writeValueAsString(state);
+                var tasks = tasksToBytes(state);
+
+                int updated;
+                try (var st = connection.prepareStatement(QUERY_UPDATE_EXECUTE_GRAPH_OP_STATE)) {
+                    st.setString(1, stateJson);
+                    st.setBytes(2, tasks);
+                    st.setString(3, opId);
+                    updated = st.executeUpdate();
+                }
+
+                if (updated < 1) {
+                    // state is stored in legacy format, convert it
+                    try (var st = connection.prepareStatement(QUERY_UPDATE_LEGACY_EXECUTE_GRAPH_OP_STATE)) {
+                        st.setString(1, stateJson);
+                        st.setBytes(2, state.request.toByteArray());
+                        st.setBytes(3, tasks);
+                        st.setString(4, opId);
+                        updated = st.executeUpdate();
+                    }
+                }
+
+                if (updated < 1) {
                     LOG.error("Cannot update graph execution state for unknown operation: { opId: {} }", opId);
                     throw new RuntimeException("ExecGraph operation with id='%s' not found".formatted(opId));
                 }
@@ -189,12 +231,23 @@ public class ExecutionOperationsDaoImpl implements ExecutionOperationsDao {
                 st.setString(1, opId);
                 var rs = st.executeQuery();
                 if (rs.next()) {
-                    return objectMapper.readValue(rs.getString("state_json"), ExecuteGraphState.class);
+                    var state = objectMapper.readValue(rs.getString("state_json"), ExecuteGraphState.class);
+
+                    var request = rs.getBytes("request_proto");
+                    if (request != null) {
+                        state.request = LWF.Graph.parseFrom(request);
+                    }
+                    var tasks = rs.getBytes("tasks_proto");
+                    if (tasks != null) {
+                        state.tasks = GraphDesc.parseFrom(tasks).getTasksList();
+                    }
+
+                    return state;
                 } else {
                     LOG.error("Cannot get graph execution state for unknown operation: { opId: {} }", opId);
                     throw new RuntimeException("ExecGraph operation with id='%s' not found".formatted(opId));
                 }
-            } catch (JsonProcessingException e) {
+            } catch (JsonProcessingException | InvalidProtocolBufferException e) {
                 var mes = "Cannot parse value of graph execution state";
                 LOG.error(mes + ": {}", e.getMessage());
                 throw new RuntimeException(mes, e);
@@ -262,4 +315,15 @@ public class ExecutionOperationsDaoImpl implements ExecutionOperationsDao {
             return result;
         });
     }
+
+    @Nullable
+    private static byte[] tasksToBytes(ExecuteGraphState state) {
+        if (state.tasks == null) {
+            return null;
+        }
+        return GraphDesc.newBuilder().addAllTasks(state.tasks).build().toByteArray();
+    }
+
+    @JsonIgnoreProperties({"request", "tasks"})
+    private abstract static class ProtoFieldsMixin {}
 }
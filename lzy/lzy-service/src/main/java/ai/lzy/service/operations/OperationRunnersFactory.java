@@ -16,6 +16,7 @@ import ai.lzy.service.operations.graph.ExecuteGraph;
 import ai.lzy.service.operations.start.StartExecution;
 import ai.lzy.service.operations.stop.AbortExecution;
 import ai.lzy.service.operations.stop.FinishExecution;
+import ai.lzy.service.storage.BlobExistenceCache;
 import ai.lzy.storage.StorageClient;
 import ai.lzy.storage.StorageClientFactory;
 import ai.lzy.storage.StorageConfig;
@@ -66,6 +67,7 @@ public class OperationRunnersFactory {
     private final RenewableJwt internalUserCredentials;
 
     private final StorageClientFactory storageClientFactory;
+    private final BlobExistenceCache blobsCache;
     private final VmPoolServiceBlockingStub vmPoolClient;
     private final KafkaConfig kafkaConfig;
     private final IdGenerator idGenerator;
@@ -84,6 +86,7 @@ public class OperationRunnersFactory {
                                    @Named("LzyServicePrivateChannelsGrpcClient")
                                        LzyChannelManagerPrivateBlockingStub channelManagerClient,
                                    @Named("LzyServiceStorageClientFactory") StorageClientFactory storageClientFactory,
+                                   BlobExistenceCache blobsCache,
                                    @Named("LzyServiceVmPoolGrpcClient") VmPoolServiceBlockingStub vmPoolClient,
                                    @Named("LzyServiceIamToken") RenewableJwt internalUserCredentials,
                                    LzyServiceMetrics metrics, LzyServiceConfig config,
@@ -107,6 +110,7 @@ public class OperationRunnersFactory {
         this.channelManagerClient = channelManagerClient;
         this.internalUserCredentials = internalUserCredentials;
         this.storageClientFactory = storageClientFactory;
+        this.blobsCache = blobsCache;
         this.metrics = metrics;
         this.vmPoolClient = vmPoolClient;
         this.kafkaConfig = config.getKafka();
@@ -264,6 +268,7 @@ public class OperationRunnersFactory {
             .setGraphsClient(graphsClient)
             .setChannelsClient(channelManagerClient)
             .setStorageClient(storageClient)
+            .setBlobsCache(blobsCache.scope(userId, execGraphData.storageConfig()))
             .setVmPoolClient(vmPoolClient)
             .setKafkaClient(kafkaAdminClient)
             .setS3SinkClient(s3SinkClient)
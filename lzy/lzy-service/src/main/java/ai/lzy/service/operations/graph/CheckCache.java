@@ -4,6 +4,7 @@ import ai.lzy.longrunning.OperationRunnerBase.StepResult;
 import ai.lzy.service.dao.ExecuteGraphState;
 import ai.lzy.service.operations.ExecutionStepContext;
 import ai.lzy.service.operations.RetryableFailStep;
+import ai.lzy.service.storage.BlobExistenceCache;
 import ai.lzy.storage.StorageClient;
 import ai.lzy.v1.workflow.LWF;
 import io.grpc.Status;
@@ -12,18 +13,21 @@ import io.grpc.StatusRuntimeException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 final class CheckCache extends ExecuteGraphContextAwareStep implements Supplier<StepResult>, RetryableFailStep {
     private final StorageClient storageClient;
+    private final BlobExistenceCache.Scope blobsCache;
     private final Supplier<StepResult> completeAction;
 
-    public CheckCache(ExecutionStepContext stepCtx, ExecuteGraphState state,
-                      StorageClient storageClient, Supplier<StepResult> completeAction)
+    public CheckCache(ExecutionStepContext stepCtx, ExecuteGraphState state, StorageClient storageClient,
+                      BlobExistenceCache.Scope blobsCache, Supplier<StepResult> completeAction)
     {
         super(stepCtx, state);
         this.storageClient = storageClient;
+        this.blobsCache = blobsCache;
         this.completeAction = completeAction;
     }
 
@@ -45,35 +49,43 @@ final class CheckCache extends ExecuteGraphContextAwareStep implements Supplier<
         log().debug("{} Graph tasks descriptions: {}", logPrefix(), printer().shortDebugString(
             request().getOperationsList()));
 
+        // All outputs are checked at once, so requests to storage are made concurrently
+        final Set<URI> existingBlobs;
+        try {
+            existingBlobs = blobsCache.existingBlobs(storageClient, request().getOperationsList().stream()
+                .flatMap(operation -> operation.getOutputSlotsList().stream())
+                .map(LWF.Operation.SlotDescription::getStorageUri)
+                .filter(uri -> !uri.endsWith("exception"))
+                .map(URI::create)
+                .toList());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log().error("{} Checking blobs existence was interrupted", logPrefix());
+            var sre = new StatusRuntimeException(Status.ABORTED.withDescription("Checking blob existence interrupted"));
+            return retryableFail(sre, "Error while processing cache to find cached tasks results", sre);
+        } catch (Exception e) {
+            log().error("{} Error while checking blobs existence: {}", logPrefix(), e.getMessage(), e);
+            var sre = new StatusRuntimeException(Status.INTERNAL.withDescription(
+                "Cannot check blob existence: " + e.getMessage()));
+            return retryableFail(sre, "Error while processing cache to find cached tasks results", sre);
+        }
+
         var operationsToExecute = new ArrayList<LWF.Operation>();
         var cachedOps = new ArrayList<LWF.Operation>();
 
         for (LWF.Operation operation : request().getOperationsList()) {
-            try {
-                var cached = !operation.getOutputSlotsList().isEmpty() && operation.getOutputSlotsList().stream()
-                    .map(LWF.Operation.SlotDescription::getStorageUri)
-                    .filter(uri -> !uri.endsWith("exception"))
-                    .allMatch(uri -> {
-                        try {
-                            return storageClient.blobExists(URI.create(uri));
-                        } catch (Exception e) {
-                            log().error("{} Error while checking blob existence: { storageUri: {}, error: {} }",
-                                logPrefix(), uri, e.getMessage(), e);
-                            throw new StatusRuntimeException(Status.INTERNAL.withDescription(
-                                "Cannot check blob existence: " + e.getMessage()));
-                        }
-                    });
-
-                if (cached) {
-                    log().debug("{} Task '{}' already in cache... removed from graph", logPrefix(),
-                        debugStringForOperation(operation));
-                    cachedOps.add(operation);
-                } else {
-                    log().debug("{} Task '{}' not found in cache...", logPrefix(), debugStringForOperation(operation));
-                    operationsToExecute.add(operation);
-                }
-            } catch (StatusRuntimeException sre) {
-                return retryableFail(sre, "Error while processing cache to find cached tasks results", sre);
+            var cached = !operation.getOutputSlotsList().isEmpty() && operation.getOutputSlotsList().stream()
+                .map(LWF.Operation.SlotDescription::getStorageUri)
+                .filter(uri -> !uri.endsWith("exception"))
+                .allMatch(uri -> existingBlobs.contains(URI.create(uri)));
+
+            if (cached) {
+                log().debug("{} Task '{}' already in cache... removed from graph", logPrefix(),
+                    debugStringForOperation(operation));
+                cachedOps.add(operation);
+            } else {
+                log().debug("{} Task '{}' not found in cache...", logPrefix(), debugStringForOperation(operation));
+                operationsToExecute.add(operation);
             }
         }
 
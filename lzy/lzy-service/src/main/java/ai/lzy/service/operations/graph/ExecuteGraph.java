@@ -8,6 +8,7 @@ import ai.lzy.service.dao.ExecuteGraphState;
 import ai.lzy.service.dao.ExecutionDao;
 import ai.lzy.service.dao.GraphDao;
 import ai.lzy.service.operations.ExecutionOperationRunner;
+import ai.lzy.service.storage.BlobExistenceCache;
 import ai.lzy.storage.StorageClient;
 import ai.lzy.util.kafka.KafkaConfig;
 import ai.lzy.v1.VmPoolServiceGrpc.VmPoolServiceBlockingStub;
@@ -32,6 +33,7 @@ public final class ExecuteGraph extends ExecutionOperationRunner {
     private final LzyChannelManagerPrivateBlockingStub channelsClient;
     private final GraphExecutorBlockingStub graphsClient;
     private final StorageClient storageClient;
+    private final BlobExistenceCache.Scope blobsCache;
     private final ExecuteGraphState state;
 
     private final List<Supplier<StepResult>> steps;
@@ -46,6 +48,7 @@ public final class ExecuteGraph extends ExecutionOperationRunner {
         this.channelsClient = builder.channelsClient;
         this.graphsClient = builder.graphsClient;
         this.storageClient = builder.storageClient;
+        this.blobsCache = builder.blobsCache;
         this.state = builder.state;
         this.steps = List.of(checkCache(), findZone(), buildDataflowGraph(), createChannels(),
             buildTasks(), executeGraph(), this::complete);
@@ -57,7 +60,7 @@ public final class ExecuteGraph extends ExecutionOperationRunner {
     }
 
     private Supplier<StepResult> checkCache() {
-        return new CheckCache(stepCtx(), state, storageClient, this::complete);
+        return new CheckCache(stepCtx(), state, storageClient, blobsCache, this::complete);
     }
 
     private Supplier<StepResult> findZone() {
@@ -177,6 +180,7 @@ public final class ExecuteGraph extends ExecutionOperationRunner {
         private LzyChannelManagerPrivateBlockingStub channelsClient;
         private GraphExecutorBlockingStub graphsClient;
         private StorageClient storageClient;
+        private BlobExistenceCache.Scope blobsCache;
         private ExecuteGraphState state;
 
         public ExecuteGraphBuilder setAllocatorSessionId(String allocatorSessionId) {
@@ -214,6 +218,11 @@ public final class ExecuteGraph extends ExecutionOperationRunner {
             return this;
         }
 
+        public ExecuteGraphBuilder setBlobsCache(BlobExistenceCache.Scope blobsCache) {
+            this.blobsCache = blobsCache;
+            return this;
+        }
+
         public ExecuteGraphBuilder setState(ExecuteGraphState state) {
             this.state = state;
             return this;
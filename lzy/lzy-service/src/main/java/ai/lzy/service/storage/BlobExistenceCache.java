@@ -0,0 +1,156 @@
+package ai.lzy.service.storage;
+
+import ai.lzy.storage.StorageClient;
+import ai.lzy.v1.common.LMST;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+
+import java.io.IOException;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.stream.Collectors.groupingBy;
+
+/**
+ * Checks existence of blobs in users' storages concurrently and remembers existing ones for a while.
+ * Blobs with common parent are checked by listing it if there are many of them.
+ * Missing blobs are not remembered, they are usually written by the graph which checked them.
+ * <p>
+ * Existing blobs are remembered per user and storage credentials, see {@link #scope}, so a blob found
+ * with one credentials is not reported as existing to a caller, who could not check it with its own.
+ */
+@Singleton
+public class BlobExistenceCache {
+    private static final int PARALLELISM = 16;
+    private static final int MIN_BLOBS_TO_LIST = 16;
+    private static final int MAX_CACHE_SIZE = 100_000;
+    private static final Duration EXISTING_TTL = Duration.ofMinutes(1);
+
+    private final Cache<Key, Boolean> existing = CacheBuilder.newBuilder()
+        .maximumSize(MAX_CACHE_SIZE)
+        .expireAfterWrite(EXISTING_TTL)
+        .build();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(PARALLELISM, new ThreadFactory());
+
+    /**
+     * Returns cache of blobs, which are checked by the user with given storage credentials.
+     */
+    public Scope scope(String userId, LMST.StorageConfig storageConfig) {
+        return new Scope(userId + "/" + digest(storageConfig));
+    }
+
+    private Set<URI> existingBlobs(String scope, StorageClient client, Collection<URI> uris)
+        throws IOException, InterruptedException
+    {
+        var result = new HashSet<URI>();
+        var unknown = new ArrayList<URI>();
+
+        for (var uri : new HashSet<>(uris)) {
+            if (existing.getIfPresent(new Key(scope, uri)) != null) {
+                result.add(uri);
+            } else {
+                unknown.add(uri);
+            }
+        }
+
+        var tasks = new ArrayList<Callable<Set<URI>>>();
+        var byParent = unknown.stream().collect(groupingBy(uri -> parent(uri)));
+        for (var blobs : byParent.values()) {
+            if (blobs.size() >= MIN_BLOBS_TO_LIST) {
+                tasks.add(() -> client.existingBlobs(blobs));
+            } else {
+                for (var uri : blobs) {
+                    tasks.add(() -> client.blobExists(uri) ? Set.of(uri) : Set.of());
+                }
+            }
+        }
+
+        var found = new HashSet<URI>();
+        var futures = new ArrayList<Future<Set<URI>>>(tasks.size());
+        try {
+            for (var task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (var future : futures) {
+                found.addAll(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            // Other checks are not needed if some of them failed
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        for (var uri : found) {
+            existing.put(new Key(scope, uri), true);
+            result.add(uri);
+        }
+
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static String digest(LMST.StorageConfig storageConfig) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(storageConfig.toByteArray());
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String parent(URI uri) {
+        var str = uri.toString();
+        return str.substring(0, str.lastIndexOf('/') + 1);
+    }
+
+    public final class Scope {
+        private final String id;
+
+        private Scope(String id) {
+            this.id = id;
+        }
+
+        /**
+         * @return existing blobs of given ones
+         */
+        public Set<URI> existingBlobs(StorageClient client, Collection<URI> uris)
+            throws IOException, InterruptedException
+        {
+            return BlobExistenceCache.this.existingBlobs(id, client, uris);
+        }
+    }
+
+    private record Key(String scope, URI uri) {}
+
+    private static final class ThreadFactory implements java.util.concurrent.ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            var thread = new Thread(r, "blob-existence-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
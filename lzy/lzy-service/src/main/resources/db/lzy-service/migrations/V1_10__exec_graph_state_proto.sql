@@ -0,0 +1,6 @@
+-- Large immutable parts of execute graph state are stored in protobuf and written only once,
+-- state_json keeps the rest of state. Rows with NULL request_proto are in legacy format,
+-- they keep request and tasks in state_json and are converted on next update.
+ALTER TABLE execution_operations
+    ADD COLUMN request_proto BYTEA NULL,
+    ADD COLUMN tasks_proto   BYTEA NULL;
@@ -0,0 +1,61 @@
+package ai.lzy.service.graph;
+
+import ai.lzy.service.dao.DataFlowGraph;
+import ai.lzy.v1.workflow.LWF;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Build time of dataflow graph for large graphs. Run with main() from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataFlowGraphBenchmark {
+    private static final int INPUTS_PER_OPERATION = 3;
+
+    @Param({"1000", "100000"})
+    public int operationsCount;
+
+    private List<LWF.Operation> operations;
+
+    @Setup
+    public void setUp() {
+        // every operation reads outputs of some previous operations, so the graph is acyclic
+        var random = new Random(42);
+        operations = new ArrayList<>(operationsCount);
+        for (int i = 0; i < operationsCount; i++) {
+            var op = LWF.Operation.newBuilder().setName("op_" + i)
+                .addOutputSlots(slot("out", "s3://bucket/op_" + i + "/out"));
+            for (int j = 0; j < INPUTS_PER_OPERATION; j++) {
+                var uri = i == 0 ? "s3://bucket/input" : "s3://bucket/op_" + random.nextInt(i) + "/out";
+                op.addInputSlots(slot("in_" + j, uri));
+            }
+            operations.add(op.build());
+        }
+    }
+
+    @Benchmark
+    public boolean buildAndCheckCycles() {
+        var graph = new DataFlowGraph(operations);
+        return graph.hasCycle();
+    }
+
+    private static LWF.Operation.SlotDescription slot(String path, String uri) {
+        return LWF.Operation.SlotDescription.newBuilder().setPath(path).setStorageUri(uri).build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DataFlowGraphBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -5,6 +5,7 @@ import ai.lzy.v1.workflow.LWF;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class DataFlowGraphTest {
@@ -30,6 +31,51 @@ public class DataFlowGraphTest {
         var dataflowGraph = new DataFlowGraph(operations.stream().map(LWF.Operation.Builder::build).toList());
 
         Assert.assertTrue(dataflowGraph.hasCycle());
+        Assert.assertEquals("first operation -> second operation -> fourth operation -> first operation",
+            dataflowGraph.printCycle());
+    }
+
+    @Test
+    public void longChain() {
+        var n = 100_000;
+        var operations = new ArrayList<LWF.Operation>(n);
+        for (int i = 0; i < n; i++) {
+            operations.add(LWF.Operation.newBuilder()
+                .setName("op_" + i)
+                .addInputSlots(LWF.Operation.SlotDescription.newBuilder().setStorageUri("uri_" + i).setPath("in"))
+                .addOutputSlots(LWF.Operation.SlotDescription.newBuilder().setStorageUri("uri_" + (i + 1))
+                    .setPath("out"))
+                .build());
+        }
+
+        var dataflowGraph = new DataFlowGraph(operations);
+        Assert.assertFalse(dataflowGraph.hasCycle());
+        Assert.assertEquals(n + 1, dataflowGraph.getDataflow().size());
+
+        // close the chain
+        operations.set(n - 1, operations.get(n - 1).toBuilder()
+            .setOutputSlots(0, LWF.Operation.SlotDescription.newBuilder().setStorageUri("uri_0").setPath("out"))
+            .build());
+
+        dataflowGraph = new DataFlowGraph(operations);
+        Assert.assertTrue(dataflowGraph.hasCycle());
+    }
+
+    @Test
+    public void dataflow() {
+        var a = LWF.Operation.SlotDescription.newBuilder().setStorageUri("slot_uri_a").setPath("a").build();
+        var b = LWF.Operation.SlotDescription.newBuilder().setStorageUri("slot_uri_b").setPath("b").build();
+
+        var dataflowGraph = new DataFlowGraph(List.of(
+            LWF.Operation.newBuilder().setName("first").addInputSlots(a).addOutputSlots(b).build(),
+            LWF.Operation.newBuilder().setName("second").addInputSlots(b).build()));
+
+        Assert.assertEquals(List.of(
+            new DataFlowGraph.Data("slot_uri_b", "b", List.of("b")),
+            new DataFlowGraph.Data("slot_uri_a", null, List.of("a"))
+        ), dataflowGraph.getDataflow());
+        Assert.assertEquals("digraph {\t\"first\" -> \"second\";\t\"storage\" -> \"first\";\n}",
+            dataflowGraph.dotNotation());
     }
 
     @Test
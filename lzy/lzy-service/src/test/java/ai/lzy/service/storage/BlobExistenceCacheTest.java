@@ -0,0 +1,151 @@
+package ai.lzy.service.storage;
+
+import ai.lzy.storage.StorageClient;
+import ai.lzy.v1.common.LMST;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class BlobExistenceCacheTest {
+    private final BlobExistenceCache cache = new BlobExistenceCache();
+
+    @After
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    public void existingBlobsAreCached() throws Exception {
+        var client = new FakeStorageClient(Set.of(URI.create("s3://bucket/a/1"), URI.create("s3://bucket/b/2")));
+        var scope = cache.scope("user", storage("key-1"));
+
+        var uris = List.of(URI.create("s3://bucket/a/1"), URI.create("s3://bucket/b/2"), URI.create("s3://bucket/c/3"));
+        Assert.assertEquals(Set.of(uris.get(0), uris.get(1)), scope.existingBlobs(client, uris));
+        Assert.assertEquals(3, client.blobExistsCalls.get());
+
+        // Existing blobs are remembered, missing one is checked again
+        Assert.assertEquals(Set.of(uris.get(0), uris.get(1)), scope.existingBlobs(client, uris));
+        Assert.assertEquals(4, client.blobExistsCalls.get());
+    }
+
+    @Test
+    public void blobsWithCommonParentAreListed() throws Exception {
+        var uris = IntStream.range(0, 20).mapToObj(i -> URI.create("s3://bucket/dir/" + i)).toList();
+        var client = new FakeStorageClient(Set.copyOf(uris.subList(0, 10)));
+
+        var existing = cache.scope("user", storage("key-1")).existingBlobs(client, uris);
+
+        Assert.assertEquals(Set.copyOf(uris.subList(0, 10)), existing);
+        Assert.assertEquals(1, client.existingBlobsCalls.get());
+        Assert.assertEquals(0, client.blobExistsCalls.get());
+    }
+
+    @Test
+    public void cacheIsScopedByUserAndCredentials() throws Exception {
+        var uri = URI.create("s3://bucket/a/1");
+        var owner = new FakeStorageClient(Set.of(uri));
+        var forbidden = new FakeStorageClient(Set.of());
+
+        Assert.assertEquals(Set.of(uri), cache.scope("user-1", storage("key-1")).existingBlobs(owner, List.of(uri)));
+
+        // Blob is checked with caller's own client, not taken from the cache of other user or credentials
+        Assert.assertEquals(Set.of(), cache.scope("user-2", storage("key-1")).existingBlobs(forbidden, List.of(uri)));
+        Assert.assertEquals(Set.of(), cache.scope("user-1", storage("key-2")).existingBlobs(forbidden, List.of(uri)));
+        Assert.assertEquals(2, forbidden.blobExistsCalls.get());
+
+        var cached = cache.scope("user-1", storage("key-1")).existingBlobs(forbidden, List.of(uri));
+        Assert.assertEquals(Set.of(uri), cached);
+        Assert.assertEquals(2, forbidden.blobExistsCalls.get());
+    }
+
+    @Test
+    public void failedCheck() {
+        var client = new FakeStorageClient(Set.of()) {
+            @Override
+            public boolean blobExists(URI uri) throws IOException {
+                throw new IOException("Storage is unavailable");
+            }
+        };
+
+        Assert.assertThrows(IOException.class,
+            () -> cache.scope("user", storage("key-1")).existingBlobs(client, List.of(URI.create("s3://bucket/a"))));
+    }
+
+    private static LMST.StorageConfig storage(String accessToken) {
+        return LMST.StorageConfig.newBuilder()
+            .setUri("s3://bucket")
+            .setS3(LMST.S3Credentials.newBuilder()
+                .setEndpoint("localhost")
+                .setAccessToken(accessToken)
+                .setSecretToken("secret"))
+            .build();
+    }
+
+    private static class FakeStorageClient implements StorageClient {
+        private final Set<URI> blobs;
+        private final AtomicInteger blobExistsCalls = new AtomicInteger(0);
+        private final AtomicInteger existingBlobsCalls = new AtomicInteger(0);
+
+        private FakeStorageClient(Set<URI> blobs) {
+            this.blobs = ConcurrentHashMap.newKeySet();
+            this.blobs.addAll(blobs);
+        }
+
+        @Override
+        public boolean blobExists(URI uri) throws IOException {
+            blobExistsCalls.incrementAndGet();
+            return blobs.contains(uri);
+        }
+
+        @Override
+        public Set<URI> existingBlobs(Collection<URI> uris) {
+            existingBlobsCalls.incrementAndGet();
+            var existing = new ArrayList<>(uris);
+            existing.retainAll(blobs);
+            return Set.copyOf(existing);
+        }
+
+        @Override
+        public void read(URI uri, Path destination) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void read(URI uri, OutputStream destination) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void read(URI uri, long offset, long length, OutputStream destination) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long blobSize(URI uri) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void write(URI uri, Path source) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void write(URI uri, InputStream source) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
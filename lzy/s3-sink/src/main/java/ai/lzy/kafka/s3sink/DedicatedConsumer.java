@@ -0,0 +1,52 @@
+package ai.lzy.kafka.s3sink;
+
+import ai.lzy.util.kafka.KafkaHelper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kafka consumer which reads topic of single job
+ */
+final class DedicatedConsumer implements RecordsSource {
+    private final KafkaConsumer<String, byte[]> consumer;
+    private final S3SinkMetrics metrics;
+
+    DedicatedConsumer(String jobId, String topic, KafkaHelper helper, S3SinkMetrics metrics) {
+        this.metrics = metrics;
+
+        var props = helper.toProperties();
+        props.put("enable.auto.commit", "false");
+        props.put("group.id", jobId);
+
+        consumer = new KafkaConsumer<>(props);
+
+        var partition = new TopicPartition(topic, /* partition */ 0);
+        consumer.assign(List.of(partition));
+        consumer.seek(partition, /* offset */ 0);
+
+        metrics.kafkaConsumers.inc();
+    }
+
+    @Override
+    public List<ConsumerRecord<String, byte[]>> poll() {
+        // Blocks here. Kafka does not have non-blocking api for now
+        var records = new ArrayList<ConsumerRecord<String, byte[]>>();
+        consumer.poll(Duration.ofMillis(100)).forEach(records::add);
+        return records;
+    }
+
+    @Override
+    public void close() {
+        try {
+            consumer.close();
+        } catch (Exception e) {
+            // ignored
+        }
+        metrics.kafkaConsumers.dec();
+    }
+}
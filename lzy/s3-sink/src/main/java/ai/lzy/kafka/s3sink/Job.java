@@ -1,25 +1,22 @@
 package ai.lzy.kafka.s3sink;
 
-import ai.lzy.util.kafka.KafkaHelper;
 import ai.lzy.v1.kafka.KafkaS3Sink;
 import com.amazonaws.services.s3.AmazonS3URI;
 import io.grpc.Status;
 import io.micronaut.http.MediaType;
 import jakarta.annotation.Nullable;
-import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.consumer.KafkaConsumer;
-import org.apache.kafka.common.TopicPartition;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
 import software.amazon.awssdk.core.async.AsyncRequestBody;
-import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.model.*;
 
-import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
@@ -30,6 +27,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -37,18 +35,23 @@ import static java.util.Objects.requireNonNull;
 
 public class Job {
     private static final Logger LOG = LogManager.getLogger(Job.class);
-    private static final int BUFFER_SIZE = 5 << 20; // S3 multipart chunk must be at least 5Mb
-    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+    private static final int BUFFER_SIZE = PartBufferPool.BUFFER_SIZE;
 
     private final String id;
     private final KafkaS3Sink.StartRequest request;
     private final S3SinkMetrics metrics;
     private final ServiceConfig config;
     private final AtomicReference<Instant> deadline = new AtomicReference<>(null);
-    private final Consumer<String, byte[]> consumer;
-    private final S3AsyncClient storageClient;  // Support only s3 for now
+    private final RecordsSource source;
+    private final S3AsyncClient storageClient;  // Support only s3 for now, shared between jobs
+    private final AwsRequestOverrideConfiguration storageAuth;
+    private final PartBufferPool buffers;
     @Nullable
     private Iterator<ConsumerRecord<String, byte[]>> resultsStream = null;
+    // Record which is not processed yet because its stream is uploading, and its not processed offset
+    @Nullable
+    private ConsumerRecord<String, byte[]> pendingRecord = null;
+    private int pendingOffset = 0;
     private final Map<String, StreamUploadDesc> streams = new HashMap<>();
     private int emptyRetries = 0;
 
@@ -69,11 +72,13 @@ public class Job {
         }
     }
 
-    public Job(String id, KafkaHelper helper, KafkaS3Sink.StartRequest request, S3SinkMetrics metrics,
-               ServiceConfig config)
+    public Job(String id, KafkaS3Sink.StartRequest request, RecordsSource source, S3ClientPool storageClients,
+               PartBufferPool buffers, S3SinkMetrics metrics, ServiceConfig config)
     {
         this.id = id;
         this.request = request;
+        this.source = source;
+        this.buffers = buffers;
         this.metrics = metrics;
         this.config = config;
 
@@ -86,29 +91,16 @@ public class Job {
         var secretToken = request.getS3().getSecretToken();
         var endpoint = request.getS3().getEndpoint();
 
-        var props = helper.toProperties();
-        props.put("enable.auto.commit", "false");
-        props.put("group.id", id);
-
-        consumer = new KafkaConsumer<>(props);
-
         try {
-            storageClient = S3AsyncClient.builder()
-                .credentialsProvider(
-                    StaticCredentialsProvider.create(
-                        AwsBasicCredentials.create(accessToken, secretToken)))
-                .region(Region.US_WEST_1)
-                .endpointOverride(new URI(endpoint))
-                .forcePathStyle(true)
-                .build();
+            storageClient = storageClients.get(endpoint);
         } catch (URISyntaxException e) {
             LOG.error("{} Provided bad endpoint: {}: ", this, endpoint, e);
             throw Status.INVALID_ARGUMENT.asRuntimeException();
         }
 
-        var partition = new TopicPartition(request.getTopicName(), /* partition */ 0);
-        consumer.assign(List.of(partition));
-        consumer.seek(partition, /* offset */ 0);
+        storageAuth = AwsRequestOverrideConfiguration.builder()
+            .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessToken, secretToken)))
+            .build();
 
         metrics.activeSessions.inc();
     }
@@ -138,7 +130,8 @@ public class Job {
             }
             if (completed) {
                 resultsStream = null;
-                safeCall(consumer::close);
+                pendingRecord = null;
+                safeCall(source::close);
                 metrics.activeSessions.dec();
                 return JobStatus.complete();
             }
@@ -151,8 +144,7 @@ public class Job {
         }
 
         if (resultsStream == null) {
-            // Blocks here. Kafka does not have non-blocking api for now
-            var results = consumer.poll(Duration.ofMillis(100));
+            var results = source.poll();
 
             if (results.isEmpty()) {
                 return JobStatus.restartAfter(config.getKafkaPollInterval());
@@ -161,8 +153,11 @@ public class Job {
             resultsStream = results.iterator();
         }
 
-        while (resultsStream.hasNext()) {
-            var res = resultsStream.next();
+        while (pendingRecord != null || resultsStream.hasNext()) {
+            var res = pendingRecord != null ? pendingRecord : resultsStream.next();
+            var offset = pendingRecord != null ? pendingOffset : 0;
+            pendingRecord = null;
+            pendingOffset = 0;
 
             var taskId = requireNonNull(res.key());
             var header = requireNonNull(res.headers().lastHeader("stream"));
@@ -180,6 +175,13 @@ public class Job {
                 continue;
             }
 
+            if (stream.state == StreamUploadDesc.State.UploadingData) {
+                // Part buffer is owned by upload now, continue after upload is completed
+                pendingRecord = res;
+                pendingOffset = offset;
+                return JobStatus.restartAfter(config.getUploadPollInterval());
+            }
+
             if (stream.uploadId.isBlank()) {
                 stream.init(storageClient);
                 if (stream.failed()) {
@@ -195,7 +197,7 @@ public class Job {
                 }
 
                 stream.eos = true;
-                if (stream.buffer.position() > 0) {
+                if (stream.buffer != null && stream.buffer.position() > 0) {
                     stream.startUpload();
                 }
                 continue;
@@ -212,12 +214,21 @@ public class Job {
                 continue;
             }
 
-            LOG.debug("{} Read {} bytes from stream s3://{}/{}", this, res.value().length, stream.bucket, stream.key);
+            LOG.debug("{} Read {} bytes from stream s3://{}/{}", this, res.value().length - offset,
+                stream.bucket, stream.key);
 
             assert stream.state == StreamUploadDesc.State.CollectingData;
 
-            var sizeToCopy = Integer.min(stream.buffer.remaining(), res.value().length);
-            stream.buffer.put(res.value(), 0, sizeToCopy);
+            if (stream.buffer == null) {
+                stream.buffer = buffers.acquire();
+            }
+            if (stream.collectingSince < 0) {
+                stream.collectingSince = res.timestamp();
+            }
+
+            var length = res.value().length - offset;
+            var sizeToCopy = Integer.min(stream.buffer.remaining(), length);
+            stream.buffer.put(res.value(), offset, sizeToCopy);
 
             if (stream.buffer.remaining() == 0) {
                 stream.startUpload();
@@ -225,9 +236,12 @@ public class Job {
                     continue;
                 }
 
-                // We can put all remaining data in buffer because data fits the buffer size
-                // (buffer is empty && res.value().length <= BUFFER_SIZE)
-                stream.buffer.put(res.value(), sizeToCopy, res.value().length - sizeToCopy);
+                if (sizeToCopy < length) {
+                    // Rest of data fits the next part, because res.value().length <= BUFFER_SIZE
+                    pendingRecord = res;
+                    pendingOffset = offset + sizeToCopy;
+                    return JobStatus.restartAfter(config.getUploadPollInterval());
+                }
             }
         }
         resultsStream = null;
@@ -257,6 +271,48 @@ public class Job {
         }
     }
 
+    /**
+     * Request body which reads part buffer without copying. Buffer must not be changed until upload is completed.
+     */
+    private static AsyncRequestBody partBody(ByteBuffer buffer) {
+        return new AsyncRequestBody() {
+            @Override
+            public Optional<Long> contentLength() {
+                return Optional.of((long) buffer.remaining());
+            }
+
+            @Override
+            public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+                // Each subscriber (e.g. retry of request) reads buffer from the beginning
+                var data = buffer.duplicate();
+                subscriber.onSubscribe(new Subscription() {
+                    private boolean done = false;
+
+                    @Override
+                    public void request(long n) {
+                        if (done) {
+                            return;
+                        }
+                        done = true;
+
+                        if (n <= 0) {
+                            subscriber.onError(new IllegalArgumentException("Non-positive request: " + n));
+                            return;
+                        }
+
+                        subscriber.onNext(data);
+                        subscriber.onComplete();
+                    }
+
+                    @Override
+                    public void cancel() {
+                        done = true;
+                    }
+                });
+            }
+        };
+    }
+
 
     private final class StreamUploadDesc {
         private final String bucket;
@@ -264,7 +320,12 @@ public class Job {
         private String uploadId = "";
         private int partNumber = 1;
         private State state = State.CollectingData;
-        private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        // Taken from pool when stream gets data, returned after part is uploaded
+        @Nullable
+        private ByteBuffer buffer = null;
+        // Timestamp of the oldest kafka record in buffer, -1 if buffer is empty
+        private long collectingSince = -1;
+        private long uploadingSince = -1;
         private final List<CompletedPart> completedParts = new ArrayList<>();
         @Nullable
         private CompletableFuture<UploadPartResponse> uploadAwaitable = null;
@@ -294,6 +355,7 @@ public class Job {
                         .bucket(bucket)
                         .key(key)
                         .contentType(MediaType.TEXT_PLAIN)
+                        .overrideConfiguration(storageAuth)
                         .build())
                     .get();
                 uploadId = resp.uploadId();
@@ -305,7 +367,7 @@ public class Job {
 
                 state = State.Completed;
                 failStatus = Status.INTERNAL.withDescription("Init failed: " + e.getMessage());
-                buffer = EMPTY_BUFFER;
+                freeBuffer();
                 completedParts.clear();
             }
         }
@@ -337,19 +399,21 @@ public class Job {
                         .eTag(resp.eTag())
                         .build());
                 LOG.info("{} Complete upload {} part {} to s3://{}/{}", Job.this, uploadId, partNumber, bucket, key);
+                metrics.uploadLag.observe(Math.max(0, System.currentTimeMillis() - uploadingSince) / 1000.0);
             } catch (Exception e) {
                 LOG.error("{} Cannot upload part {} to upload {} at s3://{}/{}: {}",
                     Job.this, partNumber, uploadId, bucket, key, e.getMessage(), e);
                 metrics.errors.inc();
                 state = State.Completed;
                 failStatus = Status.INTERNAL.withDescription(e.getMessage());
-                buffer = EMPTY_BUFFER;
+                freeBuffer();
                 completedParts.clear();
                 return false;
             }
 
             partNumber++;
             uploadAwaitable = null;
+            freeBuffer();
 
             if (eos) {
                 complete(null);
@@ -369,6 +433,8 @@ public class Job {
                 throw new RuntimeException("already uploading");
             }
 
+            requireNonNull(buffer);
+
             try {
                 buffer.flip();
 
@@ -378,21 +444,24 @@ public class Job {
                         .key(key)
                         .partNumber(partNumber)
                         .uploadId(uploadId)
+                        .contentLength((long) buffer.limit())
+                        .overrideConfiguration(storageAuth)
                         .build(),
-                    AsyncRequestBody.fromByteBuffer(buffer));
+                    partBody(buffer));
 
                 LOG.info("{} Start uploading part {} of upload {} to s3://{}/{} of size {}...",
                     Job.this, partNumber, uploadId, bucket, key, buffer.limit());
 
                 state = State.UploadingData;
                 metrics.uploadedBytes.inc(buffer.limit());
-                buffer.clear();
+                uploadingSince = collectingSince;
+                collectingSince = -1;
             } catch (Exception e) {
                 LOG.error("{} S3 upload {} part {} to s3://{}/{} failed: {}",
                     Job.this, uploadId, partNumber, bucket, key, e.getMessage(), e);
                 state = State.Completed;
                 failStatus = Status.INTERNAL.withDescription(e.getMessage());
-                buffer = EMPTY_BUFFER;
+                freeBuffer();
                 completedParts.clear();
                 metrics.errors.inc();
             }
@@ -406,6 +475,12 @@ public class Job {
             if (uploadAwaitable != null) {
                 safeCall(() -> uploadAwaitable.cancel(true));
                 uploadAwaitable = null;
+
+                // Cancelled upload can still read the buffer, so it is not reused
+                if (buffer != null) {
+                    buffers.discard(buffer);
+                    buffer = null;
+                }
             }
 
             LOG.info("{} Complete upload {} of {} parts to s3://{}.{} by reason '{}' ...",
@@ -420,6 +495,7 @@ public class Job {
                         .multipartUpload(CompletedMultipartUpload.builder()
                             .parts(completedParts)
                             .build())
+                        .overrideConfiguration(storageAuth)
                         .build())
                     .get();
                 state = State.Completed;
@@ -433,8 +509,16 @@ public class Job {
                     .withDescription(error != null ? error + ": " + e.getMessage() : e.getMessage());
             }
 
-            buffer = EMPTY_BUFFER;
+            freeBuffer();
             completedParts.clear();
         }
+
+        private void freeBuffer() {
+            if (buffer != null) {
+                buffers.release(buffer);
+                buffer = null;
+            }
+            collectingSince = -1;
+        }
     }
 }
@@ -15,11 +15,15 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static java.util.Objects.requireNonNull;
+
 @Singleton
 public class JobExecutor {
     private static final Logger LOG = LogManager.getLogger(JobExecutor.class);
@@ -35,14 +39,22 @@ public class JobExecutor {
     private final Map<String, String> idempotencyKeyToJobId = new ConcurrentHashMap<>();
     private final IdGenerator idGenerator = new RandomIdGenerator();
     private final KafkaHelper helper;
+    private final S3ClientPool storageClients;
+    private final PartBufferPool buffers;
     private final S3SinkMetrics metrics;
     private final ServiceConfig config;
+    // Guarded by this
+    private final List<SharedConsumer> sharedConsumers = new ArrayList<>();
 
     // For tests only
     private final Map<String, CompletableFuture<Job.JobStatus>> waiters = new ConcurrentHashMap<>();
 
-    public JobExecutor(@Named("S3SinkKafkaHelper") KafkaHelper helper, S3SinkMetrics metrics, ServiceConfig config) {
+    public JobExecutor(@Named("S3SinkKafkaHelper") KafkaHelper helper, S3ClientPool storageClients,
+                       PartBufferPool buffers, S3SinkMetrics metrics, ServiceConfig config)
+    {
         this.helper = helper;
+        this.storageClients = storageClients;
+        this.buffers = buffers;
         this.metrics = metrics;
         this.config = config;
 
@@ -63,6 +75,11 @@ public class JobExecutor {
     public void shutdown() {
         shutdown.set(true);
         threadPool.shutdown();
+
+        synchronized (this) {
+            sharedConsumers.forEach(SharedConsumer::close);
+            sharedConsumers.clear();
+        }
     }
 
     public synchronized String submit(StartRequest req, @Nullable Operation.IdempotencyKey idempotencyKey) {
@@ -75,7 +92,17 @@ public class JobExecutor {
             }
         }
 
-        var job = new Job(idGenerator.generate("s3sink-"), helper, req, metrics, config);
+        var jobId = idGenerator.generate("s3sink-");
+        var source = recordsSource(jobId, req.getTopicName());
+
+        final Job job;
+        try {
+            job = new Job(jobId, req, source, storageClients, buffers, metrics, config);
+        } catch (Exception e) {
+            source.close();
+            releaseSharedConsumers();
+            throw e;
+        }
 
         var handle = new JobHandle(job, token);
         handles.put(job.id(), handle);
@@ -88,6 +115,35 @@ public class JobExecutor {
         return job.id();
     }
 
+    private synchronized RecordsSource recordsSource(String jobId, String topic) {
+        if (!config.isSharedKafkaConsumers()) {
+            return new DedicatedConsumer(jobId, topic, helper, metrics);
+        }
+
+        for (var consumer : sharedConsumers) {
+            if (consumer.size() < config.getTopicsPerKafkaConsumer()) {
+                var source = consumer.subscribe(topic);
+                if (source != null) {
+                    return source;
+                }
+            }
+        }
+
+        var consumer = new SharedConsumer(idGenerator.generate("s3-sink-consumer-"), helper, metrics);
+        sharedConsumers.add(consumer);
+        return requireNonNull(consumer.subscribe(topic));
+    }
+
+    private synchronized void releaseSharedConsumers() {
+        for (var iter = sharedConsumers.iterator(); iter.hasNext(); ) {
+            var consumer = iter.next();
+            if (consumer.size() == 0) {
+                consumer.close();
+                iter.remove();
+            }
+        }
+    }
+
     public void complete(String id) {
         var handle = handles.get(id);
 
@@ -119,6 +175,7 @@ public class JobExecutor {
 
             if (res.completed()) {
                 handles.remove(job.id());
+                releaseSharedConsumers();
 
                 if (idempotencyKey != null) {
                     idempotencyKeyToJobId.remove(idempotencyKey);
@@ -31,7 +31,8 @@ public class Main {
                 ServiceConfig config)
     {
 
-        var auth = new AuthServerInterceptor(new AuthenticateServiceGrpcClient(APP, iamChannel));
+        var auth = new AuthServerInterceptor(
+            new AuthenticateServiceGrpcClient(APP, iamChannel, config.getIam().getAuthCacheTtl()));
         var internalOnly = new AccessServerInterceptor(
             new AccessServiceGrpcClient(APP, iamChannel),
             config.getIam().createRenewableToken()::get, Root.INSTANCE, AuthPermission.INTERNAL_AUTHORIZE);
@@ -0,0 +1,85 @@
+package ai.lzy.kafka.s3sink;
+
+import jakarta.inject.Singleton;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Pool of off-heap buffers for parts of multipart uploads. Buffer is taken by stream when it gets data
+ * and returned after the part is uploaded, so idle streams do not hold memory.
+ * <p>
+ * Off-heap memory is bounded by max number of direct buffers, streams get heap buffers over this limit.
+ */
+@Singleton
+public class PartBufferPool {
+    public static final int BUFFER_SIZE = 5 << 20; // S3 multipart chunk must be at least 5Mb
+
+    private final ArrayDeque<ByteBuffer> idle = new ArrayDeque<>();  // Guarded by idle
+    private int allocated = 0;  // Guarded by idle
+    private final int maxIdle;
+    private final int maxAllocated;
+    private final S3SinkMetrics metrics;
+
+    public PartBufferPool(ServiceConfig config, S3SinkMetrics metrics) {
+        this.maxIdle = config.getMaxIdlePartBuffers();
+        this.maxAllocated = config.getMaxDirectPartBuffers();
+        this.metrics = metrics;
+    }
+
+    public ByteBuffer acquire() {
+        ByteBuffer buffer;
+        boolean allocate = false;
+        synchronized (idle) {
+            buffer = idle.poll();
+            if (buffer == null && allocated < maxAllocated) {
+                allocated++;
+                allocate = true;
+            }
+        }
+
+        if (allocate) {
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            metrics.partBuffersBytes.inc(BUFFER_SIZE);
+        } else if (buffer == null) {
+            buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            metrics.heapPartBuffers.inc();
+        }
+
+        metrics.partBuffersInUse.inc();
+        return buffer;
+    }
+
+    public void release(ByteBuffer buffer) {
+        metrics.partBuffersInUse.dec();
+        if (!buffer.isDirect()) {
+            return;
+        }
+        buffer.clear();
+
+        synchronized (idle) {
+            if (idle.size() < maxIdle) {
+                idle.push(buffer);
+                return;
+            }
+            allocated--;
+        }
+
+        metrics.partBuffersBytes.dec(BUFFER_SIZE);
+    }
+
+    /**
+     * Forgets buffer which can still be read by someone (e.g. by cancelled upload)
+     */
+    public void discard(ByteBuffer buffer) {
+        metrics.partBuffersInUse.dec();
+        if (!buffer.isDirect()) {
+            return;
+        }
+
+        synchronized (idle) {
+            allocated--;
+        }
+        metrics.partBuffersBytes.dec(BUFFER_SIZE);
+    }
+}
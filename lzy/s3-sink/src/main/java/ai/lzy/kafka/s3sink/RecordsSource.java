@@ -0,0 +1,18 @@
+package ai.lzy.kafka.s3sink;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import java.util.List;
+
+/**
+ * Records of job's topic, read from beginning
+ */
+interface RecordsSource extends AutoCloseable {
+    /**
+     * @return next records of topic, empty if there are no new records for now
+     */
+    List<ConsumerRecord<String, byte[]>> poll();
+
+    @Override
+    void close();
+}
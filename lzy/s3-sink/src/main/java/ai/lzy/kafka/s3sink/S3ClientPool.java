@@ -0,0 +1,43 @@
+package ai.lzy.kafka.s3sink;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * S3 clients shared between jobs, one per endpoint. Clients have no credentials,
+ * jobs provide their own credentials with each request.
+ */
+@Singleton
+public class S3ClientPool {
+    private static final Logger LOG = LogManager.getLogger(S3ClientPool.class);
+
+    private final Map<URI, S3AsyncClient> clients = new ConcurrentHashMap<>();
+
+    public S3AsyncClient get(String endpoint) throws URISyntaxException {
+        return clients.computeIfAbsent(new URI(endpoint), uri -> {
+            LOG.info("Create s3 client for endpoint {}", uri);
+            return S3AsyncClient.builder()
+                .credentialsProvider(AnonymousCredentialsProvider.create())
+                .region(Region.US_WEST_1)
+                .endpointOverride(uri)
+                .forcePathStyle(true)
+                .build();
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clients.values().forEach(S3AsyncClient::close);
+        clients.clear();
+    }
+}
@@ -3,6 +3,7 @@ package ai.lzy.kafka.s3sink;
 import ai.lzy.metrics.MetricReporter;
 import io.prometheus.client.Counter;
 import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
 import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 
@@ -26,6 +27,32 @@ public class S3SinkMetrics {
         .subsystem(S3SINK)
         .register();
 
+    public final Gauge kafkaConsumers = Gauge
+        .build("kafka_consumers", "Active Kafka Consumers")
+        .subsystem(S3SINK)
+        .register();
+
+    public final Gauge partBuffersBytes = Gauge
+        .build("part_buffers_bytes", "Off-heap Memory of Allocated Part Buffers")
+        .subsystem(S3SINK)
+        .register();
+
+    public final Gauge partBuffersInUse = Gauge
+        .build("part_buffers_in_use", "Part Buffers Used by Streams")
+        .subsystem(S3SINK)
+        .register();
+
+    public final Counter heapPartBuffers = Counter
+        .build("heap_part_buffers", "Part Buffers Allocated on Heap over Off-heap Limit")
+        .subsystem(S3SINK)
+        .register();
+
+    public final Histogram uploadLag = Histogram
+        .build("upload_lag", "Time from writing data to kafka until its part is uploaded (sec)")
+        .subsystem(S3SINK)
+        .buckets(1.0, 5.0, 10.0, 30.0, 60.0, 120.0, 300.0, 600.0)
+        .register();
+
     public S3SinkMetrics(@Named("S3SinkMetricReporter") MetricReporter ignored) {
     }
 }
@@ -19,6 +19,16 @@ public class ServiceConfig {
     private Duration uploadPollInterval = Duration.ofSeconds(3);
     private Duration kafkaPollInterval = Duration.ofMillis(100);
 
+    // Read topics of many jobs by one kafka consumer instead of consumer per job
+    private boolean sharedKafkaConsumers = false;
+    private int topicsPerKafkaConsumer = 100;
+
+    // Free part buffers kept for reuse, other ones are released
+    private int maxIdlePartBuffers = 16;
+
+    // Limit of off-heap part buffers, streams get heap buffers over it
+    private int maxDirectPartBuffers = 64;
+
     @ConfigurationBuilder("kafka")
     private final KafkaConfig kafka = new KafkaConfig();
 
@@ -0,0 +1,203 @@
+package ai.lzy.kafka.s3sink;
+
+import ai.lzy.util.kafka.KafkaHelper;
+import jakarta.annotation.Nullable;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Kafka consumer which reads topics of many jobs in its own thread and dispatches records to them.
+ * Topic is paused while its job has too many not processed records, e.g. while it waits for upload.
+ */
+final class SharedConsumer {
+    private static final Logger LOG = LogManager.getLogger(SharedConsumer.class);
+    private static final long MAX_BUFFERED_BYTES_PER_TOPIC = 2L * PartBufferPool.BUFFER_SIZE;
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+
+    private final String name;
+    private final KafkaConsumer<String, byte[]> consumer;
+    private final S3SinkMetrics metrics;
+    private final Map<TopicPartition, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicBoolean assignmentChanged = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final Thread thread;
+
+    SharedConsumer(String name, KafkaHelper helper, S3SinkMetrics metrics) {
+        this.name = name;
+        this.metrics = metrics;
+
+        var props = helper.toProperties();
+        props.put("enable.auto.commit", "false");
+        props.put("group.id", name);
+
+        consumer = new KafkaConsumer<>(props);
+        metrics.kafkaConsumers.inc();
+
+        thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    int size() {
+        return subscriptions.size();
+    }
+
+    /**
+     * @return source of records of topic, or null if topic is already read by this consumer
+     */
+    @Nullable
+    RecordsSource subscribe(String topic) {
+        var partition = new TopicPartition(topic, /* partition */ 0);
+        var subscription = new Subscription(partition);
+        if (subscriptions.putIfAbsent(partition, subscription) != null) {
+            return null;
+        }
+
+        assignmentChanged.set(true);
+        consumer.wakeup();
+        return subscription;
+    }
+
+    void close() {
+        closed.set(true);
+        consumer.wakeup();
+        try {
+            thread.join(POLL_TIMEOUT.multipliedBy(10).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (!closed.get()) {
+                try {
+                    if (assignmentChanged.getAndSet(false)) {
+                        reassign();
+                    }
+
+                    if (subscriptions.isEmpty()) {
+                        LockSupport.parkNanos(POLL_TIMEOUT.toNanos());
+                        continue;
+                    }
+
+                    updatePaused();
+
+                    var records = consumer.poll(POLL_TIMEOUT);
+                    for (var partition : records.partitions()) {
+                        var subscription = subscriptions.get(partition);
+                        if (subscription != null) {
+                            subscription.offer(records.records(partition));
+                        }
+                    }
+                } catch (WakeupException e) {
+                    // assignment changed or consumer is closing
+                } catch (Exception e) {
+                    LOG.error("Error in shared kafka consumer {}: ", name, e);
+                    metrics.errors.inc();
+                    LockSupport.parkNanos(POLL_TIMEOUT.toNanos());
+                }
+            }
+        } finally {
+            try {
+                consumer.close();
+            } catch (Exception e) {
+                // ignored
+            }
+            metrics.kafkaConsumers.dec();
+        }
+    }
+
+    private void reassign() {
+        var assigned = consumer.assignment();
+        var partitions = Set.copyOf(subscriptions.keySet());
+
+        consumer.assign(partitions);
+        for (var partition : partitions) {
+            if (!assigned.contains(partition)) {
+                consumer.seek(partition, /* offset */ 0);
+            }
+        }
+    }
+
+    private void updatePaused() {
+        var assigned = consumer.assignment();
+        var paused = consumer.paused();
+
+        for (var subscription : subscriptions.values()) {
+            var partition = subscription.partition;
+            if (!assigned.contains(partition)) {
+                continue;  // subscribed after last reassign
+            }
+
+            var buffered = subscription.buffered.get();
+            if (buffered >= MAX_BUFFERED_BYTES_PER_TOPIC && !paused.contains(partition)) {
+                consumer.pause(List.of(partition));
+            } else if (buffered < MAX_BUFFERED_BYTES_PER_TOPIC / 2 && paused.contains(partition)) {
+                consumer.resume(List.of(partition));
+            }
+        }
+    }
+
+    private static int size(ConsumerRecord<String, byte[]> record) {
+        return record.value() != null ? record.value().length : 0;
+    }
+
+    private final class Subscription implements RecordsSource {
+        private final TopicPartition partition;
+        private final ConcurrentLinkedQueue<ConsumerRecord<String, byte[]>> records = new ConcurrentLinkedQueue<>();
+        private final AtomicLong buffered = new AtomicLong(0);
+
+        private Subscription(TopicPartition partition) {
+            this.partition = partition;
+        }
+
+        private void offer(List<ConsumerRecord<String, byte[]>> newRecords) {
+            long bytes = 0;
+            for (var record : newRecords) {
+                records.add(record);
+                bytes += size(record);
+            }
+            buffered.addAndGet(bytes);
+        }
+
+        @Override
+        public List<ConsumerRecord<String, byte[]>> poll() {
+            var result = new ArrayList<ConsumerRecord<String, byte[]>>();
+            long bytes = 0;
+
+            ConsumerRecord<String, byte[]> record;
+            while ((record = records.poll()) != null) {
+                result.add(record);
+                bytes += size(record);
+            }
+
+            buffered.addAndGet(-bytes);
+            return result;
+        }
+
+        @Override
+        public void close() {
+            if (subscriptions.remove(partition, this)) {
+                records.clear();
+                assignmentChanged.set(true);
+                consumer.wakeup();
+            }
+        }
+    }
+}
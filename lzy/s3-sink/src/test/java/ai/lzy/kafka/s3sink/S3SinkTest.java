@@ -54,6 +54,7 @@ public class S3SinkTest extends IamOnlyS3SinkContextTests {
     private static AmazonS3 s3Client;
     private static JobExecutor executor;
     private static S3SinkMetrics metrics;
+    private static ServiceConfig serviceConfig;
 
     private static final AtomicInteger nextTaskId = new AtomicInteger(1);
 
@@ -85,7 +86,7 @@ public class S3SinkTest extends IamOnlyS3SinkContextTests {
         context = ApplicationContext.run(appConf);
         app = context.getBean(Main.class);
 
-        var serviceConfig = context.getBean(ServiceConfig.class);
+        serviceConfig = context.getBean(ServiceConfig.class);
         channel = newGrpcChannel(serviceConfig.getAddress(), S3SinkServiceGrpc.SERVICE_NAME);
 
         stub = newBlockingClient(S3SinkServiceGrpc.newBlockingStub(channel), "Test",
@@ -324,6 +325,108 @@ public class S3SinkTest extends IamOnlyS3SinkContextTests {
         }
     }
 
+    @Test
+    public void sharedConsumers() throws Exception {
+        var jobsCount = 10;
+        var messageSize = 1024 * 1023;
+
+        serviceConfig.setSharedKafkaConsumers(true);
+        serviceConfig.setTopicsPerKafkaConsumer(4);
+        try {
+            List<CompletableFuture<Job.JobStatus>> futures = new ArrayList<>();
+            List<String> ids = new ArrayList<>();
+
+            for (int i = 0; i < jobsCount; i++) {
+                s3Client.createBucket("shared-" + i);
+
+                var resp = stub.start(KafkaS3Sink.StartRequest.newBuilder()
+                    .setS3(LMST.S3Credentials.newBuilder()
+                        .setEndpoint("http://localhost:12345")
+                        .setAccessToken("test")
+                        .setSecretToken("test")
+                        .build())
+                    .setStoragePrefixUri("s3://shared-%d/execution".formatted(i))
+                    .setTopicName("shared_" + i)
+                    .build());
+
+                ids.add(resp.getJobId());
+                futures.add(executor.setupWaiter(resp.getJobId()));
+            }
+
+            Assert.assertEquals(3, (long) metrics.kafkaConsumers.get());
+
+            // More than one part for every job
+            for (int j = 0; j < 6; j++) {
+                for (int i = 0; i < jobsCount; i++) {
+                    var data = StringUtils.repeat((char) ('a' + j), messageSize);
+                    writeToKafka(ids.get(i), "shared_" + i, data, /* eos */ j == 5);
+                }
+            }
+
+            for (int i = 0; i < jobsCount; i++) {
+                stub.stop(KafkaS3Sink.StopRequest.newBuilder()
+                    .setJobId(ids.get(i))
+                    .build());
+            }
+
+            for (int i = 0; i < jobsCount; i++) {
+                futures.get(i).get();
+            }
+
+            for (int i = 0; i < jobsCount; i++) {
+                var keys = listS3("s3://shared-%d/execution".formatted(i));
+                Assert.assertEquals(1, keys.size());
+
+                var res = readFromS3("s3://shared-%d/".formatted(i) + keys.get(0));
+                Assert.assertEquals(6 * messageSize, res.length());
+                for (int j = 0; j < 6; j++) {
+                    Assert.assertEquals((char) ('a' + j), res.charAt(j * messageSize));
+                    Assert.assertEquals((char) ('a' + j), res.charAt((j + 1) * messageSize - 1));
+                }
+            }
+
+            Assert.assertEquals(0, (long) metrics.kafkaConsumers.get());
+            Assert.assertEquals(0, (long) metrics.partBuffersInUse.get());
+        } finally {
+            serviceConfig.setSharedKafkaConsumers(false);
+            serviceConfig.setTopicsPerKafkaConsumer(100);
+        }
+    }
+
+    @Test
+    public void partBuffersOverLimitAreOnHeap() {
+        var config = new ServiceConfig();
+        config.setMaxIdlePartBuffers(1);
+        config.setMaxDirectPartBuffers(2);
+        var pool = new PartBufferPool(config, metrics);
+
+        var directBytes = metrics.partBuffersBytes.get();
+        var heapBuffers = metrics.heapPartBuffers.get();
+
+        var first = pool.acquire();
+        var second = pool.acquire();
+        var third = pool.acquire();
+        Assert.assertTrue(first.isDirect());
+        Assert.assertTrue(second.isDirect());
+        Assert.assertFalse(third.isDirect());
+        Assert.assertEquals(directBytes + 2 * PartBufferPool.BUFFER_SIZE, metrics.partBuffersBytes.get(), 0.0);
+        Assert.assertEquals(heapBuffers + 1, metrics.heapPartBuffers.get(), 0.0);
+
+        // released direct buffers are reused or freed, so new ones can be allocated up to the limit
+        pool.release(third);
+        pool.release(first);
+        pool.discard(second);
+        Assert.assertEquals(directBytes + PartBufferPool.BUFFER_SIZE, metrics.partBuffersBytes.get(), 0.0);
+
+        var buffers = List.of(pool.acquire(), pool.acquire(), pool.acquire());
+        Assert.assertSame(first, buffers.get(0));
+        Assert.assertTrue(buffers.get(1).isDirect());
+        Assert.assertFalse(buffers.get(2).isDirect());
+
+        buffers.forEach(pool::discard);
+        Assert.assertEquals(directBytes, metrics.partBuffersBytes.get(), 0.0);
+    }
+
     public void writeToKafka(String taskId, String topic, String data, boolean eos) throws Exception {
         writeToKafka(taskId, topic, "out", data, eos);
     }
@@ -37,7 +37,8 @@ public class SchedulerApi {
         LOG.info("Building server at 0.0.0.0:{}", config.getPort());
 
         var builder = newGrpcServer("0.0.0.0", config.getPort(),
-            new AuthServerInterceptor(new AuthenticateServiceGrpcClient(APP, iamChannel)));
+            new AuthServerInterceptor(
+                new AuthenticateServiceGrpcClient(APP, iamChannel, config.getIam().getAuthCacheTtl())));
 
         var internalOnly = new AccessServerInterceptor(
             new AccessServiceGrpcClient(APP, iamChannel),
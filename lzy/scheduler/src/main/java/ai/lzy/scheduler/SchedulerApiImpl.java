@@ -25,7 +25,9 @@ import org.apache.logging.log4j.Logger;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Singleton
 public class SchedulerApiImpl extends SchedulerGrpc.SchedulerImplBase {
@@ -169,6 +171,42 @@ public class SchedulerApiImpl extends SchedulerGrpc.SchedulerImplBase {
         responseObserver.onCompleted();
     }
 
+    @Override
+    public void statusMany(TaskStatusManyRequest request, StreamObserver<TaskStatusManyResponse> responseObserver) {
+        if (request.getTaskIdsCount() == 0) {
+            responseObserver.onNext(TaskStatusManyResponse.getDefaultInstance());
+            responseObserver.onCompleted();
+            return;
+        }
+
+        final List<TaskDao.TaskDesc> tasks;
+        final Map<String, Operation> ops;
+
+        try {
+            tasks = DbHelper.withRetries(LOG,
+                () -> dao.getTaskDescs(request.getTaskIdsList(), request.getWorkflowId(), null));
+            var opIds = tasks.stream().map(TaskDao.TaskDesc::operationId).toList();
+            ops = DbHelper.withRetries(LOG, () -> opDao.get(opIds, null)).stream()
+                .collect(Collectors.toMap(Operation::id, op -> op));
+        } catch (Exception e) {
+            LOG.error("Cannot get statuses of tasks", e);
+            throw Status.INTERNAL.withDescription("Cannot get statuses of tasks").asRuntimeException();
+        }
+
+        final ArrayList<TaskStatus> statuses = new ArrayList<>(tasks.size());
+        for (var task : tasks) {
+            var op = ops.get(task.operationId());
+            if (op == null) {
+                LOG.error("Operation {} of task {} not found", task.operationId(), task.taskId());
+                throw Status.INTERNAL.asRuntimeException();
+            }
+            statuses.add(buildTaskStatus(task, op));
+        }
+
+        responseObserver.onNext(TaskStatusManyResponse.newBuilder().addAllStatus(statuses).build());
+        responseObserver.onCompleted();
+    }
+
     @Override
     public void list(TaskListRequest request, StreamObserver<TaskListResponse> responseObserver) {
 
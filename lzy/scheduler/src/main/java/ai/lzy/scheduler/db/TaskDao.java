@@ -4,6 +4,7 @@ import ai.lzy.model.db.TransactionHandle;
 import jakarta.annotation.Nullable;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 
 public interface TaskDao {
@@ -14,6 +15,9 @@ public interface TaskDao {
     @Nullable
     TaskDesc getTaskDesc(String operationId, @Nullable TransactionHandle tx) throws SQLException;
 
+    List<TaskDesc> getTaskDescs(Collection<String> taskIds, String executionId,
+                                @Nullable TransactionHandle tx) throws SQLException;
+
     void insertTaskDesc(TaskDesc desc, @Nullable TransactionHandle tx) throws SQLException;
 
     List<TaskDesc> listTasks(String executionId, @Nullable TransactionHandle tx) throws SQLException;
@@ -8,6 +8,7 @@ import jakarta.inject.Singleton;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Singleton
@@ -82,6 +83,39 @@ public class TaskDaoImpl implements TaskDao {
         });
     }
 
+    @Override
+    public List<TaskDesc> getTaskDescs(Collection<String> taskIds, String executionId,
+                                       @Nullable TransactionHandle tx) throws SQLException
+    {
+        return DbOperation.execute(tx, storage, con -> {
+            try (PreparedStatement ps = con.prepareStatement(String.format("""
+                SELECT %s FROM task
+                WHERE id = ANY (?) AND execution_id = ?
+                """, FIELDS)))
+            {
+                ps.setArray(1, con.createArrayOf("TEXT", taskIds.toArray()));
+                ps.setString(2, executionId);
+
+                var rs = ps.executeQuery();
+
+                final ArrayList<TaskDesc> descList = new ArrayList<>();
+
+                while (rs.next()) {
+                    var id = rs.getString(1);
+                    var workflowName = rs.getString(3);
+                    var userId = rs.getString(4);
+                    var operationId = rs.getString(5);
+                    var opName = rs.getString(6);
+                    var allocSid = rs.getString(7);
+
+                    descList.add(new TaskDesc(id, executionId, workflowName, userId, operationId, opName, allocSid));
+                }
+
+                return descList;
+            }
+        });
+    }
+
     @Override
     public void insertTaskDesc(TaskDesc desc, @Nullable TransactionHandle tx) throws SQLException {
         DbOperation.execute(tx, storage, con -> {
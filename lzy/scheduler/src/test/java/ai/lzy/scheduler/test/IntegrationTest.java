@@ -7,9 +7,11 @@ import ai.lzy.v1.common.LME;
 import ai.lzy.v1.common.LMO;
 import ai.lzy.v1.scheduler.Scheduler;
 import ai.lzy.v1.scheduler.SchedulerApi.TaskScheduleRequest;
+import ai.lzy.v1.scheduler.SchedulerApi.TaskStatusManyRequest;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
 public class IntegrationTest extends IamOnlySchedulerContextTests {
@@ -213,6 +215,14 @@ public class IntegrationTest extends IamOnlySchedulerContextTests {
 
         var status = awaitCompleted(resp.getStatus().getTaskId(), resp.getStatus().getWorkflowId());
         Assert.assertTrue(status.hasError());
+
+        // Unknown tasks are omitted from batch response
+        var statuses = stub.statusMany(TaskStatusManyRequest.newBuilder()
+            .setWorkflowId(resp.getStatus().getWorkflowId())
+            .addTaskIds(resp.getStatus().getTaskId())
+            .addTaskIds("unknown-task")
+            .build());
+        Assert.assertEquals(List.of(status), statuses.getStatusList());
     }
 
     private Scheduler.TaskStatus awaitCompleted(String taskId, String workflowId) throws InterruptedException {
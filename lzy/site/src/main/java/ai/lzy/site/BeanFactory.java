@@ -55,7 +55,7 @@ public class BeanFactory {
     }
 
     @Singleton
-    public AuthenticateService authService(@Named("SiteIamChannel") ManagedChannel iamChannel) {
-        return new AuthenticateServiceGrpcClient("LzySite", iamChannel);
+    public AuthenticateService authService(@Named("SiteIamChannel") ManagedChannel iamChannel, ServiceConfig config) {
+        return new AuthenticateServiceGrpcClient("LzySite", iamChannel, config.getIam().getAuthCacheTtl());
     }
 }
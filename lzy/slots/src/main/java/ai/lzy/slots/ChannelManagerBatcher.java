@@ -0,0 +1,263 @@
+package ai.lzy.slots;
+
+import ai.lzy.v1.channel.LCMS;
+import ai.lzy.v1.channel.LzyChannelManagerGrpc.LzyChannelManagerBlockingStub;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.protobuf.StatusProto;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static ai.lzy.util.grpc.GrpcUtils.withIdempotencyKey;
+
+/**
+ * Coalesces bind and unbind calls of all slots of one execution into BindMany/UnbindMany requests.
+ * The first caller becomes a leader: it collects calls from other slots while they keep coming, i.e. until
+ * no call arrives for a short gap or the batch window is over, and then sends them all at once.
+ * Falls back to single calls if channel manager does not support batches.
+ */
+class ChannelManagerBatcher {
+    private static final Logger LOG = LogManager.getLogger(ChannelManagerBatcher.class);
+
+    private static volatile Duration batchGap = Duration.ofMillis(2);
+    private static volatile Duration batchWindow = Duration.ofMillis(20);
+
+    private final LzyChannelManagerBlockingStub channelManager;
+
+    private final List<PendingBind> binds = new ArrayList<>();
+    private final List<PendingUnbind> unbinds = new ArrayList<>();
+    private boolean flushScheduled = false;
+    private volatile boolean batchUnsupported = false;
+
+    ChannelManagerBatcher(LzyChannelManagerBlockingStub channelManager) {
+        this.channelManager = channelManager;
+    }
+
+    public static void setBatchWindow(Duration batchGap, Duration batchWindow) {
+        ChannelManagerBatcher.batchGap = batchGap;
+        ChannelManagerBatcher.batchWindow = batchWindow;
+    }
+
+    public LCMS.BindResponse bind(LCMS.BindRequest request, String idempotencyKey) throws StatusRuntimeException {
+        if (batchUnsupported) {
+            return withIdempotencyKey(channelManager, idempotencyKey).bind(request);
+        }
+
+        var pending = new PendingBind(request, idempotencyKey, new CompletableFuture<>());
+        final boolean leader;
+        synchronized (this) {
+            binds.add(pending);
+            leader = !flushScheduled;
+            flushScheduled = true;
+            notifyAll();
+        }
+
+        if (leader) {
+            waitAndFlush();
+        }
+
+        return await(pending.result());
+    }
+
+    public LCMS.UnbindResponse unbind(LCMS.UnbindRequest request, String idempotencyKey)
+        throws StatusRuntimeException
+    {
+        if (batchUnsupported) {
+            return withIdempotencyKey(channelManager, idempotencyKey).unbind(request);
+        }
+
+        var pending = new PendingUnbind(request, idempotencyKey, new CompletableFuture<>());
+        final boolean leader;
+        synchronized (this) {
+            unbinds.add(pending);
+            leader = !flushScheduled;
+            flushScheduled = true;
+            notifyAll();
+        }
+
+        if (leader) {
+            waitAndFlush();
+        }
+
+        return await(pending.result());
+    }
+
+    private void waitAndFlush() {
+        final List<PendingBind> bindBatch;
+        final List<PendingUnbind> unbindBatch;
+        synchronized (this) {
+            var deadline = System.nanoTime() + batchWindow.toNanos();
+            int queued = binds.size() + unbinds.size();
+            try {
+                while (true) {
+                    var timeout = Math.min(batchGap.toNanos(), deadline - System.nanoTime());
+                    if (timeout <= 0) {
+                        break;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, timeout);
+                    if (binds.size() + unbinds.size() == queued) {
+                        break;
+                    }
+                    queued = binds.size() + unbinds.size();
+                }
+            } catch (InterruptedException e) {
+                // Flushing anyway, other slots are waiting for this batch
+                Thread.currentThread().interrupt();
+            }
+
+            bindBatch = new ArrayList<>(binds);
+            unbindBatch = new ArrayList<>(unbinds);
+            binds.clear();
+            unbinds.clear();
+            flushScheduled = false;
+        }
+
+        if (!bindBatch.isEmpty()) {
+            flushBinds(bindBatch);
+        }
+
+        if (!unbindBatch.isEmpty()) {
+            flushUnbinds(unbindBatch);
+        }
+    }
+
+    private void flushBinds(List<PendingBind> batch) {
+        if (batch.size() > 1 && !batchUnsupported) {
+            var request = LCMS.BindManyRequest.newBuilder();
+            for (var bind : batch) {
+                request.addItems(LCMS.BindManyRequest.Item.newBuilder()
+                    .setRequest(bind.request())
+                    .setIdempotencyKey(bind.idempotencyKey())
+                    .build());
+            }
+
+            try {
+                var resp = channelManager.bindMany(request.build());
+                if (resp.getResultsCount() != batch.size()) {
+                    throw new IllegalStateException("Unexpected number of results of BindMany: %d instead of %d"
+                        .formatted(resp.getResultsCount(), batch.size()));
+                }
+
+                for (int i = 0; i < batch.size(); i++) {
+                    var result = resp.getResults(i);
+                    if (result.hasError()) {
+                        batch.get(i).result().completeExceptionally(
+                            StatusProto.toStatusRuntimeException(result.getError()));
+                    } else {
+                        batch.get(i).result().complete(result.getResponse());
+                    }
+                }
+                return;
+            } catch (StatusRuntimeException e) {
+                if (!unsupported(e)) {
+                    batch.forEach(bind -> bind.result().completeExceptionally(e));
+                    return;
+                }
+            } catch (Exception e) {
+                batch.forEach(bind -> bind.result().completeExceptionally(e));
+                return;
+            }
+        }
+
+        for (var bind : batch) {
+            try {
+                bind.result().complete(withIdempotencyKey(channelManager, bind.idempotencyKey()).bind(bind.request()));
+            } catch (Exception e) {
+                bind.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void flushUnbinds(List<PendingUnbind> batch) {
+        if (batch.size() > 1 && !batchUnsupported) {
+            // Key of the batch is derived from keys of its unbinds, so the batch of the same retried unbinds
+            // is recognized by channel manager, whatever order they come in
+            batch = new ArrayList<>(batch);
+            batch.sort(Comparator.comparing(PendingUnbind::idempotencyKey));
+
+            var request = LCMS.UnbindManyRequest.newBuilder();
+            batch.forEach(unbind -> request.addRequests(unbind.request()));
+            var batchKey = UUID.nameUUIDFromBytes(String.join("\n", batch.stream()
+                .map(PendingUnbind::idempotencyKey)
+                .toList()).getBytes(StandardCharsets.UTF_8));
+
+            try {
+                var resp = withIdempotencyKey(channelManager, batchKey.toString()).unbindMany(request.build());
+                if (resp.getResultsCount() != batch.size()) {
+                    throw new IllegalStateException("Unexpected number of results of UnbindMany: %d instead of %d"
+                        .formatted(resp.getResultsCount(), batch.size()));
+                }
+
+                for (int i = 0; i < batch.size(); i++) {
+                    var result = resp.getResults(i);
+                    if (result.hasError()) {
+                        batch.get(i).result().completeExceptionally(
+                            StatusProto.toStatusRuntimeException(result.getError()));
+                    } else {
+                        batch.get(i).result().complete(result.getResponse());
+                    }
+                }
+                return;
+            } catch (StatusRuntimeException e) {
+                if (!unsupported(e)) {
+                    batch.forEach(unbind -> unbind.result().completeExceptionally(e));
+                    return;
+                }
+            } catch (Exception e) {
+                batch.forEach(unbind -> unbind.result().completeExceptionally(e));
+                return;
+            }
+        }
+
+        for (var unbind : batch) {
+            try {
+                unbind.result().complete(
+                    withIdempotencyKey(channelManager, unbind.idempotencyKey()).unbind(unbind.request()));
+            } catch (Exception e) {
+                unbind.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    private boolean unsupported(StatusRuntimeException e) {
+        if (e.getStatus().getCode() == Status.Code.UNIMPLEMENTED) {
+            LOG.warn("Channel manager does not support batch bind/unbind, fallback to single calls");
+            batchUnsupported = true;
+            return true;
+        }
+        return false;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws StatusRuntimeException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof StatusRuntimeException sre) {
+                throw sre;
+            }
+            throw Status.INTERNAL.withCause(e.getCause()).asRuntimeException();
+        }
+    }
+
+    private record PendingBind(
+        LCMS.BindRequest request,
+        String idempotencyKey,
+        CompletableFuture<LCMS.BindResponse> result
+    ) {}
+
+    private record PendingUnbind(
+        LCMS.UnbindRequest request,
+        String idempotencyKey,
+        CompletableFuture<LCMS.UnbindResponse> result
+    ) {}
+}
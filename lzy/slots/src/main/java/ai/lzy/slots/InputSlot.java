@@ -16,20 +16,21 @@ import org.apache.logging.log4j.Logger;
 import java.nio.channels.SeekableByteChannel;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static ai.lzy.util.grpc.GrpcUtils.*;
 import static com.google.protobuf.TextFormat.printer;
 
-public class InputSlot extends Thread implements Slot, SlotInternal {
+public class InputSlot implements Slot, SlotInternal {
     private static final Logger LOG = LogManager.getLogger(InputSlot.class);
-    private static final ThreadGroup INPUT_SLOT_GROUP = new ThreadGroup("InputSlot");
 
     private final InputSlotBackend backend;
     private final String slotId;
     private final String channelId;
     private final String logPrefix;
-    private final Runnable body;
+    @Nullable
+    private final SlotsExecutor.Task task;  // null if slot was not started
 
     private final SlotsContext context;
     private final AtomicReference<State> state = new AtomicReference<>(State.BINDING);
@@ -38,8 +39,6 @@ public class InputSlot extends Thread implements Slot, SlotInternal {
     private final CompletableFuture<Void> ready = new CompletableFuture<>();
 
     public InputSlot(InputSlotBackend backend, String slotId, String channelId, SlotsContext context) {
-        super(INPUT_SLOT_GROUP, "input-slot-%s ".formatted(slotId));
-
         this.backend = backend;
         this.slotId = slotId;
         this.channelId = channelId;
@@ -47,7 +46,7 @@ public class InputSlot extends Thread implements Slot, SlotInternal {
 
         this.logPrefix = "InputSlot(slotId: %s, channelId: %s) ".formatted(slotId, channelId);
 
-        this.body = new ContextAwareTask() {
+        var body = new ContextAwareTask() {
             @Override
             protected void execute() {
                 try {
@@ -60,14 +59,18 @@ public class InputSlot extends Thread implements Slot, SlotInternal {
             }
         };
 
-        this.start();
-
-        LOG.info("{} started", logPrefix);
-    }
-
-    @Override
-    public void run() {
-        body.run();
+        SlotsExecutor.Task task = null;
+        try {
+            task = SlotsExecutor.submit(SlotsExecutor.Kind.INPUT, body);
+            LOG.info("{} started", logPrefix);
+        } catch (RejectedExecutionException e) {
+            // Slot is not registered and not bound yet, so only backend must be released
+            LOG.error("{} Cannot start slot: {}", logPrefix, e.getMessage());
+            state.set(State.CLOSED);
+            closeBackend();
+            ready.completeExceptionally(new IllegalStateException("Too many slot tasks", e));
+        }
+        this.task = task;
     }
 
     @Override
@@ -96,11 +99,16 @@ public class InputSlot extends Thread implements Slot, SlotInternal {
     }
 
     @Override
-    public void read(long offset, StreamObserver<LSA.ReadDataChunk> transfer) {
+    public void read(long offset, long length, StreamObserver<LSA.ReadDataChunk> transfer) {
         LOG.error("{} unexpected `read` call", logPrefix);
         transfer.onError(Status.UNIMPLEMENTED.asRuntimeException());
     }
 
+    @Override
+    public long dataSize() {
+        return -1;
+    }
+
     @Override
     public String id() {
         return slotId;
@@ -112,8 +120,10 @@ public class InputSlot extends Thread implements Slot, SlotInternal {
             return;
         }
 
-        LOG.info("{} close, interrupt self {}", logPrefix, toString());
-        this.interrupt();
+        if (task != null) {
+            LOG.info("{} close, cancel running task", logPrefix);
+            task.cancel();
+        }
     }
 
     public enum State {
@@ -156,7 +166,15 @@ public class InputSlot extends Thread implements Slot, SlotInternal {
         state.set(State.DOWNLOADING);
         context.slotsService().unregister(this.slotId); // Got peer, unregistering
 
-        download(peerDescription, transferId);
+        var cacheKey = peerDescription.hasStoragePeer()
+            ? SlotDataCache.storageKey(peerDescription.getStoragePeer().getStorageUri())
+            : SlotDataCache.channelKey(channelId);
+
+        if (!loadFromCache(cacheKey, transferId)) {
+            download(peerDescription, transferId);
+            storeToCache(cacheKey);
+        }
+
         state.set(State.READY);
         ready.complete(null);
 
@@ -173,7 +191,7 @@ public class InputSlot extends Thread implements Slot, SlotInternal {
      */
     @Nullable
     private LCMS.BindResponse bind() throws StatusRuntimeException {
-        var stub = withIdempotencyKey(context.channelManager(), UUID.randomUUID().toString());
+        var idempotencyKey = UUID.randomUUID().toString();
 
         return withRetries(LOG, INFINITY_RETRY_CONFIG, () -> {
             if (state.get().equals(State.CLOSED)) {
@@ -181,23 +199,20 @@ public class InputSlot extends Thread implements Slot, SlotInternal {
                 return null;
             }
 
-            return stub.bind(
+            return context.channelManagerBatcher().bind(
                 LCMS.BindRequest.newBuilder()
                     .setPeerId(slotId)
                     .setExecutionId(context.executionId())
                     .setChannelId(channelId)
                     .setPeerUrl(context.apiUrl())
                     .setRole(LCMS.BindRequest.Role.CONSUMER)
-                    .build());
+                    .build(),
+                idempotencyKey);
         });
     }
 
     private void clear() {
-        try {
-            backend.close();
-        } catch (Exception e) {
-            LOG.error("{} Error while closing backend: ", logPrefix, e);
-        }
+        closeBackend();
 
         state.set(State.CLOSED);
         context.slotsService().unregister(this.slotId);
@@ -208,18 +223,59 @@ public class InputSlot extends Thread implements Slot, SlotInternal {
         }
 
         try {
-            var stub = withIdempotencyKey(context.channelManager(), UUID.randomUUID().toString());
-            withRetries(LOG, LONGENOUGH_RETRY_CONFIG, () -> stub.unbind(
+            var idempotencyKey = UUID.randomUUID().toString();
+            withRetries(LOG, LONGENOUGH_RETRY_CONFIG, () -> context.channelManagerBatcher().unbind(
                 LCMS.UnbindRequest.newBuilder()
                     .setChannelId(channelId)
                     .setPeerId(slotId)
-                    .build()));
+                    .build(),
+                idempotencyKey));
         } catch (Exception e) {
             LOG.error("{} Error while unbinding: ", logPrefix, e);
             // Ignoring this error
         }
     }
 
+    private void closeBackend() {
+        try {
+            backend.close();
+        } catch (Exception e) {
+            LOG.error("{} Error while closing backend: ", logPrefix, e);
+        }
+    }
+
+    /**
+     * Returns true if data was found in worker-local cache, transfer is completed in this case
+     */
+    private boolean loadFromCache(String cacheKey, String transferId) throws StatusRuntimeException {
+        var cache = context.dataCache();
+        var path = backend.localPath();
+
+        if (cache == null || path == null || !cache.materialize(cacheKey, path)) {
+            return false;
+        }
+
+        LOG.info("{} Data {} loaded from local cache", logPrefix, cacheKey);
+
+        var stub = withIdempotencyKey(context.channelManager(), UUID.randomUUID().toString());
+        var req = LCMS.TransferCompletedRequest.newBuilder()
+            .setTransferId(transferId)
+            .setChannelId(channelId)
+            .build();
+
+        withRetries(LOG, LONGENOUGH_RETRY_CONFIG, () -> stub.transferCompleted(req));
+        return true;
+    }
+
+    private void storeToCache(String cacheKey) {
+        var cache = context.dataCache();
+        var path = backend.localPath();
+
+        if (cache != null && path != null) {
+            cache.put(cacheKey, path);
+        }
+    }
+
     private void download(LC.PeerDescription initPeer, String initTransferId) throws Exception {
         long offset = 0;
         var peer = initPeer;
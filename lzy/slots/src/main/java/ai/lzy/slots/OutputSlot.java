@@ -6,28 +6,36 @@ import ai.lzy.util.grpc.GrpcUtils;
 import ai.lzy.v1.channel.LCMS;
 import ai.lzy.v1.common.LC;
 import ai.lzy.v1.slots.LSA;
-import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
+import jakarta.annotation.Nullable;
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import static ai.lzy.util.grpc.GrpcUtils.*;
 
 public class OutputSlot implements Slot, SlotInternal {
     private static final Logger LOG = LogManager.getLogger(OutputSlot.class);
-    private static final ThreadGroup OUTPUT_SLOTS_TG = new ThreadGroup("OutputSlots");
+    static final int CHUNK_SIZE = 2 << 20;  // 2MB
+    static final int MAX_CONCURRENT_READS = 16;
+    static final int MAX_PENDING_READS = 256;
 
     private static final GrpcUtils.RetryConfig UNBIND_RETRY_CONFIG = new GrpcUtils.RetryConfig(
         10, e -> retryableStatusCode(e.getStatus()), Duration.ofMillis(100), Duration.ofSeconds(5), 1.3);
@@ -36,9 +44,13 @@ public class OutputSlot implements Slot, SlotInternal {
     private final OutputSlotBackend backend;
     private final String slotId;
     private final String channelId;
+    private final CompletableFuture<Void> started = new CompletableFuture<>();
     private final CompletableFuture<Void> completeFuture = new CompletableFuture<>();
     private final SlotsContext context;
-    private final List<Thread> runningThreads = Collections.synchronizedList(new ArrayList<>());
+    private final List<SlotsExecutor.Task> runningTasks = Collections.synchronizedList(new ArrayList<>());
+    // Reads over the limit wait in queue and are started when running reads finish
+    private final Deque<ReadTask> pendingReads = new ArrayDeque<>();  // Guarded by pendingReads
+    private int activeReads = 0;  // Guarded by pendingReads
     private final String logPrefix;
 
     public OutputSlot(OutputSlotBackend backend, String slotId, String channelId,
@@ -51,10 +63,16 @@ public class OutputSlot implements Slot, SlotInternal {
 
         this.logPrefix = "OutputSlot(slotId: %s, channelId: %s)".formatted(slotId, channelId);
 
-        var thread = new PrepareThread();
-        thread.start();
-
-        runningThreads.add(thread);
+        try {
+            runningTasks.add(SlotsExecutor.submit(SlotsExecutor.Kind.PREPARE_OUTPUT, new PrepareTask()));
+            started.complete(null);
+        } catch (RejectedExecutionException e) {
+            // Slot is not registered and not bound yet, it fails before execution
+            LOG.error("{} Cannot start slot: {}", logPrefix, e.getMessage());
+            var error = new IllegalStateException("Too many slot tasks", e);
+            started.completeExceptionally(error);
+            completeFuture.completeExceptionally(error);
+        }
     }
 
     @Override
@@ -63,12 +81,72 @@ public class OutputSlot implements Slot, SlotInternal {
     }
 
     @Override
-    public void read(long offset, StreamObserver<LSA.ReadDataChunk> responseObserver) {
-        LOG.info("{} Read request with offset {}", logPrefix, offset);
-        var thread = new ReadThread(offset, responseObserver);
-        thread.start();
+    public void read(long offset, long length, StreamObserver<LSA.ReadDataChunk> responseObserver) {
+        LOG.info("{} Read request with offset {} and length {}", logPrefix, offset, length);
+        runningTasks.removeIf(SlotsExecutor.Task::isDone);
+
+        var task = new ReadTask(offset, length, responseObserver);
+        synchronized (pendingReads) {
+            if (activeReads >= MAX_CONCURRENT_READS) {
+                if (pendingReads.size() >= MAX_PENDING_READS) {
+                    LOG.warn("{} Too many pending reads, reject read from offset {}", logPrefix, offset);
+                    SlotsExecutor.rejected(SlotsExecutor.Kind.READ);
+                    responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                        .withDescription("Too many concurrent reads from slot").asException());
+                    return;
+                }
+
+                LOG.info("{} Too many concurrent reads, read from offset {} is queued", logPrefix, offset);
+                pendingReads.add(task);
+                return;
+            }
+            activeReads++;
+        }
+
+        startRead(task);
+    }
 
-        runningThreads.add(thread);
+    private void startRead(@Nullable ReadTask task) {
+        while (task != null) {
+            try {
+                runningTasks.add(SlotsExecutor.submit(SlotsExecutor.Kind.READ, task));
+                return;
+            } catch (RejectedExecutionException e) {
+                LOG.warn("{} Cannot start read from offset {}: {}", logPrefix, task.offset, e.getMessage());
+                task.responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                    .withDescription("Too many slot tasks").asException());
+                task = nextRead();
+            }
+        }
+    }
+
+    /**
+     * Hands the slot of finished read to the next queued one, returns null if there are no queued reads.
+     */
+    @Nullable
+    private ReadTask nextRead() {
+        synchronized (pendingReads) {
+            ReadTask next;
+            while ((next = pendingReads.poll()) != null) {
+                if (next.responseObserver instanceof ServerCallStreamObserver<?> call && call.isCancelled()) {
+                    LOG.info("{} Queued read from offset {} is cancelled by client", logPrefix, next.offset);
+                    continue;
+                }
+                return next;
+            }
+            activeReads--;
+            return null;
+        }
+    }
+
+    @Override
+    public long dataSize() {
+        try {
+            return backend.size();
+        } catch (IOException e) {
+            LOG.error("{} Cannot get size of data: {}", logPrefix, e.getMessage());
+            return -1;
+        }
     }
 
     @Override
@@ -78,7 +156,7 @@ public class OutputSlot implements Slot, SlotInternal {
 
     @Override
     public CompletableFuture<Void> beforeExecution() {
-        return CompletableFuture.completedFuture(null);
+        return started;
     }
 
     @Override
@@ -96,72 +174,77 @@ public class OutputSlot implements Slot, SlotInternal {
             completeFuture.completeExceptionally(new RuntimeException("Slot closed before ready"));
         }
 
+        if (started.isCompletedExceptionally()) {
+            closeBackend();
+            LOG.info("{} Closed, slot was not started", logPrefix);
+            return;
+        }
+
         try {
-            var stub = withIdempotencyKey(context.channelManager(), UUID.randomUUID().toString());
-            withRetries(LOG, UNBIND_RETRY_CONFIG, () -> stub.unbind(
+            var idempotencyKey = UUID.randomUUID().toString();
+            withRetries(LOG, UNBIND_RETRY_CONFIG, () -> context.channelManagerBatcher().unbind(
                 LCMS.UnbindRequest.newBuilder()
                     .setChannelId(channelId)
                     .setPeerId(slotId)
-                    .build()));
+                    .build(),
+                idempotencyKey));
         } catch (StatusRuntimeException e) {
             LOG.error("{} Error while unbinding output slot: [{}] {}",
                 logPrefix, e.getStatus().getCode(), e.getStatus().getDescription());
             // Error ignored
         }
 
-        try {
-            backend.close();
-        } catch (Exception e) {
-            LOG.error("{} Error while closing backend for output slot: {}", logPrefix, e.getMessage());
-            // Error ignored
-        }
+        closeBackend();
 
-        LOG.info("{} All resources cleared, waiting for running threads", logPrefix);
+        LOG.info("{} All resources cleared, cancel running tasks", logPrefix);
 
-        runningThreads.forEach(Thread::interrupt);
+        synchronized (runningTasks) {
+            runningTasks.forEach(SlotsExecutor.Task::cancel);
+        }
 
-        runningThreads.forEach(thread -> {
-            try {
-                thread.join(100);
-            } catch (InterruptedException e) {
-                LOG.error("{} Error while waiting for thread to join: ", logPrefix, e);
-            }
-            thread.stop();  // Force stop if not closed by interrupt
-        });
+        List<ReadTask> pending;
+        synchronized (pendingReads) {
+            pending = new ArrayList<>(pendingReads);
+            pendingReads.clear();
+        }
+        pending.forEach(task -> task.responseObserver.onError(
+            Status.UNAVAILABLE.withDescription("Slot is closed").asException()));
 
         LOG.info("{} Closed", logPrefix);
     }
 
-    private class PrepareThread extends Thread {
-        private final Runnable body;
-
-        PrepareThread() {
-            super(OUTPUT_SLOTS_TG, "prepare-output-slot-%s".formatted(slotId));
-            body = new ContextAwareTask() {
-                @Override
-                protected void execute() {
-                    try {
-                        runImpl();
-                    } catch (Exception e) {
-                        LOG.error("{} Error while binding output slot: ", logPrefix, e);
-                        completeFuture.completeExceptionally(e);
-                    }
-                }
-            };
+    private void closeBackend() {
+        try {
+            backend.close();
+        } catch (Exception e) {
+            LOG.error("{} Error while closing backend for output slot: {}", logPrefix, e.getMessage());
+            // Error ignored
         }
+    }
 
+    private class PrepareTask extends ContextAwareTask {
         @Override
-        public void run() {
-            body.run();
+        protected void execute() {
+            try {
+                runImpl();
+            } catch (Exception e) {
+                LOG.error("{} Error while binding output slot: ", logPrefix, e);
+                completeFuture.completeExceptionally(e);
+            }
         }
 
         private void runImpl() throws Exception {
-            LOG.info("{} Waiting for data", logPrefix);
+            if (backend.streaming()) {
+                // Data can be read while it is being written, so bind immediately
+                LOG.info("{} Streaming backend, bind before data is ready...", logPrefix);
+            } else {
+                LOG.info("{} Waiting for data", logPrefix);
+                backend.waitCompleted();
+                LOG.info("{} Data ready, bind...", logPrefix);
+            }
 
-            backend.waitCompleted();
             context.slotsService().register(OutputSlot.this);  // Enable request from outside
 
-            LOG.info("{} Data ready, bind...", logPrefix);
             var res = bind();
 
             if (res.hasPeer()) {
@@ -187,6 +270,11 @@ public class OutputSlot implements Slot, SlotInternal {
                 }
             }
 
+            if (backend.streaming()) {
+                LOG.info("{} Waiting for all data to be written", logPrefix);
+                backend.waitCompleted();
+            }
+
             LOG.info("{} Slot is ready", logPrefix);
             completeFuture.complete(null);
         }
@@ -202,15 +290,16 @@ public class OutputSlot implements Slot, SlotInternal {
     }
 
     private LCMS.BindResponse bind() throws StatusRuntimeException {
-        var stub = withIdempotencyKey(context.channelManager(), UUID.randomUUID().toString());
-        return withRetries(LOG, () -> stub.bind(
+        var idempotencyKey = UUID.randomUUID().toString();
+        return withRetries(LOG, () -> context.channelManagerBatcher().bind(
             LCMS.BindRequest.newBuilder()
                 .setRole(LCMS.BindRequest.Role.PRODUCER)
                 .setPeerId(slotId)
                 .setExecutionId(context.executionId())
                 .setChannelId(channelId)
                 .setPeerUrl(context.apiUrl())
-                .build()));
+                .build(),
+            idempotencyKey));
     }
 
     private void completeTransfer(String transferId) throws StatusRuntimeException {
@@ -222,53 +311,72 @@ public class OutputSlot implements Slot, SlotInternal {
                 .build()));
     }
 
-    private class ReadThread extends Thread {
-        private final Runnable body;
+    private class ReadTask extends ContextAwareTask {
+        private final long offset;
+        private final long length;
+        private final StreamObserver<LSA.ReadDataChunk> responseObserver;
 
-        private ReadThread(long offset, StreamObserver<LSA.ReadDataChunk> responseObserver) {
-            super(OUTPUT_SLOTS_TG, "ReadThread(offset: %d, from_slot: %s)".formatted(offset, slotId));
-
-            this.body = new ContextAwareTask() {
-                @Override
-                protected Map<String, String> prepareLogContext() {
-                    return Map.of("tid", "");
-                }
-
-                @Override
-                protected void execute() {
-                    LOG.info("{} Reading from offset {}", logPrefix, offset);
-                    try (var source = backend.readFromOffset(offset)) {
-                        var buffer = ByteBuffer.allocate(2 << 20L); // 2MB
+        private ReadTask(long offset, long length, StreamObserver<LSA.ReadDataChunk> responseObserver) {
+            this.offset = offset;
+            this.length = length;
+            this.responseObserver = responseObserver;
+        }
 
-                        while (source.read(buffer) != -1) {
-                            var chunk = LSA.ReadDataChunk.newBuilder()
-                                .setChunk(ByteString.copyFrom(buffer.flip()))
-                                .build();
+        @Override
+        protected Map<String, String> prepareLogContext() {
+            return Map.of("tid", "");
+        }
 
-                            responseObserver.onNext(chunk);
+        @Override
+        protected void execute() {
+            try {
+                readImpl();
+            } finally {
+                startRead(nextRead());
+            }
+        }
 
-                            buffer.clear();
+        private void readImpl() {
+            LOG.info("{} Reading from offset {}", logPrefix, offset);
+            long remaining = length > 0 ? length : Long.MAX_VALUE;
+            try (var source = backend.readFromOffset(offset)) {
+                boolean eof = false;
+                while (remaining > 0 && !eof) {
+                    // Data is read directly into array of a new chunk, which is wrapped without copying,
+                    // array is not reused, because transport can keep message after onNext
+                    var data = new byte[(int) Math.min(CHUNK_SIZE, remaining)];
+                    var buffer = ByteBuffer.wrap(data);
+                    while (buffer.hasRemaining()) {
+                        if (source.read(buffer) == -1) {
+                            eof = true;
+                            break;
                         }
+                    }
 
-                        LOG.info("{} End of stream", logPrefix);
-                    } catch (Exception e) {
-                        LOG.error("{} Error while reading from backend: ", logPrefix, e);
-                        responseObserver.onError(Status.INTERNAL.asException());
-                        return;
+                    if (buffer.position() == 0) {
+                        break;
                     }
+                    remaining -= buffer.position();
+
+                    var chunk = LSA.ReadDataChunk.newBuilder()
+                        .setChunk(UnsafeByteOperations.unsafeWrap(data, 0, buffer.position()))
+                        .build();
 
-                    responseObserver.onNext(
-                        LSA.ReadDataChunk.newBuilder()
-                            .setControl(LSA.ReadDataChunk.Control.EOS)
-                            .build());
-                    responseObserver.onCompleted();
+                    responseObserver.onNext(chunk);
                 }
-            };
-        }
 
-        @Override
-        public void run() {
-            body.run();
+                LOG.info("{} End of stream", logPrefix);
+            } catch (Exception e) {
+                LOG.error("{} Error while reading from backend: ", logPrefix, e);
+                responseObserver.onError(Status.INTERNAL.asException());
+                return;
+            }
+
+            responseObserver.onNext(
+                LSA.ReadDataChunk.newBuilder()
+                    .setControl(LSA.ReadDataChunk.Control.EOS)
+                    .build());
+            responseObserver.onCompleted();
         }
     }
 }
@@ -14,7 +14,15 @@ interface Slot {
     void startTransfer(LC.PeerDescription peer, String transferId)
         throws NotImplementedException, IllegalStateException;
 
-    void read(long offset, StreamObserver<LSA.ReadDataChunk> transfer);
+    /**
+     * Read data from the given offset, length 0 means read until the end of data
+     */
+    void read(long offset, long length, StreamObserver<LSA.ReadDataChunk> transfer);
+
+    /**
+     * Size of slot data, or -1 if it is not known yet
+     */
+    long dataSize();
 
     String id();
 }
@@ -0,0 +1,193 @@
+package ai.lzy.slots;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+
+/**
+ * Worker-local LRU cache of downloaded slot data, shared by all executions on this worker.
+ * Data is keyed by storage uri or channel id.
+ * <p>
+ * Cache keeps private copies of data, which are never linked to slot files: producer of data and consumers
+ * of materialized data can modify their files without corrupting the cache.
+ */
+public class SlotDataCache {
+    private static final Logger LOG = LogManager.getLogger(SlotDataCache.class);
+
+    private static final String TMP_SUFFIX = ".cache-tmp";
+
+    private static final Counter HITS = Counter
+        .build("cache_hits", "Input slots loaded from local data cache")
+        .subsystem("slots")
+        .register();
+
+    private static final Counter MISSES = Counter
+        .build("cache_misses", "Input slots not found in local data cache")
+        .subsystem("slots")
+        .register();
+
+    private static final Gauge SIZE = Gauge
+        .build("cache_size_bytes", "Size of local slot data cache")
+        .subsystem("slots")
+        .register();
+
+    private final Path root;
+    private final long maxSizeBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);  // Guarded by this
+    private long sizeBytes = 0;  // Guarded by this
+
+    public SlotDataCache(Path root, long maxSizeBytes) throws IOException {
+        this.root = root;
+        this.maxSizeBytes = maxSizeBytes;
+
+        if (root.toFile().exists()) {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+        Files.createDirectories(root);
+    }
+
+    public static String storageKey(String storageUri) {
+        return "storage:" + storageUri;
+    }
+
+    public static String channelKey(String channelId) {
+        return "channel:" + channelId;
+    }
+
+    /**
+     * Replaces target file with a copy of cached data. Returns false if there is no data for the key,
+     * target file is not changed in this case.
+     */
+    public boolean materialize(String key, Path target) {
+        final FileChannel cached;
+        synchronized (this) {
+            var entry = entries.get(key);
+            if (entry == null) {
+                MISSES.inc();
+                return false;
+            }
+
+            try {
+                // opened file keeps its data even if the entry is evicted while we are copying it
+                cached = FileChannel.open(entry.path, StandardOpenOption.READ);
+            } catch (IOException e) {
+                LOG.error("Cannot open cached data {}: ", entry.path, e);
+                return false;
+            }
+        }
+
+        var tmp = target.resolveSibling(target.getFileName() + TMP_SUFFIX);
+        try (cached) {
+            copy(cached, tmp);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.error("Cannot materialize cached data {} to {}: ", key, target, e);
+            deleteQuietly(tmp);
+            return false;
+        }
+
+        HITS.inc();
+        return true;
+    }
+
+    /**
+     * Puts a copy of completely downloaded data into the cache.
+     * Least recently used entries are evicted to fit max size.
+     */
+    public void put(String key, Path source) {
+        synchronized (this) {
+            if (entries.containsKey(key)) {
+                return;
+            }
+        }
+
+        var path = root.resolve(digest(key));
+        var tmp = root.resolve(path.getFileName() + "-" + UUID.randomUUID() + TMP_SUFFIX);
+        final long size;
+        try (var data = FileChannel.open(source, StandardOpenOption.READ)) {
+            size = data.size();
+            if (size > maxSizeBytes) {
+                return;
+            }
+            copy(data, tmp);
+        } catch (IOException e) {
+            LOG.warn("Cannot put data {} to cache: {}", source, e.getMessage());
+            deleteQuietly(tmp);
+            return;
+        }
+
+        synchronized (this) {
+            if (entries.containsKey(key)) {
+                deleteQuietly(tmp);
+                return;
+            }
+
+            try {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                LOG.warn("Cannot put data {} to cache: {}", source, e.getMessage());
+                deleteQuietly(tmp);
+                return;
+            }
+
+            entries.put(key, new Entry(path, size));
+            sizeBytes += size;
+
+            var it = entries.values().iterator();
+            while (sizeBytes > maxSizeBytes && it.hasNext()) {
+                var entry = it.next();
+                it.remove();
+                sizeBytes -= entry.size;
+                deleteQuietly(entry.path);
+            }
+
+            SIZE.set(sizeBytes);
+        }
+    }
+
+    private static void copy(FileChannel source, Path target) throws IOException {
+        try (var out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            var size = source.size();
+            var position = 0L;
+            while (position < size) {
+                position += source.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOG.warn("Cannot delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static String digest(String key) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private record Entry(Path path, long size) {}
+}
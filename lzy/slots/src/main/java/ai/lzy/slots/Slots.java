@@ -17,6 +17,7 @@ import com.google.common.net.HostAndPort;
 import io.grpc.ManagedChannel;
 import io.grpc.Server;
 import io.grpc.ServerInterceptors;
+import jakarta.annotation.Nullable;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -40,12 +41,17 @@ public class Slots {
     private final ManagedChannel channelManagerChannel;
     private final HostAndPort slotsApiAddress;
     private final Server server;
+    private final boolean streamingOutputs;
+    @Nullable
+    private final SlotDataCache dataCache;
 
     public Slots(Path fsRoot, Supplier<String> token, HostAndPort slotsApiAddress,
                  HostAndPort channelManagerAddress, String serviceName, ManagedChannel iamChannel,
-                 String workflowName, String ownerId) throws IOException
+                 String workflowName, String ownerId, boolean streamingOutputs,
+                 @Nullable Path dataCacheDir, long dataCacheSizeBytes) throws IOException
     {
         this.fsRoot = fsRoot;
+        this.streamingOutputs = streamingOutputs;
         this.token = token;
         this.slotsApiAddress = slotsApiAddress;
 
@@ -53,6 +59,11 @@ public class Slots {
             Files.createDirectories(fsRoot);
         }
 
+        // Cache dir is not under fsRoot, so it is not visible to ops, which share fsRoot with slots
+        dataCache = dataCacheDir != null && dataCacheSizeBytes > 0
+            ? new SlotDataCache(dataCacheDir, dataCacheSizeBytes)
+            : null;
+
         channelManagerChannel = newGrpcChannel(
             channelManagerAddress, LzyChannelManagerGrpc.SERVICE_NAME, LzyChannelManagerPrivateGrpc.SERVICE_NAME);
         channelManager = newBlockingClient(
@@ -67,7 +78,8 @@ public class Slots {
         var workflowResource = new Workflow(ownerId + "/" + workflowName);
         var internalOnlyAccess =
             new AccessServerInterceptor(
-                accessClient, tokenSupplier, Set.of(LzySlotsApiGrpc.getReadMethod()),
+                accessClient, tokenSupplier,
+                Set.of(LzySlotsApiGrpc.getReadMethod(), LzySlotsApiGrpc.getGetDataSizeMethod()),
                 workflowResource, AuthPermission.WORKFLOW_MANAGE
             );
 
@@ -89,7 +101,8 @@ public class Slots {
                                                       List<LMS.Slot> slots, Map<String, String> slotToChannelMapping)
     {
         var context = new SlotsExecutionContext(fsRoot, slots, slotToChannelMapping, channelManager,
-            requestId, executionId, taskId, slotsApiAddress.toString(), token, slotsService);
+            requestId, executionId, taskId, slotsApiAddress.toString(), token, slotsService, streamingOutputs,
+            dataCache);
 
         contexts.add(context);
         return context;
@@ -2,6 +2,7 @@ package ai.lzy.slots;
 
 import ai.lzy.slots.transfers.TransferFactory;
 import ai.lzy.v1.channel.LzyChannelManagerGrpc.LzyChannelManagerBlockingStub;
+import jakarta.annotation.Nullable;
 
 public record SlotsContext(
     LzyChannelManagerBlockingStub channelManager,
@@ -11,5 +12,7 @@ public record SlotsContext(
     String executeRequestId,
     String executionId,
     String taskId,
-    SlotsExecutionContext executionContext
+    SlotsExecutionContext executionContext,
+    @Nullable SlotDataCache dataCache,
+    ChannelManagerBatcher channelManagerBatcher
 ) {}
@@ -2,11 +2,13 @@ package ai.lzy.slots;
 
 import ai.lzy.slots.backends.FileInputBackend;
 import ai.lzy.slots.backends.OutputPipeBackend;
+import ai.lzy.slots.transfers.SlotChannelPool;
 import ai.lzy.slots.transfers.TransferFactory;
 import ai.lzy.storage.StorageClientFactory;
 import ai.lzy.v1.channel.LzyChannelManagerGrpc.LzyChannelManagerBlockingStub;
 import ai.lzy.v1.common.LMS;
 import com.google.common.annotations.VisibleForTesting;
+import jakarta.annotation.Nullable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -20,26 +22,39 @@ import java.util.function.Supplier;
 public class SlotsExecutionContext {
     private static final Logger LOG = LogManager.getLogger(SlotsExecutionContext.class);
     private static final StorageClientFactory storageClientFactory = new StorageClientFactory(4, 4);
+    private static final SlotChannelPool slotChannelPool = new SlotChannelPool();
 
     private final List<LMS.Slot> slotDescriptions;
     private final Map<String, String> slotToChannelMapping;
     private final SlotsContext context;
     private final Path fsRoot;
     private final List<SlotInternal> slots = new ArrayList<>();
+    private final boolean streamingOutputs;
 
     public SlotsExecutionContext(Path fsRoot, List<LMS.Slot> slotDescriptions, Map<String, String> slotToChannelMapping,
                                  LzyChannelManagerBlockingStub channelManager, String requestId, String executionId,
                                  String taskId, String slotsApiAddress, Supplier<String> tokenSupplier,
                                  SlotsService slotsService)
+    {
+        this(fsRoot, slotDescriptions, slotToChannelMapping, channelManager, requestId, executionId, taskId,
+            slotsApiAddress, tokenSupplier, slotsService, false, null);
+    }
+
+    public SlotsExecutionContext(Path fsRoot, List<LMS.Slot> slotDescriptions, Map<String, String> slotToChannelMapping,
+                                 LzyChannelManagerBlockingStub channelManager, String requestId, String executionId,
+                                 String taskId, String slotsApiAddress, Supplier<String> tokenSupplier,
+                                 SlotsService slotsService, boolean streamingOutputs,
+                                 @Nullable SlotDataCache dataCache)
     {
         this.fsRoot = fsRoot;
+        this.streamingOutputs = streamingOutputs;
         this.slotDescriptions = slotDescriptions;
         this.slotToChannelMapping = slotToChannelMapping;
 
-        var transferFactory = new TransferFactory(storageClientFactory, tokenSupplier);
+        var transferFactory = new TransferFactory(storageClientFactory, tokenSupplier, slotChannelPool);
 
         context = new SlotsContext(channelManager, transferFactory, slotsApiAddress, slotsService,
-            requestId, executionId, taskId, this);
+            requestId, executionId, taskId, this, dataCache, new ChannelManagerBatcher(channelManager));
     }
 
     public void beforeExecution() throws Exception {
@@ -55,7 +70,7 @@ public class SlotsExecutionContext {
 
                     slots.add(inputSlot);
                 } else {
-                    var backend = new OutputPipeBackend(fsPath);
+                    var backend = new OutputPipeBackend(fsPath, streamingOutputs);
                     var outputSlot = new OutputSlot(backend, desc.getName(), channelId, context);
 
                     slots.add(outputSlot);
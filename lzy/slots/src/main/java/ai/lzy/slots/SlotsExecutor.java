@@ -0,0 +1,139 @@
+package ai.lzy.slots;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import jakarta.annotation.Nullable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared bounded pool for slot lifecycle, read and transfer tasks.
+ * Idle threads are reused by next slots instead of starting a new thread for each slot and each read.
+ */
+public final class SlotsExecutor {
+    private static final String SLOTS = "slots";
+    static final int MAX_THREADS = 1024;
+
+    private static final Gauge ACTIVE_TASKS = Gauge
+        .build("active_tasks", "Running slot tasks")
+        .subsystem(SLOTS)
+        .labelNames("kind")
+        .register();
+
+    private static final Counter REJECTED_TASKS = Counter
+        .build("rejected_tasks", "Slot tasks rejected because of concurrency limits")
+        .subsystem(SLOTS)
+        .labelNames("kind")
+        .register();
+
+    private static final ExecutorService EXECUTOR;
+
+    static {
+        var counter = new AtomicInteger(1);
+        EXECUTOR = new ThreadPoolExecutor(0, MAX_THREADS, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            var thread = new Thread(r, "slot-task-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private SlotsExecutor() {}
+
+    /**
+     * Submits slot task. Task is cancelled cooperatively: thread running it is interrupted.
+     * Throws RejectedExecutionException if there are too many running tasks.
+     */
+    public static Task submit(Kind kind, Runnable body) throws RejectedExecutionException {
+        var task = new Task(kind, body);
+        try {
+            EXECUTOR.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected(kind);
+            throw e;
+        }
+        return task;
+    }
+
+    @VisibleForTesting
+    static void setMaxThreads(int maxThreads) {
+        ((ThreadPoolExecutor) EXECUTOR).setMaximumPoolSize(maxThreads);
+    }
+
+    @VisibleForTesting
+    static int activeTasks(Kind kind) {
+        return (int) ACTIVE_TASKS.labels(kind.label).get();
+    }
+
+    static void rejected(Kind kind) {
+        REJECTED_TASKS.labels(kind.label).inc();
+    }
+
+    public enum Kind {
+        INPUT("input"),
+        PREPARE_OUTPUT("prepare_output"),
+        READ("read"),
+        RANGE_READ("range_read");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+    }
+
+    public static final class Task implements Runnable {
+        private final Kind kind;
+        private final Runnable body;
+
+        @Nullable
+        private Thread runner = null;  // Guarded by this
+        private boolean cancelled = false;  // Guarded by this
+        private boolean done = false;  // Guarded by this
+
+        private Task(Kind kind, Runnable body) {
+            this.kind = kind;
+            this.body = body;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                runner = Thread.currentThread();
+                if (cancelled) {
+                    runner.interrupt();  // Cancelled before start, let body see it
+                }
+            }
+
+            ACTIVE_TASKS.labels(kind.label).inc();
+            try {
+                body.run();
+            } finally {
+                ACTIVE_TASKS.labels(kind.label).dec();
+
+                synchronized (this) {
+                    runner = null;
+                    done = true;
+                    //noinspection ResultOfMethodCallIgnored
+                    Thread.interrupted();  // Do not leak interruption to the next task of this thread
+                }
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+
+        synchronized boolean isDone() {
+            return done;
+        }
+    }
+}
@@ -38,13 +38,37 @@ public class SlotsService extends LzySlotsApiGrpc.LzySlotsApiImplBase {
         }
 
         try {
-            slot.read(request.getOffset(), responseObserver);
+            slot.read(request.getOffset(), request.getLength(), responseObserver);
         } catch (Exception e) {
             LOG.error("Failed to read from slot", e);
             responseObserver.onError(Status.INTERNAL.asException());
         }
     }
 
+    @Override
+    public void getDataSize(LSA.GetDataSizeRequest request,
+                            StreamObserver<LSA.GetDataSizeResponse> responseObserver)
+    {
+        var slot = slots.get(request.getPeerId());
+        if (slot == null) {
+            LOG.error("Slot not found: {}", request.getPeerId());
+            responseObserver.onError(Status.NOT_FOUND.asException());
+            return;
+        }
+
+        final long size;
+        try {
+            size = slot.dataSize();
+        } catch (Exception e) {
+            LOG.error("Failed to get data size of slot", e);
+            responseObserver.onError(Status.INTERNAL.asException());
+            return;
+        }
+
+        responseObserver.onNext(LSA.GetDataSizeResponse.newBuilder().setSize(size).build());
+        responseObserver.onCompleted();
+    }
+
     @Override
     public void startTransfer(StartTransferRequest request, StreamObserver<StartTransferResponse> responseObserver) {
         LOG.info("Start transfer request: {}", TextFormat.printer().shortDebugString(request));
@@ -34,6 +34,11 @@ public class FileInputBackend implements InputSlotBackend {
         return FileChannel.open(path, StandardOpenOption.WRITE);
     }
 
+    @Override
+    public Path localPath() {
+        return path;
+    }
+
     @Override
     public synchronized OutputSlotBackend toOutput() {
         if (closed.get()) {
@@ -1,11 +1,22 @@
 package ai.lzy.slots.backends;
 
+import jakarta.annotation.Nullable;
+
 import java.io.IOException;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
 
 public interface InputSlotBackend {
     SeekableByteChannel openChannel() throws IOException;
 
+    /**
+     * Local file with slot data, or null if data is not stored in a file
+     */
+    @Nullable
+    default Path localPath() {
+        return null;
+    }
+
     // Closes input slot and returns output slot
     OutputSlotBackend toOutput();
 
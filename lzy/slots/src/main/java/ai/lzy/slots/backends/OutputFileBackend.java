@@ -3,6 +3,7 @@ package ai.lzy.slots.backends;
 import java.io.IOException;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 
@@ -27,6 +28,11 @@ public class OutputFileBackend implements OutputSlotBackend {
         return channel;
     }
 
+    @Override
+    public long size() throws IOException {
+        return Files.size(path);
+    }
+
     @Override
     public void close() throws IOException {}
 }
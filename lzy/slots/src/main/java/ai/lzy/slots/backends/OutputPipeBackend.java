@@ -1,5 +1,6 @@
 package ai.lzy.slots.backends;
 
+import jakarta.annotation.Nullable;
 import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -8,6 +9,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
@@ -17,13 +20,33 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 public class OutputPipeBackend implements OutputSlotBackend {
     public static final Logger LOG = LogManager.getLogger(OutputPipeBackend.class);
+    private static final ThreadGroup PIPE_READERS_TG = new ThreadGroup("OutputPipeReaders");
+    private static final int COPY_BUFFER_SIZE = 1 << 20;  // 1MB
 
     private final Path pipePath;
     private final File storageFile;
     private final AtomicBoolean isReady = new AtomicBoolean(false);
 
+    // Streaming mode: pipe is copied to storage file in background, readers follow the tail of the file
+    private final boolean streaming;
+    @Nullable
+    private final Thread copyThread;
+    private final Object lock = new Object();
+    private long written = 0;  // Guarded by lock
+    private boolean completed = false;  // Guarded by lock
+    private boolean pipeOpening = false;  // Guarded by lock
+    private boolean pipeOpened = false;  // Guarded by lock
+    private boolean closed = false;  // Guarded by lock
+    @Nullable
+    private Exception failure = null;  // Guarded by lock
+
     public OutputPipeBackend(Path pipePath) throws IOException, InterruptedException {
+        this(pipePath, false);
+    }
+
+    public OutputPipeBackend(Path pipePath, boolean streaming) throws IOException, InterruptedException {
         this.pipePath = pipePath;
+        this.streaming = streaming;
         storageFile = File.createTempFile("storage", ".tmp");
 
         if (!pipePath.getParent().toFile().exists()) {
@@ -37,23 +60,36 @@ public class OutputPipeBackend implements OutputSlotBackend {
             throw new RuntimeException("Failed to create named pipe '%s': %d"
                 .formatted(pipePath.toAbsolutePath().toString(), res));
         }
-    }
 
-    @Override
-    public synchronized void waitCompleted() throws IOException { // Synchronized to prevent multiple writing
-        if (isReady.get()) {
-            return;
+        if (streaming) {
+            copyThread = new Thread(PIPE_READERS_TG, this::copyFromPipe, "pipe-reader-%s".formatted(pipePath));
+            copyThread.setDaemon(true);
+            copyThread.start();
+        } else {
+            copyThread = null;
         }
+    }
 
-        try (var is = new FileInputStream(pipePath.toFile()); var os = new FileOutputStream(storageFile)) {
-            IOUtils.copyLarge(is, os);
+    @Override
+    public void waitCompleted() throws IOException {
+        if (streaming) {
+            waitStreamCompleted();
+        } else {
+            copyPipe();
         }
+    }
 
-        isReady.set(true);
+    @Override
+    public boolean streaming() {
+        return streaming;
     }
 
     @Override
     public ReadableByteChannel readFromOffset(long offset) throws IOException {
+        if (streaming) {
+            return new TailReadChannel(offset);
+        }
+
         assert isReady.get();  // Must be called only after data is ready
 
         var channel = FileChannel.open(storageFile.toPath(), StandardOpenOption.READ);
@@ -61,9 +97,215 @@ public class OutputPipeBackend implements OutputSlotBackend {
         return channel;
     }
 
+    @Override
+    public long size() {
+        if (streaming) {
+            synchronized (lock) {
+                return completed ? written : -1;
+            }
+        }
+
+        return isReady.get() ? storageFile.length() : -1;
+    }
+
     @Override
     public void close() throws IOException {
+        final boolean blockedOnOpen;
+        synchronized (lock) {
+            closed = true;
+            if (!completed && failure == null) {
+                failure = new IOException("Pipe backend closed before data is ready");
+            }
+            blockedOnOpen = pipeOpening && !pipeOpened;
+            lock.notifyAll();
+        }
+
+        if (copyThread != null) {
+            copyThread.interrupt();
+        }
+
+        if (blockedOnOpen) {
+            // Reader is blocked in open(2) of the named pipe until someone opens it for write, unblock it
+            try (var ignored = new FileOutputStream(pipePath.toFile())) {
+                LOG.debug("Pipe {} closed before it was opened by writer", pipePath);
+            } catch (IOException e) {
+                LOG.warn("Cannot unblock reader of pipe {}: {}", pipePath, e.getMessage());
+            }
+        }
+
         storageFile.delete();
         pipePath.toFile().delete();
     }
+
+    private synchronized void copyPipe() throws IOException { // Synchronized to prevent multiple writing
+        if (isReady.get()) {
+            return;
+        }
+
+        onPipeOpening();
+        try (var is = new FileInputStream(pipePath.toFile()); var os = new FileOutputStream(storageFile)) {
+            onPipeOpened();
+            IOUtils.copyLarge(is, os);
+        }
+
+        synchronized (lock) {
+            if (closed) {
+                throw new IOException("Pipe backend closed before data is ready");
+            }
+        }
+
+        isReady.set(true);
+    }
+
+    private void waitStreamCompleted() throws IOException {
+        synchronized (lock) {
+            try {
+                while (!completed && failure == null) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for pipe " + pipePath);
+            }
+
+            if (failure != null) {
+                throw new IOException("Cannot read data from pipe " + pipePath, failure);
+            }
+        }
+    }
+
+    private void onPipeOpening() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                throw new IOException("Pipe backend is closed");
+            }
+            pipeOpening = true;
+        }
+    }
+
+    private void onPipeOpened() {
+        synchronized (lock) {
+            pipeOpened = true;
+        }
+    }
+
+    private void copyFromPipe() {
+        try {
+            onPipeOpening();
+        } catch (IOException e) {
+            return;  // Closed before start
+        }
+
+        try (var pipe = FileChannel.open(pipePath, StandardOpenOption.READ);
+             var storage = FileChannel.open(storageFile.toPath(), StandardOpenOption.WRITE))
+        {
+            onPipeOpened();
+
+            var buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+
+            while (pipe.read(buffer) != -1) {
+                buffer.flip();
+                var size = buffer.remaining();
+                while (buffer.hasRemaining()) {
+                    storage.write(buffer);
+                }
+                buffer.clear();
+
+                synchronized (lock) {
+                    if (failure != null) {
+                        return;  // Closed from outside
+                    }
+                    written += size;
+                    lock.notifyAll();
+                }
+            }
+
+            synchronized (lock) {
+                if (failure == null) {
+                    completed = true;
+                }
+                lock.notifyAll();
+            }
+
+            LOG.info("All data from pipe {} is written to {}", pipePath, storageFile);
+        } catch (Exception e) {
+            synchronized (lock) {
+                if (failure == null) {
+                    LOG.error("Error while reading from pipe {}: ", pipePath, e);
+                    failure = e;
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Reads data already written to storage file, blocks at the tail of file until more data is written
+     * or the pipe is closed by writer
+     */
+    private class TailReadChannel implements ReadableByteChannel {
+        private final FileChannel file;
+        private long position;
+
+        private TailReadChannel(long offset) throws IOException {
+            this.file = FileChannel.open(storageFile.toPath(), StandardOpenOption.READ);
+            this.position = offset;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (!dst.hasRemaining()) {
+                return 0;
+            }
+
+            final long available;
+            synchronized (lock) {
+                try {
+                    while (position >= written && !completed && failure == null) {
+                        lock.wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for data from pipe " + pipePath);
+                }
+
+                if (failure != null) {
+                    throw new IOException("Cannot read data from pipe " + pipePath, failure);
+                }
+
+                available = written - position;
+            }
+
+            if (available <= 0) {
+                return -1;
+            }
+
+            var limit = dst.limit();
+            if (dst.remaining() > available) {
+                dst.limit(dst.position() + (int) available);
+            }
+
+            final int read;
+            try {
+                read = file.read(dst, position);
+            } finally {
+                dst.limit(limit);
+            }
+
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return file.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
 }
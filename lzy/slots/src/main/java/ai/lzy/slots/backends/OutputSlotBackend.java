@@ -10,7 +10,22 @@ public interface OutputSlotBackend {
      */
     void waitCompleted() throws IOException;
 
+    /**
+     * If true, readFromOffset can be called before waitCompleted returns.
+     * Returned channel serves already written data and blocks at the tail until all data is written
+     */
+    default boolean streaming() {
+        return false;
+    }
+
     ReadableByteChannel readFromOffset(long offset) throws IOException;
 
+    /**
+     * Size of data in bytes, or -1 if data is not completed yet
+     */
+    default long size() throws IOException {
+        return -1;
+    }
+
     void close() throws IOException;
 }
@@ -0,0 +1,142 @@
+package ai.lzy.slots.transfers;
+
+import ai.lzy.util.grpc.ChannelBuilder;
+import ai.lzy.v1.slots.LzySlotsApiGrpc;
+import com.google.common.net.HostAndPort;
+import io.grpc.ManagedChannel;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of grpc channels to slots api of peer workers, keyed by peer host:port.
+ * Transfers from the same peer share one channel, so their streams are multiplexed over one HTTP/2
+ * connection instead of setting up a connection per transfer.
+ * <p>
+ * Channels are reference-counted and are closed after they are not used for idle timeout.
+ */
+public class SlotChannelPool {
+    private static final Logger LOG = LogManager.getLogger(SlotChannelPool.class);
+
+    private static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(1);
+    private static final int INITIAL_FLOW_CONTROL_WINDOW = 8 << 20;  // 8MB
+
+    private static final Gauge OPEN_CHANNELS = Gauge
+        .build("transfer_channels", "Open channels to slots of peer workers")
+        .subsystem("slots")
+        .register();
+
+    private static final Counter CREATED_CHANNELS = Counter
+        .build("transfer_channels_created", "Channels to slots of peer workers created")
+        .subsystem("slots")
+        .register();
+
+    private final Duration idleTimeout;
+    private final Map<HostAndPort, PooledChannel> channels = new HashMap<>();  // Guarded by this
+    private final ScheduledExecutorService cleaner = Executors.newSingleThreadScheduledExecutor(r -> {
+        var th = new Thread(r, "slot-channels-cleaner");
+        th.setDaemon(true);
+        return th;
+    });
+
+    public SlotChannelPool() {
+        this(DEFAULT_IDLE_TIMEOUT);
+    }
+
+    public SlotChannelPool(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+        cleaner.scheduleWithFixedDelay(this::closeIdle, idleTimeout.toMillis(), idleTimeout.toMillis() / 2,
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns channel to peer, which must be released with {@link Lease#close()} and must not be shut down.
+     */
+    public synchronized Lease acquire(String peerUrl) {
+        var address = HostAndPort.fromString(peerUrl);
+        var pooled = channels.get(address);
+        if (pooled == null) {
+            LOG.debug("Create channel to slots of {}", address);
+            pooled = new PooledChannel(ChannelBuilder.forAddress(address)
+                .usePlaintext()
+                .enableRetry(LzySlotsApiGrpc.SERVICE_NAME)
+                .initialFlowControlWindow(INITIAL_FLOW_CONTROL_WINDOW)
+                .build());
+            channels.put(address, pooled);
+            OPEN_CHANNELS.inc();
+            CREATED_CHANNELS.inc();
+        }
+
+        pooled.refs++;
+        return new Lease(pooled);
+    }
+
+    public synchronized void close() {
+        cleaner.shutdownNow();
+        channels.values().forEach(pooled -> pooled.channel.shutdownNow());
+        OPEN_CHANNELS.dec(channels.size());
+        channels.clear();
+    }
+
+    private synchronized void release(PooledChannel pooled) {
+        if (--pooled.refs == 0) {
+            pooled.idleSinceNanos = System.nanoTime();
+        }
+    }
+
+    private synchronized void closeIdle() {
+        var now = System.nanoTime();
+        var it = channels.entrySet().iterator();
+        while (it.hasNext()) {
+            var entry = it.next();
+            var pooled = entry.getValue();
+            if (pooled.refs == 0 && now - pooled.idleSinceNanos >= idleTimeout.toNanos()) {
+                LOG.debug("Close idle channel to slots of {}", entry.getKey());
+                pooled.channel.shutdown();
+                it.remove();
+                OPEN_CHANNELS.dec();
+            }
+        }
+    }
+
+    private static final class PooledChannel {
+        private final ManagedChannel channel;
+        private int refs = 0;  // Guarded by pool
+        private long idleSinceNanos;  // Guarded by pool
+
+        private PooledChannel(ManagedChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    public final class Lease implements AutoCloseable {
+        private final PooledChannel pooled;
+        private boolean released = false;  // Guarded by pool
+
+        private Lease(PooledChannel pooled) {
+            this.pooled = pooled;
+        }
+
+        public ManagedChannel channel() {
+            return pooled.channel;
+        }
+
+        @Override
+        public void close() {
+            synchronized (SlotChannelPool.this) {
+                if (!released) {
+                    released = true;
+                    release(pooled);
+                }
+            }
+        }
+    }
+}
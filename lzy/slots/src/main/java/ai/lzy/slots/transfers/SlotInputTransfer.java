@@ -1,46 +1,69 @@
 package ai.lzy.slots.transfers;
 
+import ai.lzy.slots.SlotsExecutor;
 import ai.lzy.util.grpc.GrpcUtils;
 import ai.lzy.v1.common.LC;
 import ai.lzy.v1.slots.LSA;
 import ai.lzy.v1.slots.LzySlotsApiGrpc;
-import io.grpc.ManagedChannel;
+import io.grpc.Context;
 import io.grpc.StatusRuntimeException;
+import jakarta.annotation.Nullable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.util.Iterator;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Supplier;
 
 import static ai.lzy.util.grpc.GrpcUtils.newBlockingClient;
-import static ai.lzy.util.grpc.GrpcUtils.newGrpcChannel;
 
 public class SlotInputTransfer implements InputTransfer, AutoCloseable {
     private static final Logger LOG = LogManager.getLogger(SlotInputTransfer.class);
 
     private static volatile int MAX_RETRY_ATTEMPTS = 15;
+    private static volatile int MAX_PARALLEL_STREAMS = 4;
+    private static volatile long MIN_RANGE_SIZE = 64L << 20;  // 64MB
 
     private final LC.PeerDescription peer;
-    private final ManagedChannel channel;
+    private final SlotChannelPool.Lease channel;
+    // channel is shared with other transfers, so calls of this transfer are cancelled with this context
+    private final Context.CancellableContext callsContext = Context.current().withCancellation();
     private final LzySlotsApiGrpc.LzySlotsApiBlockingStub stub;
     private long currentOffset;
     private Iterator<LSA.ReadDataChunk> stream;
     private int retryAttempt = 0;
+    private boolean rangesChecked = false;
+    @Nullable
+    private RangedDownload rangedDownload = null;
 
-    public SlotInputTransfer(LC.PeerDescription peer, long offset, Supplier<String> jwt) {
+    public SlotInputTransfer(LC.PeerDescription peer, long offset, Supplier<String> jwt, SlotChannelPool channels) {
         this.peer = peer;
         this.currentOffset = offset;
 
-        this.channel = newGrpcChannel(peer.getSlotPeer().getPeerUrl(), LzySlotsApiGrpc.SERVICE_NAME);
-        this.stub = newBlockingClient(LzySlotsApiGrpc.newBlockingStub(channel), "SlotsApi", jwt);
+        this.channel = channels.acquire(peer.getSlotPeer().getPeerUrl());
+        this.stub = newBlockingClient(LzySlotsApiGrpc.newBlockingStub(channel.channel()), "SlotsApi", jwt);
         LOG.info("Created SlotInputTransfer for peer {} at offset {}", peer.getPeerId(), offset);
     }
 
     @Override
     public int transferChunkTo(SeekableByteChannel outputStream) throws ReadException, IOException {
+        if (!rangesChecked) {
+            rangesChecked = true;
+            rangedDownload = tryStartRangedDownload(outputStream);
+        }
+
+        if (rangedDownload != null) {
+            var read = rangedDownload.awaitProgress();
+            if (read > 0) {
+                currentOffset += read;
+            }
+            return read;
+        }
+
         LSA.ReadDataChunk chunk = null;
         boolean done = false;
 
@@ -51,10 +74,15 @@ public class SlotInputTransfer implements InputTransfer, AutoCloseable {
         while (!done) {
             try {
                 if (stream == null) {  // Lazy creation of stream
-                    this.stream = stub.read(LSA.ReadDataRequest.newBuilder()
-                        .setPeerId(peer.getPeerId())
-                        .setOffset(currentOffset)
-                        .build());
+                    var previous = callsContext.attach();
+                    try {
+                        this.stream = stub.read(LSA.ReadDataRequest.newBuilder()
+                            .setPeerId(peer.getPeerId())
+                            .setOffset(currentOffset)
+                            .build());
+                    } finally {
+                        callsContext.detach(previous);
+                    }
                 }
 
                 if (!stream.hasNext()) {
@@ -92,22 +120,239 @@ public class SlotInputTransfer implements InputTransfer, AutoCloseable {
             return -1;
         }
 
-        outputStream.write(chunk.getChunk().asReadOnlyByteBuffer());
+        // Wraps received bytes without copying them
+        var data = chunk.getChunk().asReadOnlyByteBuffer();
+        while (data.hasRemaining()) {
+            outputStream.write(data);
+        }
 
         currentOffset += chunk.getChunk().size();
         return chunk.getChunk().size();
     }
 
-    public void close() {
-        channel.shutdownNow();
+    /**
+     * Splits the rest of data into ranges and reads them concurrently, if data size is known and big enough.
+     * Returns null if data must be read in one stream.
+     */
+    @Nullable
+    private RangedDownload tryStartRangedDownload(SeekableByteChannel outputStream) {
+        if (MAX_PARALLEL_STREAMS < 2 || !(outputStream instanceof FileChannel file)) {
+            return null;
+        }
+
+        final long size;
         try {
-            channel.awaitTermination(10, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            LOG.warn("Interrupted while waiting for channel to terminate", e);
+            size = stub.getDataSize(LSA.GetDataSizeRequest.newBuilder()
+                .setPeerId(peer.getPeerId())
+                .build()).getSize();
+        } catch (StatusRuntimeException e) {
+            LOG.info("Cannot get data size from peer {}, read in one stream: {}", peer.getPeerId(), e.getStatus());
+            return null;
+        }
+
+        var streams = size < 0 ? 0 : (int) Math.min(MAX_PARALLEL_STREAMS, (size - currentOffset) / MIN_RANGE_SIZE);
+        if (streams < 2) {
+            return null;
+        }
+
+        LOG.info("Read {} bytes from peer {} starting at offset {} in {} streams",
+            size - currentOffset, peer.getPeerId(), currentOffset, streams);
+        try {
+            return new RangedDownload(file, currentOffset, size, streams);
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Cannot start range readers for peer {}, read in one stream: {}", peer.getPeerId(),
+                e.getMessage());
+            return null;
         }
     }
 
+    public void close() {
+        if (rangedDownload != null) {
+            rangedDownload.cancel();
+        }
+
+        callsContext.cancel(null);
+        channel.close();
+    }
+
     public static void setMaxRetryAttempts(int maxRetryAttempts) {
         MAX_RETRY_ATTEMPTS = maxRetryAttempts;
     }
+
+    public static void setMaxParallelStreams(int maxParallelStreams) {
+        MAX_PARALLEL_STREAMS = maxParallelStreams;
+    }
+
+    public static void setMinRangeSize(long minRangeSize) {
+        MIN_RANGE_SIZE = minRangeSize;
+    }
+
+    /**
+     * Reads ranges of data concurrently and writes them positionally into file.
+     * Progress is reported only for the contiguous prefix of written data, so after failure transfer can be
+     * restarted from the reported offset.
+     * Range readers run in the shared slots executor. They are stopped by cancelling their calls, not by
+     * interruption, because interrupted write closes the file channel shared with the transfer.
+     */
+    private final class RangedDownload {
+        private final FileChannel sink;
+        private final long[] starts;
+        private final long[] ends;
+        private final AtomicLongArray written;
+        private final Context.CancellableContext rangesContext = callsContext.withCancellation();
+
+        private final Object lock = new Object();
+        private long reported;  // Guarded by lock
+        @Nullable
+        private Exception failure = null;  // Guarded by lock
+
+        private RangedDownload(FileChannel sink, long offset, long size, int streams) {
+            this.sink = sink;
+            this.starts = new long[streams];
+            this.ends = new long[streams];
+            this.written = new AtomicLongArray(streams);
+            this.reported = offset;
+
+            var rangeSize = (size - offset + streams - 1) / streams;
+            for (int i = 0; i < streams; ++i) {
+                starts[i] = offset + i * rangeSize;
+                ends[i] = Math.min(size, starts[i] + rangeSize);
+            }
+
+            try {
+                for (int i = 0; i < streams; ++i) {
+                    final int range = i;
+                    SlotsExecutor.submit(SlotsExecutor.Kind.RANGE_READ, rangesContext.wrap(() -> readRange(range)));
+                }
+            } catch (RejectedExecutionException e) {
+                // Already started readers write the same data, which is rewritten by the single stream
+                rangesContext.cancel(e);
+                throw e;
+            }
+        }
+
+        int awaitProgress() throws ReadException, IOException {
+            synchronized (lock) {
+                while (true) {
+                    if (failure instanceof ReadException e) {
+                        throw e;
+                    } else if (failure != null) {
+                        throw new IOException("Error while writing data from peer " + peer.getPeerId(), failure);
+                    }
+
+                    var watermark = contiguousWatermark();
+                    if (watermark > reported) {
+                        var read = (int) Math.min(watermark - reported, Integer.MAX_VALUE);
+                        reported += read;
+                        return read;
+                    }
+
+                    if (watermark == ends[ends.length - 1]) {
+                        return -1;
+                    }
+
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        LOG.warn("Interrupted while waiting for data from peer {}", peer.getPeerId());
+                        Thread.currentThread().interrupt();
+                        cancel();
+                        throw new IOException("Interrupted while waiting for data", e);
+                    }
+                }
+            }
+        }
+
+        void cancel() {
+            rangesContext.cancel(null);
+        }
+
+        private long contiguousWatermark() {
+            long watermark = starts[0];
+            for (int i = 0; i < starts.length; ++i) {
+                watermark = starts[i] + written.get(i);
+                if (watermark < ends[i]) {
+                    break;
+                }
+            }
+            return watermark;
+        }
+
+        private void readRange(int range) {
+            int attempt = 0;
+
+            while (!rangesContext.isCancelled()) {
+                var position = starts[range] + written.get(range);
+                if (position >= ends[range]) {
+                    return;
+                }
+
+                try {
+                    var stream = stub.read(LSA.ReadDataRequest.newBuilder()
+                        .setPeerId(peer.getPeerId())
+                        .setOffset(position)
+                        .setLength(ends[range] - position)
+                        .build());
+
+                    while (stream.hasNext()) {
+                        var chunk = stream.next();
+                        if (chunk.hasControl() && chunk.getControl().equals(LSA.ReadDataChunk.Control.EOS)) {
+                            break;
+                        }
+
+                        var data = chunk.getChunk().asReadOnlyByteBuffer();
+                        while (data.hasRemaining()) {
+                            position += sink.write(data, position);
+                        }
+
+                        written.addAndGet(range, chunk.getChunk().size());
+                        synchronized (lock) {
+                            lock.notifyAll();
+                        }
+                    }
+
+                    if (starts[range] + written.get(range) < ends[range]) {
+                        fail(new ReadException("Unexpected end of data from slot peer " + peer.getPeerId(), null));
+                    }
+                    return;
+                } catch (StatusRuntimeException e) {
+                    if (rangesContext.isCancelled()) {
+                        return;
+                    }
+
+                    if (!GrpcUtils.retryableStatusCode(e.getStatus()) || ++attempt > MAX_RETRY_ATTEMPTS) {
+                        LOG.error("Cannot read range [{}, {}) from peer {}: {}",
+                            starts[range], ends[range], peer.getPeerId(), e.getStatus());
+                        fail(new ReadException("Cannot read from slot peer " + peer.getPeerId(), e));
+                        return;
+                    }
+
+                    LOG.warn("Cannot read range [{}, {}) from peer {}, attempt #{}, retry after 1 sec, error: {}",
+                        starts[range], ends[range], peer.getPeerId(), attempt, e.getStatus());
+
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException ex) {
+                        fail(new IOException("Interrupted while waiting for retry", ex));
+                        return;
+                    }
+                } catch (Exception e) {
+                    LOG.error("Error while writing range [{}, {}) from peer {}: ",
+                        starts[range], ends[range], peer.getPeerId(), e);
+                    fail(e);
+                    return;
+                }
+            }
+        }
+
+        private void fail(Exception e) {
+            synchronized (lock) {
+                if (failure == null) {
+                    failure = e;
+                }
+                lock.notifyAll();
+            }
+            cancel();
+        }
+    }
 }
@@ -6,17 +6,30 @@ import ai.lzy.storage.StorageConfig;
 import ai.lzy.storage.StorageConfig.AzureBlobStorageCredentials;
 import ai.lzy.storage.StorageConfig.S3Credentials;
 import ai.lzy.v1.common.LC;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
-import java.nio.channels.Channels;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 
 public class StorageInputTransfer implements InputTransfer {
+    private static final Logger LOG = LogManager.getLogger(StorageInputTransfer.class);
+
+    private static volatile int CHUNK_SIZE = 64 << 20;  // 64MB
+
     private final LC.PeerDescription peer;
     private final StorageClient client;
+    private final URI uri;
+    private long currentOffset;
+    private long size = -1;
 
-    public StorageInputTransfer(LC.PeerDescription peer, StorageClientFactory factory) {
+    public StorageInputTransfer(LC.PeerDescription peer, long offset, StorageClientFactory factory) {
         this.peer = peer;
+        this.uri = URI.create(peer.getStoragePeer().getStorageUri());
+        this.currentOffset = offset;
 
         if (peer.getStoragePeer().hasAzure()) {
             var azure = new AzureBlobStorageCredentials(peer.getStoragePeer().getAzure().getConnectionString());
@@ -29,14 +42,81 @@ public class StorageInputTransfer implements InputTransfer {
     }
 
     @Override
-    public int transferChunkTo(SeekableByteChannel sink) throws ReadException {
+    public int transferChunkTo(SeekableByteChannel sink) throws ReadException, IOException {
+        try {
+            if (size < 0) {
+                size = client.blobSize(uri);
+            }
+        } catch (Exception e) {
+            throw new ReadException("Error while reading size of " + uri, e);
+        }
+
+        if (currentOffset >= size) {
+            return -1;
+        }
+
+        if (sink.position() != currentOffset) {
+            sink.position(currentOffset);
+        }
+
+        var length = (int) Math.min(CHUNK_SIZE, size - currentOffset);
+        var out = new ChannelOutputStream(sink);
+
         try {
-            client.read(URI.create(peer.getStoragePeer().getStorageUri()), Channels.newOutputStream(sink));
-            sink.close();
+            client.read(uri, currentOffset, length, out);
+        } catch (InterruptedException e) {
+            throw new IOException("Interrupted while reading from storage", e);
         } catch (Exception e) {
-            throw new ReadException("Error while reading from s3", e);
+            if (out.sinkFailure != null) {
+                throw out.sinkFailure;  // Error on backend side
+            }
+            throw new ReadException("Error while reading from storage " + uri + " at offset " + currentOffset, e);
+        }
+
+        if (out.written != length) {
+            throw new ReadException("Got %d bytes from storage %s at offset %d, expected %d"
+                .formatted(out.written, uri, currentOffset, length), null);
+        }
+
+        currentOffset += length;
+        LOG.info("Downloaded {}/{} bytes from storage peer {}", currentOffset, size, peer.getPeerId());
+
+        return length;
+    }
+
+    public static void setChunkSize(int chunkSize) {
+        CHUNK_SIZE = chunkSize;
+    }
+
+    /**
+     * Writes to sink without closing it, remembers sink errors to distinguish them from storage errors
+     */
+    private static final class ChannelOutputStream extends OutputStream {
+        private final SeekableByteChannel sink;
+        private long written = 0;
+        private IOException sinkFailure = null;
+
+        private ChannelOutputStream(SeekableByteChannel sink) {
+            this.sink = sink;
         }
 
-        return -1;
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            var buffer = ByteBuffer.wrap(b, off, len);
+            try {
+                while (buffer.hasRemaining()) {
+                    sink.write(buffer);
+                }
+            } catch (IOException e) {
+                sinkFailure = e;
+                throw e;
+            }
+            written += len;
+        }
     }
 }
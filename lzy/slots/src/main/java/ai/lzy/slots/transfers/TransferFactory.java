@@ -9,10 +9,14 @@ import java.util.function.Supplier;
 public class TransferFactory {
     private final StorageClientFactory clientFactory;
     private final Supplier<String> tokenSupplier;
+    private final SlotChannelPool slotChannels;
 
-    public TransferFactory(StorageClientFactory clientFactory, Supplier<String> tokenSupplier) {
+    public TransferFactory(StorageClientFactory clientFactory, Supplier<String> tokenSupplier,
+                           SlotChannelPool slotChannels)
+    {
         this.clientFactory = clientFactory;
         this.tokenSupplier = tokenSupplier;
+        this.slotChannels = slotChannels;
     }
 
     @Nullable
@@ -25,9 +29,9 @@ public class TransferFactory {
     }
     public InputTransfer input(LC.PeerDescription peer, long offset) {
         if (peer.hasStoragePeer()) {
-            return new StorageInputTransfer(peer, clientFactory);
+            return new StorageInputTransfer(peer, offset, clientFactory);
         } else {
-            return new SlotInputTransfer(peer, offset, tokenSupplier);
+            return new SlotInputTransfer(peer, offset, tokenSupplier, slotChannels);
         }
     }
 }
@@ -0,0 +1,219 @@
+package ai.lzy.slots;
+
+import ai.lzy.util.grpc.GrpcHeaders;
+import ai.lzy.v1.channel.LCMS;
+import ai.lzy.v1.channel.LzyChannelManagerGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.protobuf.StatusProto;
+import io.grpc.stub.StreamObserver;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ChannelManagerBatcherTest {
+    private ChannelManagerService service;
+    private Server server;
+    private ManagedChannel channel;
+    private ChannelManagerBatcher batcher;
+
+    @Before
+    public void setUp() throws Exception {
+        // Wide gap, so concurrent calls surely get into one batch
+        ChannelManagerBatcher.setBatchWindow(Duration.ofMillis(300), Duration.ofSeconds(1));
+
+        service = new ChannelManagerService();
+        var name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+            .addService(ServerInterceptors.intercept(service, service.keys))
+            .build()
+            .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        batcher = new ChannelManagerBatcher(LzyChannelManagerGrpc.newBlockingStub(channel));
+    }
+
+    @After
+    public void tearDown() {
+        ChannelManagerBatcher.setBatchWindow(Duration.ofMillis(2), Duration.ofMillis(20));
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    public void bindErrorsAreReportedPerItem() throws Exception {
+        var ok = CompletableFuture.supplyAsync(() -> batcher.bind(bindRequest("ok"), "key-ok"));
+        var failed = CompletableFuture.supplyAsync(() -> batcher.bind(bindRequest("fail"), "key-fail"));
+
+        Assert.assertEquals("ok", ok.get(5, TimeUnit.SECONDS).getTransferId());
+        var e = Assert.assertThrows(Exception.class, () -> failed.get(5, TimeUnit.SECONDS));
+        Assert.assertTrue(e.getCause() instanceof StatusRuntimeException);
+        Assert.assertEquals(Status.Code.NOT_FOUND, ((StatusRuntimeException) e.getCause()).getStatus().getCode());
+
+        Assert.assertEquals(1, service.bindManyCalls.get());
+    }
+
+    @Test
+    public void unbindErrorsAreReportedPerItem() throws Exception {
+        var ok = CompletableFuture.supplyAsync(() -> batcher.unbind(unbindRequest("ok"), "key-ok"));
+        var busy = CompletableFuture.supplyAsync(() -> batcher.unbind(unbindRequest("busy"), "key-busy"));
+
+        ok.get(5, TimeUnit.SECONDS);
+        var e = Assert.assertThrows(Exception.class, () -> busy.get(5, TimeUnit.SECONDS));
+        Assert.assertTrue(e.getCause() instanceof StatusRuntimeException);
+        Assert.assertEquals(Status.Code.UNAVAILABLE, ((StatusRuntimeException) e.getCause()).getStatus().getCode());
+
+        Assert.assertEquals(1, service.unbindManyCalls.get());
+    }
+
+    @Test
+    public void unbindBatchKeyDependsOnlyOnItsUnbinds() throws Exception {
+        for (var keys : List.of(List.of("key-a", "key-b"), List.of("key-b", "key-a"), List.of("key-a", "key-c"))) {
+            var first = CompletableFuture.runAsync(() -> batcher.unbind(unbindRequest("ok"), keys.get(0)));
+            var second = CompletableFuture.runAsync(() -> batcher.unbind(unbindRequest("ok"), keys.get(1)));
+            CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        }
+
+        var batchKeys = List.copyOf(service.unbindManyKeys);
+        Assert.assertEquals(3, batchKeys.size());
+        Assert.assertEquals(batchKeys.get(0), batchKeys.get(1));
+        Assert.assertNotEquals(batchKeys.get(0), batchKeys.get(2));
+    }
+
+    @Test
+    public void loneCallIsNotDelayedForWholeWindow() throws Exception {
+        ChannelManagerBatcher.setBatchWindow(Duration.ofMillis(10), Duration.ofSeconds(30));
+
+        var start = System.nanoTime();
+        batcher.unbind(unbindRequest("ok"), "key-ok");
+        Assert.assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(10)) < 0);
+    }
+
+    @Test
+    public void unbindFallbackKeepsIdempotencyKeyOfRetries() throws Exception {
+        service.batchesSupported = false;
+
+        // Batch is rejected, so unbinds of it are sent one by one
+        var ok = CompletableFuture.supplyAsync(() -> batcher.unbind(unbindRequest("ok"), "key-ok"));
+        var busy = CompletableFuture.supplyAsync(() -> batcher.unbind(unbindRequest("busy"), "key-busy"));
+        ok.get(5, TimeUnit.SECONDS);
+        Assert.assertThrows(Exception.class, () -> busy.get(5, TimeUnit.SECONDS));
+
+        // Retries of the same unbind are sent with the same key
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Assert.assertThrows(StatusRuntimeException.class, () -> batcher.unbind(unbindRequest("busy"), "key-busy"));
+        }
+
+        Assert.assertEquals(List.of("key-busy", "key-busy", "key-busy", "key-ok"),
+            service.unbindKeys.stream().sorted().toList());
+    }
+
+    private static LCMS.BindRequest bindRequest(String peerId) {
+        return LCMS.BindRequest.newBuilder()
+            .setPeerId(peerId)
+            .setChannelId("channel")
+            .setRole(LCMS.BindRequest.Role.CONSUMER)
+            .build();
+    }
+
+    private static LCMS.UnbindRequest unbindRequest(String peerId) {
+        return LCMS.UnbindRequest.newBuilder()
+            .setPeerId(peerId)
+            .setChannelId("channel")
+            .build();
+    }
+
+    private static final class ChannelManagerService extends LzyChannelManagerGrpc.LzyChannelManagerImplBase {
+        private volatile boolean batchesSupported = true;
+        private final AtomicInteger bindManyCalls = new AtomicInteger(0);
+        private final AtomicInteger unbindManyCalls = new AtomicInteger(0);
+        private final ConcurrentLinkedQueue<String> unbindKeys = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<String> unbindManyKeys = new ConcurrentLinkedQueue<>();
+
+        private final ServerInterceptor keys = new ServerInterceptor() {
+            @Override
+            public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                                                                         Metadata headers,
+                                                                         ServerCallHandler<ReqT, RespT> next)
+            {
+                if (call.getMethodDescriptor().equals(LzyChannelManagerGrpc.getUnbindMethod())) {
+                    unbindKeys.add(headers.get(GrpcHeaders.IDEMPOTENCY_KEY));
+                } else if (call.getMethodDescriptor().equals(LzyChannelManagerGrpc.getUnbindManyMethod())) {
+                    unbindManyKeys.add(headers.get(GrpcHeaders.IDEMPOTENCY_KEY));
+                }
+                return next.startCall(call, headers);
+            }
+        };
+
+        @Override
+        public void bindMany(LCMS.BindManyRequest request, StreamObserver<LCMS.BindManyResponse> response) {
+            if (!batchesSupported) {
+                response.onError(Status.UNIMPLEMENTED.asRuntimeException());
+                return;
+            }
+
+            bindManyCalls.incrementAndGet();
+            var builder = LCMS.BindManyResponse.newBuilder();
+            for (var item : request.getItemsList()) {
+                var peerId = item.getRequest().getPeerId();
+                if (peerId.equals("fail")) {
+                    builder.addResults(LCMS.BindManyResponse.Result.newBuilder()
+                        .setError(StatusProto.fromStatusAndTrailers(Status.NOT_FOUND, null)));
+                } else {
+                    builder.addResults(LCMS.BindManyResponse.Result.newBuilder()
+                        .setResponse(LCMS.BindResponse.newBuilder().setTransferId(peerId)));
+                }
+            }
+            response.onNext(builder.build());
+            response.onCompleted();
+        }
+
+        @Override
+        public void unbindMany(LCMS.UnbindManyRequest request, StreamObserver<LCMS.UnbindManyResponse> response) {
+            if (!batchesSupported) {
+                response.onError(Status.UNIMPLEMENTED.asRuntimeException());
+                return;
+            }
+
+            unbindManyCalls.incrementAndGet();
+            var builder = LCMS.UnbindManyResponse.newBuilder();
+            for (var req : request.getRequestsList()) {
+                if (req.getPeerId().equals("busy")) {
+                    builder.addResults(LCMS.UnbindManyResponse.Result.newBuilder()
+                        .setError(StatusProto.fromStatusAndTrailers(Status.UNAVAILABLE, null)));
+                } else {
+                    builder.addResults(LCMS.UnbindManyResponse.Result.newBuilder()
+                        .setResponse(LCMS.UnbindResponse.getDefaultInstance()));
+                }
+            }
+            response.onNext(builder.build());
+            response.onCompleted();
+        }
+
+        @Override
+        public void unbind(LCMS.UnbindRequest request, StreamObserver<LCMS.UnbindResponse> response) {
+            if (request.getPeerId().equals("busy")) {
+                response.onError(Status.UNAVAILABLE.asRuntimeException());
+                return;
+            }
+            response.onNext(LCMS.UnbindResponse.getDefaultInstance());
+            response.onCompleted();
+        }
+    }
+}
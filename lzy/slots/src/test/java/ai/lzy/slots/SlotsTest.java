@@ -6,6 +6,11 @@ import ai.lzy.slots.backends.InputSlotBackend;
 import ai.lzy.slots.backends.OutputFileBackend;
 import ai.lzy.slots.backends.OutputPipeBackend;
 import ai.lzy.slots.backends.OutputSlotBackend;
+import ai.lzy.slots.transfers.SlotChannelPool;
+import ai.lzy.slots.transfers.InputTransfer;
+import ai.lzy.slots.transfers.SlotInputTransfer;
+import ai.lzy.slots.transfers.StorageInputTransfer;
+import ai.lzy.storage.StorageClientFactory;
 import ai.lzy.util.grpc.RequestIdInterceptor;
 import ai.lzy.v1.channel.LCMS;
 import ai.lzy.v1.channel.LzyChannelManagerGrpc;
@@ -26,15 +31,22 @@ import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.prometheus.client.CollectorRegistry;
 import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
 import org.apache.commons.io.FileUtils;
 import org.junit.*;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
@@ -42,12 +54,19 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static ai.lzy.util.grpc.GrpcUtils.NO_AUTH_TOKEN;
@@ -186,6 +205,86 @@ public class SlotsTest {
         outSlot.close();
     }
 
+    @Test
+    public void testStreamingPipe() throws Exception {
+        var pipePath = Path.of(FS_ROOT, "test_streaming-out");
+        var backend = new OutputPipeBackend(pipePath, true);
+        Assert.assertTrue(backend.streaming());
+
+        var writer = new FileOutputStream(pipePath.toFile());
+        var reader = backend.readFromOffset(0);
+
+        writer.write("Hello".getBytes());
+        writer.flush();
+
+        // Data must be available before the writer closes the pipe
+        var buffer = ByteBuffer.allocate(1024);
+        var read = reader.read(buffer);
+        Assert.assertEquals("Hello", new String(buffer.array(), 0, read, StandardCharsets.UTF_8));
+
+        writer.write(" world".getBytes());
+        writer.close();
+        backend.waitCompleted();
+
+        buffer.clear();
+        read = reader.read(buffer);
+        Assert.assertEquals(" world", new String(buffer.array(), 0, read, StandardCharsets.UTF_8));
+        Assert.assertEquals(-1, reader.read(buffer));
+
+        reader.close();
+        backend.close();
+    }
+
+    @Test
+    public void testDataCache() throws Exception {
+        var cache = new SlotDataCache(Path.of(FS_ROOT, ".test-cache"), 10);
+
+        var first = Path.of(FS_ROOT, "test_cache-1");
+        Files.writeString(first, "Hello");
+        cache.put(SlotDataCache.storageKey("s3://bucket/1"), first);
+
+        var target = Path.of(FS_ROOT, "test_cache-target");
+        Assert.assertFalse(cache.materialize(SlotDataCache.storageKey("s3://bucket/2"), target));
+        Assert.assertTrue(cache.materialize(SlotDataCache.storageKey("s3://bucket/1"), target));
+        Assert.assertEquals("Hello", Files.readString(target));
+
+        // Does not fit into cache with the first entry, so the first one is evicted
+        var second = Path.of(FS_ROOT, "test_cache-2");
+        Files.writeString(second, "World!");
+        cache.put(SlotDataCache.channelKey("chan"), second);
+
+        Assert.assertFalse(cache.materialize(SlotDataCache.storageKey("s3://bucket/1"), target));
+        Assert.assertTrue(cache.materialize(SlotDataCache.channelKey("chan"), target));
+        Assert.assertEquals("World!", Files.readString(target));
+    }
+
+    @Test
+    public void testDataCacheKeepsPrivateCopies() throws Exception {
+        var cache = new SlotDataCache(Path.of(FS_ROOT, ".test-cache-copies"), 100);
+        var key = SlotDataCache.storageKey("s3://bucket/1");
+
+        var source = Path.of(FS_ROOT, "test_cache_copies-source");
+        Files.writeString(source, "Hello");
+        cache.put(key, source);
+
+        // Producer can still write its file, and it does not change cached data
+        Assert.assertTrue(Files.isWritable(source));
+        Files.writeString(source, "Changed");
+
+        var first = Path.of(FS_ROOT, "test_cache_copies-first");
+        var second = Path.of(FS_ROOT, "test_cache_copies-second");
+        Assert.assertTrue(cache.materialize(key, first));
+
+        // Consumer writes to its target, other consumers get original data
+        Files.writeString(first, "Corrupted");
+        Assert.assertTrue(cache.materialize(key, second));
+        Assert.assertEquals("Hello", Files.readString(second));
+
+        // Target is kept if there is nothing to materialize
+        Assert.assertFalse(cache.materialize(SlotDataCache.storageKey("s3://bucket/2"), second));
+        Assert.assertEquals("Hello", Files.readString(second));
+    }
+
     @Test
     public void testCannotBind() throws IOException {
         var inPath = genPath("test_cannot_bind-in");
@@ -255,6 +354,273 @@ public class SlotsTest {
         outSlot.close();
     }
 
+    @Test
+    public void testRangedRead() throws Exception {
+        var data = new byte[1 << 20];
+        new Random(42).nextBytes(data);
+
+        var outPath = genPath("test_ranged-out");
+        Files.write(outPath, data);
+        var inPath = genPath("test_ranged-in");
+
+        var outBind = channelManagerMock.onBind("2");
+        channelManagerMock.onUnbind("2").complete(LCMS.UnbindResponse.getDefaultInstance());
+        var outSlot = new OutputSlot(new OutputFileBackend(outPath), "2", "chan", executionContext.context());
+
+        outBind.get();
+        outBind.complete(LCMS.BindResponse.getDefaultInstance());
+
+        SlotInputTransfer.setMinRangeSize(128 << 10);
+        var channels = new SlotChannelPool();
+        var transfer = new SlotInputTransfer(LC.PeerDescription.newBuilder()
+            .setPeerId("2")
+            .setSlotPeer(LC.PeerDescription.SlotPeer.newBuilder()
+                .setPeerUrl(ADDRESS)
+                .build())
+            .build(), 0, () -> "", channels);
+
+        try (var sink = FileChannel.open(inPath, StandardOpenOption.WRITE)) {
+            long total = 0;
+            int read;
+            while ((read = transfer.transferChunkTo(sink)) != -1) {
+                total += read;
+            }
+            Assert.assertEquals(data.length, total);
+        } finally {
+            transfer.close();
+            channels.close();
+            SlotInputTransfer.setMinRangeSize(64L << 20);
+        }
+
+        Assert.assertArrayEquals(data, Files.readAllBytes(inPath));
+        outSlot.close();
+
+        // Range readers do not outlive the transfer
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (rangeReadersAlive() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(rangeReadersAlive());
+    }
+
+    private static boolean rangeReadersAlive() {
+        return SlotsExecutor.activeTasks(SlotsExecutor.Kind.RANGE_READ) > 0;
+    }
+
+    @Test
+    public void testInProcessRead() throws Exception {
+        // Every chunk has its own content, so chunk reusing buffer of the next one is detected
+        var chunksCount = 4;
+        var data = new byte[chunksCount * OutputSlot.CHUNK_SIZE + 1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i / OutputSlot.CHUNK_SIZE + 1);
+        }
+
+        var outPath = genPath("test_in_process-out");
+        Files.write(outPath, data);
+
+        var outBind = channelManagerMock.onBind("2");
+        channelManagerMock.onUnbind("2").complete(LCMS.UnbindResponse.getDefaultInstance());
+        var outSlot = new OutputSlot(new OutputFileBackend(outPath), "2", "chan", executionContext.context());
+
+        outBind.get();
+        outBind.complete(LCMS.BindResponse.getDefaultInstance());
+
+        var serverName = InProcessServerBuilder.generateName();
+        var inProcessServer = InProcessServerBuilder.forName(serverName)
+            .directExecutor()
+            .addService(slotsService)
+            .build()
+            .start();
+        var inProcessChannel = InProcessChannelBuilder.forName(serverName)
+            .directExecutor()
+            .build();
+
+        try {
+            var chunks = LzySlotsApiGrpc.newBlockingStub(inProcessChannel).read(LSA.ReadDataRequest.newBuilder()
+                .setPeerId("2")
+                .setOffset(0)
+                .build());
+
+            // In-process transport passes messages by reference, so chunks are checked only after
+            // the whole stream is read, when pooled buffer was already reused by later chunks
+            var received = new ArrayList<LSA.ReadDataChunk>();
+            chunks.forEachRemaining(received::add);
+
+            var out = new ByteArrayOutputStream();
+            for (var chunk : received) {
+                if (chunk.hasChunk()) {
+                    chunk.getChunk().writeTo(out);
+                }
+            }
+            Assert.assertTrue(received.size() > chunksCount);
+            Assert.assertArrayEquals(data, out.toByteArray());
+        } finally {
+            inProcessChannel.shutdownNow();
+            inProcessServer.shutdownNow();
+            outSlot.close();
+        }
+    }
+
+    @Test
+    public void testReadsOverLimitAreQueued() throws Exception {
+        var gate = new CountDownLatch(1);
+        var opened = new AtomicInteger(0);
+        var outBack = new InMemBackend("Hello".getBytes()) {
+            @Override
+            public ReadableByteChannel readFromOffset(long offset) throws IOException {
+                opened.incrementAndGet();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return super.readFromOffset(offset);
+            }
+        };
+
+        var outBind = channelManagerMock.onBind("queued-out");
+        channelManagerMock.onUnbind("queued-out").complete(LCMS.UnbindResponse.getDefaultInstance());
+        var outSlot = new OutputSlot(outBack, "queued-out", "chan", executionContext.context());
+        outBind.get();
+        outBind.complete(LCMS.BindResponse.getDefaultInstance());
+
+        var reads = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 0; i < OutputSlot.MAX_CONCURRENT_READS + 4; i++) {
+            var done = new CompletableFuture<Void>();
+            reads.add(done);
+            outSlot.read(0, 0, new StreamObserver<>() {
+                @Override
+                public void onNext(LSA.ReadDataChunk value) {}
+
+                @Override
+                public void onError(Throwable t) {
+                    done.completeExceptionally(t);
+                }
+
+                @Override
+                public void onCompleted() {
+                    done.complete(null);
+                }
+            });
+        }
+
+        try {
+            var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (opened.get() < OutputSlot.MAX_CONCURRENT_READS && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(100);
+
+            // Reads over the limit are not rejected, they wait for running ones
+            Assert.assertEquals(OutputSlot.MAX_CONCURRENT_READS, opened.get());
+            Assert.assertTrue(reads.stream().noneMatch(CompletableFuture::isDone));
+        } finally {
+            gate.countDown();
+        }
+
+        CompletableFuture.allOf(reads.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(OutputSlot.MAX_CONCURRENT_READS + 4, opened.get());
+        outSlot.close();
+    }
+
+    @Test
+    public void testSlotsFailWhenExecutorIsSaturated() throws Exception {
+        var release = new CountDownLatch(1);
+        var blockers = new ArrayList<SlotsExecutor.Task>();
+
+        SlotsExecutor.setMaxThreads(4);
+        try {
+            try {
+                while (true) {
+                    blockers.add(SlotsExecutor.submit(SlotsExecutor.Kind.READ, () -> {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+                }
+            } catch (RejectedExecutionException e) {
+                // All threads of executor are busy
+            }
+
+            var inBack = new InMemBackend(new byte[16]);
+            var inSlot = new InputSlot(inBack, "saturated-in", "chan", executionContext.context());
+            var inError = Assert.assertThrows(ExecutionException.class, () -> inSlot.beforeExecution().get());
+            Assert.assertTrue(inError.getCause() instanceof IllegalStateException);
+            inSlot.close();
+
+            var outBack = new InMemBackend("Hello".getBytes());
+            var outSlot = new OutputSlot(outBack, "saturated-out", "chan", executionContext.context());
+            Assert.assertThrows(ExecutionException.class, () -> outSlot.beforeExecution().get());
+            Assert.assertThrows(ExecutionException.class, () -> outSlot.afterExecution().get());
+
+            // Slots were not bound, so they are closed without unbind
+            outSlot.close();
+        } finally {
+            release.countDown();
+            SlotsExecutor.setMaxThreads(SlotsExecutor.MAX_THREADS);
+        }
+
+        Assert.assertFalse(blockers.isEmpty());
+    }
+
+    @Test
+    public void testSlotChannelPool() {
+        var channels = new SlotChannelPool();
+        try (var first = channels.acquire(ADDRESS); var second = channels.acquire(ADDRESS)) {
+            Assert.assertSame(first.channel(), second.channel());
+            first.close();
+            Assert.assertFalse(second.channel().isShutdown());
+        }
+
+        // released channel is kept for the next transfers from the same peer
+        try (var third = channels.acquire(ADDRESS)) {
+            Assert.assertFalse(third.channel().isShutdown());
+        } finally {
+            channels.close();
+        }
+    }
+
+    @Test
+    public void testSlotChannelPoolClosesIdleChannels() throws Exception {
+        var channels = new SlotChannelPool(Duration.ofMillis(100));
+        try {
+            var opened = openTransferChannels();
+
+            final ManagedChannel idle;
+            try (var lease = channels.acquire(ADDRESS)) {
+                idle = lease.channel();
+                Assert.assertEquals(opened + 1, openTransferChannels(), 0.0);
+
+                // channel in use is not closed
+                Thread.sleep(300);
+                Assert.assertFalse(idle.isShutdown());
+            }
+
+            var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!idle.isShutdown() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertTrue(idle.isShutdown());
+            Assert.assertEquals(opened, openTransferChannels(), 0.0);
+
+            // evicted channel is replaced by a new one
+            try (var lease = channels.acquire(ADDRESS)) {
+                Assert.assertNotSame(idle, lease.channel());
+                Assert.assertFalse(lease.channel().isShutdown());
+                Assert.assertEquals(opened + 1, openTransferChannels(), 0.0);
+            }
+        } finally {
+            channels.close();
+        }
+    }
+
+    private static double openTransferChannels() {
+        return CollectorRegistry.defaultRegistry.getSampleValue("slots_transfer_channels");
+    }
+
     @Test
     public void testFailOnInputBackend() {
         var inBack = new InMemBackend(new byte[1024]);
@@ -427,6 +793,38 @@ public class SlotsTest {
         inSlot.close();
     }
 
+    @Test
+    public void testChunkedReadFromStorage() throws Exception {
+        s3Client.createBucket("bucket-chunked");
+        var data = "0123456789".repeat(250);
+        writeToS3("s3://bucket-chunked/key1", data);
+
+        var factory = new StorageClientFactory(1, 1);
+        StorageInputTransfer.setChunkSize(1024);
+        try {
+            var first = new StorageInputTransfer(storagePeer("s3://bucket-chunked/key1"), 0, factory);
+            var sink = new SeekableInMemoryByteChannel();
+            Assert.assertEquals(1024, first.transferChunkTo(sink));
+            Assert.assertEquals(data.substring(0, 1024), contentOf(sink));
+
+            // Transfer is resumed from offset, data before it is not read again
+            var prefix = "x".repeat(1024);
+            sink = new SeekableInMemoryByteChannel(prefix.getBytes(StandardCharsets.UTF_8));
+            var resumed = new StorageInputTransfer(storagePeer("s3://bucket-chunked/key1"), 1024, factory);
+            Assert.assertEquals(1024, resumed.transferChunkTo(sink));
+            Assert.assertEquals(452, resumed.transferChunkTo(sink));
+            Assert.assertEquals(-1, resumed.transferChunkTo(sink));
+            Assert.assertEquals(prefix + data.substring(1024), contentOf(sink));
+
+            var missing = new StorageInputTransfer(storagePeer("s3://bucket-chunked/missing"), 0, factory);
+            Assert.assertThrows(InputTransfer.ReadException.class,
+                () -> missing.transferChunkTo(new SeekableInMemoryByteChannel()));
+        } finally {
+            StorageInputTransfer.setChunkSize(64 << 20);
+            factory.destroy();
+        }
+    }
+
     @Test
     public void testWriteToStorage() throws ExecutionException, InterruptedException, IOException {
         s3Client.createBucket("bucket-write");
@@ -950,6 +1348,22 @@ public class SlotsTest {
         return new String(obj.getObjectContent().readAllBytes(), StandardCharsets.UTF_8);
     }
 
+    private static LC.PeerDescription storagePeer(String uri) {
+        return LC.PeerDescription.newBuilder()
+            .setPeerId("storage")
+            .setStoragePeer(LC.PeerDescription.StoragePeer.newBuilder()
+                .setS3(LMST.S3Credentials.newBuilder()
+                    .setEndpoint(S3_ADDRESS)
+                    .build())
+                .setStorageUri(uri)
+                .build())
+            .build();
+    }
+
+    private static String contentOf(SeekableInMemoryByteChannel channel) {
+        return new String(channel.array(), 0, (int) channel.size(), StandardCharsets.UTF_8);
+    }
+
     public void writeToS3(String uri, String data) {
         var url = new AmazonS3URI(uri);
 
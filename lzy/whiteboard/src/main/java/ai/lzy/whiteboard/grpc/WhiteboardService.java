@@ -17,6 +17,7 @@ import ai.lzy.whiteboard.storage.WhiteboardStorage;
 import com.google.protobuf.Any;
 import com.google.protobuf.Message;
 import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import jakarta.annotation.Nullable;
 import jakarta.inject.Inject;
@@ -25,15 +26,17 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.stream.Stream;
 
 import static ai.lzy.longrunning.IdempotencyUtils.handleIdempotencyKeyConflict;
 import static ai.lzy.longrunning.IdempotencyUtils.loadExistingOpResult;
@@ -45,6 +48,8 @@ import static ai.lzy.whiteboard.grpc.ProtoValidator.isValid;
 public class WhiteboardService extends LzyWhiteboardServiceGrpc.LzyWhiteboardServiceImplBase {
 
     private static final Logger LOG = LogManager.getLogger(WhiteboardService.class);
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int DEFAULT_STREAM_PAGE_SIZE = 100;
 
     private final AccessManager accessManager;
     private final WhiteboardStorage whiteboardStorage;
@@ -111,29 +116,16 @@ public class WhiteboardService extends LzyWhiteboardServiceGrpc.LzyWhiteboardSer
         LOG.info("List whiteboards");
 
         try {
-            final var authenticationContext = AuthenticationContext.current();
-            final String userId = Objects.requireNonNull(authenticationContext).getSubject().id();
-
-            @Nullable String name = request.getName().isBlank() ? null : request.getName();
-            List<String> tags = request.getTagsList();
-            @Nullable Instant createdAtLowerBound = null;
-
-            if (request.hasCreatedTimeBounds() && request.getCreatedTimeBounds().hasFrom()) {
-                createdAtLowerBound = ai.lzy.util.grpc.ProtoConverter.fromProto(
-                    request.getCreatedTimeBounds().getFrom());
+            if (request.getPageSize() < 0) {
+                throw new IllegalArgumentException("Page size must not be negative");
             }
 
-            @Nullable Instant createdAtUpperBound = null;
-            if (request.hasCreatedTimeBounds() && request.getCreatedTimeBounds().hasTo()) {
-                createdAtUpperBound = ai.lzy.util.grpc.ProtoConverter.fromProto(request.getCreatedTimeBounds().getTo());
-            }
-
-            Stream<Whiteboard> whiteboards = whiteboardStorage.listWhiteboards(userId, name, tags,
-                createdAtLowerBound, createdAtUpperBound, null);
+            // page size is not set by old clients, they expect all whiteboards in one response
+            int pageSize = request.getPageSize() == 0 ? 0 : Math.min(request.getPageSize(), MAX_PAGE_SIZE);
+            final var authenticationContext = AuthenticationContext.current();
+            final String userId = Objects.requireNonNull(authenticationContext).getSubject().id();
+            var response = listPage(request, userId, pageSize, parsePageToken(request.getPageToken()));
 
-            var response = LWBS.ListResponse.newBuilder()
-                .addAllWhiteboards(whiteboards.map(ProtoConverter::toProto).toList())
-                .build();
             responseObserver.onNext(response);
             LOG.info("List whiteboards done, {} found", response.getWhiteboardsCount());
             responseObserver.onCompleted();
@@ -146,6 +138,150 @@ public class WhiteboardService extends LzyWhiteboardServiceGrpc.LzyWhiteboardSer
         }
     }
 
+    @Override
+    public void listStream(LWBS.ListRequest request, StreamObserver<LWBS.ListResponse> responseObserver) {
+        LOG.info("List whiteboards (stream)");
+
+        var callObserver = (ServerCallStreamObserver<LWBS.ListResponse>) responseObserver;
+        try {
+            if (request.getPageSize() < 0) {
+                throw new IllegalArgumentException("Page size must not be negative");
+            }
+
+            int pageSize = request.getPageSize() == 0 ? DEFAULT_STREAM_PAGE_SIZE
+                : Math.min(request.getPageSize(), MAX_PAGE_SIZE);
+            final var authenticationContext = AuthenticationContext.current();
+            final String userId = Objects.requireNonNull(authenticationContext).getSubject().id();
+
+            var sender = new ListStreamSender(request, userId, pageSize, parsePageToken(request.getPageToken()),
+                callObserver);
+            // pages are sent only while the client keeps up with them, the rest are sent when it is ready again
+            callObserver.setOnReadyHandler(sender);
+            callObserver.setOnCancelHandler(sender::cancel);
+            sender.run();
+        } catch (IllegalArgumentException e) {
+            LOG.error("List whiteboards (stream) failed, invalid argument: {}", e.getMessage(), e);
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asException());
+        } catch (Exception e) {
+            LOG.error("List whiteboards (stream) failed, got exception: {}", e.getMessage(), e);
+            responseObserver.onError(Status.INTERNAL.withCause(e).asException());
+        }
+    }
+
+    private final class ListStreamSender implements Runnable {
+        private final LWBS.ListRequest request;
+        private final String userId;
+        private final int pageSize;
+        private final ServerCallStreamObserver<LWBS.ListResponse> responseObserver;
+
+        @Nullable
+        private WhiteboardStorage.ListCursor cursor;
+        private int found = 0;
+        private boolean done = false;
+
+        ListStreamSender(LWBS.ListRequest request, String userId, int pageSize,
+                         @Nullable WhiteboardStorage.ListCursor cursor,
+                         ServerCallStreamObserver<LWBS.ListResponse> responseObserver)
+        {
+            this.request = request;
+            this.userId = userId;
+            this.pageSize = pageSize;
+            this.cursor = cursor;
+            this.responseObserver = responseObserver;
+        }
+
+        @Override
+        public synchronized void run() {
+            if (done) {
+                return;
+            }
+
+            try {
+                while (responseObserver.isReady() && !responseObserver.isCancelled()) {
+                    var page = listPage(request, userId, pageSize, cursor);
+                    found += page.getWhiteboardsCount();
+                    responseObserver.onNext(page);
+
+                    if (page.getNextPageToken().isEmpty()) {
+                        done = true;
+                        LOG.info("List whiteboards (stream) done, {} found", found);
+                        responseObserver.onCompleted();
+                        return;
+                    }
+                    cursor = parsePageToken(page.getNextPageToken());
+                }
+            } catch (Exception e) {
+                done = true;
+                LOG.error("List whiteboards (stream) failed, got exception: {}", e.getMessage(), e);
+                responseObserver.onError(Status.INTERNAL.withCause(e).asException());
+            }
+        }
+
+        synchronized void cancel() {
+            if (!done) {
+                done = true;
+                LOG.info("List whiteboards (stream) cancelled, {} sent", found);
+            }
+        }
+    }
+
+    private LWBS.ListResponse listPage(LWBS.ListRequest request, String userId, int pageSize,
+                                       @Nullable WhiteboardStorage.ListCursor after) throws SQLException
+    {
+        @Nullable String name = request.getName().isBlank() ? null : request.getName();
+        List<String> tags = request.getTagsList();
+        @Nullable Instant createdAtLowerBound = null;
+
+        if (request.hasCreatedTimeBounds() && request.getCreatedTimeBounds().hasFrom()) {
+            createdAtLowerBound = ai.lzy.util.grpc.ProtoConverter.fromProto(
+                request.getCreatedTimeBounds().getFrom());
+        }
+
+        @Nullable Instant createdAtUpperBound = null;
+        if (request.hasCreatedTimeBounds() && request.getCreatedTimeBounds().hasTo()) {
+            createdAtUpperBound = ai.lzy.util.grpc.ProtoConverter.fromProto(request.getCreatedTimeBounds().getTo());
+        }
+
+        // one more whiteboard is fetched to find out whether there is a next page
+        List<Whiteboard> whiteboards = whiteboardStorage.listWhiteboards(userId, name, tags,
+            createdAtLowerBound, createdAtUpperBound, after, pageSize > 0 ? pageSize + 1 : 0, null).toList();
+
+        var response = LWBS.ListResponse.newBuilder();
+        if (pageSize > 0 && whiteboards.size() > pageSize) {
+            whiteboards = whiteboards.subList(0, pageSize);
+            var last = whiteboards.get(pageSize - 1);
+            response.setNextPageToken(pageToken(new WhiteboardStorage.ListCursor(last.createdAt(), last.id())));
+        }
+
+        return response
+            .addAllWhiteboards(whiteboards.stream().map(ProtoConverter::toProto).toList())
+            .build();
+    }
+
+    private static String pageToken(WhiteboardStorage.ListCursor cursor) {
+        var token = cursor.createdAt().toString() + "/" + cursor.whiteboardId();
+        return Base64.getUrlEncoder().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Nullable
+    private static WhiteboardStorage.ListCursor parsePageToken(String pageToken) {
+        if (pageToken.isEmpty()) {
+            return null;
+        }
+
+        try {
+            var token = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+            var separator = token.indexOf('/');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid page token");
+            }
+            return new WhiteboardStorage.ListCursor(Instant.parse(token.substring(0, separator)),
+                token.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page token");
+        }
+    }
+
     @Override
     public void registerWhiteboard(RegisterWhiteboardRequest request,
                                    StreamObserver<RegisterWhiteboardResponse> responseObserver)
@@ -31,8 +31,26 @@ public interface WhiteboardStorage {
         return whiteboard;
     }
 
+    default Stream<Whiteboard> listWhiteboards(String userId, @Nullable String whiteboardName, List<String> tags,
+                                               @Nullable Instant createdAtLowerBound,
+                                               @Nullable Instant createdAtUpperBound,
+                                               @Nullable TransactionHandle transaction) throws SQLException
+    {
+        return listWhiteboards(userId, whiteboardName, tags, createdAtLowerBound, createdAtUpperBound,
+            /* after */ null, /* limit */ 0, transaction);
+    }
+
+    /**
+     * Lists whiteboards ordered by (createdAt, id).
+     *
+     * @param after position of the last whiteboard of the previous page, or null for the first page
+     * @param limit max number of whiteboards to return, non-positive means no limit
+     */
     Stream<Whiteboard> listWhiteboards(String userId, @Nullable String whiteboardName, List<String> tags,
                                        @Nullable Instant createdAtLowerBound, @Nullable Instant createdAtUpperBound,
+                                       @Nullable ListCursor after, int limit,
                                        @Nullable TransactionHandle transaction) throws SQLException;
 
+    record ListCursor(Instant createdAt, String whiteboardId) {}
+
 }
@@ -129,45 +129,74 @@ public class WhiteboardStorageImpl implements WhiteboardStorage {
     public Stream<Whiteboard> listWhiteboards(String userId, @Nullable String whiteboardName, List<String> tags,
                                               @Nullable Instant createdAtLowerBound,
                                               @Nullable Instant createdAtUpperBound,
+                                              @Nullable ListCursor after, int limit,
                                               @Nullable TransactionHandle transaction) throws SQLException
     {
-        LOG.debug("Listing whiteboards (userId={})", userId);
+        LOG.debug("Listing whiteboards (userId={}, after={}, limit={})", userId, after, limit);
 
         AtomicInteger index = new AtomicInteger(0);
         List<StatementModifier> statementConditionsSuffixFillers = new ArrayList<>();
-        String statementConditionsSuffix = "WHERE user_id = ?";
+        String statementConditionsSuffix = "WHERE wb.user_id = ?";
         statementConditionsSuffixFillers.add((conn, st) -> {
             st.setString(index.incrementAndGet(), userId);
             return st;
         });
         if (whiteboardName != null) {
-            statementConditionsSuffix += " AND whiteboard_name = ?";
+            statementConditionsSuffix += " AND wb.whiteboard_name = ?";
             statementConditionsSuffixFillers.add((conn, st) -> {
                 st.setString(index.incrementAndGet(), whiteboardName);
                 return st;
             });
         }
         if (!tags.isEmpty()) {
-            statementConditionsSuffix += " AND tags @> ?";
+            // tags of whiteboard are unique, so it has all requested ones iff all of them are matched
+            final var requiredTags = Set.copyOf(tags);
+            statementConditionsSuffix += """
+                 AND (
+                    SELECT COUNT(*) FROM whiteboard_tags t
+                    WHERE t.whiteboard_id = wb.whiteboard_id AND t.whiteboard_tag = ANY(?)
+                ) = ?""";
             statementConditionsSuffixFillers.add((conn, st) -> {
-                st.setArray(index.incrementAndGet(), conn.createArrayOf("varchar", tags.toArray()));
+                st.setArray(index.incrementAndGet(), conn.createArrayOf("varchar", requiredTags.toArray()));
+                st.setInt(index.incrementAndGet(), requiredTags.size());
                 return st;
             });
         }
         if (createdAtLowerBound != null) {
-            statementConditionsSuffix += " AND created_at >= ?";
+            statementConditionsSuffix += " AND wb.created_at >= ?";
             statementConditionsSuffixFillers.add((conn, st) -> {
                 st.setTimestamp(index.incrementAndGet(), Timestamp.from(createdAtLowerBound));
                 return st;
             });
         }
         if (createdAtUpperBound != null) {
-            statementConditionsSuffix += " AND created_at <= ?";
+            statementConditionsSuffix += " AND wb.created_at <= ?";
             statementConditionsSuffixFillers.add((conn, st) -> {
                 st.setTimestamp(index.incrementAndGet(), Timestamp.from(createdAtUpperBound));
                 return st;
             });
         }
+        if (after != null) {
+            statementConditionsSuffix += " AND (wb.created_at, wb.whiteboard_id) > (?, ?)";
+            statementConditionsSuffixFillers.add((conn, st) -> {
+                st.setTimestamp(index.incrementAndGet(), Timestamp.from(after.createdAt()));
+                st.setString(index.incrementAndGet(), after.whiteboardId());
+                return st;
+            });
+        }
+
+        // whiteboards without fields are not listed, as with inner join below
+        statementConditionsSuffix += """
+
+            AND EXISTS (SELECT 1 FROM whiteboard_fields f WHERE f.whiteboard_id = wb.whiteboard_id)
+            ORDER BY wb.created_at, wb.whiteboard_id""";
+        if (limit > 0) {
+            statementConditionsSuffix += " LIMIT ?";
+            statementConditionsSuffixFillers.add((conn, st) -> {
+                st.setInt(index.incrementAndGet(), limit);
+                return st;
+            });
+        }
 
         final String statementSuffix = statementConditionsSuffix;
         final StatementModifier statementSuffixFiller = statementConditionsSuffixFillers.stream()
@@ -175,6 +204,18 @@ public class WhiteboardStorageImpl implements WhiteboardStorage {
         final List<Whiteboard> whiteboards = new ArrayList<>();
         DbOperation.execute(transaction, dataSource, sqlConnection -> {
             try (final PreparedStatement st = sqlConnection.prepareStatement("""
+                WITH page AS (
+                    SELECT
+                        wb.*,
+                        (
+                            SELECT ARRAY_AGG(t.whiteboard_tag)
+                            FROM whiteboard_tags t
+                            WHERE t.whiteboard_id = wb.whiteboard_id
+                        ) as tags
+                    FROM whiteboards wb
+                """ + statementSuffix + """
+
+                )
                 SELECT
                     wb.whiteboard_id,
                     wb.whiteboard_name,
@@ -188,15 +229,11 @@ public class WhiteboardStorageImpl implements WhiteboardStorage {
                     wb.registered_at,
                     f.field_name as field_name,
                     f.data_scheme as field_data_scheme,
-                    t.tags as tags
-                FROM whiteboards wb
+                    wb.tags as tags
+                FROM page wb
                 INNER JOIN whiteboard_fields f ON wb.whiteboard_id = f.whiteboard_id
-                LEFT JOIN (
-                    SELECT whiteboard_id, ARRAY_AGG(whiteboard_tag) as tags
-                    FROM whiteboard_tags
-                    GROUP BY whiteboard_id
-                ) t ON wb.whiteboard_id = t.whiteboard_id
-                """ + statementSuffix)
+                ORDER BY wb.created_at, wb.whiteboard_id
+                """)
             )
             {
                 statementSuffixFiller.apply(sqlConnection, st);
@@ -284,7 +321,7 @@ public class WhiteboardStorageImpl implements WhiteboardStorage {
     }
 
     private Stream<Whiteboard> parseWhiteboards(ResultSet rs) throws SQLException, JsonProcessingException {
-        Map<String, Whiteboard> whiteboardsById = new HashMap<>();
+        Map<String, Whiteboard> whiteboardsById = new LinkedHashMap<>();
         while (rs.next()) {
             final String whiteboardId = rs.getString("whiteboard_id");
             if (!whiteboardsById.containsKey(whiteboardId)) {
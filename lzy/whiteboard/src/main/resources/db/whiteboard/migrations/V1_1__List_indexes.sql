@@ -0,0 +1,7 @@
+CREATE INDEX IF NOT EXISTS whiteboards_user_id_created_at_idx
+    ON whiteboards(user_id, created_at, whiteboard_id);
+
+CREATE INDEX IF NOT EXISTS whiteboards_user_id_name_created_at_idx
+    ON whiteboards(user_id, whiteboard_name, created_at, whiteboard_id);
+
+DROP INDEX IF EXISTS whiteboards_user_id_idx;
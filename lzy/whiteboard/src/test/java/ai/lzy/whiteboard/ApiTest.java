@@ -35,6 +35,7 @@ import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -45,6 +46,7 @@ import static ai.lzy.model.grpc.ProtoConverter.toProto;
 import static ai.lzy.test.IdempotencyUtils.processIdempotentCallsConcurrently;
 import static ai.lzy.test.IdempotencyUtils.processIdempotentCallsSequentially;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class ApiTest extends IamOnlyWhiteboardContextTests {
@@ -433,6 +435,37 @@ public class ApiTest extends IamOnlyWhiteboardContextTests {
         assertEquals(2, listResult.getWhiteboardsCount());
     }
 
+    @Test
+    public void listWhiteboardsByPages() {
+        externalUserWhiteboardClient.registerWhiteboard(genCreateWhiteboardRequest("wb1", List.of("t1")));
+        externalUserWhiteboardClient.registerWhiteboard(genCreateWhiteboardRequest("wb2", List.of("t2")));
+        externalUserWhiteboardClient.registerWhiteboard(genCreateWhiteboardRequest("wb3", List.of("t1", "t2")));
+        externalUser2WhiteboardClient.registerWhiteboard(genCreateWhiteboardRequest("wb", List.of("t1", "t2")));
+
+        var listResult = externalUserWhiteboardClient.list(LWBS.ListRequest.newBuilder().build());
+        assertEquals(3, listResult.getWhiteboardsCount());
+        assertTrue(listResult.getNextPageToken().isEmpty());
+
+        listResult = externalUserWhiteboardClient.list(LWBS.ListRequest.newBuilder().setPageSize(2).build());
+        assertEquals(2, listResult.getWhiteboardsCount());
+        assertFalse(listResult.getNextPageToken().isEmpty());
+
+        listResult = externalUserWhiteboardClient.list(LWBS.ListRequest.newBuilder()
+            .setPageSize(2).setPageToken(listResult.getNextPageToken()).build());
+        assertEquals(1, listResult.getWhiteboardsCount());
+        assertTrue(listResult.getNextPageToken().isEmpty());
+
+        var pages = new ArrayList<LWBS.ListResponse>();
+        externalUserWhiteboardClient.listStream(LWBS.ListRequest.newBuilder().setPageSize(1).build())
+            .forEachRemaining(pages::add);
+        assertEquals(3, pages.size());
+        assertEquals(3, pages.stream().mapToInt(LWBS.ListResponse::getWhiteboardsCount).sum());
+
+        var invalidToken = Assert.assertThrows(StatusRuntimeException.class, () -> externalUserWhiteboardClient.list(
+            LWBS.ListRequest.newBuilder().setPageToken("invalid").build()));
+        assertEquals(Status.INVALID_ARGUMENT.getCode(), invalidToken.getStatus().getCode());
+    }
+
 
     @Test
     public void createWhiteboardIdempotency() {
@@ -126,6 +126,32 @@ public class StorageTest {
             Instant.parse("2022-09-01T12:10:00.00Z"), Instant.parse("2022-09-01T12:10:00.00Z"), null).count());
     }
 
+    @Test
+    public void listWhiteboardsPaginated() throws SQLException {
+        final var userId = "uid1";
+        final var createdAt = Instant.parse("2022-09-01T12:00:00.00Z");
+
+        for (int i = 0; i < 5; i++) {
+            // two whiteboards with equal creation time on each page boundary
+            final var wb = genWhiteboard("id" + i, "name", Set.of("f"), Set.of("t"),
+                createdAt.plus(i / 2, ChronoUnit.MINUTES));
+            wbStorage.registerWhiteboard(userId, wb, Instant.now(), null);
+        }
+
+        final var firstPage = wbStorage.listWhiteboards(userId, null, List.of("t"), null, null, null, 2, null)
+            .map(Whiteboard::id).toList();
+        Assert.assertEquals(List.of("id0", "id1"), firstPage);
+
+        final var secondPage = wbStorage.listWhiteboards(userId, null, List.of("t"), null, null,
+            new WhiteboardStorage.ListCursor(createdAt, "id1"), 2, null).map(Whiteboard::id).toList();
+        Assert.assertEquals(List.of("id2", "id3"), secondPage);
+
+        final var lastPage = wbStorage.listWhiteboards(userId, "name", List.of(), null, null,
+            new WhiteboardStorage.ListCursor(createdAt.plus(1, ChronoUnit.MINUTES), "id2"), 2, null)
+            .map(Whiteboard::id).toList();
+        Assert.assertEquals(List.of("id3", "id4"), lastPage);
+    }
+
     private Whiteboard genWhiteboard(String id, String name, Set<String> fieldNames, Set<String> tags,
                                      Instant createdAt)
     {
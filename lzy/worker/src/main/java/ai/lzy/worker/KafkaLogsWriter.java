@@ -4,51 +4,234 @@ import ai.lzy.env.logs.LogWriter;
 import ai.lzy.util.kafka.KafkaHelper;
 import ai.lzy.v1.common.LMO;
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.apache.logging.log4j.Logger;
 
-import java.io.IOException;
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes logs to kafka asynchronously. Lines are coalesced into records of bounded size, which are sent
+ * by background thread at least every {@link #FLUSH_INTERVAL}. Writers are never blocked by kafka:
+ * if there are more than {@link #MAX_BUFFERED_BYTES} of not delivered logs, new lines are dropped,
+ * and the number of dropped bytes is reported in the stream.
+ */
+public class KafkaLogsWriter implements LogWriter, AutoCloseable {
+    static final int MAX_RECORD_SIZE = 512 * 1024;
+    static final long MAX_BUFFERED_BYTES = 32L * 1024 * 1024;
+    private static final Duration FLUSH_INTERVAL = Duration.ofMillis(100);
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(30);
 
-public class KafkaLogsWriter implements LogWriter {
     private final String taskId;
-    private final KafkaProducer<String, byte[]> kafkaClient;
+    private final Producer<String, byte[]> kafkaClient;
     private final String topic;
     private final Logger logger;
 
+    private final Map<String, StreamBuffer> streams = new LinkedHashMap<>();
+    // Bytes accepted by writeLines, but not delivered to kafka yet
+    private final AtomicLong buffered = new AtomicLong(0);
+    private final AtomicLong failedRecords = new AtomicLong(0);
+    private final ScheduledExecutorService flusher;
+    // Flush is scheduled, but not started yet, so there is no need to schedule another one
+    private final AtomicBoolean flushPending = new AtomicBoolean(false);
+
     public KafkaLogsWriter(LMO.KafkaTopicDescription topic, Logger log, String taskId, KafkaHelper helper) {
-        this.taskId = taskId;
-        var props = helper.toProperties(topic.getUsername(), topic.getPassword());
+        this(topic.getTopic(), log, taskId, createProducer(topic, helper));
+    }
 
-        this.kafkaClient = new KafkaProducer<>(props);
-        this.topic = topic.getTopic();
+    KafkaLogsWriter(String topic, Logger log, String taskId, Producer<String, byte[]> kafkaClient) {
+        this.taskId = taskId;
+        this.kafkaClient = kafkaClient;
+        this.topic = topic;
         this.logger = log;
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, "kafka-logs-" + taskId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL.toMillis(), FLUSH_INTERVAL.toMillis(),
+            TimeUnit.MILLISECONDS);
     }
 
     @Override
-    public void writeLines(String streamName, byte[] lines) throws IOException {
-        // Using single partition to manage global order of logs !!!
-        try {
-            var headers = new RecordHeaders();
-            headers.add("stream", streamName.getBytes(StandardCharsets.UTF_8));
+    public void writeLines(String streamName, byte[] lines) {
+        boolean full;
+        synchronized (this) {
+            var stream = streams.computeIfAbsent(streamName, x -> new StreamBuffer());
 
-            kafkaClient.send(new ProducerRecord<>(topic, /* partition */ 0, taskId, lines, headers)).get();
-        } catch (Exception e) {
-            logger.warn("Cannot send data to kafka: ", e);
+            if (buffered.get() + lines.length > MAX_BUFFERED_BYTES) {
+                stream.dropped += lines.length;
+                return;
+            }
+
+            appendDroppedNote(stream);
+            stream.append(lines);
+            buffered.addAndGet(lines.length);
+            full = !stream.ready.isEmpty();
+        }
+
+        if (full) {
+            flushAsync();
         }
     }
 
     @Override
-    public void writeEos(String streamName) throws IOException {
+    public void writeEos(String streamName) {
+        synchronized (this) {
+            var stream = streams.computeIfAbsent(streamName, x -> new StreamBuffer());
+            // Note is written even if the buffer is full, otherwise it is lost after EOS
+            appendDroppedNote(stream);
+            stream.eos = true;
+        }
+        flushAsync();
+    }
+
+    /**
+     * Sends all buffered logs and waits for their delivery
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(CLOSE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                logger.warn("Cannot stop kafka logs flusher of task {} in {}", taskId, CLOSE_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted while stopping kafka logs flusher of task {}", taskId);
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+        kafkaClient.close(CLOSE_TIMEOUT);
+
+        var failed = failedRecords.get();
+        if (failed > 0) {
+            logger.warn("{} log records of task {} were not delivered to kafka", failed, taskId);
+        }
+    }
+
+    private void appendDroppedNote(StreamBuffer stream) {
+        if (stream.dropped > 0) {
+            var note = ("... %d bytes of logs dropped ...\n".formatted(stream.dropped))
+                .getBytes(StandardCharsets.UTF_8);
+            stream.dropped = 0;
+            stream.append(note);
+            buffered.addAndGet(note.length);
+        }
+    }
+
+    private void flushAsync() {
+        if (!flushPending.compareAndSet(false, true)) {
+            return;
+        }
         try {
-            var headers = new RecordHeaders();
-            headers.add("stream", streamName.getBytes(StandardCharsets.UTF_8));
-            headers.add("eos", new byte[0]);
+            flusher.execute(() -> {
+                // Reset before flush, so lines written during it are flushed by the next one
+                flushPending.set(false);
+                flush();
+            });
+        } catch (Exception e) {
+            // Flusher is stopped, logs will be flushed on close
+            flushPending.set(false);
+        }
+    }
 
-            kafkaClient.send(new ProducerRecord<>(topic, /* partition */ 0, taskId, new byte[0], headers)).get();
+    private void flush() {
+        final Map<String, Chunks> chunks = new LinkedHashMap<>();
+        synchronized (this) {
+            for (var entry : streams.entrySet()) {
+                var stream = entry.getValue();
+                var records = stream.drain();
+                if (!records.isEmpty() || stream.eos) {
+                    chunks.put(entry.getKey(), new Chunks(records, stream.eos));
+                    stream.eos = false;
+                }
+            }
+        }
+
+        // Using single partition to manage global order of logs !!!
+        for (var entry : chunks.entrySet()) {
+            var streamName = entry.getKey().getBytes(StandardCharsets.UTF_8);
+
+            for (var record : entry.getValue().records()) {
+                var headers = new RecordHeaders();
+                headers.add("stream", streamName);
+                send(new ProducerRecord<>(topic, /* partition */ 0, taskId, record, headers), record.length);
+            }
+
+            if (entry.getValue().eos()) {
+                var headers = new RecordHeaders();
+                headers.add("stream", streamName);
+                headers.add("eos", new byte[0]);
+                send(new ProducerRecord<>(topic, /* partition */ 0, taskId, new byte[0], headers), 0);
+            }
+        }
+    }
+
+    private void send(ProducerRecord<String, byte[]> record, int size) {
+        try {
+            kafkaClient.send(record, (metadata, e) -> {
+                buffered.addAndGet(-size);
+                if (e != null) {
+                    if (failedRecords.getAndIncrement() == 0) {
+                        logger.warn("Cannot send data to kafka: ", e);
+                    }
+                }
+            });
         } catch (Exception e) {
-            logger.warn("Cannot send data to kafka: ", e);
+            buffered.addAndGet(-size);
+            if (failedRecords.getAndIncrement() == 0) {
+                logger.warn("Cannot send data to kafka: ", e);
+            }
+        }
+    }
+
+    private static Producer<String, byte[]> createProducer(LMO.KafkaTopicDescription topic, KafkaHelper helper) {
+        var props = helper.toProperties(topic.getUsername(), topic.getPassword());
+        props.put("compression.type", "lz4");
+        props.put("linger.ms", "20");
+        props.put("batch.size", String.valueOf(MAX_RECORD_SIZE));
+        props.put("buffer.memory", String.valueOf(2 * MAX_BUFFERED_BYTES));
+        return new KafkaProducer<>(props);
+    }
+
+    private static final class StreamBuffer {
+        private final List<byte[]> ready = new ArrayList<>();
+        private ByteArrayOutputStream current = new ByteArrayOutputStream();
+        private long dropped = 0;
+        private boolean eos = false;
+
+        void append(byte[] lines) {
+            if (current.size() > 0 && current.size() + lines.length > MAX_RECORD_SIZE) {
+                ready.add(current.toByteArray());
+                current = new ByteArrayOutputStream();
+            }
+            current.writeBytes(lines);
+        }
+
+        List<byte[]> drain() {
+            var records = new ArrayList<>(ready);
+            ready.clear();
+            if (current.size() > 0) {
+                records.add(current.toByteArray());
+                current = new ByteArrayOutputStream();
+            }
+            return records;
         }
     }
+
+    private record Chunks(List<byte[]> records, boolean eos) {}
 }
@@ -24,6 +24,16 @@ public class ServiceConfig {
     private int gpuCount;
     private String iamAddress;
 
+    // Allow consumers to read output slot data while the producer is still writing it
+    private boolean streamingOutputs = false;
+
+    // Max size of local cache of downloaded slot data, 0 disables it
+    private long slotsCacheSizeMb = 0;
+
+    // Worker-private directory of slot data cache, outside of mount point. It is cleared on start,
+    // cache is disabled if it is not set
+    private String slotsCacheDir = null;
+
     @ConfigurationBuilder("kafka")
     private final KafkaConfig kafka = new KafkaConfig();
 }
@@ -159,11 +159,13 @@ public class WorkerApiImpl extends WorkerApiGrpc.WorkerApiImplBase {
             }
         }
 
+        final var logsWriter = new KafkaLogsWriter(op.getKafkaTopic(), LOG, tid, kafkaHelper);
         final var logHandle = LogHandle.builder()
-            .withWriters(new KafkaLogsWriter(op.getKafkaTopic(), LOG, tid, kafkaHelper))
+            .withWriters(logsWriter)
             .build("out", "err");
 
-        try (logHandle) {
+        // logHandle is closed first, so all logs are delivered to writer before it is closed
+        try (logsWriter; logHandle) {
             LOG.info("Configure worker...");
 
             final AuxEnvironment env;
@@ -259,7 +261,10 @@ public class WorkerApiImpl extends WorkerApiGrpc.WorkerApiImplBase {
                     config.getVmId(),
                     iamChannel,
                     request.getWorkflowName(),
-                    requester.userId()
+                    requester.userId(),
+                    config.isStreamingOutputs(),
+                    config.getSlotsCacheDir() != null ? Path.of(config.getSlotsCacheDir()) : null,
+                    config.getSlotsCacheSizeMb() << 20
                 );
             } catch (IOException e) {
                 LOG.error("Cannot start slots server", e);
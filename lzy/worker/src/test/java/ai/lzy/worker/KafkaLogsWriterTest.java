@@ -0,0 +1,111 @@
+package ai.lzy.worker;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+public class KafkaLogsWriterTest {
+    private static final Logger LOG = LogManager.getLogger(KafkaLogsWriterTest.class);
+    private static final int MB = 1024 * 1024;
+
+    private MockProducer<String, byte[]> producer;
+    private KafkaLogsWriter writer;
+
+    @Before
+    public void setUp() {
+        // Records are not delivered until completed by test
+        producer = new MockProducer<>(false, new StringSerializer(), new ByteArraySerializer());
+        writer = new KafkaLogsWriter("topic", LOG, "task", producer);
+    }
+
+    @Test
+    public void linesAreCoalescedIntoRecords() {
+        var expected = new ByteArrayOutputStream();
+        for (int i = 0; i < 10_000; i++) {
+            var line = "line %d\n".formatted(i).getBytes(StandardCharsets.UTF_8);
+            expected.writeBytes(line);
+            writer.writeLines("out", line);
+        }
+        writer.writeEos("out");
+        writer.close();
+
+        var records = producer.history();
+        Assert.assertTrue(String.valueOf(records.size()), records.size() < 100);
+        Assert.assertTrue(isEos(records.get(records.size() - 1)));
+
+        var actual = new ByteArrayOutputStream();
+        for (var record : records.subList(0, records.size() - 1)) {
+            Assert.assertEquals("out", stream(record));
+            Assert.assertTrue(record.value().length <= KafkaLogsWriter.MAX_RECORD_SIZE);
+            actual.writeBytes(record.value());
+        }
+        Assert.assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    @Test
+    public void linesAreDroppedUntilBufferedLogsAreDelivered() throws Exception {
+        var line = new byte[MB];
+        for (long written = 0; written < KafkaLogsWriter.MAX_BUFFERED_BYTES; written += MB) {
+            writer.writeLines("out", line);
+        }
+
+        // Writer is not blocked by not delivered logs
+        writer.writeLines("out", "dropped\n".getBytes(StandardCharsets.UTF_8));
+        writer.writeLines("out", line);
+
+        int accepted = (int) (KafkaLogsWriter.MAX_BUFFERED_BYTES / MB);
+        awaitSent(accepted);
+        while (producer.completeNext()) {
+            // deliver all sent records
+        }
+
+        writer.writeLines("out", "tail\n".getBytes(StandardCharsets.UTF_8));
+        writer.close();
+
+        var records = producer.history();
+        var last = new String(records.get(records.size() - 1).value(), StandardCharsets.UTF_8);
+        Assert.assertEquals("... %d bytes of logs dropped ...\ntail\n".formatted(MB + "dropped\n".length()), last);
+        Assert.assertEquals(accepted + 1, records.size());
+    }
+
+    @Test
+    public void droppedBytesAreReportedBeforeEos() {
+        var line = new byte[MB];
+        for (long written = 0; written <= KafkaLogsWriter.MAX_BUFFERED_BYTES; written += MB) {
+            writer.writeLines("out", line);
+        }
+        writer.writeEos("out");
+        writer.close();
+
+        var records = producer.history();
+        Assert.assertTrue(isEos(records.get(records.size() - 1)));
+
+        var beforeEos = new String(records.get(records.size() - 2).value(), StandardCharsets.UTF_8);
+        Assert.assertTrue(beforeEos.endsWith("... %d bytes of logs dropped ...\n".formatted(MB)));
+    }
+
+    private void awaitSent(int count) throws InterruptedException {
+        var deadline = System.currentTimeMillis() + 5_000;
+        while (producer.history().size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(count, producer.history().size());
+    }
+
+    private static String stream(ProducerRecord<String, byte[]> record) {
+        return new String(record.headers().lastHeader("stream").value(), StandardCharsets.UTF_8);
+    }
+
+    private static boolean isEos(ProducerRecord<String, byte[]> record) {
+        return record.headers().lastHeader("eos") != null;
+    }
+}
@@ -22,6 +22,7 @@ import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -203,4 +204,30 @@ public class StorageClientTest {
             assertEquals(fileSize, Files.size(storageTestDir.resolve(filename)));
         }
     }
+
+    @Test
+    public void testExistingBlobs() throws IOException, InterruptedException {
+        var storageClient = getClient();
+
+        var source = storageTestDir.resolve("test-blob");
+        Files.writeString(source, "data");
+
+        var written = List.of("dir/blob-0", "dir/blob-1", "dir/sub/blob-2", "other/blob-3");
+        for (String key : written) {
+            storageClient.write(URI.create("s3://" + bucket + "/" + key), source);
+        }
+
+        var uris = List.of(
+            URI.create("s3://" + bucket + "/dir/blob-0"),
+            URI.create("s3://" + bucket + "/dir/blob-1"),
+            URI.create("s3://" + bucket + "/dir/missing"),
+            // is not listed with parent because of delimiter
+            URI.create("s3://" + bucket + "/dir/sub/blob-2"),
+            URI.create("s3://" + bucket + "/other/blob-3"),
+            URI.create("s3://" + bucket + "/missing/blob-4"));
+
+        assertEquals(
+            Set.of(uris.get(0), uris.get(1), uris.get(3), uris.get(4)),
+            storageClient.existingBlobs(uris));
+    }
 }
@@ -36,6 +36,10 @@ public class DelegatingTransactionHandle implements TransactionHandle {
         }
     }
 
+    public synchronized void afterCommit(Runnable action) {
+        transaction.afterCommit(action);
+    }
+
     @Override
     public synchronized void close() throws SQLException {
         if (!acquired) {
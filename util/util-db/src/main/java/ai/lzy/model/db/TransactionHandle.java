@@ -11,6 +11,12 @@ public interface TransactionHandle extends AutoCloseable {
 
     void commit() throws SQLException;
 
+    /**
+     * Runs action after transaction is committed, action is dropped if transaction is rolled back.
+     * Action must be fast and must not throw.
+     */
+    void afterCommit(Runnable action);
+
     @Override
     void close() throws SQLException;
 
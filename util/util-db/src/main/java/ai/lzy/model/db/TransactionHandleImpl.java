@@ -2,12 +2,15 @@ package ai.lzy.model.db;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 public final class TransactionHandleImpl implements TransactionHandle {
 
     private final Storage storage;
     private boolean committed = false;
     private Connection con = null;
+    private List<Runnable> afterCommit = null;
 
     TransactionHandleImpl(Storage storage) {
         this.storage = storage;
@@ -32,6 +35,18 @@ public final class TransactionHandleImpl implements TransactionHandle {
         }
         con.commit();
         committed = true;
+
+        if (afterCommit != null) {
+            afterCommit.forEach(Runnable::run);
+            afterCommit = null;
+        }
+    }
+
+    public synchronized void afterCommit(Runnable action) {
+        if (afterCommit == null) {
+            afterCommit = new ArrayList<>(1);
+        }
+        afterCommit.add(action);
     }
 
     @Override
@@ -41,6 +56,7 @@ public final class TransactionHandleImpl implements TransactionHandle {
         }
         if (!committed) {
             con.rollback();
+            afterCommit = null;
         }
         con.setAutoCommit(true);
         con.close();
@@ -4,6 +4,7 @@ import com.google.common.net.HostAndPort;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
 import io.grpc.Status;
+import io.grpc.netty.NettyChannelBuilder;
 
 import java.net.InetSocketAddress;
 import java.util.*;
@@ -27,6 +28,7 @@ public class ChannelBuilder {
     private double backoffMultiplier;
 
     private List<String> retryableStatusCodes;
+    private int initialFlowControlWindow = 0;
 
     private ChannelBuilder(String host, int port) {
         this.host = host;
@@ -105,8 +107,22 @@ public class ChannelBuilder {
         return this;
     }
 
+    /**
+     * Initial HTTP/2 flow control window in bytes, it is tuned automatically afterwards.
+     * Large window lets bulk transfers fill the link without waiting for window updates.
+     */
+    public ChannelBuilder initialFlowControlWindow(int bytes) {
+        this.initialFlowControlWindow = bytes;
+        return this;
+    }
+
     public ManagedChannel build() {
-        var builder = ManagedChannelBuilder.forAddress(host, port);
+        ManagedChannelBuilder<?> builder;
+        if (initialFlowControlWindow > 0) {
+            builder = NettyChannelBuilder.forAddress(host, port).initialFlowControlWindow(initialFlowControlWindow);
+        } else {
+            builder = ManagedChannelBuilder.forAddress(host, port);
+        }
         if (!tls) {
             builder.usePlaintext();
         }
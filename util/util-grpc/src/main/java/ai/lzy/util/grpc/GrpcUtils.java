@@ -9,7 +9,9 @@ import io.grpc.StatusException;
 import io.grpc.StatusRuntimeException;
 import io.grpc.netty.NettyServerBuilder;
 import io.grpc.protobuf.services.ProtoReflectionService;
+import io.grpc.stub.AbstractAsyncStub;
 import io.grpc.stub.AbstractBlockingStub;
+import io.grpc.stub.AbstractStub;
 import jakarta.annotation.Nullable;
 import org.apache.logging.log4j.Logger;
 
@@ -43,6 +45,18 @@ public final class GrpcUtils {
 
     public static <T extends AbstractBlockingStub<T>> T newBlockingClient(T stub, String name,
                                                                           @Nullable Supplier<String> token)
+    {
+        return withClientInterceptors(stub, name, token);
+    }
+
+    public static <T extends AbstractAsyncStub<T>> T newAsyncClient(T stub, String name,
+                                                                    @Nullable Supplier<String> token)
+    {
+        return withClientInterceptors(stub, name, token);
+    }
+
+    private static <T extends AbstractStub<T>> T withClientInterceptors(T stub, String name,
+                                                                        @Nullable Supplier<String> token)
     {
         if (token != null) {
             return stub.withInterceptors(
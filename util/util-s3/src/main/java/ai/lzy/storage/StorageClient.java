@@ -5,6 +5,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Blocking client to user's data storage (e.g., AmazonS3 or AzureBlobsStorage).
@@ -12,7 +15,28 @@ import java.nio.file.Path;
 public interface StorageClient {
     void read(URI uri, Path destination) throws InterruptedException, IOException;
     void read(URI uri, OutputStream destination) throws InterruptedException, IOException;
+
+    /**
+     * Reads range [offset, offset + length) of blob.
+     */
+    void read(URI uri, long offset, long length, OutputStream destination) throws InterruptedException, IOException;
+
+    long blobSize(URI uri) throws IOException;
     void write(URI uri, Path source) throws InterruptedException, IOException;
     void write(URI uri, InputStream source) throws InterruptedException, IOException;
     boolean blobExists(URI uri) throws IOException;
+
+    /**
+     * Returns existing blobs of given ones. Implementation can check blobs with common parent by listing it,
+     * which is cheaper than per-blob requests for large number of blobs.
+     */
+    default Set<URI> existingBlobs(Collection<URI> uris) throws IOException {
+        var existing = new HashSet<URI>();
+        for (var uri : uris) {
+            if (blobExists(uri)) {
+                existing.add(uri);
+            }
+        }
+        return existing;
+    }
 }
@@ -4,6 +4,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import ru.yandex.qe.s3.transfer.Transmitter;
 import ru.yandex.qe.s3.transfer.download.DownloadRequest;
+import ru.yandex.qe.s3.transfer.download.DownloadRequestBuilder;
 import ru.yandex.qe.s3.transfer.upload.UploadRequest;
 
 import java.io.*;
@@ -18,7 +19,7 @@ public abstract class StorageClientWithTransmitter implements StorageClient {
 
     protected abstract Transmitter transmitter();
 
-    protected abstract DownloadRequest downloadRequest(URI uri);
+    protected abstract DownloadRequestBuilder downloadRequest(URI uri);
 
     protected abstract UploadRequest uploadRequest(URI uri, InputStream source);
 
@@ -30,8 +31,20 @@ public abstract class StorageClientWithTransmitter implements StorageClient {
 
     @Override
     public void read(URI uri, OutputStream destination) throws InterruptedException, IOException {
+        read(downloadRequest(uri).build(), destination);
+    }
+
+    @Override
+    public void read(URI uri, long offset, long length, OutputStream destination)
+        throws InterruptedException, IOException
+    {
+        // End of range is exclusive in DownloadProcessingLoop
+        read(downloadRequest(uri).range(offset, offset + length).build(), destination);
+    }
 
-        var downloadRequest = downloadRequest(uri);
+    private void read(DownloadRequest downloadRequest, OutputStream destination)
+        throws InterruptedException, IOException
+    {
         var future = transmitter().downloadC(downloadRequest, data -> {
             try (var source = new BufferedInputStream(data.getInputStream())) {
                 source.transferTo(destination);
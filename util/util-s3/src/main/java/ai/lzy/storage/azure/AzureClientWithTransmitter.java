@@ -7,7 +7,6 @@ import com.azure.storage.blob.BlobServiceClientBuilder;
 import com.azure.storage.blob.BlobUrlParts;
 import com.google.common.util.concurrent.MoreExecutors;
 import ru.yandex.qe.s3.transfer.Transmitter;
-import ru.yandex.qe.s3.transfer.download.DownloadRequest;
 import ru.yandex.qe.s3.transfer.download.DownloadRequestBuilder;
 import ru.yandex.qe.s3.transfer.upload.UploadRequest;
 import ru.yandex.qe.s3.transfer.upload.UploadRequestBuilder;
@@ -44,11 +43,11 @@ public final class AzureClientWithTransmitter extends StorageClientWithTransmitt
     }
 
     @Override
-    protected DownloadRequest downloadRequest(URI uri) {
+    protected DownloadRequestBuilder downloadRequest(URI uri) {
         try {
             var azureUrl = BlobUrlParts.parse(uri.toURL());
             return new DownloadRequestBuilder().bucket(azureUrl.getBlobContainerName())
-                .key(azureUrl.getBlobName()).build();
+                .key(azureUrl.getBlobName());
         } catch (IOException ioe) {
             throw new RuntimeException(ioe);
         }
@@ -65,6 +64,13 @@ public final class AzureClientWithTransmitter extends StorageClientWithTransmitt
         }
     }
 
+    @Override
+    public long blobSize(URI uri) throws IOException {
+        var azureUrl = BlobUrlParts.parse(uri.toURL());
+        return azureClient.getBlobContainerClient(azureUrl.getBlobContainerName())
+            .getBlobClient(azureUrl.getBlobName()).getProperties().getBlobSize();
+    }
+
     @Override
     public boolean blobExists(URI uri) throws IOException {
         var azureUrl = BlobUrlParts.parse(uri.toURL());
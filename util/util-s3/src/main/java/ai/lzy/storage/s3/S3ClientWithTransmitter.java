@@ -6,10 +6,11 @@ import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.AmazonS3URI;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.google.common.util.concurrent.MoreExecutors;
 import ru.yandex.qe.s3.amazon.transfer.AmazonTransmitterFactory;
 import ru.yandex.qe.s3.transfer.Transmitter;
-import ru.yandex.qe.s3.transfer.download.DownloadRequest;
 import ru.yandex.qe.s3.transfer.download.DownloadRequestBuilder;
 import ru.yandex.qe.s3.transfer.upload.UploadRequest;
 import ru.yandex.qe.s3.transfer.upload.UploadRequestBuilder;
@@ -17,10 +18,18 @@ import ru.yandex.qe.s3.transfer.upload.UploadRequestBuilder;
 import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 
+import static java.util.stream.Collectors.groupingBy;
+
 
 public final class S3ClientWithTransmitter extends StorageClientWithTransmitter {
+    // Listing stops after this number of keys per requested blob, rest of blobs are checked one by one
+    private static final int MAX_LISTED_KEYS_PER_BLOB = 10;
+
     private final AmazonS3 amazonS3Client;
     private final Transmitter transmitter;
 
@@ -51,10 +60,10 @@ public final class S3ClientWithTransmitter extends StorageClientWithTransmitter
     }
 
     @Override
-    protected DownloadRequest downloadRequest(URI uri) {
+    protected DownloadRequestBuilder downloadRequest(URI uri) {
         var amazonUri = new AmazonS3URI(uri);
         return new DownloadRequestBuilder().bucket(amazonUri.getBucket())
-            .key(amazonUri.getKey()).build();
+            .key(amazonUri.getKey());
     }
 
     @Override
@@ -64,9 +73,55 @@ public final class S3ClientWithTransmitter extends StorageClientWithTransmitter
             .stream(() -> new BufferedInputStream(source)).build();
     }
 
+    @Override
+    public long blobSize(URI uri) {
+        var amazonUri = new AmazonS3URI(uri);
+        return amazonS3Client.getObjectMetadata(amazonUri.getBucket(), amazonUri.getKey()).getContentLength();
+    }
+
     @Override
     public boolean blobExists(URI uri) {
         var amazonUri = new AmazonS3URI(uri);
         return amazonS3Client.doesObjectExist(amazonUri.getBucket(), amazonUri.getKey());
     }
+
+    @Override
+    public Set<URI> existingBlobs(Collection<URI> uris) {
+        var existing = new HashSet<URI>();
+
+        var byParent = uris.stream().collect(groupingBy(uri -> {
+            var amazonUri = new AmazonS3URI(uri);
+            var key = amazonUri.getKey();
+            return new Parent(amazonUri.getBucket(), key.substring(0, key.lastIndexOf('/') + 1));
+        }));
+
+        for (var entry : byParent.entrySet()) {
+            var parent = entry.getKey();
+            var blobs = entry.getValue();
+
+            var listed = new HashSet<String>();
+            var request = new ListObjectsV2Request()
+                .withBucketName(parent.bucket())
+                .withPrefix(parent.prefix())
+                .withDelimiter("/");
+
+            boolean truncated;
+            do {
+                var result = amazonS3Client.listObjectsV2(request);
+                result.getObjectSummaries().stream().map(S3ObjectSummary::getKey).forEach(listed::add);
+                truncated = result.isTruncated();
+                request.setContinuationToken(result.getNextContinuationToken());
+            } while (truncated && listed.size() < MAX_LISTED_KEYS_PER_BLOB * blobs.size());
+
+            for (var uri : blobs) {
+                if (listed.contains(new AmazonS3URI(uri).getKey()) || (truncated && blobExists(uri))) {
+                    existing.add(uri);
+                }
+            }
+        }
+
+        return existing;
+    }
+
+    private record Parent(String bucket, String prefix) {}
 }